@@ -1,10 +1,13 @@
 package com.java110.agent;
 
+import com.java110.config.properties.EventExecutorProperties;
 import com.java110.core.annotation.Java110ListenerDiscovery;
 import com.java110.event.service.BusinessServiceDataFlowEventPublishing;
 import com.java110.service.init.ServiceStartInit;
+import com.java110.core.factory.HttpClientFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
@@ -27,6 +30,7 @@ import java.nio.charset.Charset;
  */
 @SpringBootApplication(scanBasePackages={"com.java110.service","com.java110.agent","com.java110.core","com.java110.cache"})
 @EnableDiscoveryClient
+@EnableConfigurationProperties(EventExecutorProperties.class)
 @Java110ListenerDiscovery(listenerPublishClass = BusinessServiceDataFlowEventPublishing.class,
         basePackages = {"com.java110.agent.listener"})
 public class AgentServiceApplicationStart {
@@ -40,7 +44,7 @@ public class AgentServiceApplicationStart {
     @LoadBalanced
     public RestTemplate restTemplate() {
         StringHttpMessageConverter m = new StringHttpMessageConverter(Charset.forName("UTF-8"));
-        RestTemplate restTemplate = new RestTemplateBuilder().additionalMessageConverters(m).build();
+        RestTemplate restTemplate = new RestTemplateBuilder().requestFactory(HttpClientFactory.getRequestFactory()).additionalMessageConverters(m).build();
         return restTemplate;
     }
 
@@ -1,11 +1,14 @@
 package com.java110.api;
 
+import com.java110.config.properties.EventExecutorProperties;
 import com.java110.core.annotation.Java110ListenerDiscovery;
 import com.java110.event.service.api.ServiceDataFlowEventPublishing;
 import com.java110.service.init.ServiceStartInit;
 import io.swagger.annotations.ApiOperation;
+import com.java110.core.factory.HttpClientFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
@@ -35,6 +38,7 @@ import java.nio.charset.Charset;
  */
 @SpringBootApplication(scanBasePackages={"com.java110.service","com.java110.api","com.java110.core","com.java110.event.service.api","com.java110.cache"})
 @EnableDiscoveryClient
+@EnableConfigurationProperties(EventExecutorProperties.class)
 @Java110ListenerDiscovery(listenerPublishClass = ServiceDataFlowEventPublishing.class,
         basePackages = {"com.java110.api.listener"})
 @EnableSwagger2
@@ -49,7 +53,7 @@ public class ApiApplicationStart {
     @LoadBalanced
     public RestTemplate restTemplate() {
         StringHttpMessageConverter m = new StringHttpMessageConverter(Charset.forName("UTF-8"));
-        RestTemplate restTemplate = new RestTemplateBuilder().additionalMessageConverters(m).build();
+        RestTemplate restTemplate = new RestTemplateBuilder().requestFactory(HttpClientFactory.getRequestFactory()).additionalMessageConverters(m).build();
         return restTemplate;
     }
 
@@ -60,7 +64,7 @@ public class ApiApplicationStart {
     @Bean
     public RestTemplate restTemplateNoLoadBalanced() {
         StringHttpMessageConverter m = new StringHttpMessageConverter(Charset.forName("UTF-8"));
-        RestTemplate restTemplate = new RestTemplateBuilder().additionalMessageConverters(m).build();
+        RestTemplate restTemplate = new RestTemplateBuilder().requestFactory(HttpClientFactory.getRequestFactory()).additionalMessageConverters(m).build();
         return restTemplate;
     }
 
@@ -4,6 +4,7 @@ import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.java110.api.smo.IApiServiceSMO;
 import com.java110.common.cache.AppRouteCache;
+import com.java110.common.cache.AppRouteIndex;
 import com.java110.common.cache.MappingCache;
 import com.java110.common.constant.*;
 import com.java110.common.exception.*;
@@ -16,7 +17,6 @@ import com.java110.core.context.DataFlow;
 import com.java110.core.factory.AuthenticationFactory;
 import com.java110.core.factory.DataFlowFactory;
 import com.java110.core.factory.GenerateCodeFactory;
-import com.java110.entity.center.AppRoute;
 import com.java110.entity.center.AppService;
 import com.java110.entity.center.DataFlowLinksCost;
 import com.java110.event.service.api.ServiceDataFlowEventPublishing;
@@ -188,16 +188,14 @@ public class ApiServiceSMOImpl extends LoggerEngine implements IApiServiceSMO {
     private void initConfigData(ApiDataFlow dataFlow) {
         Date startDate = DateUtil.getCurrentDate();
         //查询配置信息，并将配置信息封装到 dataFlow 对象中
-        List<AppRoute> appRoutes = AppRouteCache.getAppRoute(dataFlow.getAppId());
+        AppRouteIndex appRouteIndex = AppRouteCache.getAppRouteIndex(dataFlow.getAppId());
 
-        if (appRoutes == null) {
+        if (appRouteIndex == null) {
             //添加耗时
             DataFlowFactory.addCostTime(dataFlow, "initConfigData", "加载配置耗时", startDate);
             throw new InitConfigDataException(ResponseConstant.RESULT_CODE_INNER_ERROR,"当前没有获取到AppId对应的信息，appId = "+dataFlow.getAppId());
         }
-        for(AppRoute appRoute: appRoutes) {
-            dataFlow.addAppRoutes(appRoute);
-        }
+        dataFlow.setAppRouteIndex(appRouteIndex);
         //
         if("-1".equals(dataFlow.getDataFlowId()) || StringUtil.isNullOrNone(dataFlow.getDataFlowId())){
             dataFlow.setDataFlowId(GenerateCodeFactory.getDataFlowId());
@@ -257,17 +255,8 @@ public class ApiServiceSMOImpl extends LoggerEngine implements IApiServiceSMO {
         }
 
 
-        //检验白名单
-        List<String> whileListIp = dataFlow.getAppRoutes().get(0).getWhileListIp();
-        if (whileListIp != null && whileListIp.size() > 0 && !whileListIp.contains(dataFlow.getIp())) {
-            //添加耗时
-            DataFlowFactory.addCostTime(dataFlow, "judgeAuthority", "鉴权耗时", startDate);
-            throw new NoAuthorityException(ResponseConstant.RESULT_CODE_NO_AUTHORITY_ERROR, "当前IP被限制不能访问服务");
-        }
-
-        //检查黑名单
-        List<String> backListIp = dataFlow.getAppRoutes().get(0).getBackListIp();
-        if (backListIp != null && backListIp.size() > 0&& backListIp.contains(dataFlow.getIp())) {
+        //检验白名单 黑名单，支持 CIDR 网段
+        if (!DataFlowFactory.isIpAllowed(dataFlow)) {
             //添加耗时
             DataFlowFactory.addCostTime(dataFlow, "judgeAuthority", "鉴权耗时", startDate);
             throw new NoAuthorityException(ResponseConstant.RESULT_CODE_NO_AUTHORITY_ERROR, "当前IP被限制不能访问服务");
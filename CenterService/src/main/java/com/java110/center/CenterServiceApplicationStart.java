@@ -2,12 +2,16 @@ package com.java110.center;
 
 import com.java110.center.smo.ICenterServiceCacheSMO;
 import com.java110.common.factory.ApplicationContextFactory;
+import com.java110.config.properties.CenterProperties;
+import com.java110.config.properties.EventExecutorProperties;
 import com.java110.core.annotation.Java110ListenerDiscovery;
 import com.java110.event.center.DataFlowEventPublishing;
 import com.java110.event.center.init.EventConfigInit;
 import com.java110.service.init.ServiceStartInit;
+import com.java110.core.factory.HttpClientFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
@@ -31,6 +35,7 @@ import java.nio.charset.Charset;
 @SpringBootApplication(scanBasePackages={"com.java110.service","com.java110.center","com.java110.core","com.java110.event.center","com.java110.cache"})
 @EnableDiscoveryClient
 //@EnableConfigurationProperties(EventProperties.class)
+@EnableConfigurationProperties({CenterProperties.class, EventExecutorProperties.class})
 @Java110ListenerDiscovery(listenerPublishClass = DataFlowEventPublishing.class,
         basePackages = {"com.java110.center.listener"})
 public class CenterServiceApplicationStart {
@@ -43,7 +48,7 @@ public class CenterServiceApplicationStart {
     @LoadBalanced
     public RestTemplate restTemplate() {
         StringHttpMessageConverter m = new StringHttpMessageConverter(Charset.forName("UTF-8"));
-        RestTemplate restTemplate = new RestTemplateBuilder().additionalMessageConverters(m).build();
+        RestTemplate restTemplate = new RestTemplateBuilder().requestFactory(HttpClientFactory.getRequestFactory()).additionalMessageConverters(m).build();
         return restTemplate;
     }
 
@@ -54,7 +59,7 @@ public class CenterServiceApplicationStart {
     @Bean
     public RestTemplate restTemplateNoLoadBalanced() {
         StringHttpMessageConverter m = new StringHttpMessageConverter(Charset.forName("UTF-8"));
-        RestTemplate restTemplate = new RestTemplateBuilder().additionalMessageConverters(m).build();
+        RestTemplate restTemplate = new RestTemplateBuilder().requestFactory(HttpClientFactory.getRequestFactory()).additionalMessageConverters(m).build();
         return restTemplate;
     }
 
@@ -68,7 +68,14 @@ public interface ICenterServiceDAO {
     public void updateBusinessByBId(Map business) throws DAOException;
 
     /**
-     * 当所有业务动作是否都是C，将订单信息改为 C
+     * 根据bId 将业务项改为 business 过程完成，同一个事务中扣减订单未完成的业务项数(c_orders.business_remain)
+     * @param business
+     * @throws DAOException
+     */
+    public void completeBusinessByBId(Map business) throws DAOException;
+
+    /**
+     * 当前业务项为 C 时，将业务项所在的订单改为 C
      * @param bId
      * @return
      * @throws DAOException
@@ -77,6 +84,7 @@ public interface ICenterServiceDAO {
 
     /**
      * 判断 business 过程是否完成 1 表示完成 0表示未完成
+     * 同一个订单只有一个调用方返回 1，并发通知时不会重复发起 Instance
      * @param oId
      * @return
      * @throws DAOException
@@ -22,6 +22,9 @@ import java.util.Map;
 @Transactional
 public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServiceDAO {
 
+    //批量插入时 每条sql 最多插入的行数
+    private final static int BATCH_INSERT_SIZE = 500;
+
     /**
      * 保存订单信息
      * @param order 订单信息
@@ -30,7 +33,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
     @Override
     public void saveOrder(Map order) throws DAOException{
 
-        LoggerEngine.debug("----【CenterServiceDAOImpl.saveOrder】保存数据入参 : " + JSONObject.toJSONString(order));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.saveOrder】保存数据入参 : {}", LoggerEngine.toJson(order));
 
         int saveFlag = sqlSessionTemplate.insert("centerServiceDAOImpl.saveOrder",order);
         if(saveFlag < 1){
@@ -47,14 +50,9 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
     @Override
     public void saveOrderAttrs(List<Map> orderAttrs) throws DAOException {
 
-        LoggerEngine.debug("----【CenterServiceDAOImpl.saveOrderAttrs】保存数据入参 : " + JSONObject.toJSONString(orderAttrs));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.saveOrderAttrs】保存数据入参 : {}", LoggerEngine.toJson(orderAttrs));
 
-        for(Map orderAttr:orderAttrs){
-            int saveFlag = sqlSessionTemplate.insert("centerServiceDAOImpl.saveOrderAttrs",orderAttr);
-            if(saveFlag < 1){
-                throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR,"保存订单属性信息失败："+ JSONObject.toJSONString(orderAttr));
-            }
-        }
+        batchInsert("centerServiceDAOImpl.saveOrderAttrsBatch",orderAttrs,"保存订单属性信息失败：");
     }
 
     /**
@@ -64,7 +62,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
     @Override
     public void saveBusiness(Map business) throws DAOException {
 
-        LoggerEngine.debug("----【CenterServiceDAOImpl.saveBusiness】保存数据入参 : " + JSONObject.toJSONString(business));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.saveBusiness】保存数据入参 : {}", LoggerEngine.toJson(business));
             int saveFlag = sqlSessionTemplate.insert("centerServiceDAOImpl.saveBusiness", business);
             if (saveFlag < 1) {
                 throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR, "保存订单项信息失败：" + JSONObject.toJSONString(business));
@@ -78,13 +76,8 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
     @Override
     public void saveBusiness(List<Map> businesses) throws DAOException {
 
-        LoggerEngine.debug("----【CenterServiceDAOImpl.saveBusiness】保存数据入参 : " + JSONObject.toJSONString(businesses));
-        for(Map business:businesses) {
-            int saveFlag = sqlSessionTemplate.insert("centerServiceDAOImpl.saveBusiness", business);
-            if (saveFlag < 1) {
-                throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR, "保存订单项信息失败：" + JSONObject.toJSONString(business));
-            }
-        }
+        LoggerEngine.debug("----【CenterServiceDAOImpl.saveBusiness】保存数据入参 : {}", LoggerEngine.toJson(businesses));
+        batchInsert("centerServiceDAOImpl.saveBusinessBatch",businesses,"保存订单项信息失败：");
     }
 
     /**
@@ -94,12 +87,27 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
     @Override
     public void saveBusinessAttrs(List<Map> businessAttrs) throws DAOException {
 
-        LoggerEngine.debug("----【CenterServiceDAOImpl.saveBusinessAttrs】保存数据入参 : " + JSONObject.toJSONString(businessAttrs));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.saveBusinessAttrs】保存数据入参 : {}", LoggerEngine.toJson(businessAttrs));
+
+        batchInsert("centerServiceDAOImpl.saveBusinessAttrsBatch",businessAttrs,"保存订单项属性信息失败：");
+    }
 
-        for(Map businessAttr:businessAttrs){
-            int saveFlag = sqlSessionTemplate.insert("centerServiceDAOImpl.saveBusinessAttrs",businessAttr);
-            if(saveFlag < 1){
-                throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR,"保存订单项属性信息失败："+ JSONObject.toJSONString(businessAttr));
+    /**
+     * 多行 values 批量插入，每 BATCH_INSERT_SIZE 条一次数据库交互
+     * @param statement sql id
+     * @param rows 数据
+     * @param errorMsg 失败提示
+     * @throws DAOException
+     */
+    private void batchInsert(String statement,List<Map> rows,String errorMsg) throws DAOException{
+        if(rows == null || rows.size() == 0){
+            return ;
+        }
+        for(int fromIndex = 0; fromIndex < rows.size(); fromIndex += BATCH_INSERT_SIZE){
+            List<Map> subRows = rows.subList(fromIndex, Math.min(fromIndex + BATCH_INSERT_SIZE, rows.size()));
+            int saveFlag = sqlSessionTemplate.insert(statement,subRows);
+            if(saveFlag < subRows.size()){
+                throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR,errorMsg+ JSONObject.toJSONString(subRows));
             }
         }
     }
@@ -111,7 +119,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
      */
     @Override
     public void updateOrder(Map order) throws DAOException {
-        LoggerEngine.debug("----【CenterServiceDAOImpl.updateOrder】保存数据入参 : " + JSONObject.toJSONString(order));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.updateOrder】保存数据入参 : {}", LoggerEngine.toJson(order));
 
         int saveFlag = sqlSessionTemplate.update("centerServiceDAOImpl.updateOrder",order);
         if(saveFlag < 1){
@@ -126,7 +134,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
      */
     @Override
     public void updateBusiness(Map order) throws DAOException {
-        LoggerEngine.debug("----【CenterServiceDAOImpl.updateBusiness】保存数据入参 : " + JSONObject.toJSONString(order));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.updateBusiness】保存数据入参 : {}", LoggerEngine.toJson(order));
 
         int saveFlag = sqlSessionTemplate.update("centerServiceDAOImpl.updateBusiness",order);
         if(saveFlag < 1){
@@ -140,7 +148,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
      * @throws DAOException
      */
     public void updateBusinessByBId(Map business) throws DAOException{
-        LoggerEngine.debug("----【CenterServiceDAOImpl.updateBusinessByBId】保存数据入参 : " + JSONObject.toJSONString(business));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.updateBusinessByBId】保存数据入参 : {}", LoggerEngine.toJson(business));
 
         int saveFlag = sqlSessionTemplate.update("centerServiceDAOImpl.updateBusinessByBId",business);
         if(saveFlag < 1){
@@ -149,36 +157,58 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
     }
 
     /**
-     * 当所有业务动作是否都是C，将订单信息改为 C
+     * Business 过程完成，修改业务项状态并扣减订单未完成的业务项数
+     *
+     * 两条单表 update 在同一个事务中执行，业务项状态修改成功才扣减，
+     * 重复通知时业务项状态已经是完成，行锁保证只有一个通知扣减
+     * @param business
+     * @throws DAOException
+     */
+    public void completeBusinessByBId(Map business) throws DAOException{
+        LoggerEngine.debug("----【CenterServiceDAOImpl.completeBusinessByBId】保存数据入参 : {}", LoggerEngine.toJson(business));
+
+        int updateFlag = sqlSessionTemplate.update("centerServiceDAOImpl.completeBusinessByBId",business);
+        if(updateFlag < 1){
+            //状态没有变化（重复通知）或者业务项已经失败，不扣减，按原来的方式更新，失败时抛出异常
+            updateBusinessByBId(business);
+            return ;
+        }
+        sqlSessionTemplate.update("centerServiceDAOImpl.decreaseBusinessRemainByBId",business);
+    }
+
+    /**
+     * 当前业务项为 C 时，将业务项所在的订单改为 C
      * @param bId
      * @return
      * @throws DAOException
      */
     public void completeOrderByBId(String bId) throws DAOException{
-        LoggerEngine.debug("----【CenterServiceDAOImpl.completeOrderByBId】数据入参 : " + bId);
+        LoggerEngine.debug("----【CenterServiceDAOImpl.completeOrderByBId】数据入参 : {}", bId);
 
         int updateFlag = sqlSessionTemplate.update("centerServiceDAOImpl.completeOrderByBId",bId);
 
         if(updateFlag < 1){
             //throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR,"当前业务还没有全完成（C）："+ bId);
-            logger.debug("当前业务还没有全完成（C）:"+bId);
+            logger.debug("当前业务还没有全完成（C）:{}", bId);
         }
     }
 
     /**
      * 判断 business 过程是否完成 1 表示完成 0表示未完成
+     *
+     * 未完成业务项数为0 时将其改为 -1，只有改成功的调用方返回1，按主键更新不需要扫描 c_business
      * @param oId
      * @return
      * @throws DAOException
      */
     public int judgeAllBusinessCompleted(String oId,String statusCd) throws DAOException{
-        LoggerEngine.debug("----【CenterServiceDAOImpl.judgeAllBusinessCompleted】数据入参 :oId= " + oId + ",statusCd = " + statusCd);
+        LoggerEngine.debug("----【CenterServiceDAOImpl.judgeAllBusinessCompleted】数据入参 :oId= {},statusCd = {}", oId, statusCd);
         Map paramIn = new HashMap();
         paramIn.put("oId",oId);
         paramIn.put("statusCd",statusCd);
 
-        List<Map> paramOuts = sqlSessionTemplate.selectList("centerServiceDAOImpl.judgeAllBusinessCompleted",paramIn);
-        if(paramOuts == null || paramOuts.size() == 0){
+        int updateFlag = sqlSessionTemplate.update("centerServiceDAOImpl.judgeAllBusinessCompleted",paramIn);
+        if(updateFlag < 1){
             return 0;
         }
         return 1;
@@ -191,7 +221,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
      * @throws DAOException
      */
     public int judgeAllBusinessDeleteOrder(String oId,String statusCd) throws DAOException{
-        LoggerEngine.debug("----【CenterServiceDAOImpl.judgeAllBusinessDeleteOrder】数据入参 :oId= " + oId + ",statusCd = " + statusCd);
+        LoggerEngine.debug("----【CenterServiceDAOImpl.judgeAllBusinessDeleteOrder】数据入参 :oId= {},statusCd = {}", oId, statusCd);
         Map paramIn = new HashMap();
         paramIn.put("oId",oId);
         paramIn.put("statusCd",statusCd);
@@ -238,7 +268,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
      * @throws DAOException
      */
     public List<Map> getCommonOrderCompledBusinessByBId(String bId) throws DAOException{
-        LoggerEngine.debug("----【CenterServiceDAOImpl.getCommonOrderCompledBusinessByBId】数据入参 : " + bId);
+        LoggerEngine.debug("----【CenterServiceDAOImpl.getCommonOrderCompledBusinessByBId】数据入参 : {}", bId);
         return sqlSessionTemplate.selectList("centerServiceDAOImpl.getCommonOrderCompledBusinessByBId",bId);
     }
 
@@ -264,7 +294,7 @@ public class CenterServiceDAOImpl extends BaseServiceDao implements ICenterServi
      * @throws DAOException
      */
     public List<Map> getBusinessByOId(Map info) throws DAOException{
-        LoggerEngine.debug("----【CenterServiceDAOImpl.getBusinessByOId】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【CenterServiceDAOImpl.getBusinessByOId】保存数据入参 : {}", LoggerEngine.toJson(info));
 
         return sqlSessionTemplate.selectList("centerServiceDAOImpl.getBusinessByOId",info);
     }
@@ -122,12 +122,11 @@ public class CenterServiceCacheSMOImpl implements ICenterServiceCacheSMO {
         if(serviceSqls == null || serviceSqls.size() == 0){
             return;
         }
-        //删除原始数据
-        ServiceSqlCache.removeData(ServiceSqlCache._SUFFIX_SERVICE_SQL);
+        //批量覆盖写入，并删除已经不存在的数据
+        ServiceSqlCache.resetServiceSqls(serviceSqls);
 
-        for(ServiceSql serviceSql: serviceSqls){
-            ServiceSqlCache.setServiceSql(serviceSql);
-        }
+        //刷新版本号，通知各服务重新编译查询计划
+        ServiceSqlCache.flushVersion();
     }
 
 
@@ -162,28 +161,11 @@ public class CenterServiceCacheSMOImpl implements ICenterServiceCacheSMO {
 
     private void doFlushMapping() {
         List<Mapping> mappings = centerServiceDAOImpl.getMappingInfoAll();
-        //删除原始数据
-        MappingCache.removeData(MappingCache._SUFFIX_MAPPING);
-        for(Mapping mapping : mappings){
-            MappingCache.setVaule(mapping);
-        }
+        //批量覆盖写入单个映射和按域分组的映射，并删除已经不存在的数据
+        MappingCache.resetValues(mappings);
 
-        Map<String,List<Mapping>> mappingMap = new HashMap<String,List<Mapping>>();
-        List<Mapping> mappingsNew = null;
-        for(Mapping mapping : mappings){
-            if(mappingMap.containsKey(mapping.getDomain())){
-                mappingsNew = mappingMap.get(mapping.getDomain());
-                mappingsNew.add(mapping);
-            }else{
-                mappingsNew = new ArrayList<Mapping>();
-                mappingsNew.add(mapping);
-                mappingMap.put(mapping.getDomain(),mappingsNew);
-            }
-        }
-
-        for (String domain : mappingMap.keySet()) {
-            MappingCache.setValue(mappingMap.get(domain));
-        }
+        //刷新版本号，通知各服务清空本地映射缓存
+        MappingCache.flushVersion();
     }
 
     /**
@@ -229,12 +211,10 @@ public class CenterServiceCacheSMOImpl implements ICenterServiceCacheSMO {
                 appRoustsMap.put(appInfo.get("app_id").toString(),appRoutes);
             }
         }
-        //删除原始数据
-        AppRouteCache.removeData(AppRouteCache._SUFFIX_APP_ROUTE);
-
-        for (String appId : appRoustsMap.keySet()) {
-            AppRouteCache.setAppRoute(appRoustsMap.get(appId));
-        }
+        //批量覆盖写入，并删除已经不存在的数据
+        AppRouteCache.resetAppRoutes(appRoustsMap);
+        //版本号加一，各服务重新加载本地路由索引
+        AppRouteCache.flushVersion();
     }
 
     public ICenterServiceDAO getCenterServiceDAOImpl() {
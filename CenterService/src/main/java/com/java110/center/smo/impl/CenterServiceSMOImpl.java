@@ -4,7 +4,9 @@ import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.java110.center.dao.ICenterServiceDAO;
 import com.java110.center.smo.ICenterServiceSMO;
+import com.java110.center.thread.BusinessInvokeExecutor;
 import com.java110.common.cache.AppRouteCache;
+import com.java110.common.cache.AppRouteIndex;
 import com.java110.common.cache.MappingCache;
 import com.java110.common.constant.*;
 import com.java110.common.exception.*;
@@ -20,7 +22,6 @@ import com.java110.core.factory.GenerateCodeFactory;
 import com.java110.entity.center.AppRoute;
 import com.java110.entity.center.AppService;
 import com.java110.entity.center.Business;
-import com.java110.entity.center.DataFlowLinksCost;
 import com.java110.event.center.DataFlowEventPublishing;
 
 import com.java110.log.agent.LogAgent;
@@ -33,6 +34,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 
 /**
@@ -46,6 +48,9 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
     @Autowired
     ICenterServiceDAO centerServiceDaoImpl;
 
+    @Autowired
+    private BusinessInvokeExecutor businessInvokeExecutor;
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -140,14 +145,12 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
                 //添加耗时
                 //DataFlowFactory.addCostTime(dataFlow, "service", "业务处理总耗时", dataFlow.getStartDate(), dataFlow.getEndDate());
 
-
-
-                //保存耗时
-                //saveCostTimeLogMessage(dataFlow);
                 //处理返回报文鉴权
                 AuthenticationFactory.putSign(dataFlow, responseJson);
                 saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestHeaders(),dataFlow.getReqJson().toJSONString()),
                         LogAgent.createLogMessage(dataFlow.getResponseHeaders(),dataFlow.getResJson().toJSONString()),endDate.getTime()-dataFlow.getStartDate().getTime());
+                //保存日志和耗时
+                LogAgent.sendDataFlowLog(dataFlow);
                 DataFlowEventPublishing.dataResponse(dataFlow,reqJson,headers);
             }
             resJson = encrypt(responseJson.toJSONString(),headers);
@@ -240,10 +243,10 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
                 }
                 //添加耗时
                 //DataFlowFactory.addCostTime(dataFlow, "service", "业务处理总耗时", dataFlow.getStartDate(), dataFlow.getEndDate());
-                //保存耗时
-                //saveCostTimeLogMessage(dataFlow);
                 saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestHeaders(),dataFlow.getReqJson().toJSONString()),
                         LogAgent.createLogMessage(dataFlow.getResponseHeaders(),responseEntity.getBody()),endDate.getTime()-dataFlow.getStartDate().getTime());
+                //保存日志和耗时
+                LogAgent.sendDataFlowLog(dataFlow);
                 DataFlowEventPublishing.dataResponse(dataFlow,reqJson,headers);
             }
 
@@ -317,8 +320,8 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
                 saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestHeaders(),dataFlow.getReqJson().toJSONString()),
                         LogAgent.createLogMessage(dataFlow.getResponseHeaders(),dataFlow.getResJson().toJSONString()),endDate.getTime()-dataFlow.getStartDate().getTime());
 
-                //保存耗时
-                saveCostTimeLogMessage(dataFlow);
+                //保存日志和耗时
+                LogAgent.sendDataFlowLog(dataFlow);
 
                 //组装返回头信息
                 putResponseHeader(dataFlow,headers);
@@ -393,16 +396,14 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
     private void initConfigData(DataFlow dataFlow) {
         Date startDate = DateUtil.getCurrentDate();
         //查询配置信息，并将配置信息封装到 dataFlow 对象中
-        List<AppRoute> appRoutes = AppRouteCache.getAppRoute(dataFlow.getAppId());
+        AppRouteIndex appRouteIndex = AppRouteCache.getAppRouteIndex(dataFlow.getAppId());
 
-        if (appRoutes == null) {
+        if (appRouteIndex == null) {
             //添加耗时
             DataFlowFactory.addCostTime(dataFlow, "initConfigData", "加载配置耗时", startDate);
             throw new InitConfigDataException(ResponseConstant.RESULT_CODE_INNER_ERROR,"当前没有获取到AppId对应的信息，appId = "+dataFlow.getAppId());
         }
-        for(AppRoute appRoute: appRoutes) {
-            dataFlow.addAppRoutes(appRoute);
-        }
+        dataFlow.setAppRouteIndex(appRouteIndex);
         //
         if("-1".equals(dataFlow.getDataFlowId()) || StringUtil.isNullOrNone(dataFlow.getDataFlowId())){
             dataFlow.setDataFlowId(GenerateCodeFactory.getDataFlowId());
@@ -478,17 +479,8 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
             }
         }
 
-        //检验白名单
-        List<String> whileListIp = dataFlow.getAppRoutes().get(0).getWhileListIp();
-        if (whileListIp != null && whileListIp.size() > 0 && !whileListIp.contains(dataFlow.getIp())) {
-            //添加耗时
-            DataFlowFactory.addCostTime(dataFlow, "judgeAuthority", "鉴权耗时", startDate);
-            throw new NoAuthorityException(ResponseConstant.RESULT_CODE_NO_AUTHORITY_ERROR, "当前IP被限制不能访问服务");
-        }
-
-        //检查黑名单
-        List<String> backListIp = dataFlow.getAppRoutes().get(0).getBackListIp();
-        if (backListIp != null && backListIp.size() > 0&& backListIp.contains(dataFlow.getIp())) {
+        //检验白名单 黑名单，支持 CIDR 网段
+        if (!DataFlowFactory.isIpAllowed(dataFlow)) {
             //添加耗时
             DataFlowFactory.addCostTime(dataFlow, "judgeAuthority", "鉴权耗时", startDate);
             throw new NoAuthorityException(ResponseConstant.RESULT_CODE_NO_AUTHORITY_ERROR, "当前IP被限制不能访问服务");
@@ -835,6 +827,8 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
             saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestCurrentHeaders(),dataFlow.getReqJson().toJSONString()),
                     LogAgent.createLogMessage(dataFlow.getResponseCurrentHeaders(),ResponseConstant.RESULT_CODE_SUCCESS),
                     DateUtil.getCurrentDate().getTime() - dataFlow.getStartDate().getTime());
+            //保存日志和耗时
+            LogAgent.sendDataFlowLog(dataFlow);
         }
     }
 
@@ -950,7 +944,8 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
                 //如果业务都完成，则将 订单改为完成状态
                 centerServiceDaoImpl.completeOrderByBId(dataFlow.getCurrentBusiness().getbId());
             }else if(StatusConstant.REQUEST_BUSINESS_TYPE_BUSINESS.equals(dataFlow.getBusinessType())) {
-                centerServiceDaoImpl.updateBusinessByBId(DataFlowFactory.getNeedBusinessComplete(dataFlow));
+                //完成订单项，同时扣减订单未完成的业务项数
+                centerServiceDaoImpl.completeBusinessByBId(DataFlowFactory.getNeedBusinessComplete(dataFlow));
             }else{ //这里到不了，前面做了校验
                 throw new BusinessException(ResponseConstant.RESULT_PARAM_ERROR,"当前不支持 业务类型为 businessType" +dataFlow.getBusinessType());
             }
@@ -1114,24 +1109,28 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
         Date businessStartDate;
         AppService service;
         JSONObject requestBusinessJson;
-        for(Business business : synchronousBusinesses){
-            businessStartDate = DateUtil.getCurrentDate();
-            service = DataFlowFactory.getService(dataFlow,business.getServiceCode());
-            if(!CommonConstant.INSTANCE_Y.equals(service.getIsInstance())){
-                continue;
-            }
-            dataFlow.setCurrentBusiness(business);
-            //添加需要撤单的业务信息
-            deleteBusinesses.add(business);
+        if(isParallelInvokeBusiness()){
+            doParallelBusinessTableDataInfoToInstanceTable(dataFlow, synchronousBusinesses, deleteBusinesses);
+        }else{
+            for(Business business : synchronousBusinesses){
+                businessStartDate = DateUtil.getCurrentDate();
+                service = DataFlowFactory.getService(dataFlow,business.getServiceCode());
+                if(!CommonConstant.INSTANCE_Y.equals(service.getIsInstance())){
+                    continue;
+                }
+                dataFlow.setCurrentBusiness(business);
+                //添加需要撤单的业务信息
+                deleteBusinesses.add(business);
 
-            requestBusinessJson = DataFlowFactory.getBusinessTableDataInfoToInstanceTableJson(dataFlow,business);
-            JSONObject responseJson = doRequestBusinessSystem(dataFlow, service, requestBusinessJson);
+                requestBusinessJson = DataFlowFactory.getBusinessTableDataInfoToInstanceTableJson(dataFlow,business);
+                JSONObject responseJson = doRequestBusinessSystem(dataFlow, service, requestBusinessJson);
 
-            updateBusinessStatusCdByBId(business.getbId(),StatusConstant.STATUS_CD_COMPLETE);
-            DataFlowFactory.addCostTime(dataFlow, business.getServiceCode(), "调用"+business.getServiceName()+"耗时", businessStartDate);
-            saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestCurrentHeaders(),requestBusinessJson.toJSONString()),
-                    LogAgent.createLogMessage(dataFlow.getResponseCurrentHeaders(),responseJson.toJSONString()),
-                    DateUtil.getCurrentDate().getTime() - businessStartDate.getTime());
+                updateBusinessStatusCdByBId(business.getbId(),StatusConstant.STATUS_CD_COMPLETE);
+                DataFlowFactory.addCostTime(dataFlow, business.getServiceCode(), "调用"+business.getServiceName()+"耗时", businessStartDate);
+                saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestCurrentHeaders(),requestBusinessJson.toJSONString()),
+                        LogAgent.createLogMessage(dataFlow.getResponseCurrentHeaders(),responseJson.toJSONString()),
+                        DateUtil.getCurrentDate().getTime() - businessStartDate.getTime());
+            }
         }
 
         if(dataFlow.getCurrentBusiness() == null){
@@ -1168,11 +1167,22 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
     }
 
     private JSONObject doRequestBusinessSystem(DataFlow dataFlow, AppService service, JSONObject requestBusinessJson) {
+        return doRequestBusinessSystem(service, requestBusinessJson, dataFlow.getRequestBusinessJson());
+    }
+
+    /**
+     * 调用下游系统，不读写 dataFlow，并行调用时使用
+     * @param service 服务
+     * @param requestBusinessJson 请求报文
+     * @param webServiceRequestJson webservice 方式时的请求报文
+     * @return
+     */
+    private JSONObject doRequestBusinessSystem(AppService service, JSONObject requestBusinessJson, JSONObject webServiceRequestJson) {
         String responseMessage;
         if(!StringUtil.isNullOrNone(service.getMethod())
                 && !"POST,PUT,GET,DELETE,PATCH,HEAD,OPTIONS,TRACE".contains(service.getMethod())) {//webservice方式
             responseMessage = (String) WebServiceAxisClient.callWebService(service.getUrl(),service.getMethod(),
-                    new Object[]{dataFlow.getRequestBusinessJson().toJSONString()},
+                    new Object[]{webServiceRequestJson.toJSONString()},
                     service.getTimeOut());
         }else{//post方式
             //http://user-service/test/sayHello
@@ -1224,6 +1234,10 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
         Date businessStartDate;
         AppService service;
         JSONObject requestBusinessJson;
+        if(isParallelInvokeBusiness()){
+            doParallelSaveDataInfoToBusinessTable(dataFlow, synchronousBusinesses, responseBusinesses);
+            return ;
+        }
         for(Business business : synchronousBusinesses) {
             businessStartDate = DateUtil.getCurrentDate();
 
@@ -1250,6 +1264,216 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
         }
     }
 
+    /**
+     * 是否开启 seq 相同的同步业务并行调用
+     * @return
+     */
+    private boolean isParallelInvokeBusiness(){
+        return MappingConstant.VALUE_ON.equals(MappingCache.getValue(MappingConstant.KEY_SYNCHRONOUS_BUSINESS_PARALLEL_ON_OFF));
+    }
+
+    /**
+     * 数据保存到BusinessTable 中(并行方式)，seq 相同的业务并行调用，不同 seq 之间依然按顺序调用
+     * @param dataFlow
+     * @param synchronousBusinesses
+     * @param responseBusinesses
+     */
+    private void doParallelSaveDataInfoToBusinessTable(DataFlow dataFlow, List<Business> synchronousBusinesses, JSONArray responseBusinesses) {
+        for(List<Business> sameSeqBusinesses : groupBusinessesBySeq(synchronousBusinesses)){
+            List<BusinessInvokeResult> invokeResults = new ArrayList<BusinessInvokeResult>();
+            for(Business business : sameSeqBusinesses){
+                final BusinessInvokeResult invokeResult = new BusinessInvokeResult(business,DataFlowFactory.getService(dataFlow,business.getServiceCode()));
+                invokeResult.requestJson = DataFlowFactory.getRequestBusinessJson(dataFlow,business);
+                invokeResult.task = new Callable<JSONObject>() {
+                    @Override
+                    public JSONObject call() throws Exception {
+                        if(CommonConstant.INSTANCE_Y.equals(invokeResult.service.getIsInstance())){
+                            //发起Business过程
+                            updateBusinessStatusCdByBId(invokeResult.business.getbId(),StatusConstant.STATUS_CD_BUSINESS);
+                        }
+                        return doRequestBusinessSystem(invokeResult.service, invokeResult.requestJson, invokeResult.requestJson);
+                    }
+                };
+                invokeResults.add(invokeResult);
+            }
+
+            Exception exception = invokeBusinesses(invokeResults);
+
+            for(BusinessInvokeResult invokeResult : invokeResults){
+                if(invokeResult.responseJson == null){
+                    continue;
+                }
+                dataFlow.setRequestBusinessJson(invokeResult.requestJson);
+                dataFlow.setResponseBusinessJson(invokeResult.responseJson);
+                responseBusinesses.add(invokeResult.responseJson);
+                DataFlowFactory.addCostTime(dataFlow, invokeResult.business.getServiceCode(), "调用"+invokeResult.business.getServiceName()+"耗时",
+                        invokeResult.startDate, invokeResult.endDate);
+                saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestCurrentHeaders(),invokeResult.requestJson.toJSONString()),
+                        LogAgent.createLogMessage(dataFlow.getResponseCurrentHeaders(),invokeResult.responseJson.toJSONString()),
+                        invokeResult.endDate.getTime()-invokeResult.startDate.getTime());
+            }
+
+            throwIfInvokeFailed(exception);
+        }
+    }
+
+    /**
+     * 将BusinessTable 中的数据保存到 InstanceTable(并行方式)，seq 相同的业务并行调用，不同 seq 之间依然按顺序调用
+     * @param dataFlow
+     * @param synchronousBusinesses
+     * @param deleteBusinesses 已经发起的业务，失败时撤单
+     */
+    private void doParallelBusinessTableDataInfoToInstanceTable(DataFlow dataFlow, List<Business> synchronousBusinesses,List<Business> deleteBusinesses) {
+        //webservice 方式请求报文，与串行方式保持一致
+        JSONObject webServiceRequestJson = dataFlow.getRequestBusinessJson();
+        AppService service;
+        for(List<Business> sameSeqBusinesses : groupBusinessesBySeq(synchronousBusinesses)){
+            List<BusinessInvokeResult> invokeResults = new ArrayList<BusinessInvokeResult>();
+            for(Business business : sameSeqBusinesses){
+                service = DataFlowFactory.getService(dataFlow,business.getServiceCode());
+                if(!CommonConstant.INSTANCE_Y.equals(service.getIsInstance())){
+                    continue;
+                }
+                dataFlow.setCurrentBusiness(business);
+                //添加需要撤单的业务信息
+                deleteBusinesses.add(business);
+
+                final BusinessInvokeResult invokeResult = new BusinessInvokeResult(business,service);
+                final JSONObject finalWebServiceRequestJson = webServiceRequestJson;
+                invokeResult.requestJson = DataFlowFactory.getBusinessTableDataInfoToInstanceTableJson(dataFlow,business);
+                invokeResult.task = new Callable<JSONObject>() {
+                    @Override
+                    public JSONObject call() throws Exception {
+                        JSONObject responseJson = doRequestBusinessSystem(invokeResult.service, invokeResult.requestJson, finalWebServiceRequestJson);
+                        updateBusinessStatusCdByBId(invokeResult.business.getbId(),StatusConstant.STATUS_CD_COMPLETE);
+                        return responseJson;
+                    }
+                };
+                invokeResults.add(invokeResult);
+            }
+
+            Exception exception = invokeBusinesses(invokeResults);
+
+            for(BusinessInvokeResult invokeResult : invokeResults){
+                if(invokeResult.responseJson == null){
+                    continue;
+                }
+                DataFlowFactory.addCostTime(dataFlow, invokeResult.business.getServiceCode(), "调用"+invokeResult.business.getServiceName()+"耗时",
+                        invokeResult.startDate, invokeResult.endDate);
+                saveLogMessage(dataFlow,LogAgent.createLogMessage(dataFlow.getRequestCurrentHeaders(),invokeResult.requestJson.toJSONString()),
+                        LogAgent.createLogMessage(dataFlow.getResponseCurrentHeaders(),invokeResult.responseJson.toJSONString()),
+                        invokeResult.endDate.getTime()-invokeResult.startDate.getTime());
+            }
+
+            throwIfInvokeFailed(exception);
+        }
+    }
+
+    /**
+     * 将已经排好序的业务按 seq 分组，相邻且 seq 相同的业务分为一组
+     * @param synchronousBusinesses
+     * @return
+     */
+    private List<List<Business>> groupBusinessesBySeq(List<Business> synchronousBusinesses){
+        List<List<Business>> groups = new ArrayList<List<Business>>();
+        List<Business> group = null;
+        for(Business business : synchronousBusinesses){
+            if(group == null || group.get(0).getSeq() != business.getSeq()){
+                group = new ArrayList<Business>();
+                groups.add(group);
+            }
+            group.add(business);
+        }
+        return groups;
+    }
+
+    /**
+     * 调用同一组业务，只有一个业务时在当前线程调用，多个时并行调用，等待所有业务返回
+     * @param invokeResults
+     * @return 第一个失败的异常，都成功返回null
+     */
+    private Exception invokeBusinesses(List<BusinessInvokeResult> invokeResults){
+        if(invokeResults.size() == 1){
+            return invokeResults.get(0).invoke();
+        }
+        List<Future<Exception>> futures = new ArrayList<Future<Exception>>();
+        for(final BusinessInvokeResult invokeResult : invokeResults){
+            futures.add(businessInvokeExecutor.getExecutor().submit(new Callable<Exception>() {
+                @Override
+                public Exception call() throws Exception {
+                    return invokeResult.invoke();
+                }
+            }));
+        }
+        Exception firstException = null;
+        for(Future<Exception> future : futures){
+            Exception exception;
+            try {
+                exception = future.get();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                exception = e;
+            }catch (ExecutionException e){
+                exception = e;
+            }
+            if(firstException == null){
+                firstException = exception;
+            }
+        }
+        return firstException;
+    }
+
+    private void throwIfInvokeFailed(Exception exception){
+        if(exception == null){
+            return ;
+        }
+        if(exception instanceof RuntimeException){
+            throw (RuntimeException) exception;
+        }
+        throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,exception.getMessage());
+    }
+
+    /**
+     * 并行调用下游系统时 单个业务的调用信息
+     */
+    private static class BusinessInvokeResult {
+
+        private final Business business;
+
+        private final AppService service;
+
+        private JSONObject requestJson;
+
+        private JSONObject responseJson;
+
+        private Callable<JSONObject> task;
+
+        private Date startDate;
+
+        private Date endDate;
+
+        BusinessInvokeResult(Business business, AppService service) {
+            this.business = business;
+            this.service = service;
+        }
+
+        /**
+         * 执行调用
+         * @return 异常信息，成功返回null
+         */
+        Exception invoke(){
+            startDate = DateUtil.getCurrentDate();
+            try {
+                responseJson = task.call();
+                return null;
+            }catch (Exception e){
+                return e;
+            }finally {
+                endDate = DateUtil.getCurrentDate();
+            }
+        }
+    }
+
     /**
      * 处理异步业务
      * @param
@@ -1298,7 +1522,7 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
      *                     }
      */
     private void saveLogMessage(DataFlow dataFlow,JSONObject requestJson,JSONObject responseJson,long costTime){
-            LogAgent.sendLog(dataFlow,requestJson,responseJson,costTime);
+            LogAgent.collectLog(dataFlow,requestJson,responseJson,costTime);
     }
 
     /**
@@ -1319,32 +1543,6 @@ public class CenterServiceSMOImpl extends LoggerEngine implements ICenterService
         }
     }
 
-    /**
-     * 保存耗时信息
-     * @param dataFlow
-     */
-    private void saveCostTimeLogMessage(DataFlow dataFlow){
-        try{
-            if(MappingConstant.VALUE_ON.equals(MappingCache.getValue(MappingConstant.KEY_COST_TIME_ON_OFF))){
-                List<DataFlowLinksCost> dataFlowLinksCosts = dataFlow.getLinksCostDates();
-                JSONObject costDate = new JSONObject();
-                JSONArray costDates = new JSONArray();
-                JSONObject newObj = null;
-                for(DataFlowLinksCost dataFlowLinksCost : dataFlowLinksCosts){
-                    newObj = JSONObject.parseObject(JSONObject.toJSONString(dataFlowLinksCost));
-                    newObj.put("dataFlowId",dataFlow.getDataFlowId());
-                    newObj.put("transactionId",dataFlow.getTransactionId());
-                    costDates.add(newObj);
-                }
-                costDate.put("costDates",costDates);
-
-                KafkaFactory.sendKafkaMessage(KafkaConstant.TOPIC_COST_TIME_LOG_NAME,"",costDate.toJSONString());
-            }
-        }catch (Exception e){
-            logger.error("报错日志出错了，",e);
-        }
-    }
-
     /**
      * 修改c_business状态
      * @param bId
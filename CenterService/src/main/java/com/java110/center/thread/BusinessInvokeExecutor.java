@@ -0,0 +1,70 @@
+package com.java110.center.thread;
+
+import com.java110.common.log.LoggerEngine;
+import com.java110.config.properties.CenterProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行调用下游系统线程池，有界队列，队列满时由调用线程处理
+ *
+ * 线程数、队列长度 见 config/center.properties
+ * Created by wuxw on 2018/4/13.
+ */
+@Component("businessInvokeExecutor")
+public class BusinessInvokeExecutor extends LoggerEngine {
+
+    @Autowired
+    private CenterProperties centerProperties;
+
+    private ThreadPoolExecutor businessInvokeThreadPool;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger threadIndex = new AtomicInteger(0);
+        businessInvokeThreadPool = new ThreadPoolExecutor(centerProperties.getInvokeThreadNum(),
+                centerProperties.getInvokeThreadNum(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(centerProperties.getInvokeQueueCapacity()),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "business-invoke-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        businessInvokeThreadPool.allowCoreThreadTimeOut(true);
+        logger.info("并行调用下游系统线程池初始化完成 invokeThreadNum = {} invokeQueueCapacity = {}",
+                centerProperties.getInvokeThreadNum(), centerProperties.getInvokeQueueCapacity());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (businessInvokeThreadPool != null) {
+            businessInvokeThreadPool.shutdownNow();
+        }
+    }
+
+    public ExecutorService getExecutor() {
+        return businessInvokeThreadPool;
+    }
+
+    public CenterProperties getCenterProperties() {
+        return centerProperties;
+    }
+
+    public void setCenterProperties(CenterProperties centerProperties) {
+        this.centerProperties = centerProperties;
+    }
+}
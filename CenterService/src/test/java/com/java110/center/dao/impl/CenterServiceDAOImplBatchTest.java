@@ -0,0 +1,75 @@
+package com.java110.center.dao.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量插入测试，每 500 条一条 insert 语句
+ * Created by wuxw on 2018/4/14.
+ */
+public class CenterServiceDAOImplBatchTest extends CenterServiceDAOTestCase {
+
+    private List<Map> orderAttrs(int count) {
+        List<Map> orderAttrs = new ArrayList<Map>();
+        for (int index = 0; index < count; index++) {
+            Map orderAttr = new HashMap();
+            orderAttr.put("oId", "10001");
+            orderAttr.put("attrId", "attr" + index);
+            orderAttr.put("specCd", "1001");
+            orderAttr.put("value", "value" + index);
+            orderAttrs.add(orderAttr);
+        }
+        return orderAttrs;
+    }
+
+    private List<Map> businesses(int count) {
+        List<Map> businesses = new ArrayList<Map>();
+        for (int index = 0; index < count; index++) {
+            Map business = new HashMap();
+            business.put("bId", "b" + index);
+            business.put("oId", "10001");
+            business.put("businessTypeCd", "SAVE");
+            business.put("remark", "");
+            business.put("statusCd", "S");
+            businesses.add(business);
+        }
+        return businesses;
+    }
+
+    public void testEmpty() throws Exception {
+        centerServiceDAOImpl.saveOrderAttrs(new ArrayList<Map>());
+        centerServiceDAOImpl.saveOrderAttrs(null);
+        centerServiceDAOImpl.saveBusiness(new ArrayList<Map>());
+        centerServiceDAOImpl.saveBusinessAttrs(new ArrayList<Map>());
+        assertEquals(0, takeUpdateCount());
+        assertEquals(0, queryInt("select count(1) from c_orders_attrs"));
+    }
+
+    public void testOneBatch() throws Exception {
+        centerServiceDAOImpl.saveOrderAttrs(orderAttrs(500));
+        assertEquals(1, takeUpdateCount());
+        assertEquals(500, queryInt("select count(1) from c_orders_attrs"));
+    }
+
+    public void testTwoBatches() throws Exception {
+        centerServiceDAOImpl.saveOrderAttrs(orderAttrs(501));
+        assertEquals(2, takeUpdateCount());
+        assertEquals(501, queryInt("select count(1) from c_orders_attrs"));
+    }
+
+    public void testBusinessAndAttrs() throws Exception {
+        centerServiceDAOImpl.saveBusiness(businesses(1001));
+        assertEquals(3, takeUpdateCount());
+        assertEquals(1001, queryInt("select count(1) from c_business"));
+
+        List<Map> businessAttrs = orderAttrs(3);
+        for (Map businessAttr : businessAttrs) {
+            businessAttr.put("bId", "b0");
+        }
+        centerServiceDAOImpl.saveBusinessAttrs(businessAttrs);
+        assertEquals(1, takeUpdateCount());
+        assertEquals(3, queryInt("select count(1) from c_business_attrs where b_id = 'b0'"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.java110.center.dao.impl;
+
+import com.java110.center.dao.ICenterServiceDAO;
+import com.java110.common.constant.StatusConstant;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * business 过程完成通知 并发测试，
+ * 每个通知在一个事务中修改业务项状态并扣减 business_remain，再按 0 改 -1 判断订单是否完成，
+ * 并发(包括重复)通知时只能有一个通知判断为完成
+ * Created by wuxw on 2018/4/14.
+ */
+public class CenterServiceDAOImplCompleteTest extends CenterServiceDAOTestCase {
+
+    private final static String O_ID = "o1";
+
+    private final static int BUSINESS_COUNT = 8;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            statement.execute("insert into c_orders(o_id,app_id,ext_transaction_id,user_id,request_time,order_type_cd,status_cd,business_remain)"
+                    + " values('" + O_ID + "','8000418001','T1','U1','20180414120000','Q','S'," + BUSINESS_COUNT + ")");
+            for (int businessIndex = 0; businessIndex < BUSINESS_COUNT; businessIndex++) {
+                statement.execute("insert into c_business(b_id,o_id,business_type_cd,status_cd)"
+                        + " values('b" + businessIndex + "','" + O_ID + "','M','S')");
+            }
+            statement.close();
+        } finally {
+            conn.close();
+        }
+    }
+
+    public void testCompleteOneByOne() throws Exception {
+        ICenterServiceDAO centerServiceDAO = transactionalDAO();
+        for (int businessIndex = 0; businessIndex < BUSINESS_COUNT; businessIndex++) {
+            centerServiceDAO.completeBusinessByBId(business("b" + businessIndex));
+            int expectCompleted = businessIndex == BUSINESS_COUNT - 1 ? 1 : 0;
+            assertEquals(expectCompleted, centerServiceDAO.judgeAllBusinessCompleted(O_ID, StatusConstant.STATUS_CD_BUSINESS_COMPLETE));
+        }
+        assertEquals(-1, queryInt("select business_remain from c_orders where o_id = '" + O_ID + "'"));
+    }
+
+    /**
+     * 重复通知不重复扣减
+     */
+    public void testDuplicateNotify() throws Exception {
+        ICenterServiceDAO centerServiceDAO = transactionalDAO();
+        centerServiceDAO.completeBusinessByBId(business("b0"));
+        centerServiceDAO.completeBusinessByBId(business("b0"));
+        assertEquals(BUSINESS_COUNT - 1, queryInt("select business_remain from c_orders where o_id = '" + O_ID + "'"));
+    }
+
+    /**
+     * 每个业务项并发通知 3 次，business_remain 只扣减到 0，只有一个通知判断为完成
+     */
+    public void testConcurrentNotify() throws Exception {
+        final ICenterServiceDAO centerServiceDAO = transactionalDAO();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(BUSINESS_COUNT * 3);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (int notifyIndex = 0; notifyIndex < BUSINESS_COUNT * 3; notifyIndex++) {
+            final String bId = "b" + (notifyIndex % BUSINESS_COUNT);
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    centerServiceDAO.completeBusinessByBId(business(bId));
+                    return centerServiceDAO.judgeAllBusinessCompleted(O_ID, StatusConstant.STATUS_CD_BUSINESS_COMPLETE);
+                }
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        int completed = 0;
+        for (Future<Integer> result : results) {
+            completed += result.get();
+        }
+        assertEquals(1, completed);
+        assertEquals(-1, queryInt("select business_remain from c_orders where o_id = '" + O_ID + "'"));
+        assertEquals(BUSINESS_COUNT, queryInt("select count(1) from c_business where status_cd = '"
+                + StatusConstant.STATUS_CD_BUSINESS_COMPLETE + "'"));
+    }
+
+    /**
+     * 业务项都改为 C 后，订单改为 C
+     */
+    public void testCompleteOrderByBId() throws Exception {
+        ICenterServiceDAO centerServiceDAO = transactionalDAO();
+        centerServiceDAO.completeOrderByBId("b0");
+        assertEquals(0, queryInt("select count(1) from c_orders where status_cd = 'C'"));
+
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            statement.execute("update c_business set status_cd = 'C' where b_id = 'b0'");
+            statement.close();
+        } finally {
+            conn.close();
+        }
+        centerServiceDAO.completeOrderByBId("b0");
+        assertEquals(1, queryInt("select count(1) from c_orders where status_cd = 'C'"));
+    }
+
+    private static Map business(String bId) {
+        Map business = new HashMap();
+        business.put("bId", bId);
+        business.put("finishTime", new Date());
+        business.put("statusCd", StatusConstant.STATUS_CD_BUSINESS_COMPLETE);
+        return business;
+    }
+}
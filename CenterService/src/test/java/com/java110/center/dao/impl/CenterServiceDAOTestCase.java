@@ -0,0 +1,153 @@
+package com.java110.center.dao.impl;
+
+import com.java110.center.dao.ICenterServiceDAO;
+import junit.framework.TestCase;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CenterServiceDAOImpl 测试基类，使用 H2 内存库(MySQL 模式) 和 CenterServiceDAOImplMapper.xml，
+ * 每个测试一个新库，记录执行的 insert update delete 语句数(数据库交互次数)，
+ * 事务由 spring 管理，transactionalDAO 返回按 @Transactional 开启事务的代理
+ * Created by wuxw on 2018/4/14.
+ */
+public abstract class CenterServiceDAOTestCase extends TestCase {
+
+    private final static String MAPPER = "mapper/center/CenterServiceDAOImplMapper.xml";
+
+    private final static String[] CREATE_TABLES = {
+            "create table c_orders(o_id varchar(30) not null, app_id varchar(30) not null, ext_transaction_id varchar(30) not null,"
+                    + " user_id varchar(30) not null, request_time varchar(16) not null, create_time timestamp default current_timestamp,"
+                    + " order_type_cd varchar(4) not null, finish_time date, remark varchar(200), status_cd varchar(2) not null,"
+                    + " business_remain int, primary key (o_id))",
+            "create table c_orders_attrs(o_id varchar(30) not null, attr_id varchar(30) not null, spec_cd varchar(12) not null,"
+                    + " value varchar(50) not null)",
+            "create table c_business(b_id varchar(30) not null, o_id varchar(30) not null, create_time timestamp default current_timestamp,"
+                    + " business_type_cd varchar(4) not null, finish_time date, remark varchar(200), status_cd varchar(2) not null,"
+                    + " primary key (b_id))",
+            "create table c_business_attrs(b_id varchar(30) not null, attr_id varchar(30) not null, spec_cd varchar(12) not null,"
+                    + " value varchar(50) not null)"
+    };
+
+    protected JdbcDataSource dataSource;
+
+    protected CenterServiceDAOImpl centerServiceDAOImpl;
+
+    private final AtomicInteger updateCount = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + getName() + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            for (String createTable : CREATE_TABLES) {
+                statement.execute(createTable);
+            }
+            statement.close();
+        } finally {
+            conn.close();
+        }
+
+        Configuration configuration = new Configuration(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        InputStream mapper = Resources.getResourceAsStream(MAPPER);
+        try {
+            new XMLMapperBuilder(mapper, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        } finally {
+            mapper.close();
+        }
+        configuration.addInterceptor(new UpdateCounter(updateCount));
+        SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+        centerServiceDAOImpl = new CenterServiceDAOImpl();
+        centerServiceDAOImpl.setSessionTemplate(new SqlSessionTemplate(sqlSessionFactory));
+    }
+
+    /**
+     * 按 CenterServiceDAOImpl 上的 @Transactional 开启事务的代理，和 spring 容器中注入的一样
+     * @return
+     */
+    protected ICenterServiceDAO transactionalDAO() {
+        ProxyFactory proxyFactory = new ProxyFactory(centerServiceDAOImpl);
+        proxyFactory.addInterface(ICenterServiceDAO.class);
+        proxyFactory.addAdvice(new TransactionInterceptor(new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()));
+        return (ICenterServiceDAO) proxyFactory.getProxy();
+    }
+
+    /**
+     * 取出并清零 执行的 insert update delete 语句数
+     * @return
+     */
+    protected int takeUpdateCount() {
+        return updateCount.getAndSet(0);
+    }
+
+    protected int queryInt(String sql) throws Exception {
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            ResultSet rs = statement.executeQuery(sql);
+            rs.next();
+            int value = rs.getInt(1);
+            statement.close();
+            return value;
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * 记录 Executor.update 次数，一次即一条sql 一次数据库交互
+     */
+    @Intercepts({@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})})
+    private static class UpdateCounter implements Interceptor {
+
+        private final AtomicInteger updateCount;
+
+        UpdateCounter(AtomicInteger updateCount) {
+            this.updateCount = updateCount;
+        }
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            updateCount.incrementAndGet();
+            return invocation.proceed();
+        }
+
+        @Override
+        public Object plugin(Object target) {
+            return Plugin.wrap(target, this);
+        }
+
+        @Override
+        public void setProperties(Properties properties) {
+        }
+    }
+}
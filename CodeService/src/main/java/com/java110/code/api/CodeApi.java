@@ -11,6 +11,7 @@ import com.java110.core.context.CodeDataFlow;
 import com.java110.core.factory.DataFlowFactory;
 import com.java110.core.factory.DataTransactionFactory;
 import com.java110.feign.code.ICodeApi;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,6 +27,9 @@ import java.util.UUID;
 @RestController
 public class CodeApi extends BaseController implements ICodeApi {
 
+    //批量生成编码 一次最多个数
+    private final static int MAX_GENERATE_COUNT = 1000;
+
     @Autowired
     IPrimaryKeyServiceSMO primaryKeyServiceSMOImpl;
 
@@ -123,6 +127,28 @@ public class CodeApi extends BaseController implements ICodeApi {
         }
     }
 
+    /**
+     * 批量生成 编码
+     *
+     * @param prefix 前缀
+     * @param count  生成个数
+     * @return 逗号分隔的编码
+     */
+    @Override
+    @RequestMapping(value = "/codeApi/generateCodes",method = RequestMethod.POST)
+    public String generateCodes(@RequestParam("prefix") String prefix,@RequestParam("count") int count) {
+        try {
+            Assert.hasLength(prefix, "没有包含prefix");
+            if (count < 1 || count > MAX_GENERATE_COUNT) {
+                throw new IllegalArgumentException("count 必须在 1 到 " + MAX_GENERATE_COUNT + " 之间");
+            }
+            return StringUtils.join(primaryKeyServiceSMOImpl.generateCodes(prefix, count), ",");
+        } catch (Exception e) {
+            logger.error("批量生成编码异常", e);
+            return ResponseConstant.RESULT_CODE_ERROR;
+        }
+    }
+
     /**
      * 封装符合构建CodeDataFlow对象的JSON对象参数
      *
@@ -31,7 +31,7 @@ public class PrimaryKeyServiceDaoImpl extends BaseServiceDao implements IPrimary
     @Override
     public Map queryPrimaryKey(Map primaryKey) {
 
-        LoggerEngine.debug("----【PrimaryKeyServiceDaoImpl.queryPrimaryKey】入参 : " + primaryKey);
+        LoggerEngine.debug("----【PrimaryKeyServiceDaoImpl.queryPrimaryKey】入参 : {}", primaryKey);
         return sqlSessionTemplate.selectOne("primaryKeyServiceDaoImpl.queryPrimaryKey", primaryKey);
     }
 }
@@ -4,6 +4,8 @@ import com.alibaba.fastjson.JSONObject;
 import com.java110.common.exception.SMOException;
 import com.java110.core.context.CodeDataFlow;
 
+import java.util.List;
+
 /**
  * 用户信息管理，服务
  * Created by wuxw on 2017/4/5.
@@ -24,4 +26,13 @@ public interface IPrimaryKeyServiceSMO {
      * @throws SMOException
      */
     public void generateCode(CodeDataFlow dataFlow) throws SMOException;
+
+    /**
+     * 批量生成编码
+     * @param prefix 前缀
+     * @param count 生成个数
+     * @return
+     * @throws SMOException
+     */
+    public List<String> generateCodes(String prefix,int count) throws SMOException;
 }
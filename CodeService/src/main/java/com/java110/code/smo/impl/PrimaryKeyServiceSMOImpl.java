@@ -12,6 +12,8 @@ import com.java110.service.init.ServiceInfoListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -58,6 +60,21 @@ public class PrimaryKeyServiceSMOImpl extends BaseServiceSMO implements IPrimary
         dataFlow.setResJson(resJson);
     }
 
+    /**
+     * 批量生成编码
+     * @param prefix 前缀
+     * @param count 生成个数
+     * @return
+     */
+    public List<String> generateCodes(String prefix,int count){
+        List<String> codes = new ArrayList<String>(count);
+        long workId = serviceInfoListener.getWorkId();
+        for(int codeIndex = 0; codeIndex < count; codeIndex++){
+            codes.add(snowflakeIdWorkerImpl.getIdByPrefix(prefix,workId));
+        }
+        return codes;
+    }
+
     public ServiceInfoListener getServiceInfoListener() {
         return serviceInfoListener;
     }
@@ -1,7 +1,9 @@
 package com.java110.console.smo.impl;
 
+import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.java110.common.cache.LocalCache;
 import com.java110.common.cache.MappingCache;
 import com.java110.common.constant.CommonConstant;
 import com.java110.common.constant.MappingConstant;
@@ -40,6 +42,26 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
 
     @Autowired
     private RestTemplate restTemplate;
+
+    //模板缓存版本号 key，刷新缓存 和 编辑模板数据 时加一，所有控制台实例清空本地模板缓存
+    public final static String _VERSION_TEMPLATE = "_VERSION_TEMPLATE";
+
+    private final static String _SUFFIX_TEMPLATE = "_TEMPLATE";
+
+    private final static String _SUFFIX_TEMPLATE_COL = "_TEMPLATE_COL";
+
+    //本地缓存的模板 和 模板列 条数上限
+    private final static int TEMPLATE_CACHE_MAX_SIZE = 512;
+
+    //直接修改数据库不会改变版本号，缓存条目最多保留10分钟
+    private final static long TEMPLATE_CACHE_EXPIRE_MILLIS = 10 * 60 * 1000L;
+
+    /**
+     * 模板 和 模板列 本地缓存，key 为模板编码加后缀，c_template c_template_col 只在管理员编辑时变化
+     */
+    private final LocalCache<JSON> templateCache = new LocalCache<JSON>("模板", _VERSION_TEMPLATE,
+            TEMPLATE_CACHE_MAX_SIZE, false, TEMPLATE_CACHE_EXPIRE_MILLIS);
+
     /**
      * 根据 管理员ID 查询菜单
      * @param manageId
@@ -117,28 +139,71 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
 
         Assert.hasText(templateCode,"模板编码不能为空");
 
-        Map paramIn = new HashMap();
-        paramIn.put("templateCode", templateCode);
-        paramIn.put(CommonConstant.ORDER_USER_ID,pd.getUserId());
-        paramIn.put(ServiceCodeConstant.SERVICE_CODE,ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE_COL);
-        paramIn.put(ServiceCodeConstant.SERVICE_CODE_NAME,ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE_COL_NAME);
-        //paramIn.put("userPwd", userPwd);
-        JSONObject businessObj = doExecute(paramIn);
-
-        Assert.isNotNull(businessObj,"template","查询模板 服务配置错误，返回报文中未包含template节点");
-
-        removeButtonName(businessObj);
+        JSONArray templateCols = queryTemplateCols(templateCode, pd.getUserId());
 
         JSONObject templateObj = new JSONObject();
 
-        paramColModelToJson(businessObj.getJSONArray("template"));
-
-        templateObj.put("template",businessObj.getJSONArray("template"));
+        templateObj.put("template",templateCols);
 
         pd.setResJson(DataTransactionFactory.pageResponseJson(pd.getTransactionId(),ResponseConstant.RESULT_CODE_SUCCESS,"查询成功 ",templateObj));
 
     }
 
+    /**
+     * 查询模板列信息，先查本地缓存
+     * @param templateCode 模板编码
+     * @param userId
+     * @return
+     * @throws SMOException
+     */
+    private JSONArray queryTemplateCols(String templateCode, String userId) throws SMOException{
+        JSONArray templateCols = (JSONArray) templateCache.get(templateCode + _SUFFIX_TEMPLATE_COL);
+        if(templateCols == null) {
+            long generation = templateCache.getGeneration();
+            Map paramIn = new HashMap();
+            paramIn.put("templateCode", templateCode);
+            paramIn.put(CommonConstant.ORDER_USER_ID, userId);
+            paramIn.put(ServiceCodeConstant.SERVICE_CODE, ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE_COL);
+            paramIn.put(ServiceCodeConstant.SERVICE_CODE_NAME, ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE_COL_NAME);
+            //paramIn.put("userPwd", userPwd);
+            JSONObject businessObj = doExecute(paramIn);
+
+            Assert.isNotNull(businessObj, "template", "查询模板 服务配置错误，返回报文中未包含template节点");
+
+            removeButtonName(businessObj);
+
+            paramColModelToJson(businessObj.getJSONArray("template"));
+
+            templateCols = businessObj.getJSONArray("template");
+            //模板不存在时不缓存
+            if(templateCols != null && templateCols.size() > 0) {
+                templateCache.put(templateCode + _SUFFIX_TEMPLATE_COL, templateCols, generation);
+            }
+        }
+        return templateCols;
+    }
+
+    /**
+     * 模板的主键列，colModel 中 key 为 true 的列名
+     * @param templateCode 模板编码
+     * @param userId
+     * @return 没有配置时返回null
+     * @throws SMOException
+     */
+    private String getTemplateKeyCol(String templateCode, String userId) throws SMOException{
+        JSONArray templateCols = queryTemplateCols(templateCode, userId);
+        if(templateCols == null){
+            return null;
+        }
+        for(int colIndex = 0; colIndex < templateCols.size(); colIndex ++){
+            Object colModel = templateCols.getJSONObject(colIndex).get("colModel");
+            if(colModel instanceof JSONObject && ((JSONObject) colModel).getBooleanValue("key")){
+                return ((JSONObject) colModel).getString("name");
+            }
+        }
+        return null;
+    }
+
     /**
      *  colModel 字段处理
      * @param jsonArray
@@ -250,19 +315,28 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
 
         Assert.hasText(templateCode,"模板编码不能为空");
 
-        Map paramIn = new HashMap();
-        paramIn.put("templateCode", templateCode);
-        paramIn.put(CommonConstant.ORDER_USER_ID,pd.getUserId());
-        paramIn.put(ServiceCodeConstant.SERVICE_CODE,ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE);
-        paramIn.put(ServiceCodeConstant.SERVICE_CODE_NAME,ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE_NAME);
-        //paramIn.put("userPwd", userPwd);
-        JSONObject businessObj = doExecute(paramIn);
-
-        Assert.isNotNull(businessObj,"template","查询模板 服务配置错误，返回报文中未包含template节点");
-
+        JSONObject template = (JSONObject) templateCache.get(templateCode + _SUFFIX_TEMPLATE);
+        if(template == null) {
+            long generation = templateCache.getGeneration();
+            Map paramIn = new HashMap();
+            paramIn.put("templateCode", templateCode);
+            paramIn.put(CommonConstant.ORDER_USER_ID, pd.getUserId());
+            paramIn.put(ServiceCodeConstant.SERVICE_CODE, ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE);
+            paramIn.put(ServiceCodeConstant.SERVICE_CODE_NAME, ServiceCodeConstant.SERVICE_CODE_QUERY_CONSOLE_TEMPLATE_NAME);
+            //paramIn.put("userPwd", userPwd);
+            JSONObject businessObj = doExecute(paramIn);
+
+            Assert.isNotNull(businessObj, "template", "查询模板 服务配置错误，返回报文中未包含template节点");
+
+            template = businessObj.getJSONObject("template");
+            //模板不存在时不缓存
+            if(template != null && template.size() > 0) {
+                templateCache.put(templateCode + _SUFFIX_TEMPLATE, template, generation);
+            }
+        }
 
         JSONObject templateObj = new JSONObject();
-        templateObj.put("template",businessObj.getJSONObject("template"));
+        templateObj.put("template",template);
         pd.setData(templateObj);
         pd.setResJson(DataTransactionFactory.pageResponseJson(pd.getTransactionId(),ResponseConstant.RESULT_CODE_SUCCESS,"查询成功 ",templateObj));
 
@@ -270,6 +344,7 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
 
     /**
      * 查询模板数据
+     * 请求中有 cursor 并且模板 colModel 中配置了主键列(key 为 true) 时按 keyset 分页查询，返回报文中的 nextCursor 为下一页的游标
      * @param pd
      * @throws SMOException
      */
@@ -293,6 +368,16 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
         paramIn.put("rows", rows);
         paramIn.put("page", (page-1)*rows);
         paramIn.put("sord", sord);
+        //keyset 分页，把上一页返回的 nextCursor 原样传回，查第一页时传空，模板没有配置主键列时按 page 偏移分页
+        if(pd.getParam().containsKey(CommonConstant.TEMPLATE_PAGE_CURSOR)){
+            String keyCol = getTemplateKeyCol(pd.getParam().getString("templateCode"), pd.getUserId());
+            if(!StringUtil.isNullOrNone(keyCol)) {
+                String cursor = pd.getParam().getString(CommonConstant.TEMPLATE_PAGE_CURSOR);
+                paramIn.put(CommonConstant.TEMPLATE_PAGE_CURSOR, cursor == null ? "" : cursor);
+                paramIn.put(CommonConstant.TEMPLATE_PAGE_KEY_COL, keyCol);
+                paramIn.put(CommonConstant.TEMPLATE_PAGE_SIDX, pd.getParam().getString(CommonConstant.TEMPLATE_PAGE_SIDX));
+            }
+        }
         paramIn.put("userId", pd.getUserId());
         paramIn.put(CommonConstant.ORDER_USER_ID,pd.getUserId());
         paramIn.put(ServiceCodeConstant.SERVICE_CODE,getServiceCode(templateUrl,CommonConstant.TEMPLATE_URL_LIST));
@@ -331,6 +416,8 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
 
         Assert.notEmpty(businessObj,"刷新缓存失败，请联系管理员");
 
+        clearTemplateCache();
+
         pd.setResJson(DataTransactionFactory.pageResponseJson(pd.getTransactionId(),ResponseConstant.RESULT_CODE_SUCCESS,"查询成功 ",null));
 
     }
@@ -397,9 +484,25 @@ public class ConsoleServiceSMOImpl extends LoggerEngine implements IConsoleServi
         //paramIn.put("userPwd", userPwd);
         JSONObject businessObj = doExecute(paramIn);
 
+        //编辑的可能是模板本身
+        clearTemplateCache();
+
         pd.setResJson(businessObj);
     }
 
+    /**
+     * 刷新模板缓存版本号，通知所有控制台实例清空模板 和 模板列 本地缓存
+     */
+    private void clearTemplateCache(){
+        try {
+            templateCache.flushVersion();
+        }catch (Exception e){
+            //redis 异常时至少清空本实例，其他实例等缓存条目过期
+            logger.error("刷新模板缓存版本号失败",e);
+            templateCache.clear();
+        }
+    }
+
     /**
      * 获取serviceCode
      * @param templateUrl
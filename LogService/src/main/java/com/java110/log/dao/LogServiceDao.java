@@ -32,4 +32,18 @@ public interface LogServiceDao {
      * @param logMessageParams 日志参数信息
      */
     public void saveTransactionLogMessage(Map logMessageParams) throws DAOException;
+
+    /**
+     * 批量保存日志
+     * 相关表 l_transaction_log
+     * @param logMessageParamsList 日志参数信息
+     */
+    public void saveTransactionLogs(List<Map> logMessageParamsList) throws DAOException;
+
+    /**
+     * 批量保存日志（交互报文）
+     * 相关表 l_transaction_log_message
+     * @param logMessageParamsList 日志参数信息
+     */
+    public void saveTransactionLogMessages(List<Map> logMessageParamsList) throws DAOException;
 }
\ No newline at end of file
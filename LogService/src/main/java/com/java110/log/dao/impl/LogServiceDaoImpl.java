@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -59,4 +60,30 @@ public class LogServiceDaoImpl extends BaseServiceDao implements LogServiceDao {
         }
 
     }
+
+    /**
+     * 批量保存日志
+     * @param logMessageParamsList 日志参数信息
+     */
+    @Override
+    public void saveTransactionLogs(List<Map> logMessageParamsList) throws DAOException {
+        logger.debug("save logs size :{}",logMessageParamsList.size());
+        int row = sqlSessionTemplate.insert("logServiceDaoImpl.saveTransactionLogs",logMessageParamsList);
+        if(row < logMessageParamsList.size()){
+            throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR,"save logs error, saved "+row+" of "+logMessageParamsList.size());
+        }
+    }
+
+    /**
+     * 批量保存日志（交互报文）
+     * @param logMessageParamsList 日志参数信息
+     */
+    @Override
+    public void saveTransactionLogMessages(List<Map> logMessageParamsList) throws DAOException {
+        logger.debug("save log messages size :{}",logMessageParamsList.size());
+        int row = sqlSessionTemplate.insert("logServiceDaoImpl.saveTransactionLogMessages",logMessageParamsList);
+        if(row < logMessageParamsList.size()){
+            throw new DAOException(ResponseConstant.RESULT_CODE_INNER_ERROR,"save log messages error, saved "+row+" of "+logMessageParamsList.size());
+        }
+    }
 }
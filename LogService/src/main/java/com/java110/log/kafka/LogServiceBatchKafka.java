@@ -0,0 +1,48 @@
+package com.java110.log.kafka;
+
+import com.java110.core.base.controller.BaseController;
+import com.java110.log.smo.ILogServiceSMO;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * kafka侦听(批量)
+ * 一次poll 的日志一起保存，报文格式同 LogServiceKafka
+ * 批量保存失败时逐条保存，避免一条错误数据导致整批丢失
+ * Created by wuxw on 2018/4/15.
+ */
+public class LogServiceBatchKafka extends BaseController {
+
+    @Autowired
+    private ILogServiceSMO logServiceSMOImpl;
+
+    @KafkaListener(topics = {"LOG"}, containerFactory = "batchKafkaListenerContainerFactory")
+    public void listen(List<ConsumerRecord<?, ?>> records) {
+        logger.debug("LogServiceBatchKafka receive message size: {}", records.size());
+        List<String> logMessages = new ArrayList<String>(records.size());
+        for (ConsumerRecord<?, ?> record : records) {
+            logMessages.add(record.value().toString());
+        }
+        try {
+            logServiceSMOImpl.saveLogMessages(logMessages);
+        } catch (Exception e) {
+            logger.error("批量保存日志失败，逐条保存", e);
+            for (String logMessage : logMessages) {
+                logServiceSMOImpl.saveLogMessage(logMessage);
+            }
+        }
+    }
+
+
+    public ILogServiceSMO getLogServiceSMOImpl() {
+        return logServiceSMOImpl;
+    }
+
+    public void setLogServiceSMOImpl(ILogServiceSMO logServiceSMOImpl) {
+        this.logServiceSMOImpl = logServiceSMOImpl;
+    }
+}
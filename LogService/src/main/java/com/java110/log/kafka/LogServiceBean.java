@@ -1,16 +1,65 @@
 package com.java110.log.kafka;
 
+import com.java110.core.kafka.KafkaConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.util.Map;
 
 /**
+ * 日志侦听
+ * kafka.consumer.batch.enabled 为 true 时按批消费(每次poll 最多 kafka.consumer.batch.maxPollRecords 条)，否则逐条消费
+ * 数据流日志(一次请求合并成一条消息)单独侦听
  * Created by wuxw on 2018/4/15.
  */
 @Configuration
 public class LogServiceBean {
+
     @Bean
+    @ConditionalOnProperty(prefix = "kafka.consumer.batch", name = "enabled", havingValue = "false", matchIfMissing = true)
     public LogServiceKafka listener() {
         return new LogServiceKafka();
     }
 
+    @Bean
+    @ConditionalOnProperty(prefix = "kafka.consumer.batch", name = "enabled", havingValue = "true")
+    public LogServiceBatchKafka batchListener() {
+        return new LogServiceBatchKafka();
+    }
+
+    @Bean
+    public LogServiceDataFlowKafka dataFlowListener() {
+        return new LogServiceDataFlowKafka();
+    }
+
+    /**
+     * 批量消费 容器工厂
+     * @param kafkaConsumerConfig 公用消费者配置
+     * @param maxPollRecords 每次poll 最多条数，超过编码服务一次生成的上限时 log_id 分多次生成
+     * @param concurrency 并发数
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "kafka.consumer.batch", name = "enabled", havingValue = "true")
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, String>> batchKafkaListenerContainerFactory(
+            KafkaConsumerConfig kafkaConsumerConfig,
+            @Value("${kafka.consumer.batch.maxPollRecords:500}") int maxPollRecords,
+            @Value("${kafka.consumer.concurrency}") int concurrency) {
+        Map<String, Object> propsMap = kafkaConsumerConfig.consumerConfigs();
+        propsMap.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<String, String>(propsMap));
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setPollTimeout(1500);
+        return factory;
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.java110.log.kafka;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.java110.core.base.controller.BaseController;
+import com.java110.log.smo.ILogServiceSMO;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * kafka侦听(数据流日志)
+ * 一次请求的交互日志和耗时合并成一条消息，报文格式为：
+ * {
+ *     "transactionId":"交易流水号",
+ *     "dataFlowId":"上下文对象",
+ *     "ip":"ip",
+ *     "port":"端口",
+ *     "logs":[{"appId":"","userId":"","serviceCode":"","serviceName":"","timestamp":"","logStatus":"","costTime":"","requestMessage":"","responseMessage":""}],
+ *     "costDates":[{"linksCode":"","linksName":"","startDate":"","endDate":""}]
+ * }
+ * 日志过大时 LogAgent 拆成多条消息发送，每条都有公共字段，costDates 只在第一条中
+ * logs 还原成 LogServiceKafka 的报文格式后批量保存，批量保存失败时逐条保存
+ * Created by wuxw on 2018/6/9.
+ */
+public class LogServiceDataFlowKafka extends BaseController {
+
+    private final static String[] COMMON_KEYS = {"transactionId", "dataFlowId", "ip", "port"};
+
+    @Autowired
+    private ILogServiceSMO logServiceSMOImpl;
+
+    @KafkaListener(topics = {"DATA_FLOW_LOG"})
+    public void listen(ConsumerRecord<?, ?> record) {
+        JSONObject dataFlowLog = JSONObject.parseObject(record.value().toString());
+        logger.debug("LogServiceDataFlowKafka receive dataFlowId: {}", dataFlowLog.getString("dataFlowId"));
+
+        //耗时目前只记录到日志中
+        JSONArray costDates = dataFlowLog.getJSONArray("costDates");
+        if (costDates != null && costDates.size() > 0) {
+            logger.debug("dataFlowId {} costDates : {}", dataFlowLog.getString("dataFlowId"), costDates);
+        }
+
+        List<String> logMessages = getLogMessages(dataFlowLog);
+        if (logMessages.size() == 0) {
+            return;
+        }
+        try {
+            logServiceSMOImpl.saveLogMessages(logMessages);
+        } catch (Exception e) {
+            logger.error("批量保存日志失败，逐条保存", e);
+            for (String logMessage : logMessages) {
+                logServiceSMOImpl.saveLogMessage(logMessage);
+            }
+        }
+    }
+
+    /**
+     * 每条交互日志加上公共的 transactionId dataFlowId ip port
+     * @param dataFlowLog 数据流日志
+     * @return 格式同 LogServiceKafka 的日志报文
+     */
+    static List<String> getLogMessages(JSONObject dataFlowLog) {
+        JSONArray logs = dataFlowLog.getJSONArray("logs");
+        List<String> logMessages = new ArrayList<String>(logs == null ? 0 : logs.size());
+        if (logs == null) {
+            return logMessages;
+        }
+        JSONObject logMessage = null;
+        for (int logIndex = 0; logIndex < logs.size(); logIndex++) {
+            logMessage = logs.getJSONObject(logIndex);
+            for (String key : COMMON_KEYS) {
+                logMessage.put(key, dataFlowLog.get(key));
+            }
+            logMessages.add(logMessage.toJSONString());
+        }
+        return logMessages;
+    }
+
+
+    public ILogServiceSMO getLogServiceSMOImpl() {
+        return logServiceSMOImpl;
+    }
+
+    public void setLogServiceSMOImpl(ILogServiceSMO logServiceSMOImpl) {
+        this.logServiceSMOImpl = logServiceSMOImpl;
+    }
+}
@@ -3,6 +3,8 @@ package com.java110.log.smo;
 import com.alibaba.fastjson.JSONObject;
 import com.java110.entity.order.OrderList;
 
+import java.util.List;
+
 /**
  * 订单服务业务处理接口
  *
@@ -34,4 +36,11 @@ public interface ILogServiceSMO {
      */
     public void saveLogMessage(String logMessage);
 
+    /**
+     * 批量保存日志信息，一次批量生成log_id，两张表各一次多行插入，在同一个事务中
+     * 任何一条失败整批回滚并抛出异常，由调用方决定是否逐条重试
+     * @param logMessages 需要保存的日志信息，格式同 saveLogMessage
+     */
+    public void saveLogMessages(List<String> logMessages);
+
 }
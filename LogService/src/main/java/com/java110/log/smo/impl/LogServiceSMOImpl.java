@@ -1,7 +1,9 @@
 package com.java110.log.smo.impl;
 
 import com.alibaba.fastjson.JSONObject;
+import com.java110.common.constant.ResponseConstant;
 import com.java110.common.exception.GenerateCodeException;
+import com.java110.common.exception.SMOException;
 import com.java110.common.log.LoggerEngine;
 import com.java110.common.util.Assert;
 import com.java110.common.util.DateUtil;
@@ -17,9 +19,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.rmi.NoSuchObjectException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -80,6 +84,51 @@ public class LogServiceSMOImpl extends BaseServiceSMO implements ILogServiceSMO
 
     }
 
+    /**
+     * 批量保存日志信息
+     * @param logMessages 需要保存的日志信息
+     */
+    @Override
+    public void saveLogMessages(List<String> logMessages) {
+        logger.debug("received log messages size : {}" ,logMessages.size());
+
+        List<JSONObject> logMessageObjs = new ArrayList<JSONObject>(logMessages.size());
+        for(String logMessage : logMessages){
+            try {
+                JSONObject logMessageObj = JSONObject.parseObject(logMessage);
+                validateLogMessage(logMessageObj);
+                logMessageObjs.add(logMessageObj);
+            }catch (Exception e){
+                //格式不正确的日志，单条处理时同样无法保存，这里直接丢弃
+                logger.error("log message is invalid :" + logMessage,e);
+            }
+        }
+
+        if(logMessageObjs.size() == 0){
+            return ;
+        }
+
+        try {
+            // 批量生成log_id
+            List<String> logIds = GenerateCodeFactory.getInnerTransactionIds(logMessageObjs.size());
+
+            List<Map> logMessageParamsList = new ArrayList<Map>(logMessageObjs.size());
+            for (int logIndex = 0; logIndex < logMessageObjs.size(); logIndex++) {
+                Map logMessageParams = new HashMap();
+                logMessageParams.put("logId", logIds.get(logIndex));
+                builderLogMessageParams(logMessageParams, logMessageObjs.get(logIndex));
+                logMessageParamsList.add(logMessageParams);
+            }
+
+            //保存日志
+            logServiceDaoImpl.saveTransactionLogs(logMessageParamsList);
+            //保存日志（交互报文）
+            logServiceDaoImpl.saveTransactionLogMessages(logMessageParamsList);
+        }catch (Exception e){
+            throw new SMOException(ResponseConstant.RESULT_CODE_INNER_ERROR,"批量保存日志失败 " + e.getMessage());
+        }
+    }
+
     /**
      * 封装日志保存参数
      * @param logMessageParams 日志保存参数
@@ -0,0 +1,348 @@
+package com.java110.log.kafka;
+
+import com.alibaba.fastjson.JSONObject;
+import com.java110.common.constant.ResponseConstant;
+import com.java110.common.factory.ApplicationContextFactory;
+import com.java110.core.factory.GenerateCodeFactory;
+import com.java110.core.kafka.KafkaConsumerConfig;
+import com.java110.feign.code.ICodeApi;
+import com.java110.log.dao.impl.LogServiceDaoImpl;
+import com.java110.log.smo.impl.LogServiceSMOImpl;
+import junit.framework.TestCase;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.rule.KafkaEmbedded;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量日志侦听 测试，使用 H2 内存库(MySQL 模式) 和 LogServiceDaoImplMapper.xml，
+ * 编码服务用桩代替，和 CodeApi 一样一次最多生成 1000 个编码，
+ * 吞吐量对比使用嵌入式 kafka(KafkaEmbedded)
+ * Created by wuxw on 2018/4/15.
+ */
+public class LogServiceBatchKafkaTest extends TestCase {
+
+    private final static String MAPPER = "mapper/log/LogServiceDaoImplMapper.xml";
+
+    //吞吐量对比 发送到 LOG 的日志条数
+    private final static int THROUGHPUT_RECORDS = 5000;
+
+    private final static String[] CREATE_TABLES = {
+            "create table l_transaction_log(log_id varchar(30) not null, transaction_id varchar(36) not null,"
+                    + " contract_id varchar(64) not null, ip varchar(20) not null, port varchar(10) not null, src_ip varchar(20),"
+                    + " src_port varchar(10), app_id varchar(30) not null, user_id varchar(30), service_code varchar(50),"
+                    + " service_name varchar(50), timestamp timestamp not null, cost_time int not null default 0,"
+                    + " status_cd varchar(2) not null, month int not null, create_time timestamp default current_timestamp,"
+                    + " unique key (log_id,month))",
+            "create table l_transaction_log_message(log_id varchar(30) not null, request_header longtext,"
+                    + " response_header longtext, request_message longtext, response_message longtext, remark varchar(200),"
+                    + " month int not null, create_time timestamp default current_timestamp, unique key (log_id,month))"
+    };
+
+    private JdbcDataSource dataSource;
+
+    private CodeApiStub codeApiStub;
+
+    private Configuration configuration;
+
+    private LogServiceBatchKafka logServiceBatchKafka;
+
+    @Override
+    protected void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + getName() + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            for (String createTable : CREATE_TABLES) {
+                statement.execute(createTable);
+            }
+            statement.close();
+        } finally {
+            conn.close();
+        }
+
+        configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        InputStream mapper = Resources.getResourceAsStream(MAPPER);
+        try {
+            new XMLMapperBuilder(mapper, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        } finally {
+            mapper.close();
+        }
+
+        LogServiceDaoImpl logServiceDaoImpl = new LogServiceDaoImpl();
+        logServiceDaoImpl.setSessionTemplate(new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)));
+
+        codeApiStub = new CodeApiStub();
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton(ICodeApi.class.getName(), codeApiStub);
+        context.refresh();
+        ApplicationContextFactory.setApplicationContext(context);
+
+        LogServiceSMOImpl logServiceSMOImpl = new LogServiceSMOImpl();
+        logServiceSMOImpl.setLogServiceDaoImpl(logServiceDaoImpl);
+        logServiceSMOImpl.setCodeApi(codeApiStub);
+
+        logServiceBatchKafka = new LogServiceBatchKafka();
+        logServiceBatchKafka.setLogServiceSMOImpl(logServiceSMOImpl);
+    }
+
+    public void testOnePoll() throws Exception {
+        logServiceBatchKafka.listen(records(500));
+
+        assertEquals(500, queryInt("select count(1) from l_transaction_log"));
+        assertEquals(500, queryInt("select count(1) from l_transaction_log_message"));
+        assertEquals(1, codeApiStub.calls);
+    }
+
+    /**
+     * maxPollRecords 大于编码服务一次生成的上限时，分多次生成 log_id
+     */
+    public void testPollAboveGenerateLimit() throws Exception {
+        int count = GenerateCodeFactory.MAX_GENERATE_CODE_COUNT * 2 + 1;
+        logServiceBatchKafka.listen(records(count));
+
+        assertEquals(count, queryInt("select count(1) from l_transaction_log"));
+        assertEquals(count, queryInt("select count(1) from l_transaction_log_message"));
+        assertEquals(count, queryInt("select count(distinct log_id) from l_transaction_log"));
+        assertEquals(3, codeApiStub.calls);
+    }
+
+    public void testInvalidRecordSkipped() throws Exception {
+        List<ConsumerRecord<?, ?>> records = records(10);
+        records.add(new ConsumerRecord<String, String>("LOG", 0, 10, null, "{\"transactionId\":\"1\"}"));
+        logServiceBatchKafka.listen(records);
+
+        assertEquals(10, queryInt("select count(1) from l_transaction_log"));
+        assertEquals(10, queryInt("select count(1) from l_transaction_log_message"));
+    }
+
+    /**
+     * 吞吐量对比：嵌入式 kafka 中发送 THROUGHPUT_RECORDS 条日志到 LOG，
+     * 分别用 逐条侦听(LogServiceKafka) 和 批量侦听(batchKafkaListenerContainerFactory) 消费到 H2，
+     * 从第一次保存开始到最后一次保存结束计算每秒保存条数(不含消费者加入消费组的时间)，
+     * 先直接调用两种侦听各保存一次预热，H2 内存库没有网络往返和提交的开销，两种方式差别不大，批量的收益主要在 mysql 的往返次数上
+     */
+    public void testThroughputWithEmbeddedKafka() throws Exception {
+        List<ConsumerRecord<?, ?>> warmUpRecords = records(THROUGHPUT_RECORDS);
+        logServiceBatchKafka.listen(warmUpRecords);
+        LogServiceKafka logServiceKafka = new LogServiceKafka();
+        logServiceKafka.setLogServiceSMOImpl(logServiceBatchKafka.getLogServiceSMOImpl());
+        for (ConsumerRecord<?, ?> record : warmUpRecords) {
+            logServiceKafka.listen(record);
+        }
+
+        EmbeddedBroker broker = new EmbeddedBroker();
+        broker.start();
+        try {
+            sendLogs(broker, THROUGHPUT_RECORDS);
+            double recordRate = consumeLogs(broker, false);
+            double batchRate = consumeLogs(broker, true);
+            System.out.println("LOG " + THROUGHPUT_RECORDS + " 条，逐条侦听 " + Math.round(recordRate)
+                    + " 条/秒，批量侦听 " + Math.round(batchRate) + " 条/秒");
+            assertEquals(THROUGHPUT_RECORDS * 4, queryInt("select count(1) from l_transaction_log"));
+            assertEquals(THROUGHPUT_RECORDS * 4, queryInt("select count(1) from l_transaction_log_message"));
+        } finally {
+            broker.stop();
+        }
+    }
+
+    private void sendLogs(EmbeddedBroker broker, int count) {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<String, String>(producerProps);
+        try {
+            KafkaTemplate<String, String> kafkaTemplate = new KafkaTemplate<String, String>(producerFactory);
+            for (ConsumerRecord<?, ?> record : records(count)) {
+                kafkaTemplate.send("LOG", record.value().toString());
+            }
+            kafkaTemplate.flush();
+        } finally {
+            producerFactory.stop();
+        }
+    }
+
+    /**
+     * 按 LogServiceBean 的配置启动侦听，每种方式用单独的消费组从头消费
+     * @param broker
+     * @param batch kafka.consumer.batch.enabled
+     * @return 每秒保存条数
+     */
+    private double consumeLogs(EmbeddedBroker broker, boolean batch) throws Exception {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("kafka.consumer.servers", broker.getBrokersAsString());
+        props.put("kafka.consumer.enable.auto.commit", "true");
+        props.put("kafka.consumer.session.timeout", "6000");
+        props.put("kafka.consumer.auto.commit.interval", "100");
+        props.put("kafka.consumer.group.id", batch ? "logBatch" : "logRecord");
+        props.put("kafka.consumer.auto.offset.reset", "earliest");
+        props.put("kafka.consumer.concurrency", "1");
+        props.put("kafka.consumer.batch.enabled", String.valueOf(batch));
+
+        LogServiceDaoImpl logServiceDaoImpl = new LogServiceDaoImpl();
+        logServiceDaoImpl.setSessionTemplate(new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)));
+        TimingLogServiceSMO timingLogServiceSMO = new TimingLogServiceSMO();
+        timingLogServiceSMO.setLogServiceDaoImpl(logServiceDaoImpl);
+        timingLogServiceSMO.setCodeApi(codeApiStub);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("logKafkaTest", props));
+        context.getBeanFactory().registerSingleton("logServiceSMOImpl", timingLogServiceSMO);
+        context.register(KafkaConsumerConfig.class, LogServiceBean.class);
+        context.refresh();
+        try {
+            long deadline = System.currentTimeMillis() + 120000;
+            while (timingLogServiceSMO.saved.get() < THROUGHPUT_RECORDS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(THROUGHPUT_RECORDS, timingLogServiceSMO.saved.get());
+            return THROUGHPUT_RECORDS * 1000000000.0 / (timingLogServiceSMO.lastEnd - timingLogServiceSMO.firstStart);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<ConsumerRecord<?, ?>> records(int count) {
+        List<ConsumerRecord<?, ?>> records = new ArrayList<ConsumerRecord<?, ?>>(count + 1);
+        for (int recordIndex = 0; recordIndex < count; recordIndex++) {
+            JSONObject message = new JSONObject();
+            message.put("headers", "{}");
+            message.put("body", "{\"index\":" + recordIndex + "}");
+            JSONObject log = new JSONObject();
+            log.put("transactionId", "T" + recordIndex);
+            log.put("dataFlowId", "D" + recordIndex);
+            log.put("ip", "127.0.0.1");
+            log.put("port", "8001");
+            log.put("appId", "8000418001");
+            log.put("timestamp", "20180415120000");
+            log.put("logStatus", "S");
+            log.put("requestMessage", message.toJSONString());
+            log.put("responseMessage", message.toJSONString());
+            records.add(new ConsumerRecord<String, String>("LOG", 0, recordIndex, null, log.toJSONString()));
+        }
+        return records;
+    }
+
+    private int queryInt(String sql) throws Exception {
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            ResultSet rs = statement.executeQuery(sql);
+            rs.next();
+            int value = rs.getInt(1);
+            statement.close();
+            return value;
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * 嵌入式 kafka，一个 broker，启动时创建 LOG
+     */
+    private static class EmbeddedBroker extends KafkaEmbedded {
+
+        EmbeddedBroker() {
+            super(1, true, "LOG");
+        }
+
+        void start() throws Exception {
+            before();
+        }
+
+        void stop() {
+            after();
+        }
+    }
+
+    /**
+     * 记录第一次保存开始 和 最后一次保存结束的时间，以及保存的条数
+     */
+    private static class TimingLogServiceSMO extends LogServiceSMOImpl {
+
+        private final AtomicInteger saved = new AtomicInteger();
+
+        private volatile long firstStart;
+
+        private volatile long lastEnd;
+
+        @Override
+        public void saveLogMessage(String logMessage) {
+            long start = System.nanoTime();
+            super.saveLogMessage(logMessage);
+            saved(start, 1);
+        }
+
+        @Override
+        public void saveLogMessages(List<String> logMessages) {
+            long start = System.nanoTime();
+            super.saveLogMessages(logMessages);
+            saved(start, logMessages.size());
+        }
+
+        private void saved(long start, int count) {
+            if (firstStart == 0) {
+                firstStart = start;
+            }
+            lastEnd = System.nanoTime();
+            saved.addAndGet(count);
+        }
+    }
+
+    /**
+     * 编码服务桩，超过 1000 个时和 CodeApi 一样返回失败
+     */
+    private static class CodeApiStub implements ICodeApi {
+
+        private final AtomicLong sequence = new AtomicLong();
+
+        private int calls;
+
+        @Override
+        public String generateCode(String prefix) {
+            return prefix + sequence.incrementAndGet();
+        }
+
+        @Override
+        public String generateCodes(String prefix, int count) {
+            calls++;
+            if (count < 1 || count > 1000) {
+                return ResponseConstant.RESULT_CODE_ERROR;
+            }
+            StringBuilder codes = new StringBuilder();
+            for (int codeIndex = 0; codeIndex < count; codeIndex++) {
+                if (codeIndex > 0) {
+                    codes.append(",");
+                }
+                codes.append(prefix).append(sequence.incrementAndGet());
+            }
+            return codes.toString();
+        }
+    }
+}
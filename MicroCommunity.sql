@@ -515,7 +515,8 @@ CREATE TABLE `c_business` (
   `finish_time` date DEFAULT NULL COMMENT '完成时间',
   `remark` varchar(200) DEFAULT NULL COMMENT '备注',
   `status_cd` varchar(2) NOT NULL COMMENT '数据状态，详细参考c_status表',
-  UNIQUE KEY `b_id` (`b_id`)
+  UNIQUE KEY `b_id` (`b_id`),
+  KEY `idx_c_business_o_id` (`o_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 /*Data for the table `c_business` */
@@ -709,6 +710,7 @@ CREATE TABLE `c_orders` (
   `finish_time` date DEFAULT NULL COMMENT '订单完成时间',
   `remark` varchar(200) DEFAULT NULL COMMENT '备注',
   `status_cd` varchar(2) NOT NULL COMMENT '数据状态，详细参考c_status表',
+  `business_remain` int(11) DEFAULT NULL COMMENT '未完成business过程的业务项数，-1表示已发起Instance',
   UNIQUE KEY `o_id` (`o_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
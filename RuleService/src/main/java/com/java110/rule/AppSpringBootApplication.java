@@ -1,6 +1,7 @@
 package com.java110.rule;
 
 import com.java110.config.properties.EventProperties;
+import com.java110.config.properties.RuleProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -18,7 +19,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication(scanBasePackages="com.java110.service,com.java110.rule")
 @EnableDiscoveryClient
-@EnableConfigurationProperties(EventProperties.class)
+@EnableConfigurationProperties({EventProperties.class,RuleProperties.class})
 public class AppSpringBootApplication {
 
     public static void main(String[] args) throws Exception{
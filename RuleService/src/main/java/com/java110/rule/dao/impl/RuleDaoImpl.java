@@ -1,5 +1,6 @@
 package com.java110.rule.dao.impl;
 
+import com.java110.common.cache.codec.CacheCodecFactory;
 import com.java110.common.constant.RuleDomain;
 import com.java110.common.util.SerializeUtil;
 import com.java110.core.base.dao.BaseServiceDao;
@@ -74,12 +75,12 @@ public class RuleDaoImpl extends BaseServiceDao implements IRuleDao {
         List<RuleEntrance> list = null;
 
         if(jedis.exists(RuleDomain.REDIS_KEY_RULE_ENTRANCE.getBytes())){
-            list =  SerializeUtil.unserializeList(jedis.get(RuleDomain.REDIS_KEY_RULE_ENTRANCE.getBytes()),RuleEntrance.class);
+            list =  CacheCodecFactory.decodeList(jedis.get(RuleDomain.REDIS_KEY_RULE_ENTRANCE.getBytes()),RuleEntrance.class);
         }else{
             list = sqlSessionTemplate.selectList("ruleDaoImpl.getRuleEntranceMap");
             //将 数据缓存至redis中
 
-            jedis.set(RuleDomain.REDIS_KEY_RULE_ENTRANCE.getBytes(),SerializeUtil.serializeList(list));
+            jedis.set(RuleDomain.REDIS_KEY_RULE_ENTRANCE.getBytes(),CacheCodecFactory.encodeList(list));
         }
 
         if (null != list && !list.isEmpty()) {
@@ -175,7 +176,7 @@ public class RuleDaoImpl extends BaseServiceDao implements IRuleDao {
         Map map = new HashMap();
 
         if(jedis.exists(RuleDomain.REDIS_KEY_RULE.getBytes())){
-            ruleList =  SerializeUtil.unserializeList(jedis.get(RuleDomain.REDIS_KEY_RULE.getBytes()),Rule.class);
+            ruleList =  CacheCodecFactory.decodeList(jedis.get(RuleDomain.REDIS_KEY_RULE.getBytes()),Rule.class);
         }else{
             ruleList = sqlSessionTemplate.selectList("ruleDaoImpl.queryRule");
             for (Rule rule : ruleList) {
@@ -185,7 +186,7 @@ public class RuleDaoImpl extends BaseServiceDao implements IRuleDao {
             }
             //将 数据缓存至redis中
 
-            jedis.set(RuleDomain.REDIS_KEY_RULE.getBytes(),SerializeUtil.serializeList(ruleList));
+            jedis.set(RuleDomain.REDIS_KEY_RULE.getBytes(),CacheCodecFactory.encodeList(ruleList));
         }
 
         if (null != ruleList && !ruleList.isEmpty()) {
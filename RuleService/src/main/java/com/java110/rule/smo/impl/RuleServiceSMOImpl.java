@@ -4,6 +4,7 @@ import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.JSONPath;
 import com.java110.common.constant.RuleDomain;
 import com.java110.common.util.CodeMapUtil;
+import com.java110.common.util.DateUtil;
 import com.java110.common.util.RuleUtil;
 import com.java110.core.base.smo.BaseServiceSMO;
 import com.java110.entity.rule.ContractRootRule;
@@ -14,12 +15,11 @@ import com.java110.rule.common.RuleCommon;
 import com.java110.rule.dao.IRuleDao;
 import com.java110.rule.smo.IRuleServiceSMO;
 import com.java110.rule.thread.RuleCommonThread;
+import com.java110.rule.thread.RuleExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
@@ -30,7 +30,7 @@ import java.util.*;
 public class RuleServiceSMOImpl extends BaseServiceSMO implements IRuleServiceSMO {
 
 
-    public static DateFormat df = new SimpleDateFormat("yyyyMMddHHmmSSS");
+    private static final String REQ_TIME_FORMAT = "yyyyMMddHHmmSSS";
 
 
 
@@ -40,6 +40,9 @@ public class RuleServiceSMOImpl extends BaseServiceSMO implements IRuleServiceSM
     @Autowired
     IRuleDao ruleDaoImpl;
 
+    @Autowired
+    RuleExecutor ruleExecutor;
+
 
 
 
@@ -83,7 +86,7 @@ public class RuleServiceSMOImpl extends BaseServiceSMO implements IRuleServiceSM
             reqTcpCont.setTransactionId("-1");
             reqTcpCont.setServiceCode(RuleDomain.RULE_SERVICE_CODE_DEFAULT);
             reqTcpCont.setRuleType(RuleDomain.RULE_TYPE_DEFAULT);
-            reqTcpCont.setReqTime(df.format(new Date()));
+            reqTcpCont.setReqTime(DateUtil.getNow(REQ_TIME_FORMAT));
             contractRootRule.setTcpCont(reqTcpCont);
             contractRootRule.setSvcCont(validateInfoJson);
         }
@@ -207,10 +210,9 @@ public class RuleServiceSMOImpl extends BaseServiceSMO implements IRuleServiceSM
             }
 
             if((StringUtils.isEmpty(depPrvncSaopRuleType) || !depPrvncSaopRuleType.equals("1")) && ruleCount > 0){//不配置或配置不是1 为多线程并发调用模式
-                RuleCommonThread ruleCommonThread = new RuleCommonThread(ruleCommon,"",contractRootRule,reqJson,ruleCount,ruleList);
-                roamFlag = ruleCommonThread.getRuleRst();
-                //关闭线程池
-                ruleCommonThread.shutdownThreadPool();
+                //使用应用共用的规则校验线程池，校验失败或超时时取消剩余任务
+                RuleCommonThread ruleCommonThread = new RuleCommonThread(ruleCommon,"",contractRootRule,reqJson,ruleExecutor.getExecutor(),ruleList);
+                roamFlag = ruleCommonThread.getRuleRst(ruleExecutor.getTimeout());
             }
 
             //校验成功返回
@@ -257,6 +259,14 @@ public class RuleServiceSMOImpl extends BaseServiceSMO implements IRuleServiceSM
         this.ruleCommon = ruleCommon;
     }
 
+    public RuleExecutor getRuleExecutor() {
+        return ruleExecutor;
+    }
+
+    public void setRuleExecutor(RuleExecutor ruleExecutor) {
+        this.ruleExecutor = ruleExecutor;
+    }
+
     public IRuleDao getRuleDaoImpl() {
         return ruleDaoImpl;
     }
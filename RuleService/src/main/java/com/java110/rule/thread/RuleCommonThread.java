@@ -10,6 +10,7 @@ import com.java110.entity.rule.Rule;
 import com.java110.rule.common.RuleCommon;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -30,91 +31,143 @@ public class RuleCommonThread extends LoggerEngine{
 
     private CompletionService<String> ruleCompletionService;
 
+    //已提交的校验任务，校验失败或超时时取消未完成的任务
+    private List<Future<String>> ruleFutures;
+
+    //线程池拒绝提交时的异常
+    private RejectedExecutionException rejectedException;
+
     public RuleCommonThread(RuleCommon ruleCommon, String ruleId,
-                            ContractRootRule contractRootRule,JSONObject reqJson,int threadNum,List<String> ruleList){
+                            ContractRootRule contractRootRule,JSONObject reqJson,ExecutorService rulethreadPool,List<String> ruleList){
 //		super();
         this.ruleCommon = ruleCommon;
         this.ruleId = ruleId;
         this.contractRootRule = contractRootRule;
         this.reqJson = reqJson;
-        this.threadNum = threadNum;
+        this.threadNum = ruleList.size();
+        this.rulethreadPool = rulethreadPool;
 //		this.start();
         this.ruleCurThread(ruleList);
     }
 
     //启动校验线程
     public void ruleCurThread(List<String> ruleList){
-        rulethreadPool = Executors.newFixedThreadPool(threadNum);
         ruleCompletionService = new ExecutorCompletionService<String>(rulethreadPool);
+        ruleFutures = new ArrayList<Future<String>>(ruleList.size());
         //往线程池里面加入线程对象
         for(final String ruleIdStr : ruleList){
-            ruleCompletionService.submit(new Callable<String>(){
-                public String call() throws Exception{
-                    try {
-                        Map<String,Rule> ruleMap = ruleCommon.getRuleMap();
-                        Rule rule = ruleMap.get(ruleIdStr);
-                        String url = rule.getRule_url();
-                        String condRtn = "";
-                        if(!StringUtils.isEmpty(url)){
-                            if(rule.getRule_type().contains(RuleDomain.RULE_TYPE_COND_CFG)){
-                                condRtn = ruleCommon.ruleCommonCondMed(ruleIdStr,contractRootRule,reqJson);
+            try {
+                ruleFutures.add(ruleCompletionService.submit(new Callable<String>(){
+                    public String call() throws Exception{
+                        try {
+                            Map<String,Rule> ruleMap = ruleCommon.getRuleMap();
+                            Rule rule = ruleMap.get(ruleIdStr);
+                            String url = rule.getRule_url();
+                            String condRtn = "";
+                            if(!StringUtils.isEmpty(url)){
+                                if(rule.getRule_type().contains(RuleDomain.RULE_TYPE_COND_CFG)){
+                                    condRtn = ruleCommon.ruleCommonCondMed(ruleIdStr,contractRootRule,reqJson);
+                                }else{
+                                    condRtn = ruleCommon.ruleCond(ruleIdStr,contractRootRule);
+                                }
+                            }
+                            if(!StringUtils.isEmpty(condRtn)){
+                                return condRtn;
                             }else{
-                                condRtn = ruleCommon.ruleCond(ruleIdStr,contractRootRule);
+                                //默认返回成功
+                                return RuleDomain.RULE_COND_RETURN_0000;
+                            }
+                        } catch (Exception e) {
+                            logger.error("校验异常[ruleId:"+ruleIdStr+"]",e);
+                            //动态常量DEP_PRVNC_RULE_ERROR_RET，不配置或配置不是1，则程序异常默认返回成功，其他返回具体异常信息
+                            String depPrvncSaopRuleErrorRet = CodeMapUtil.getDynamicConstantValue("DEP_PRVNC_RULE_ERROR_RET");
+                            if(StringUtils.isEmpty(depPrvncSaopRuleErrorRet) || !depPrvncSaopRuleErrorRet.equals("1")){
+                                return RuleDomain.RULE_COND_RETURN_0000;
+                            }else{
+                                return "LTE4G全量校验规则条件判断环节异常[ruleId:"+ruleIdStr+"]:"+e.getMessage();
                             }
-                        }
-                        if(!StringUtils.isEmpty(condRtn)){
-                            return condRtn;
-                        }else{
-                            //默认返回成功
-                            return RuleDomain.RULE_COND_RETURN_0000;
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        //动态常量DEP_PRVNC_RULE_ERROR_RET，不配置或配置不是1，则程序异常默认返回成功，其他返回具体异常信息
-                        String depPrvncSaopRuleErrorRet = CodeMapUtil.getDynamicConstantValue("DEP_PRVNC_RULE_ERROR_RET");
-                        if(StringUtils.isEmpty(depPrvncSaopRuleErrorRet) || !depPrvncSaopRuleErrorRet.equals("1")){
-                            return RuleDomain.RULE_COND_RETURN_0000;
-                        }else{
-                            return "LTE4G全量校验规则条件判断环节异常[ruleId:"+ruleIdStr+"]:"+e.getMessage();
                         }
                     }
-                }
-            });
+                }));
+            }catch (RejectedExecutionException e){
+                logger.error("规则校验线程池已满，拒绝校验[ruleId:"+ruleIdStr+"]",e);
+                rejectedException = e;
+                break;
+            }
         }
     }
 
-    //获取执行结果
-    public String getRuleRst(){
+    /**
+     * 获取执行结果
+     * @param timeout 超时时间(毫秒)
+     * @return
+     */
+    public String getRuleRst(long timeout){
         String retStr = RuleDomain.RULE_COND_RETURN_0000;
-        for(int i=0; i<this.threadNum; i++){
-            //检索并移除表示下一个已完成任务的 Future，如果目前不存在这样的任务，则等待。
-            try {
-                String ruleRst = ruleCompletionService.take().get();
-                if(RuleDomain.RULE_COND_RETURN_0000.equals(ruleRst)){//校验成功
-
-                }else if(RuleDomain.RULE_COND_RETURN_0003.equals(ruleRst)
-                        || RuleDomain.RULE_COND_RETURN_0004.equals(ruleRst)){//国漫预存款校验
-                    retStr = ruleRst;
-                }else{//校验失败
-                    return ruleRst;
+        long deadline = System.currentTimeMillis() + timeout;
+        try {
+            if(rejectedException != null){
+                String errorRst = errorRst("LTE4G全量校验规则条件判断环节异常:",rejectedException);
+                if(errorRst != null){
+                    return errorRst;
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-                //动态常量DEP_PRVNC_RULE_ERROR_RET，不配置或配置不是1，则程序异常默认返回成功，其他返回具体异常信息
-                String depPrvncSaopRuleErrorRet = CodeMapUtil.getDynamicConstantValue("DEP_PRVNC_RULE_ERROR_RET");
-                if(StringUtils.isEmpty(depPrvncSaopRuleErrorRet) || !depPrvncSaopRuleErrorRet.equals("1")){
-
-                }else{
-                    return "LTE4G全量校验规则条件判断环节异常:"+e.getMessage();
+            }
+            for(int i=0; i<ruleFutures.size(); i++){
+                //检索并移除表示下一个已完成任务的 Future，超时未完成的任务按异常处理
+                try {
+                    Future<String> ruleFuture = ruleCompletionService.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                    if(ruleFuture == null){
+                        throw new TimeoutException("规则校验超时，超时时间 "+timeout+" 毫秒，未完成规则数 "+(ruleFutures.size()-i));
+                    }
+                    String ruleRst = ruleFuture.get();
+                    if(RuleDomain.RULE_COND_RETURN_0000.equals(ruleRst)){//校验成功
+
+                    }else if(RuleDomain.RULE_COND_RETURN_0003.equals(ruleRst)
+                            || RuleDomain.RULE_COND_RETURN_0004.equals(ruleRst)){//国漫预存款校验
+                        retStr = ruleRst;
+                    }else{//校验失败
+                        return ruleRst;
+                    }
+                } catch (TimeoutException e) {
+                    logger.error("规则校验超时",e);
+                    String errorRst = errorRst("LTE4G全量校验规则条件判断环节超时:",e);
+                    return errorRst != null ? errorRst : retStr;
+                } catch (Exception e) {
+                    logger.error("获取规则校验结果异常",e);
+                    String errorRst = errorRst("LTE4G全量校验规则条件判断环节异常:",e);
+                    if(errorRst != null){
+                        return errorRst;
+                    }
                 }
             }
+        }finally {
+            //校验失败、超时时 取消剩余的校验任务
+            cancelRuleTasks();
         }
         return retStr;
     }
 
-    //关闭线程池
-    public void shutdownThreadPool(){
-        rulethreadPool.shutdown();
+    /**
+     * 动态常量DEP_PRVNC_RULE_ERROR_RET，不配置或配置不是1，则程序异常默认返回成功(返回null)，其他返回具体异常信息
+     * @param msg
+     * @param e
+     * @return
+     */
+    private String errorRst(String msg,Exception e){
+        String depPrvncSaopRuleErrorRet = CodeMapUtil.getDynamicConstantValue("DEP_PRVNC_RULE_ERROR_RET");
+        if(StringUtils.isEmpty(depPrvncSaopRuleErrorRet) || !depPrvncSaopRuleErrorRet.equals("1")){
+            return null;
+        }
+        return msg+e.getMessage();
+    }
+
+    //取消未完成的校验任务
+    public void cancelRuleTasks(){
+        for(Future<String> ruleFuture : ruleFutures){
+            if(!ruleFuture.isDone()){
+                ruleFuture.cancel(true);
+            }
+        }
     }
 
     public void run() {
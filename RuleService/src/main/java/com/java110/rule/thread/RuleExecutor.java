@@ -0,0 +1,84 @@
+package com.java110.rule.thread;
+
+import com.java110.common.log.LoggerEngine;
+import com.java110.config.properties.RuleProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 规则校验线程池，整个应用共用一个，不再每次请求创建线程池
+ *
+ * 线程数、队列长度、拒绝策略、超时时间 见 config/rule.properties
+ * Created by wuxw on 2017/7/23.
+ */
+@Component("ruleExecutor")
+public class RuleExecutor extends LoggerEngine {
+
+    public static final String REJECT_POLICY_ABORT = "ABORT";
+
+    @Autowired
+    private RuleProperties ruleProperties;
+
+    private ThreadPoolExecutor ruleThreadPool;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger threadIndex = new AtomicInteger(0);
+        RejectedExecutionHandler rejectedHandler = REJECT_POLICY_ABORT.equals(ruleProperties.getRejectPolicy())
+                ? new ThreadPoolExecutor.AbortPolicy() : new ThreadPoolExecutor.CallerRunsPolicy();
+        ruleThreadPool = new ThreadPoolExecutor(ruleProperties.getCorePoolSize(),
+                Math.max(ruleProperties.getCorePoolSize(), ruleProperties.getMaxPoolSize()),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(ruleProperties.getQueueCapacity()),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "rule-evaluate-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                rejectedHandler);
+        logger.info("规则校验线程池初始化完成 corePoolSize = " + ruleProperties.getCorePoolSize()
+                + " maxPoolSize = " + ruleProperties.getMaxPoolSize()
+                + " queueCapacity = " + ruleProperties.getQueueCapacity()
+                + " rejectPolicy = " + ruleProperties.getRejectPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (ruleThreadPool != null) {
+            ruleThreadPool.shutdownNow();
+        }
+    }
+
+    public ExecutorService getExecutor() {
+        return ruleThreadPool;
+    }
+
+    /**
+     * 一次规则校验的超时时间(毫秒)
+     * @return
+     */
+    public long getTimeout() {
+        return ruleProperties.getTimeout();
+    }
+
+    public RuleProperties getRuleProperties() {
+        return ruleProperties;
+    }
+
+    public void setRuleProperties(RuleProperties ruleProperties) {
+        this.ruleProperties = ruleProperties;
+    }
+}
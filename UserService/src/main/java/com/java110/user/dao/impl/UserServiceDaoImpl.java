@@ -45,7 +45,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
     @Override
     public int saveDataToBoCust(BoCust boCust) throws RuntimeException{
 
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCust】保存数据入参 : " + boCust);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCust】保存数据入参 : {}", boCust);
         int saveFlag = 0;
         try {
 
@@ -55,7 +55,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
             LoggerEngine.error("----【userServiceDaoImpl.saveDataToBoCust】保存数据异常 : " ,e);
             return saveFlag;
         }finally {
-            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCust】保存数据出参 : saveFlag:" + saveFlag);
+            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCust】保存数据出参 : saveFlag:{}", saveFlag);
             return saveFlag;
         }
 
@@ -71,16 +71,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
     @Override
     public int saveDataToBoCustAttr(BoCustAttr boCustAttr) throws RuntimeException {
 
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAttr】保存数据入参 : " + boCustAttr);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAttr】保存数据入参 : {}", boCustAttr);
         //为了保险起见，再测检测reqList 是否有值
         if(boCustAttr == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAttr】保存数据出错 : " + boCustAttr);
+            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAttr】保存数据出错 : {}", boCustAttr);
             return 0;
         }
         int saveFlag = 0;
 
         saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveDataToBoCustAttr",boCustAttr);
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAttr】保存数据出参 :saveFlag " + saveFlag);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAttr】保存数据出参 :saveFlag {}", saveFlag);
 
         return saveFlag;
 
@@ -94,16 +94,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     @Override
     public int saveDataToCust(Cust cust) throws RuntimeException {
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据入参 : " + cust);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据入参 : {}", cust);
         //为了保险起见，再测检测reqList 是否有值
         if(cust == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出错 : " + cust);
+            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出错 : {}", cust);
             throw new IllegalArgumentException("请求参数错误，cust : " + cust);
         }
         int saveFlag = 0;
 
         saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveDataToCust",cust);
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出参 :saveFlag " + saveFlag);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出参 :saveFlag {}", saveFlag);
 
         return saveFlag;
     }
@@ -116,16 +116,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     @Override
     public int saveDataToCustAttr(CustAttr custAttr) throws RuntimeException {
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据入参 : " + custAttr);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据入参 : {}", custAttr);
         //为了保险起见，再测检测reqList 是否有值
         if(custAttr == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出错 : " + custAttr);
+            LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出错 : {}", custAttr);
             throw new IllegalArgumentException("请求参数错误，custAttr : " + custAttr);
         }
         int saveFlag = 0;
 
         saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveDataToCustAttr",custAttr);
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出参 :saveFlag " + saveFlag);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToCust】保存数据出参 :saveFlag {}", saveFlag);
 
         return saveFlag;
     }
@@ -137,16 +137,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws RuntimeException
      */
     public int deleteDataToCust(Cust cust) throws RuntimeException{
-        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCust】保存数据入参 : " + cust);
+        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCust】保存数据入参 : {}", cust);
         //为了保险起见，再测检测reqList 是否有值
         if(cust == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCust】保存数据出错 : " + cust);
+            LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCust】保存数据出错 : {}", cust);
             throw new IllegalArgumentException("请求参数错误，cust : " + cust);
         }
         int saveFlag = 0;
 
         saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.deleteDataToCust",cust);
-        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCust】保存数据出参 :saveFlag " + saveFlag);
+        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCust】保存数据出参 :saveFlag {}", saveFlag);
 
         return saveFlag;
     }
@@ -158,16 +158,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws RuntimeException
      */
     public int deleteDataToCustAttr(CustAttr custAttr) throws RuntimeException{
-        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCustAttr】保存数据入参 : " + custAttr);
+        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCustAttr】保存数据入参 : {}", custAttr);
         //为了保险起见，再测检测reqList 是否有值
         if(custAttr == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCustAttr】保存数据出错 : " + custAttr);
+            LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCustAttr】保存数据出错 : {}", custAttr);
             throw new IllegalArgumentException("请求参数错误，custAttr : " + custAttr);
         }
         int saveFlag = 0;
 
         saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.deleteDataToCustAttr",custAttr);
-        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCustAttr】保存数据出参 :saveFlag " + saveFlag);
+        LoggerEngine.debug("----【userServiceDaoImpl.deleteDataToCustAttr】保存数据出参 :saveFlag {}", saveFlag);
 
         return saveFlag;
     }
@@ -183,7 +183,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
     @Override
     public String saveDataToBoCustAndBoCustAttr(String boCustInfo) throws RuntimeException {
 
-        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAndBoCustAttr】保存数据入参"+boCustInfo);
+        LoggerEngine.debug("----【userServiceDaoImpl.saveDataToBoCustAndBoCustAttr】保存数据入参{}", boCustInfo);
 
         return null;
     }
@@ -216,16 +216,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     @Override
     public Cust queryDataToCust(Cust cust) throws RuntimeException {
-        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据入参 : " + cust);
+        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据入参 : {}", cust);
         //为了保险起见，再测检测reqList 是否有值
         if(cust == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出错 : " + cust);
+            LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出错 : {}", cust);
             throw new IllegalArgumentException("请求参数错误，cust : " + cust);
         }
 
         Cust newCust  = sqlSessionTemplate.selectOne("userServiceDaoImpl.queryDataToCust",cust);
 
-        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出参 :newCust " + newCust);
+        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出参 :newCust {}", newCust);
 
         return newCust;
     }
@@ -239,16 +239,16 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     @Override
     public List<CustAttr> queryDataToCustAttr(CustAttr custAttr) throws RuntimeException {
-        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCustAttr】保存数据入参 : " + custAttr);
+        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCustAttr】保存数据入参 : {}", custAttr);
         //为了保险起见，再测检测reqList 是否有值
         if(custAttr == null){
-            LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出错 : " + custAttr);
+            LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出错 : {}", custAttr);
             throw new IllegalArgumentException("请求参数错误，CustAttr : " + custAttr);
         }
 
         List<CustAttr> custAttrs  = sqlSessionTemplate.selectList("userServiceDaoImpl.queryDataToCustAttr",custAttr);
 
-        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出参 :custAttrs " + custAttrs);
+        LoggerEngine.debug("----【userServiceDaoImpl.queryDataToCust】保存数据出参 :custAttrs {}", custAttrs);
 
         return custAttrs;
     }
@@ -267,7 +267,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws Exception
      */
     public List<BoCust> queryBoCust(BoCust boCust) throws Exception{
-        LoggerEngine.debug("----【userServiceDaoImpl.queryBoCustAttr】:"+boCust);
+        LoggerEngine.debug("----【userServiceDaoImpl.queryBoCustAttr】:{}", boCust);
 
         Assert.isNull(boCust,"查询bo_cust 入参为空");
 
@@ -284,7 +284,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     public List<BoCustAttr> queryBoCustAttr(BoCustAttr boCustAttr) throws Exception{
 
-        LoggerEngine.debug("【userServiceDaoImpl.queryBoCustAttr】:"+boCustAttr);
+        LoggerEngine.debug("【userServiceDaoImpl.queryBoCustAttr】:{}", boCustAttr);
 
         Assert.isNull(boCustAttr,"查询bo_cust_attr 入参为空");
 
@@ -299,7 +299,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     @Override
     public void saveBusinessUserInfo(Map userInfo) throws DAOException {
-        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserInfo】保存数据入参 : " + JSONObject.toJSONString(userInfo));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserInfo】保存数据入参 : {}", LoggerEngine.toJson(userInfo));
 
         // 查询business_user 数据是否已经存在
 
@@ -316,7 +316,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     @Override
     public void saveBusinessUserAttr(Map userAttr) throws DAOException {
-        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserAttr】保存数据入参 : " + JSONObject.toJSONString(userAttr));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserAttr】保存数据入参 : {}", LoggerEngine.toJson(userAttr));
 
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveBusinessUserAttr",userAttr);
 
@@ -327,7 +327,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
 
     @Override
     public void saveUserInfoInstance(Map businessUser) {
-        LoggerEngine.debug("----【userServiceDaoImpl.saveUserInfoInstance】保存数据入参 : " + JSONObject.toJSONString(businessUser));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveUserInfoInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUser));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveUserInfoInstance",businessUser);
 
         if(saveFlag < 1){
@@ -337,7 +337,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
 
     @Override
     public void saveUserAttrInstance(Map attrInstance) {
-        LoggerEngine.debug("----【userServiceDaoImpl.saveUserAttrInstance】保存数据入参 : " + JSONObject.toJSONString(attrInstance));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveUserAttrInstance】保存数据入参 : {}", LoggerEngine.toJson(attrInstance));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveUserAttrInstance",attrInstance);
 
         if(saveFlag < 1){
@@ -347,7 +347,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
 
     @Override
     public void updateUserInfoInstance(Map businessUser) {
-        LoggerEngine.debug("----【userServiceDaoImpl.updateUserInfoInstance】保存数据入参 : " + JSONObject.toJSONString(businessUser));
+        LoggerEngine.debug("----【userServiceDaoImpl.updateUserInfoInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUser));
         int saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.updateUserInfoInstance",businessUser);
 
         if(saveFlag < 1){
@@ -357,7 +357,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
 
     @Override
     public void updateUserAttrInstance(Map attrInstance) {
-        LoggerEngine.debug("----【userServiceDaoImpl.updateUserAttrInstance】保存数据入参 : " + JSONObject.toJSONString(attrInstance));
+        LoggerEngine.debug("----【userServiceDaoImpl.updateUserAttrInstance】保存数据入参 : {}", LoggerEngine.toJson(attrInstance));
         int saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.updateUserAttrInstance",attrInstance);
 
         if(saveFlag < 1){
@@ -375,7 +375,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     public Map queryBusinessUserInfo(Map info) throws DAOException{
         Assert.notNull(info,"queryBusinessUserInfo 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserInfo】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserInfo】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> users = sqlSessionTemplate.selectList("userServiceDaoImpl.queryBusinessUserInfo",info);
         if(users == null || users.size() == 0){
             return null;
@@ -391,7 +391,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     public List<Map> queryBusinessUserInfoAttrs(Map info) throws DAOException{
         Assert.notNull(info,"queryBusinessUserInfoAttrs 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserInfoAttrs】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserInfoAttrs】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> userAttrs = sqlSessionTemplate.selectList("userServiceDaoImpl.queryBusinessUserInfoAttrs",info);
         return userAttrs;
     }
@@ -405,7 +405,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
     @Override
     public Map queryUserInfo(Map info) throws DAOException{
         Assert.notNull(info,"queryUserInfo 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.queryUserInfo】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.queryUserInfo】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> users = sqlSessionTemplate.selectList("userServiceDaoImpl.queryUserInfo",info);
         if(users == null || users.size() == 0){
             return null;
@@ -422,7 +422,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
     @Override
     public List<Map> queryUserInfoAttrs(Map info) throws DAOException{
         Assert.notNull(info,"queryUserInfo 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.updateUserAttrInstance】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.updateUserAttrInstance】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> userAttrs = sqlSessionTemplate.selectList("userServiceDaoImpl.queryUserInfoAttrs",info);
         return userAttrs;
     }
@@ -434,7 +434,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException
      */
     public void saveBusinessUserAddress(Map userAddress) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserAddress】保存数据入参 : " + JSONObject.toJSONString(userAddress));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserAddress】保存数据入参 : {}", LoggerEngine.toJson(userAddress));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveBusinessUserAddress",userAddress);
 
         if(saveFlag < 1){
@@ -451,7 +451,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     public Map queryBusinessUserAddress(Map info) throws DAOException{
         Assert.notNull(info,"queryBusinessUserAddress 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserAddress】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserAddress】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> users = sqlSessionTemplate.selectList("userServiceDaoImpl.queryBusinessUserAddress",info);
         if(users == null || users.size() == 0){
             return null;
@@ -465,7 +465,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException 数据处理异常
      */
     public void saveUserAddressInstance(Map businessUserAddress) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.saveUserAddressInstance】保存数据入参 : " + JSONObject.toJSONString(businessUserAddress));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveUserAddressInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUserAddress));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveUserAddressInstance",businessUserAddress);
 
         if(saveFlag < 1){
@@ -479,7 +479,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException 数据处理异常
      */
     public void updateUserAddressInstance(Map businessUserAddress) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.updateUserAddressInstance】保存数据入参 : " + JSONObject.toJSONString(businessUserAddress));
+        LoggerEngine.debug("----【userServiceDaoImpl.updateUserAddressInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUserAddress));
         int saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.updateUserAddressInstance",businessUserAddress);
 
         if(saveFlag < 1){
@@ -495,7 +495,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException
      */
     public void saveBusinessUserTag(Map userTag) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserTag】保存数据入参 : " + JSONObject.toJSONString(userTag));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserTag】保存数据入参 : {}", LoggerEngine.toJson(userTag));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveBusinessUserTag",userTag);
 
         if(saveFlag < 1){
@@ -513,7 +513,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     public Map queryBusinessUserTag(Map info) throws DAOException{
         Assert.notNull(info,"queryBusinessUserTag 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserTag】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserTag】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> users = sqlSessionTemplate.selectList("userServiceDaoImpl.queryBusinessUserTag",info);
         if(users == null || users.size() == 0){
             return null;
@@ -527,7 +527,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException 数据处理异常
      */
     public void saveUserTagInstance(Map businessUserTag) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.saveUserTagInstance】保存数据入参 : " + JSONObject.toJSONString(businessUserTag));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveUserTagInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUserTag));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveUserTagInstance",businessUserTag);
 
         if(saveFlag < 1){
@@ -542,7 +542,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException 数据处理异常
      */
     public void updateUserTagInstance(Map businessUserTag) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.updateUserTagInstance】保存数据入参 : " + JSONObject.toJSONString(businessUserTag));
+        LoggerEngine.debug("----【userServiceDaoImpl.updateUserTagInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUserTag));
         int saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.updateUserTagInstance",businessUserTag);
 
         if(saveFlag < 1){
@@ -558,7 +558,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException
      */
     public void saveBusinessUserCredentials(Map userCredentials) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserCredentials】保存数据入参 : " + JSONObject.toJSONString(userCredentials));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveBusinessUserCredentials】保存数据入参 : {}", LoggerEngine.toJson(userCredentials));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveBusinessUserCredentials",userCredentials);
 
         if(saveFlag < 1){
@@ -576,7 +576,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      */
     public Map queryBusinessUserCredentials(Map info) throws DAOException{
         Assert.notNull(info,"queryBusinessUserCredentials 的参数不能为空");
-        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserCredentials】保存数据入参 : " + JSONObject.toJSONString(info));
+        LoggerEngine.debug("----【userServiceDaoImpl.queryBusinessUserCredentials】保存数据入参 : {}", LoggerEngine.toJson(info));
         List<Map> users = sqlSessionTemplate.selectList("userServiceDaoImpl.queryBusinessUserCredentials",info);
         if(users == null || users.size() == 0){
             return null;
@@ -590,7 +590,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException 数据处理异常
      */
     public void saveUserCredentialsInstance(Map businessUserCredentials) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.saveUserCredentialsInstance】保存数据入参 : " + JSONObject.toJSONString(businessUserCredentials));
+        LoggerEngine.debug("----【userServiceDaoImpl.saveUserCredentialsInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUserCredentials));
         int saveFlag = sqlSessionTemplate.insert("userServiceDaoImpl.saveUserCredentialsInstance",businessUserCredentials);
 
         if(saveFlag < 1){
@@ -605,7 +605,7 @@ public class UserServiceDaoImpl extends BaseServiceDao implements IUserServiceDa
      * @throws DAOException 数据处理异常
      */
     public void updateUserCredentialsInstance(Map businessUserCredentials) throws DAOException{
-        LoggerEngine.debug("----【userServiceDaoImpl.updateUserCredentialsInstance】保存数据入参 : " + JSONObject.toJSONString(businessUserCredentials));
+        LoggerEngine.debug("----【userServiceDaoImpl.updateUserCredentialsInstance】保存数据入参 : {}", LoggerEngine.toJson(businessUserCredentials));
         int saveFlag = sqlSessionTemplate.update("userServiceDaoImpl.updateUserCredentialsInstance",businessUserCredentials);
 
         if(saveFlag < 1){
@@ -0,0 +1,197 @@
+package com.java110.benchmark;
+
+import com.java110.common.constant.CommonConstant;
+import com.java110.entity.center.AppRoute;
+import com.java110.entity.mapping.Mapping;
+import com.java110.entity.rule.Rule;
+import com.java110.entity.rule.RuleCondCfg;
+import com.java110.entity.service.ServiceSql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试数据
+ *
+ * 不依赖 redis 数据库 等外部环境，路由 映射 等数据在本地构造
+ * Created by wuxw on 2018/4/13.
+ */
+public class BenchmarkData {
+
+    public static final String APP_ID = "8000418002";
+
+    public static final String SECURITY_CODE = "WEBURFPKIFJUHNCJUEIKMKJUJHJUIKJH";
+
+    //一个应用下配置的服务数，订单中的服务排在最后
+    public static final int ROUTE_COUNT = 50;
+
+    private static final String[] ORDER_SERVICE_CODES = {
+            "save.user.info", "save.store.info", "save.community.info", "member.joined.community"};
+
+    /**
+     * 读取订单报文，格式同 CenterApi 收到的 orders + business
+     * @return
+     */
+    public static String loadOrderRequest() {
+        InputStream in = BenchmarkData.class.getClassLoader().getResourceAsStream("order_request.json");
+        if (in == null) {
+            throw new IllegalStateException("没有找到 order_request.json");
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                out.write(buf, 0, len);
+            }
+            return new String(out.toByteArray(), "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException("读取 order_request.json 失败", e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                //ignore
+            }
+        }
+    }
+
+    /**
+     * 请求头，同 CenterApi 中组装的 headers
+     * @return
+     */
+    public static Map<String, String> headers() {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(CommonConstant.HTTP_APP_ID, APP_ID);
+        headers.put(CommonConstant.HTTP_TRANSACTION_ID, "100000000020180409224736000001");
+        headers.put(CommonConstant.HTTP_REQ_TIME, "20180409224736");
+        headers.put(CommonConstant.HTTP_SIGN, "");
+        headers.put("REQUEST_URL", "http://center-service/httpApi/service");
+        headers.put("IP", "192.168.1.10");
+        return headers;
+    }
+
+    /**
+     * 应用路由，同 c_route c_service 查询出的数据
+     * @return
+     */
+    public static List<AppRoute> appRoutes() {
+        List<AppRoute> appRoutes = new ArrayList<AppRoute>();
+        int otherCount = ROUTE_COUNT - ORDER_SERVICE_CODES.length;
+        for (int routeIndex = 0; routeIndex < otherCount; routeIndex++) {
+            appRoutes.add(AppRoute.newInstance().builder(appInfo("query.service." + routeIndex, routeIndex)));
+        }
+        for (int codeIndex = 0; codeIndex < ORDER_SERVICE_CODES.length; codeIndex++) {
+            appRoutes.add(AppRoute.newInstance().builder(appInfo(ORDER_SERVICE_CODES[codeIndex], otherCount + codeIndex)));
+        }
+        return appRoutes;
+    }
+
+    public static String lastServiceCode() {
+        return ORDER_SERVICE_CODES[ORDER_SERVICE_CODES.length - 1];
+    }
+
+    /**
+     * 映射数据
+     * @param count
+     * @return
+     */
+    public static List<Mapping> mappings(int count) {
+        List<Mapping> mappings = new ArrayList<Mapping>();
+        for (int mappingIndex = 0; mappingIndex < count; mappingIndex++) {
+            Mapping mapping = new Mapping();
+            mapping.setId(mappingIndex);
+            mapping.setDomain("DOMAIN.COMMON");
+            mapping.setName("映射" + mappingIndex);
+            mapping.setKey("KEY_" + mappingIndex);
+            mapping.setValue("VALUE_" + mappingIndex);
+            mapping.setRemark("基准测试数据");
+            mapping.setCreateTime(new Date());
+            mappings.add(mapping);
+        }
+        return mappings;
+    }
+
+    /**
+     * 服务sql 数据，同 ServiceSqlCache 中存储的数据
+     * @return
+     */
+    public static ServiceSql serviceSql() {
+        ServiceSql serviceSql = new ServiceSql();
+        serviceSql.setServiceCode("query.user.userInfo");
+        serviceSql.setName("用户信息查询");
+        serviceSql.setParams("userId");
+        serviceSql.setQueryModel("1");
+        serviceSql.setSql("{\"param1\":\"SELECT u.user_id userId,u.name,u.email,u.address,u.location_cd locationCd,"
+                + "u.age,u.sex,u.tel,u.level_cd levelCd FROM u_user u WHERE u.user_id = #userId# AND u.status_cd = '0'\"}");
+        serviceSql.setTemplate("{\"PARAM\":{\"param1\":\"$.#user#Object\"},\"TEMPLATE\":{\"user\":{}}}");
+        serviceSql.setStatusCd("0");
+        serviceSql.setRemark("基准测试数据");
+        return serviceSql;
+    }
+
+    /**
+     * 规则数据，同 RuleService 中缓存的规则及规则条件
+     * @param count
+     * @return
+     */
+    public static List<Rule> rules(int count) {
+        List<Rule> rules = new ArrayList<Rule>();
+        for (int ruleIndex = 0; ruleIndex < count; ruleIndex++) {
+            Rule rule = new Rule();
+            rule.setRule_id("R" + ruleIndex);
+            rule.setRule_code("RULE_CODE_" + ruleIndex);
+            rule.setRule_level("1");
+            rule.setRule_name("规则" + ruleIndex);
+            rule.setRule_desc("基准测试规则");
+            rule.setRule_type("1");
+            rule.setCreate_dt(new Date());
+            List<RuleCondCfg> ruleCondCfgs = new ArrayList<RuleCondCfg>();
+            for (int condIndex = 0; condIndex < 3; condIndex++) {
+                RuleCondCfg ruleCondCfg = new RuleCondCfg();
+                ruleCondCfg.setRule_id(rule.getRule_id());
+                ruleCondCfg.setRule_node("node" + condIndex);
+                ruleCondCfg.setData_from_flag("1");
+                ruleCondCfg.setDb_sql("SELECT COUNT(1) FROM u_user u WHERE u.user_id = ?");
+                ruleCondCfg.setError_code("1999");
+                ruleCondCfg.setError_msg("规则校验失败");
+                ruleCondCfg.setSeq(String.valueOf(condIndex));
+                ruleCondCfg.setJpath("$.orders.orderTypeCd");
+                ruleCondCfg.setStatus_cd("0");
+                ruleCondCfg.setCreate_dt(new Date());
+                ruleCondCfgs.add(ruleCondCfg);
+            }
+            rule.setRuleCondCfgs(ruleCondCfgs);
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private static Map<String, Object> appInfo(String serviceCode, int serviceId) {
+        Map<String, Object> appInfo = new HashMap<String, Object>();
+        appInfo.put("app_id", APP_ID);
+        appInfo.put("invoke_limit_times", "-1");
+        appInfo.put("name", "基准测试应用");
+        appInfo.put("order_type_cd", "Q");
+        appInfo.put("security_code", SECURITY_CODE);
+        appInfo.put("invoke_model", "S");
+        appInfo.put("while_list_ip", "");
+        appInfo.put("black_list_ip", "");
+        appInfo.put("business_type_cd", "SAVE_" + serviceId);
+        appInfo.put("method", "POST");
+        appInfo.put("retry_count", "3");
+        appInfo.put("seq", "1");
+        appInfo.put("service_code", serviceCode);
+        appInfo.put("timeout", "60");
+        appInfo.put("url", "http://benchmark-service/businessApi/service");
+        appInfo.put("service_id", String.valueOf(serviceId));
+        appInfo.put("is_instance", "Y");
+        return appInfo;
+    }
+}
@@ -0,0 +1,134 @@
+package com.java110.benchmark;
+
+import com.java110.common.cache.codec.BinaryCacheCodec;
+import com.java110.common.cache.codec.CacheCodec;
+import com.java110.common.cache.codec.JavaCacheCodec;
+import com.java110.entity.center.AppRoute;
+import com.java110.entity.mapping.Mapping;
+import com.java110.entity.rule.Rule;
+import com.java110.entity.service.ServiceSql;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存编解码基准测试，对比 java 序列化(SerializeUtil) 和 二进制编码 的耗时及数据大小，
+ * 编码后的字节数见结果中的 encodedBytes(辅助计数器)
+ * Created by wuxw on 2018/5/20.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheCodecBenchmark {
+
+    @Param({JavaCacheCodec.NAME, BinaryCacheCodec.NAME})
+    public String codecName;
+
+    private CacheCodec codec;
+
+    private List<AppRoute> appRoutes;
+
+    private List<Mapping> mappings;
+
+    private ServiceSql serviceSql;
+
+    private List<Rule> rules;
+
+    private byte[] appRoutesBytes;
+
+    private byte[] mappingsBytes;
+
+    private byte[] serviceSqlBytes;
+
+    private byte[] rulesBytes;
+
+    @Setup
+    public void setup() {
+        codec = newCodec(codecName);
+        appRoutes = BenchmarkData.appRoutes();
+        mappings = BenchmarkData.mappings(100);
+        serviceSql = BenchmarkData.serviceSql();
+        rules = BenchmarkData.rules(20);
+        appRoutesBytes = codec.encodeList(appRoutes);
+        mappingsBytes = codec.encodeList(mappings);
+        serviceSqlBytes = codec.encode(serviceSql);
+        rulesBytes = codec.encodeList(rules);
+    }
+
+    @Benchmark
+    public byte[] encodeAppRoutes(EncodedSize encodedSize) {
+        byte[] bytes = codec.encodeList(appRoutes);
+        encodedSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<AppRoute> decodeAppRoutes() {
+        return codec.decodeList(appRoutesBytes, AppRoute.class);
+    }
+
+    @Benchmark
+    public byte[] encodeMappings(EncodedSize encodedSize) {
+        byte[] bytes = codec.encodeList(mappings);
+        encodedSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Mapping> decodeMappings() {
+        return codec.decodeList(mappingsBytes, Mapping.class);
+    }
+
+    @Benchmark
+    public byte[] encodeServiceSql(EncodedSize encodedSize) {
+        byte[] bytes = codec.encode(serviceSql);
+        encodedSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decodeServiceSql() {
+        return codec.decode(serviceSqlBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeRules(EncodedSize encodedSize) {
+        byte[] bytes = codec.encodeList(rules);
+        encodedSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Rule> decodeRules() {
+        return codec.decodeList(rulesBytes, Rule.class);
+    }
+
+    /**
+     * 编码后的数据大小，每次编码时记录，和耗时一起输出到结果中
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+    }
+
+    private static CacheCodec newCodec(String name) {
+        return JavaCacheCodec.NAME.equals(name) ? new JavaCacheCodec() : new BinaryCacheCodec();
+    }
+}
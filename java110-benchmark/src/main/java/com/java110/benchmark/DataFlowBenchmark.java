@@ -0,0 +1,99 @@
+package com.java110.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.java110.common.cache.AppRouteCache;
+import com.java110.common.cache.AppRouteIndex;
+import com.java110.core.context.DataFlow;
+import com.java110.core.factory.AuthenticationFactory;
+import com.java110.core.factory.DataFlowFactory;
+import com.java110.entity.center.AppRoute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单受理 数据流相关基准测试
+ *
+ * 报文解析(DataFlow.doBuilder)、路由查找(DataFlowFactory.getRoute)、签名(AuthenticationFactory.dataFlowMd5)
+ * Created by wuxw on 2018/4/13.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataFlowBenchmark {
+
+    private String orderRequest;
+
+    private Map<String, String> headers;
+
+    private List<AppRoute> appRoutes;
+
+    private DataFlow dataFlow;
+
+    private DataFlow indexedDataFlow;
+
+    private String lastServiceCode;
+
+    @Setup
+    public void setup() throws Exception {
+        orderRequest = BenchmarkData.loadOrderRequest();
+        headers = BenchmarkData.headers();
+        appRoutes = BenchmarkData.appRoutes();
+        lastServiceCode = BenchmarkData.lastServiceCode();
+        dataFlow = buildDataFlow();
+        indexedDataFlow = DataFlowFactory.newInstance(DataFlow.class).doBuilder(orderRequest, headers);
+        indexedDataFlow.setAppRouteIndex(new AppRouteIndex(BenchmarkData.APP_ID, AppRouteCache.DEFAULT_VERSION, appRoutes));
+    }
+
+    private DataFlow buildDataFlow() throws Exception {
+        DataFlow dataFlow = DataFlowFactory.newInstance(DataFlow.class).doBuilder(orderRequest, headers);
+        for (AppRoute appRoute : appRoutes) {
+            dataFlow.addAppRoutes(appRoute);
+        }
+        return dataFlow;
+    }
+
+    @Benchmark
+    public JSONObject parseOrderRequest() {
+        return JSONObject.parseObject(orderRequest);
+    }
+
+    @Benchmark
+    public DataFlow doBuilder() throws Exception {
+        return DataFlowFactory.newInstance(DataFlow.class).doBuilder(orderRequest, headers);
+    }
+
+    @Benchmark
+    public DataFlow doBuilderWithRoutes() throws Exception {
+        return buildDataFlow();
+    }
+
+    @Benchmark
+    public AppRoute getRoute() {
+        return DataFlowFactory.getRoute(dataFlow, lastServiceCode);
+    }
+
+    @Benchmark
+    public AppRoute getRouteIndexed() {
+        return DataFlowFactory.getRoute(indexedDataFlow, lastServiceCode);
+    }
+
+    @Benchmark
+    public String dataFlowMd5() {
+        return AuthenticationFactory.dataFlowMd5(dataFlow);
+    }
+}
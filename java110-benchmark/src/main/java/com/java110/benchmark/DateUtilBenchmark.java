@@ -0,0 +1,77 @@
+package com.java110.benchmark;
+
+import com.java110.common.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日期格式化基准测试，对比原来共享 SimpleDateFormat 加锁的方式 和 DateUtil(DateTimeFormatter + 秒级缓存)
+ *
+ * 分配情况加 -prof gc 查看 gc.alloc.rate.norm，如
+ * java -jar target/benchmarks.jar -prof gc DateUtilBenchmark
+ * Created by wuxw on 2018/5/27.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class DateUtilBenchmark {
+
+    private static final String REQUEST_TIME = "20180527123015";
+
+    private final SimpleDateFormat sharedFormat = new SimpleDateFormat(DateUtil.DATE_FORMATE_STRING_DEFAULT);
+
+    private final SimpleDateFormat sharedMillisFormat = new SimpleDateFormat(DateUtil.DATE_FORMATE_STRING_I);
+
+    @Benchmark
+    public String nowSharedSimpleDateFormat() {
+        synchronized (sharedFormat) {
+            return sharedFormat.format(new Date());
+        }
+    }
+
+    @Benchmark
+    public String nowDateUtil() {
+        return DateUtil.getNowDefault();
+    }
+
+    @Benchmark
+    public String nowMillisSharedSimpleDateFormat() {
+        synchronized (sharedMillisFormat) {
+            return sharedMillisFormat.format(new Date());
+        }
+    }
+
+    @Benchmark
+    public String nowMillisDateUtil() {
+        return DateUtil.getNow(DateUtil.DATE_FORMATE_STRING_I);
+    }
+
+    @Benchmark
+    public Date parseSharedSimpleDateFormat() throws ParseException {
+        synchronized (sharedFormat) {
+            return sharedFormat.parse(REQUEST_TIME);
+        }
+    }
+
+    @Benchmark
+    public Date parseDateUtil() throws ParseException {
+        return DateUtil.getDefaultDateFromString(REQUEST_TIME);
+    }
+}
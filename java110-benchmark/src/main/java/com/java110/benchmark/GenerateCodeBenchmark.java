@@ -0,0 +1,45 @@
+package com.java110.benchmark;
+
+import com.java110.core.factory.GenerateCodeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列生成基准测试
+ *
+ * getOId 等方法需要 MappingCache(redis) 判断是否调用服务，这里只测试本地生成部分 nextId
+ * Created by wuxw on 2018/4/13.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateCodeBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public String nextIdSingleThread() {
+        return GenerateCodeFactory.nextId("%08d");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextIdEightThreads() {
+        return GenerateCodeFactory.nextId("%08d");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String transactionId() {
+        return GenerateCodeFactory.getTransactionId();
+    }
+}
@@ -0,0 +1,83 @@
+package com.java110.benchmark;
+
+import bsh.EvalError;
+import bsh.Interpreter;
+import com.alibaba.fastjson.JSONObject;
+import com.java110.entity.service.ServiceSql;
+import com.java110.service.plan.JavaScriptPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * java 脚本查询基准测试，对比原来每次请求新建 Interpreter 解析整个脚本 和 JavaScriptPlan(编译一次，按调用绑定参数)
+ * Created by wuxw on 2018/5/27.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JavaScriptBenchmark {
+
+    private static final String JAVA_CODE = "import com.alibaba.fastjson.JSONObject;" +
+            "public int add(int a, int b){" +
+            "return a + b;" +
+            "}" +
+            "public String execute(int a,int b){" +
+            "JSONObject result = new JSONObject();" +
+            "result.put(\"a\", a);" +
+            "result.put(\"b\", b);" +
+            "result.put(\"sum\", add(a, b));" +
+            "return result.toJSONString();" +
+            "}";
+
+    private JSONObject params;
+
+    private JavaScriptPlan javaScriptPlan;
+
+    @Setup
+    public void setup() {
+        params = new JSONObject(true);
+        params.put("a", "9");
+        params.put("b", "4");
+        ServiceSql serviceSql = new ServiceSql();
+        serviceSql.setServiceCode("query.benchmark.javaScript");
+        serviceSql.setJavaScript(JAVA_CODE);
+        javaScriptPlan = JavaScriptPlan.compile(serviceSql, "1");
+    }
+
+    /**
+     * 原来 QueryServiceSMOImpl.doExecuteJava 的方式
+     */
+    @Benchmark
+    public Object interpreterPerRequest() throws EvalError {
+        Interpreter interpreter = new Interpreter();
+        interpreter.eval(JAVA_CODE);
+        String param = "";
+        for (String key : params.keySet()) {
+            param += (params.getString(key) + ",");
+        }
+        if (param.endsWith(",")) {
+            param = param.substring(0, param.length() - 1);
+        }
+        return interpreter.eval("execute(" + param + ")");
+    }
+
+    @Benchmark
+    public Object javaScriptPlan() throws EvalError {
+        return javaScriptPlan.execute(params);
+    }
+}
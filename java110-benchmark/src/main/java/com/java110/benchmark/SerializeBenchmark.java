@@ -0,0 +1,83 @@
+package com.java110.benchmark;
+
+import com.java110.common.util.SerializeUtil;
+import com.java110.entity.center.AppRoute;
+import com.java110.entity.mapping.Mapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存序列化基准测试，数据同 AppRouteCache MappingCache 中存储的数据
+ * Created by wuxw on 2018/4/13.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializeBenchmark {
+
+    private List<AppRoute> appRoutes;
+
+    private Mapping mapping;
+
+    private List<Mapping> mappings;
+
+    private byte[] appRoutesBytes;
+
+    private byte[] mappingBytes;
+
+    private byte[] mappingsBytes;
+
+    @Setup
+    public void setup() {
+        appRoutes = BenchmarkData.appRoutes();
+        mappings = BenchmarkData.mappings(100);
+        mapping = mappings.get(0);
+        appRoutesBytes = SerializeUtil.serializeList(appRoutes);
+        mappingBytes = SerializeUtil.serialize(mapping);
+        mappingsBytes = SerializeUtil.serializeList(mappings);
+    }
+
+    @Benchmark
+    public byte[] serializeMapping() {
+        return SerializeUtil.serialize(mapping);
+    }
+
+    @Benchmark
+    public Object unserializeMapping() {
+        return SerializeUtil.unserialize(mappingBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeMappingList() {
+        return SerializeUtil.serializeList(mappings);
+    }
+
+    @Benchmark
+    public List<Mapping> unserializeMappingList() {
+        return SerializeUtil.unserializeList(mappingsBytes, Mapping.class);
+    }
+
+    @Benchmark
+    public byte[] serializeAppRoutes() {
+        return SerializeUtil.serializeList(appRoutes);
+    }
+
+    @Benchmark
+    public List<AppRoute> unserializeAppRoutes() {
+        return SerializeUtil.unserializeList(appRoutesBytes, AppRoute.class);
+    }
+}
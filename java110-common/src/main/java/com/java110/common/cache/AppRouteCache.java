@@ -1,14 +1,18 @@
 package com.java110.common.cache;
 
-import com.java110.common.util.SerializeUtil;
+import com.java110.common.cache.codec.CacheCodecFactory;
 import com.java110.entity.center.AppRoute;
 import redis.clients.jedis.Jedis;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * 路由配置
+ *
+ * getAppRouteIndex 返回按 serviceCode 建好索引的路由，并在本地缓存，
+ * 刷新路由缓存时 版本号(_VERSION_APP_ROUTE) 加一，各个服务发现版本变化后重新加载，见 LocalCache
  * Created by wuxw on 2018/4/14.
  */
 public class AppRouteCache extends BaseCache {
@@ -16,6 +20,18 @@ public class AppRouteCache extends BaseCache {
     //后缀 用来刷缓存时删除 所有以这个为后缀的数据
     public final static String _SUFFIX_APP_ROUTE = "_SUFFIX_APP_ROUTE";
 
+    //版本号 key，刷新缓存时加一，注意不能以 _SUFFIX_APP_ROUTE 结尾，否则会被 removeData 删除
+    public final static String _VERSION_APP_ROUTE = "_VERSION_APP_ROUTE";
+
+    //redis 中还没有版本号时的默认版本
+    public final static String DEFAULT_VERSION = LocalCache.DEFAULT_VERSION;
+
+    //本地缓存的应用个数上限
+    private final static int LOCAL_CACHE_MAX_SIZE = 1024;
+
+    //appId 对应的路由索引，只缓存 redis 中存在的应用，redis 异常时保留本地索引继续路由
+    private final static LocalCache<AppRouteIndex> localIndexes = new LocalCache<AppRouteIndex>("路由", _VERSION_APP_ROUTE, LOCAL_CACHE_MAX_SIZE, false);
+
     /**
      * 获取 路由配置
      * @param appId
@@ -26,7 +42,7 @@ public class AppRouteCache extends BaseCache {
         Jedis redis = null;
         try {
             redis = getJedis();
-            appRoutes = SerializeUtil.unserializeList(redis.get((appId+_SUFFIX_APP_ROUTE).getBytes()),AppRoute.class);
+            appRoutes = CacheCodecFactory.decodeList(redis.get((appId+_SUFFIX_APP_ROUTE).getBytes()),AppRoute.class);
             if(appRoutes == null || appRoutes.size() ==0) {
                 return null;
             }
@@ -39,6 +55,34 @@ public class AppRouteCache extends BaseCache {
     }
 
 
+    /**
+     * 获取 按 serviceCode 建好索引的路由
+     *
+     * 本地缓存的索引版本号与当前版本号一致时直接返回，否则从redis 重新加载
+     * @param appId
+     * @return appId 不存在时返回 null
+     */
+    public static AppRouteIndex getAppRouteIndex(String appId){
+        if(appId == null){
+            return null;
+        }
+        //先取版本号再取数据，保证本地索引的版本号不会比数据新
+        String version = getVersion();
+        AppRouteIndex appRouteIndex = localIndexes.get(appId);
+        if(appRouteIndex != null && version.equals(appRouteIndex.getVersion())){
+            return appRouteIndex;
+        }
+        long generation = localIndexes.getGeneration();
+        List<AppRoute> appRoutes = getAppRoute(appId);
+        if(appRoutes == null){
+            localIndexes.remove(appId);
+            return null;
+        }
+        appRouteIndex = new AppRouteIndex(appId, version, appRoutes);
+        localIndexes.put(appId, appRouteIndex, generation);
+        return appRouteIndex;
+    }
+
     /**
      * 保存路由信息
      * @param appRoutes
@@ -47,13 +91,41 @@ public class AppRouteCache extends BaseCache {
         Jedis redis = null;
         try {
             redis = getJedis();
-            redis.set((appRoutes.get(0).getAppId()+_SUFFIX_APP_ROUTE).getBytes(),SerializeUtil.serializeList(appRoutes));
+            redis.set((appRoutes.get(0).getAppId()+_SUFFIX_APP_ROUTE).getBytes(),CacheCodecFactory.encodeList(appRoutes));
         }finally {
             if(redis != null){
                 redis.close();
             }
         }
+        localIndexes.remove(appRoutes.get(0).getAppId());
     }
 
+    /**
+     * 重置所有路由信息，批量写入后删除已经不存在的应用路由
+     * @param appRoutesMap appId 对应的路由
+     */
+    public static void resetAppRoutes(Map<String,List<AppRoute>> appRoutesMap){
+        Map<String,byte[]> datas = new LinkedHashMap<String,byte[]>();
+        for(Map.Entry<String,List<AppRoute>> appRoutes : appRoutesMap.entrySet()){
+            datas.put(appRoutes.getKey()+_SUFFIX_APP_ROUTE, CacheCodecFactory.encodeList(appRoutes.getValue()));
+        }
+        resetData(_SUFFIX_APP_ROUTE, datas);
+    }
+
+    /**
+     * 获取路由版本号
+     *
+     * 每隔一段时间 由一个线程查询一次redis，其他时候直接返回本地记录的版本号，版本变化时清空本地索引
+     * @return
+     */
+    public static String getVersion(){
+        return localIndexes.getVersion();
+    }
 
+    /**
+     * 刷新版本号，刷新路由缓存后调用
+     */
+    public static void flushVersion(){
+        localIndexes.flushVersion();
+    }
 }
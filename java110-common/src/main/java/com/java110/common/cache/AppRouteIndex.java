@@ -0,0 +1,94 @@
+package com.java110.common.cache;
+
+import com.java110.common.constant.StatusConstant;
+import com.java110.common.util.IpMatcher;
+import com.java110.entity.center.AppRoute;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个应用下的路由，按 serviceCode 建立索引
+ *
+ * 创建后不可修改，同一个 appId 同一个缓存版本 所有请求共用一个对象，
+ * 鉴权用的 IP 白名单 黑名单(取第一个路由的配置，与 judgeAuthority 一致) 也在这里编译好
+ * Created by wuxw on 2018/5/22.
+ */
+public final class AppRouteIndex {
+
+    private final String appId;
+
+    private final String version;
+
+    private final List<AppRoute> appRoutes;
+
+    //在用的路由，serviceCode 相同时保留第一个，与原来顺序查找的结果一致
+    private final Map<String, AppRoute> validRoutes;
+
+    private final IpMatcher whileListMatcher;
+
+    private final IpMatcher backListMatcher;
+
+    public AppRouteIndex(String appId, String version, List<AppRoute> appRoutes) {
+        this.appId = appId;
+        this.version = version;
+        this.appRoutes = Collections.unmodifiableList(new ArrayList<AppRoute>(appRoutes));
+        Map<String, AppRoute> routes = new HashMap<String, AppRoute>(appRoutes.size() * 4 / 3 + 1);
+        for (AppRoute appRoute : appRoutes) {
+            if (StatusConstant.STATUS_CD_VALID.equals(appRoute.getStatusCd())
+                    && appRoute.getAppService() != null
+                    && appRoute.getAppService().getServiceCode() != null
+                    && !routes.containsKey(appRoute.getAppService().getServiceCode())) {
+                routes.put(appRoute.getAppService().getServiceCode(), appRoute);
+            }
+        }
+        this.validRoutes = routes;
+        AppRoute firstRoute = appRoutes.isEmpty() ? null : appRoutes.get(0);
+        this.whileListMatcher = IpMatcher.compile(firstRoute == null ? null : firstRoute.getWhileListIp());
+        this.backListMatcher = IpMatcher.compile(firstRoute == null ? null : firstRoute.getBackListIp());
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * 应用下全部路由(只读)
+     * @return
+     */
+    public List<AppRoute> getAppRoutes() {
+        return appRoutes;
+    }
+
+    /**
+     * 查询在用的路由
+     * @param serviceCode
+     * @return 没有时返回 null
+     */
+    public AppRoute getRoute(String serviceCode) {
+        return serviceCode == null ? null : validRoutes.get(serviceCode);
+    }
+
+    /**
+     * 白名单
+     * @return
+     */
+    public IpMatcher getWhileListMatcher() {
+        return whileListMatcher;
+    }
+
+    /**
+     * 黑名单
+     * @return
+     */
+    public IpMatcher getBackListMatcher() {
+        return backListMatcher;
+    }
+}
@@ -5,8 +5,13 @@ import com.java110.common.factory.ApplicationContextFactory;
 import com.java110.common.log.LoggerEngine;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 缓存基类
@@ -14,6 +19,9 @@ import java.util.Set;
  */
 public class BaseCache extends LoggerEngine{
 
+    //SCAN 每次返回的条数 和 批量删除、批量写入的条数
+    protected final static int BATCH_SIZE = 500;
+
     protected static Jedis getJedis(){
         JedisPool jedisPool = (JedisPool) ApplicationContextFactory.getBean("jedisPool");
         return jedisPool.getResource();
@@ -21,19 +29,53 @@ public class BaseCache extends LoggerEngine{
 
     /**
      * 删除数据
+     *
+     * 用 SCAN 游标分批查询，分批 DEL，不用 KEYS 阻塞redis
      * @param pattern
      */
     public static void removeData(String pattern){
         Jedis redis = null;
         try {
             redis = getJedis();
-            Set<String> keys = redis.keys("*"+pattern);
-            if(keys == null || keys.size() == 0){
-                return ;
+            List<String> keys = scanKeys(redis, "*" + pattern);
+            deleteKeys(redis, keys);
+        }finally {
+            if(redis != null){
+                redis.close();
             }
-            for(String key : keys){
-                redis.del(key);
+        }
+    }
+
+    /**
+     * 重置数据
+     *
+     * 先批量(pipeline)覆盖写入新数据，再删除新数据中没有的旧key，
+     * 刷新过程中 并发请求读到的要么是旧值要么是新值，不会出现缓存被清空的情况
+     * @param pattern 后缀 如 _SUFFIX_MAPPING
+     * @param datas key 和 序列化后的值，key 必须以 pattern 结尾
+     */
+    public static void resetData(String pattern, Map<String,byte[]> datas){
+        Jedis redis = null;
+        try {
+            redis = getJedis();
+            Pipeline pipeline = redis.pipelined();
+            int count = 0;
+            for(Map.Entry<String,byte[]> data : datas.entrySet()){
+                pipeline.set(data.getKey().getBytes(), data.getValue());
+                if(++count % BATCH_SIZE == 0){
+                    pipeline.sync();
+                }
             }
+            pipeline.sync();
+
+            List<String> staleKeys = new ArrayList<String>();
+            for(String key : scanKeys(redis, "*" + pattern)){
+                if(!datas.containsKey(key)){
+                    staleKeys.add(key);
+                }
+            }
+            deleteKeys(redis, staleKeys);
+            logger.debug("重置缓存 " + pattern + " 写入 " + datas.size() + " 条，删除 " + staleKeys.size() + " 条");
         }finally {
             if(redis != null){
                 redis.close();
@@ -41,4 +83,34 @@ public class BaseCache extends LoggerEngine{
         }
     }
 
+    /**
+     * SCAN 游标遍历 匹配的key
+     * @param redis
+     * @param match
+     * @return
+     */
+    private static List<String> scanKeys(Jedis redis, String match){
+        List<String> keys = new ArrayList<String>();
+        ScanParams scanParams = new ScanParams().match(match).count(BATCH_SIZE);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<String> scanResult = redis.scan(cursor, scanParams);
+            keys.addAll(scanResult.getResult());
+            cursor = scanResult.getStringCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        return keys;
+    }
+
+    /**
+     * 分批删除
+     * @param redis
+     * @param keys
+     */
+    private static void deleteKeys(Jedis redis, List<String> keys){
+        for(int start = 0; start < keys.size(); start += BATCH_SIZE){
+            List<String> batch = keys.subList(start, Math.min(start + BATCH_SIZE, keys.size()));
+            redis.del(batch.toArray(new String[batch.size()]));
+        }
+    }
+
 }
@@ -0,0 +1,206 @@
+package com.java110.common.cache;
+
+import redis.clients.jedis.Jedis;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地缓存(near-cache)，由 redis 中的版本号控制失效
+ *
+ * 刷新缓存的服务调用 flushVersion 把版本号加一，其他服务每隔 VERSION_CHECK_INTERVAL 毫秒
+ * 由一个线程检查一次版本号，发现变化后清空本地缓存，
+ * 条数超过 maxSize 时淘汰部分条目，不清空，设置了 expireMillis 时条目过期后重新查询
+ *
+ * 代数(generation) 每次清空加一，查询redis 前先取代数，写入时代数变了说明查询期间缓存被清空过，丢弃本次写入
+ * Created by wuxw on 2018/4/14.
+ */
+public class LocalCache<V> extends BaseCache {
+
+    //redis 中还没有版本号时的默认版本
+    public final static String DEFAULT_VERSION = "0";
+
+    //检查版本号间隔(毫秒)
+    private final static long VERSION_CHECK_INTERVAL = 1000L;
+
+    private final String name;
+
+    private final String versionKey;
+
+    private final int maxSize;
+
+    private final boolean clearOnError;
+
+    private final long expireMillis;
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<String, Entry<V>>();
+
+    private final AtomicLong lastVersionCheckTime = new AtomicLong(0L);
+
+    private final AtomicLong generation = new AtomicLong(0L);
+
+    private volatile String localVersion = DEFAULT_VERSION;
+
+    /**
+     * @param name 缓存名称，用于日志
+     * @param versionKey redis 中的版本号 key
+     * @param maxSize 本地缓存最大条数
+     * @param clearOnError 检查版本号 redis 异常时是否清空本地缓存
+     */
+    public LocalCache(String name, String versionKey, int maxSize, boolean clearOnError) {
+        this(name, versionKey, maxSize, clearOnError, 0L);
+    }
+
+    /**
+     * @param name 缓存名称，用于日志
+     * @param versionKey redis 中的版本号 key
+     * @param maxSize 本地缓存最大条数
+     * @param clearOnError 检查版本号 redis 异常时是否清空本地缓存
+     * @param expireMillis 条目写入后的有效时间(毫秒)，0 表示只随版本号失效
+     */
+    public LocalCache(String name, String versionKey, int maxSize, boolean clearOnError, long expireMillis) {
+        this.name = name;
+        this.versionKey = versionKey;
+        this.maxSize = maxSize;
+        this.clearOnError = clearOnError;
+        this.expireMillis = expireMillis;
+    }
+
+    /**
+     * 获取版本号，间隔到了则检查redis 中的版本号，版本变化时清空本地缓存
+     * @return
+     */
+    public String getVersion() {
+        long lastTime = lastVersionCheckTime.get();
+        long now = System.currentTimeMillis();
+        if (now - lastTime < VERSION_CHECK_INTERVAL || !lastVersionCheckTime.compareAndSet(lastTime, now)) {
+            return localVersion;
+        }
+        Jedis redis = null;
+        String remoteVersion = null;
+        try {
+            redis = getJedis();
+            remoteVersion = redis.get(versionKey);
+        } catch (Exception e) {
+            logger.error("检查" + name + "缓存版本号失败", e);
+            if (clearOnError) {
+                clear();
+            }
+            return localVersion;
+        } finally {
+            if (redis != null) {
+                redis.close();
+            }
+        }
+        remoteVersion = remoteVersion == null ? DEFAULT_VERSION : remoteVersion;
+        if (!remoteVersion.equals(localVersion)) {
+            clear();
+            localVersion = remoteVersion;
+        }
+        return localVersion;
+    }
+
+    /**
+     * 刷新版本号，刷新redis 中的缓存数据后调用，通知所有服务清空本地缓存
+     */
+    public void flushVersion() {
+        Jedis redis = null;
+        try {
+            redis = getJedis();
+            localVersion = String.valueOf(redis.incr(versionKey));
+        } finally {
+            if (redis != null) {
+                redis.close();
+            }
+        }
+        clear();
+        lastVersionCheckTime.set(System.currentTimeMillis());
+    }
+
+    /**
+     * 查询本地缓存，会先检查版本号
+     * @param key
+     * @return 没有缓存时返回null
+     */
+    public V get(String key) {
+        getVersion();
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireTime > 0 && entry.expireTime < System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 当前代数，查询redis 前获取，写入时传给 put
+     * @return
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * 写入本地缓存
+     * @param key
+     * @param value 不能为null
+     * @param generation 查询redis 前获取的代数
+     */
+    public void put(String key, V value, long generation) {
+        //容量满时只淘汰部分条目，不清空也不改变代数，否则本次查询到的值会被当成过期数据丢弃
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, new Entry<V>(value, expireMillis > 0 ? System.currentTimeMillis() + expireMillis : 0L));
+        //查询期间本地缓存被清空过，丢弃本次写入
+        if (this.generation.get() != generation) {
+            entries.remove(key);
+        }
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 淘汰本地缓存中的条目，直到低于 maxSize
+     * 淘汰的都是仍然有效的数据，不影响正确性，只是下次读取时重新查询redis
+     */
+    private void evict() {
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+
+        //过期时间，0 表示不过期
+        private final long expireTime;
+
+        Entry(V value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.java110.common.cache;
 
 import com.java110.common.constant.DomainContant;
-import com.java110.common.util.SerializeUtil;
+import com.java110.common.cache.codec.CacheCodecFactory;
 import com.java110.entity.mapping.Mapping;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 映射缓存工具类
+ *
+ * 读取时先走本地缓存(near-cache)，本地没有再查询redis，
+ * 刷新映射缓存时 版本号(_VERSION_MAPPING) 加一，各个服务发现版本变化后清空本地缓存，见 LocalCache
  * Created by wuxw on 2018/4/14.
  */
 public class MappingCache extends BaseCache {
@@ -17,6 +23,18 @@ public class MappingCache extends BaseCache {
     //后缀 用来刷缓存时删除 所有以这个为后缀的数据
     public final static String _SUFFIX_MAPPING = "_SUFFIX_MAPPING";
 
+    //版本号 key，刷新缓存时加一，注意不能以 _SUFFIX_MAPPING 结尾，否则会被 removeData 删除
+    public final static String _VERSION_MAPPING = "_VERSION_MAPPING";
+
+    //本地缓存最大条数，超过后淘汰部分条目
+    private final static int LOCAL_CACHE_MAX_SIZE = 2048;
+
+    //redis 中不存在的值 占位
+    private final static Object NULL_VALUE = new Object();
+
+    //redis 异常时 清空本地缓存，后续读取直接走redis
+    private final static LocalCache<Object> localCache = new LocalCache<Object>("映射", _VERSION_MAPPING, LOCAL_CACHE_MAX_SIZE, true);
+
     /**
      * 获取值
      * @param domain
@@ -24,21 +42,13 @@ public class MappingCache extends BaseCache {
      * @return
      */
     public static String getValue(String domain,String key){
-        Jedis redis = null;
-        try {
-            redis = getJedis();
-            Object object = SerializeUtil.unserialize(redis.get((domain + key+_SUFFIX_MAPPING).getBytes()));
-            if (object == null) {
-                return null;
-            }
-
-            Mapping mapping = (Mapping) object;
-            return mapping.getValue();
-        }finally {
-            if(redis != null){
-                redis.close();
-            }
+        Object object = getLocalOrRemote(domain + key+_SUFFIX_MAPPING);
+        if (object == null) {
+            return null;
         }
+
+        Mapping mapping = (Mapping) object;
+        return mapping.getValue();
     }
 
     /**
@@ -52,17 +62,9 @@ public class MappingCache extends BaseCache {
     }
 
     public static Mapping getMapping(String key){
-        Jedis redis = null;
-        try {
-            redis = getJedis();
-            Object obj = SerializeUtil.unserialize(redis.get((DomainContant.COMMON_DOMAIN+key+_SUFFIX_MAPPING).getBytes()));
-            if(obj instanceof Mapping){
-                return (Mapping) obj;
-            }
-        }finally {
-            if(redis != null){
-                redis.close();
-            }
+        Object obj = getLocalOrRemote(DomainContant.COMMON_DOMAIN+key+_SUFFIX_MAPPING);
+        if(obj instanceof Mapping){
+            return (Mapping) obj;
         }
         return null;
     }
@@ -73,15 +75,26 @@ public class MappingCache extends BaseCache {
      * @return
      */
     public static List<Mapping> getValueByDomain(String domain){
-        Jedis redis = null;
-        try {
-            redis = getJedis();
-            return SerializeUtil.unserializeList(redis.get((domain+_SUFFIX_MAPPING).getBytes()),Mapping.class);
-        }finally {
-            if(redis != null){
-                redis.close();
+        String cacheKey = domain+_SUFFIX_MAPPING;
+        Object obj = localCache.get(cacheKey);
+        if(obj == null) {
+            long generation = localCache.getGeneration();
+            Jedis redis = null;
+            try {
+                redis = getJedis();
+                obj = CacheCodecFactory.decodeList(redis.get(cacheKey.getBytes()), Mapping.class);
+            } finally {
+                if (redis != null) {
+                    redis.close();
+                }
             }
+            putLocal(cacheKey, obj, generation);
         }
+        if(obj == null || obj == NULL_VALUE){
+            return null;
+        }
+        //返回副本，防止调用方修改本地缓存
+        return new ArrayList<Mapping>((List<Mapping>) obj);
     }
 
     /**
@@ -92,7 +105,7 @@ public class MappingCache extends BaseCache {
         Jedis redis = null;
         try {
             redis = getJedis();
-            redis.set((mapping.getDomain()+mapping.getKey()+_SUFFIX_MAPPING).getBytes(),SerializeUtil.serialize(mapping));
+            redis.set((mapping.getDomain()+mapping.getKey()+_SUFFIX_MAPPING).getBytes(),CacheCodecFactory.encode(mapping));
         }finally {
             if(redis != null){
                 redis.close();
@@ -108,7 +121,7 @@ public class MappingCache extends BaseCache {
         Jedis redis = null;
         try {
             redis = getJedis();
-            redis.set((mappings.get(0).getDomain()+_SUFFIX_MAPPING).getBytes(),SerializeUtil.serializeList(mappings));
+            redis.set((mappings.get(0).getDomain()+_SUFFIX_MAPPING).getBytes(),CacheCodecFactory.encodeList(mappings));
         }finally {
             if(redis != null){
                 redis.close();
@@ -116,7 +129,67 @@ public class MappingCache extends BaseCache {
         }
     }
 
+    /**
+     * 重置所有映射数据，单个映射 和 按域分组的映射列表 一起批量写入，再删除已经不存在的映射
+     * @param mappings
+     */
+    public static void resetValues(List<Mapping> mappings){
+        Map<String,byte[]> datas = new LinkedHashMap<String,byte[]>();
+        Map<String,List<Mapping>> mappingMap = new LinkedHashMap<String,List<Mapping>>();
+        List<Mapping> mappingsNew = null;
+        for(Mapping mapping : mappings){
+            datas.put(mapping.getDomain()+mapping.getKey()+_SUFFIX_MAPPING, CacheCodecFactory.encode(mapping));
+            mappingsNew = mappingMap.get(mapping.getDomain());
+            if(mappingsNew == null){
+                mappingsNew = new ArrayList<Mapping>();
+                mappingMap.put(mapping.getDomain(),mappingsNew);
+            }
+            mappingsNew.add(mapping);
+        }
+        for(Map.Entry<String,List<Mapping>> domainMappings : mappingMap.entrySet()){
+            datas.put(domainMappings.getKey()+_SUFFIX_MAPPING, CacheCodecFactory.encodeList(domainMappings.getValue()));
+        }
+        resetData(_SUFFIX_MAPPING, datas);
+    }
+
+    /**
+     * 刷新版本号，刷新映射缓存后调用，通知所有服务清空本地缓存
+     */
+    public static void flushVersion(){
+        localCache.flushVersion();
+    }
 
+    /**
+     * 清空本地缓存
+     */
+    public static void clearLocalCache(){
+        localCache.clear();
+    }
 
+    /**
+     * 先查本地缓存，没有则查询redis 并放入本地缓存
+     * @param cacheKey redis key
+     * @return Mapping 对象，不存在返回null
+     */
+    private static Object getLocalOrRemote(String cacheKey){
+        Object obj = localCache.get(cacheKey);
+        if(obj == null){
+            long generation = localCache.getGeneration();
+            Jedis redis = null;
+            try {
+                redis = getJedis();
+                obj = CacheCodecFactory.decode(redis.get(cacheKey.getBytes()));
+            }finally {
+                if(redis != null){
+                    redis.close();
+                }
+            }
+            putLocal(cacheKey, obj, generation);
+        }
+        return obj == NULL_VALUE ? null : obj;
+    }
 
+    private static void putLocal(String cacheKey, Object obj, long generation){
+        localCache.put(cacheKey, obj == null ? NULL_VALUE : obj, generation);
+    }
 }
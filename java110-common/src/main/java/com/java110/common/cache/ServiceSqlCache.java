@@ -1,11 +1,17 @@
 package com.java110.common.cache;
 
-import com.java110.common.util.SerializeUtil;
+import com.java110.common.cache.codec.CacheCodecFactory;
 import com.java110.entity.service.ServiceSql;
 import redis.clients.jedis.Jedis;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 缓存
+ *
+ * 刷新服务sql缓存时 版本号(_VERSION_SERVICE_SQL) 加一，服务可以根据版本号判断本地编译好的查询计划是否过期
  * Created by wuxw on 2018/4/19.
  */
 public class ServiceSqlCache extends BaseCache {
@@ -13,6 +19,15 @@ public class ServiceSqlCache extends BaseCache {
     //后缀 用来刷缓存时删除 所有以这个为后缀的数据
     public final static String _SUFFIX_SERVICE_SQL = "_SUFFIX_SERVICE_SQL";
 
+    //版本号 key，刷新缓存时加一，注意不能以 _SUFFIX_SERVICE_SQL 结尾，否则会被 removeData 删除
+    public final static String _VERSION_SERVICE_SQL = "_VERSION_SERVICE_SQL";
+
+    //redis 中还没有版本号时的默认版本
+    public final static String DEFAULT_VERSION = LocalCache.DEFAULT_VERSION;
+
+    //只使用其中的版本号，编译好的查询计划由调用方按版本号缓存
+    private final static LocalCache<Object> versionCache = new LocalCache<Object>("服务sql", _VERSION_SERVICE_SQL, 0, false);
+
     /**
      * 查询 服务sql
      * @param serviceCode
@@ -22,7 +37,7 @@ public class ServiceSqlCache extends BaseCache {
         Jedis redis = null;
         try {
             redis = getJedis();
-            Object obj = SerializeUtil.unserialize(redis.get((serviceCode+_SUFFIX_SERVICE_SQL).getBytes()));
+            Object obj = CacheCodecFactory.decode(redis.get((serviceCode+_SUFFIX_SERVICE_SQL).getBytes()));
             if(obj instanceof ServiceSql){
                 return (ServiceSql) obj;
             }
@@ -42,11 +57,40 @@ public class ServiceSqlCache extends BaseCache {
         Jedis redis = null;
         try {
             redis = getJedis();
-            redis.set((serviceSql.getServiceCode()+_SUFFIX_SERVICE_SQL).getBytes(),SerializeUtil.serialize(serviceSql));
+            redis.set((serviceSql.getServiceCode()+_SUFFIX_SERVICE_SQL).getBytes(),CacheCodecFactory.encode(serviceSql));
         }finally {
             if(redis != null){
                 redis.close();
             }
         }
     }
+
+    /**
+     * 重置所有服务sql，批量写入后删除已经不存在的服务sql
+     * @param serviceSqls
+     */
+    public static void resetServiceSqls(List<ServiceSql> serviceSqls){
+        Map<String,byte[]> datas = new LinkedHashMap<String,byte[]>();
+        for(ServiceSql serviceSql : serviceSqls){
+            datas.put(serviceSql.getServiceCode()+_SUFFIX_SERVICE_SQL, CacheCodecFactory.encode(serviceSql));
+        }
+        resetData(_SUFFIX_SERVICE_SQL, datas);
+    }
+
+    /**
+     * 获取服务sql 版本号
+     *
+     * 每隔一段时间 由一个线程查询一次redis，其他时候直接返回本地记录的版本号
+     * @return
+     */
+    public static String getVersion(){
+        return versionCache.getVersion();
+    }
+
+    /**
+     * 刷新版本号，刷新服务sql缓存后调用
+     */
+    public static void flushVersion(){
+        versionCache.flushVersion();
+    }
 }
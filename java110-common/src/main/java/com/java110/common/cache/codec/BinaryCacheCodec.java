@@ -0,0 +1,398 @@
+package com.java110.common.cache.codec;
+
+import com.java110.common.log.LoggerEngine;
+import com.java110.common.util.SerializeUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑的二进制编解码器
+ *
+ * 格式：2字节魔数 + 1字节版本 + 一个带标记的值，整数采用 varint，字符串采用 UTF-8，
+ * 同一份数据中重复出现的字符串只写一次，后面写引用序号(TAG_STRING_REF)，
+ * 注册过 BinaryTypeSchema 的对象只写类型编号和字段值，不写类名和字段名，
+ * 没有注册的对象退化为 java 序列化写入(TAG_SERIALIZED)，保证任何可序列化对象都能缓存
+ * Created by wuxw on 2018/5/20.
+ */
+public class BinaryCacheCodec extends LoggerEngine implements CacheCodec {
+
+    public final static String NAME = "binary";
+
+    //魔数，与 java 序列化的 0xACED 区分，用于双读
+    private final static byte MAGIC_0 = (byte) 0x4A;
+    private final static byte MAGIC_1 = (byte) 0x42;
+    private final static byte FORMAT_VERSION = 1;
+
+    private final static int TAG_NULL = 0;
+    private final static int TAG_STRING = 1;
+    private final static int TAG_INT = 2;
+    private final static int TAG_LONG = 3;
+    private final static int TAG_DATE = 4;
+    private final static int TAG_TRUE = 5;
+    private final static int TAG_FALSE = 6;
+    private final static int TAG_DOUBLE = 7;
+    private final static int TAG_LIST = 8;
+    private final static int TAG_MAP = 9;
+    private final static int TAG_OBJECT = 10;
+    private final static int TAG_SERIALIZED = 11;
+    private final static int TAG_STRING_REF = 12;
+
+    private final static Map<Integer, BinaryTypeSchema<?>> SCHEMAS_BY_ID = new ConcurrentHashMap<Integer, BinaryTypeSchema<?>>();
+
+    private final static Map<Class<?>, BinaryTypeSchema<?>> SCHEMAS_BY_TYPE = new ConcurrentHashMap<Class<?>, BinaryTypeSchema<?>>();
+
+    static {
+        for (BinaryTypeSchema<?> schema : CacheTypeSchemas.all()) {
+            register(schema);
+        }
+    }
+
+    /**
+     * 注册对象结构，类型编号一经使用不能修改
+     * @param schema
+     */
+    public static void register(BinaryTypeSchema<?> schema) {
+        BinaryTypeSchema<?> old = SCHEMAS_BY_ID.get(schema.getTypeId());
+        if (old != null && old.getType() != schema.getType()) {
+            throw new IllegalArgumentException("类型编号 " + schema.getTypeId() + " 已经被 " + old.getType().getName() + " 使用");
+        }
+        SCHEMAS_BY_ID.put(schema.getTypeId(), schema);
+        SCHEMAS_BY_TYPE.put(schema.getType(), schema);
+    }
+
+    /**
+     * 判断是否为本编解码器写出的数据
+     * @param bytes
+     * @return
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= 3 && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    @Override
+    public byte[] encode(Object object) {
+        if (object == null) {
+            return null;
+        }
+        Output out = new Output(256);
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(FORMAT_VERSION);
+        writeValue(out, object);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            if (!isBinary(bytes)) {
+                throw new IllegalArgumentException("不是二进制缓存格式");
+            }
+            Input in = new Input(bytes, 3);
+            return readValue(in);
+        } catch (Exception e) {
+            logger.error("二进制缓存解码失败", e);
+        }
+        return null;
+    }
+
+    @Override
+    public byte[] encodeList(List<?> list) {
+        if (list == null) {
+            return null;
+        }
+        return encode(list);
+    }
+
+    @Override
+    public <T> List<T> decodeList(byte[] bytes, Class<T> clazz) {
+        Object obj = decode(bytes);
+        if (obj instanceof List) {
+            return (List<T>) obj;
+        }
+        return null;
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.writeVarInt(TAG_NULL);
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            String string = (String) value;
+            Integer ref = out.strings.get(string);
+            if (ref != null) {
+                out.writeVarInt(TAG_STRING_REF);
+                out.writeVarInt(ref);
+            } else {
+                out.strings.put(string, out.strings.size());
+                out.writeVarInt(TAG_STRING);
+                out.writeString(string);
+            }
+        } else if (type == Integer.class) {
+            out.writeVarInt(TAG_INT);
+            out.writeVarLong(zigZag((Integer) value));
+        } else if (type == Long.class) {
+            out.writeVarInt(TAG_LONG);
+            out.writeVarLong(zigZag((Long) value));
+        } else if (type == Date.class) {
+            //只处理 java.util.Date，Timestamp 等子类走 java 序列化，避免丢失类型和精度
+            out.writeVarInt(TAG_DATE);
+            out.writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (type == Boolean.class) {
+            out.writeVarInt((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (type == Double.class) {
+            out.writeVarInt(TAG_DOUBLE);
+            out.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeVarInt(TAG_LIST);
+            out.writeVarInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeVarInt(TAG_MAP);
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            BinaryTypeSchema schema = SCHEMAS_BY_TYPE.get(type);
+            if (schema != null) {
+                Object[] fields = schema.toFields(value);
+                out.writeVarInt(TAG_OBJECT);
+                out.writeVarInt(schema.getTypeId());
+                out.writeVarInt(fields.length);
+                for (Object field : fields) {
+                    writeValue(out, field);
+                }
+            } else {
+                byte[] serialized = SerializeUtil.serialize(value);
+                if (serialized == null) {
+                    throw new IllegalArgumentException("对象无法序列化：" + type.getName());
+                }
+                out.writeVarInt(TAG_SERIALIZED);
+                out.writeVarInt(serialized.length);
+                out.writeBytes(serialized, 0, serialized.length);
+            }
+        }
+    }
+
+    private Object readValue(Input in) {
+        int tag = in.readVarInt();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING: {
+                String string = in.readString();
+                in.strings.add(string);
+                return string;
+            }
+            case TAG_STRING_REF:
+                return in.strings.get(in.readVarInt());
+            case TAG_INT:
+                return (int) unZigZag(in.readVarLong());
+            case TAG_LONG:
+                return unZigZag(in.readVarLong());
+            case TAG_DATE:
+                return new Date(unZigZag(in.readVarLong()));
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case TAG_LIST: {
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<Object>(size);
+                for (int index = 0; index < size; index++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_MAP: {
+                int size = in.readVarInt();
+                Map<Object, Object> map = new LinkedHashMap<Object, Object>(size * 4 / 3 + 1);
+                for (int index = 0; index < size; index++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case TAG_OBJECT: {
+                int typeId = in.readVarInt();
+                BinaryTypeSchema<?> schema = SCHEMAS_BY_ID.get(typeId);
+                if (schema == null) {
+                    throw new IllegalStateException("未注册的类型编号：" + typeId);
+                }
+                int fieldCount = in.readVarInt();
+                Object[] fields = new Object[fieldCount];
+                for (int index = 0; index < fieldCount; index++) {
+                    fields[index] = readValue(in);
+                }
+                return schema.fromFields(fields);
+            }
+            case TAG_SERIALIZED: {
+                int length = in.readVarInt();
+                return SerializeUtil.unserialize(in.readBytes(length));
+            }
+            default:
+                throw new IllegalStateException("未知的数据标记：" + tag);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 可扩容的字节输出
+     */
+    private static class Output {
+
+        private byte[] buf;
+
+        private int count;
+
+        //已经写过的字符串及其序号
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        Output(int size) {
+            buf = new byte[size];
+        }
+
+        private void ensure(int more) {
+            if (count + more > buf.length) {
+                byte[] newBuf = new byte[Math.max(buf.length << 1, count + more)];
+                System.arraycopy(buf, 0, newBuf, 0, count);
+                buf = newBuf;
+            }
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buf[count++] = b;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buf, count, length);
+            count += length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[count++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[count++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[count++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            byte[] bytes = new byte[count];
+            System.arraycopy(buf, 0, bytes, 0, count);
+            return bytes;
+        }
+    }
+
+    /**
+     * 字节输入
+     */
+    private static class Input {
+
+        private final byte[] buf;
+
+        private int pos;
+
+        //已经读到的字符串，下标即序号
+        private final List<String> strings = new ArrayList<String>();
+
+        Input(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 63) {
+                    throw new IllegalStateException("varint 格式错误");
+                }
+                b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int index = 0; index < 8; index++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes(int length) {
+            if (length < 0 || pos + length > buf.length) {
+                throw new IllegalStateException("数据长度错误：" + length);
+            }
+            byte[] bytes = new byte[length];
+            System.arraycopy(buf, pos, bytes, 0, length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length < 0 || pos + length > buf.length) {
+                throw new IllegalStateException("字符串长度错误：" + length);
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.java110.common.cache.codec;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 二进制编码的对象结构描述
+ *
+ * 对象按字段顺序编码为 Object[]，字段只允许在末尾追加，不能删除或调整顺序：
+ * 新版本读旧数据时缺少的字段取默认值，旧版本读新数据时多出的字段直接忽略
+ * Created by wuxw on 2018/5/20.
+ */
+public abstract class BinaryTypeSchema<T> {
+
+    private final int typeId;
+
+    private final Class<T> type;
+
+    protected BinaryTypeSchema(int typeId, Class<T> type) {
+        this.typeId = typeId;
+        this.type = type;
+    }
+
+    public int getTypeId() {
+        return typeId;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 对象转为字段数组
+     * @param object
+     * @return
+     */
+    public abstract Object[] toFields(T object);
+
+    /**
+     * 字段数组还原对象，数组长度可能小于(旧数据)或大于(新数据)当前字段数
+     * @param fields
+     * @return
+     */
+    public abstract T fromFields(Object[] fields);
+
+    protected static Object field(Object[] fields, int index) {
+        return index < fields.length ? fields[index] : null;
+    }
+
+    protected static String stringField(Object[] fields, int index) {
+        Object value = field(fields, index);
+        return value == null ? null : value.toString();
+    }
+
+    protected static int intField(Object[] fields, int index) {
+        Object value = field(fields, index);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    protected static Date dateField(Object[] fields, int index) {
+        Object value = field(fields, index);
+        return value instanceof Date ? (Date) value : null;
+    }
+
+    protected static List listField(Object[] fields, int index) {
+        Object value = field(fields, index);
+        return value instanceof List ? (List) value : null;
+    }
+}
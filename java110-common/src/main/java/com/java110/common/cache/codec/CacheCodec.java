@@ -0,0 +1,42 @@
+package com.java110.common.cache.codec;
+
+import java.util.List;
+
+/**
+ * 缓存编解码器
+ *
+ * 负责把放入redis 的对象转换成字节数组，以及从字节数组还原对象
+ * Created by wuxw on 2018/5/20.
+ */
+public interface CacheCodec {
+
+    /**
+     * 编码单个对象
+     * @param object
+     * @return
+     */
+    byte[] encode(Object object);
+
+    /**
+     * 解码单个对象
+     * @param bytes
+     * @return
+     */
+    Object decode(byte[] bytes);
+
+    /**
+     * 编码 list 集合
+     * @param list
+     * @return
+     */
+    byte[] encodeList(List<?> list);
+
+    /**
+     * 解码 list 集合
+     * @param bytes
+     * @param clazz 集合元素类型
+     * @param <T>
+     * @return
+     */
+    <T> List<T> decodeList(byte[] bytes, Class<T> clazz);
+}
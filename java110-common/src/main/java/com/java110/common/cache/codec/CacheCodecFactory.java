@@ -0,0 +1,96 @@
+package com.java110.common.cache.codec;
+
+import com.java110.common.log.LoggerEngine;
+
+import java.util.List;
+
+/**
+ * 缓存编解码工厂
+ *
+ * 写缓存使用当前配置的编解码器，可通过启动参数调整：
+ * -Djava110.cache.codec=java(默认) | binary | 自定义 CacheCodec 实现类全名
+ * 默认仍写 java 序列化格式，所有服务升级到能读取二进制格式的版本后再切换为 binary
+ *
+ * 读缓存根据数据头判断格式(双读)，二进制格式和 java 序列化格式都能读取，
+ * 所以灰度升级时新旧版本服务可以同时读写同一份 redis 数据
+ * Created by wuxw on 2018/5/20.
+ */
+public class CacheCodecFactory extends LoggerEngine {
+
+    private final static BinaryCacheCodec BINARY_CODEC = new BinaryCacheCodec();
+
+    private final static JavaCacheCodec JAVA_CODEC = new JavaCacheCodec();
+
+    private static volatile CacheCodec codec = createCodec(System.getProperty("java110.cache.codec", JavaCacheCodec.NAME));
+
+    private CacheCodecFactory() {
+    }
+
+    private static CacheCodec createCodec(String name) {
+        if (BinaryCacheCodec.NAME.equalsIgnoreCase(name)) {
+            return BINARY_CODEC;
+        }
+        if (JavaCacheCodec.NAME.equalsIgnoreCase(name)) {
+            return JAVA_CODEC;
+        }
+        try {
+            return (CacheCodec) Class.forName(name).newInstance();
+        } catch (Exception e) {
+            logger.error("加载缓存编解码器 " + name + " 失败，使用默认 java 序列化编解码器", e);
+        }
+        return JAVA_CODEC;
+    }
+
+    /**
+     * 当前写缓存使用的编解码器
+     * @return
+     */
+    public static CacheCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 替换写缓存使用的编解码器
+     * @param cacheCodec
+     */
+    public static void setCodec(CacheCodec cacheCodec) {
+        codec = cacheCodec == null ? JAVA_CODEC : cacheCodec;
+    }
+
+    /**
+     * 根据数据头选择解码器
+     * @param bytes
+     * @return
+     */
+    private static CacheCodec codecFor(byte[] bytes) {
+        if (BinaryCacheCodec.isBinary(bytes)) {
+            return BINARY_CODEC;
+        }
+        if (JavaCacheCodec.isJavaSerialized(bytes)) {
+            return JAVA_CODEC;
+        }
+        return codec;
+    }
+
+    public static byte[] encode(Object object) {
+        return codec.encode(object);
+    }
+
+    public static Object decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        return codecFor(bytes).decode(bytes);
+    }
+
+    public static byte[] encodeList(List<?> list) {
+        return codec.encodeList(list);
+    }
+
+    public static <T> List<T> decodeList(byte[] bytes, Class<T> clazz) {
+        if (bytes == null) {
+            return null;
+        }
+        return codecFor(bytes).decodeList(bytes, clazz);
+    }
+}
@@ -0,0 +1,295 @@
+package com.java110.common.cache.codec;
+
+import com.java110.entity.center.AppRoute;
+import com.java110.entity.center.AppService;
+import com.java110.entity.mapping.Mapping;
+import com.java110.entity.rule.Rule;
+import com.java110.entity.rule.RuleCondCfg;
+import com.java110.entity.rule.RuleEntrance;
+import com.java110.entity.service.ServiceSql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存对象的二进制结构
+ *
+ * 类型编号和字段顺序写入了redis中的数据，只能在末尾追加字段或新增类型编号
+ * Created by wuxw on 2018/5/20.
+ */
+public final class CacheTypeSchemas {
+
+    public final static int TYPE_APP_ROUTE = 1;
+    public final static int TYPE_APP_SERVICE = 2;
+    public final static int TYPE_MAPPING = 3;
+    public final static int TYPE_SERVICE_SQL = 4;
+    public final static int TYPE_RULE = 5;
+    public final static int TYPE_RULE_COND_CFG = 6;
+    public final static int TYPE_RULE_ENTRANCE = 7;
+
+    private CacheTypeSchemas() {
+    }
+
+    public static List<BinaryTypeSchema<?>> all() {
+        List<BinaryTypeSchema<?>> schemas = new ArrayList<BinaryTypeSchema<?>>();
+        schemas.add(APP_ROUTE);
+        schemas.add(APP_SERVICE);
+        schemas.add(MAPPING);
+        schemas.add(SERVICE_SQL);
+        schemas.add(RULE);
+        schemas.add(RULE_COND_CFG);
+        schemas.add(RULE_ENTRANCE);
+        return schemas;
+    }
+
+    public final static BinaryTypeSchema<AppRoute> APP_ROUTE = new BinaryTypeSchema<AppRoute>(TYPE_APP_ROUTE, AppRoute.class) {
+        @Override
+        public Object[] toFields(AppRoute appRoute) {
+            return new Object[]{
+                    appRoute.getAppId(),
+                    appRoute.getName(),
+                    appRoute.getOrderTypeCd(),
+                    appRoute.getLimitTimes(),
+                    appRoute.getInvokeModel(),
+                    appRoute.getSecurityCode(),
+                    appRoute.getWhileListIp(),
+                    appRoute.getBackListIp(),
+                    appRoute.getAppService(),
+                    appRoute.getRemark(),
+                    appRoute.getStatusCd()
+            };
+        }
+
+        @Override
+        public AppRoute fromFields(Object[] fields) {
+            AppRoute appRoute = AppRoute.newInstance();
+            appRoute.setAppId(stringField(fields, 0));
+            appRoute.setName(stringField(fields, 1));
+            appRoute.setOrderTypeCd(stringField(fields, 2));
+            appRoute.setLimitTimes(intField(fields, 3));
+            appRoute.setInvokeModel(stringField(fields, 4));
+            appRoute.setSecurityCode(stringField(fields, 5));
+            List whileListIp = listField(fields, 6);
+            if (whileListIp != null) {
+                for (Object ip : whileListIp) {
+                    appRoute.addWhileListIp((String) ip);
+                }
+            }
+            List backListIp = listField(fields, 7);
+            if (backListIp != null) {
+                for (Object ip : backListIp) {
+                    appRoute.addBackListIp((String) ip);
+                }
+            }
+            Object appService = field(fields, 8);
+            if (appService instanceof AppService) {
+                appRoute.setAppService((AppService) appService);
+            }
+            appRoute.setRemark(stringField(fields, 9));
+            appRoute.setStatusCd(stringField(fields, 10));
+            return appRoute;
+        }
+    };
+
+    public final static BinaryTypeSchema<AppService> APP_SERVICE = new BinaryTypeSchema<AppService>(TYPE_APP_SERVICE, AppService.class) {
+        @Override
+        public Object[] toFields(AppService appService) {
+            return new Object[]{
+                    appService.getServiceId(),
+                    appService.getServiceCode(),
+                    appService.getBusinessTypeCd(),
+                    appService.getName(),
+                    appService.getSeq(),
+                    appService.getMessageQueueName(),
+                    appService.getUrl(),
+                    appService.getMethod(),
+                    appService.getIsInstance(),
+                    appService.getTimeOut(),
+                    appService.getRetryCount(),
+                    appService.getStatusCd()
+            };
+        }
+
+        @Override
+        public AppService fromFields(Object[] fields) {
+            AppService appService = AppService.newInstance();
+            appService.setServiceId(intField(fields, 0));
+            appService.setServiceCode(stringField(fields, 1));
+            appService.setBusinessTypeCd(stringField(fields, 2));
+            appService.setName(stringField(fields, 3));
+            appService.setSeq(intField(fields, 4));
+            appService.setMessageQueueName(stringField(fields, 5));
+            appService.setUrl(stringField(fields, 6));
+            appService.setMethod(stringField(fields, 7));
+            appService.setIsInstance(stringField(fields, 8));
+            appService.setTimeOut(intField(fields, 9));
+            appService.setRetryCount(intField(fields, 10));
+            appService.setStatusCd(stringField(fields, 11));
+            return appService;
+        }
+    };
+
+    public final static BinaryTypeSchema<Mapping> MAPPING = new BinaryTypeSchema<Mapping>(TYPE_MAPPING, Mapping.class) {
+        @Override
+        public Object[] toFields(Mapping mapping) {
+            return new Object[]{
+                    mapping.getId(),
+                    mapping.getDomain(),
+                    mapping.getName(),
+                    mapping.getKey(),
+                    mapping.getValue(),
+                    mapping.getRemark(),
+                    mapping.getCreateTime()
+            };
+        }
+
+        @Override
+        public Mapping fromFields(Object[] fields) {
+            Mapping mapping = new Mapping();
+            mapping.setId(intField(fields, 0));
+            mapping.setDomain(stringField(fields, 1));
+            mapping.setName(stringField(fields, 2));
+            mapping.setKey(stringField(fields, 3));
+            mapping.setValue(stringField(fields, 4));
+            mapping.setRemark(stringField(fields, 5));
+            mapping.setCreateTime(dateField(fields, 6));
+            return mapping;
+        }
+    };
+
+    public final static BinaryTypeSchema<ServiceSql> SERVICE_SQL = new BinaryTypeSchema<ServiceSql>(TYPE_SERVICE_SQL, ServiceSql.class) {
+        @Override
+        public Object[] toFields(ServiceSql serviceSql) {
+            return new Object[]{
+                    serviceSql.getServiceCode(),
+                    serviceSql.getName(),
+                    serviceSql.getParams(),
+                    serviceSql.getQueryModel(),
+                    serviceSql.getSql(),
+                    serviceSql.getProc(),
+                    serviceSql.getJavaScript(),
+                    serviceSql.getTemplate(),
+                    serviceSql.getStatusCd(),
+                    serviceSql.getRemark()
+            };
+        }
+
+        @Override
+        public ServiceSql fromFields(Object[] fields) {
+            ServiceSql serviceSql = new ServiceSql();
+            serviceSql.setServiceCode(stringField(fields, 0));
+            serviceSql.setName(stringField(fields, 1));
+            serviceSql.setParams(stringField(fields, 2));
+            serviceSql.setQueryModel(stringField(fields, 3));
+            serviceSql.setSql(stringField(fields, 4));
+            serviceSql.setProc(stringField(fields, 5));
+            serviceSql.setJavaScript(stringField(fields, 6));
+            serviceSql.setTemplate(stringField(fields, 7));
+            serviceSql.setStatusCd(stringField(fields, 8));
+            serviceSql.setRemark(stringField(fields, 9));
+            return serviceSql;
+        }
+    };
+
+    public final static BinaryTypeSchema<Rule> RULE = new BinaryTypeSchema<Rule>(TYPE_RULE, Rule.class) {
+        @Override
+        public Object[] toFields(Rule rule) {
+            return new Object[]{
+                    rule.getRule_id(),
+                    rule.getRule_code(),
+                    rule.getRule_level(),
+                    rule.getRule_name(),
+                    rule.getRule_desc(),
+                    rule.getRule_type(),
+                    rule.getRule_url(),
+                    rule.getCreate_dt(),
+                    rule.getRuleCondCfgs()
+            };
+        }
+
+        @Override
+        public Rule fromFields(Object[] fields) {
+            Rule rule = new Rule();
+            rule.setRule_id(stringField(fields, 0));
+            rule.setRule_code(stringField(fields, 1));
+            rule.setRule_level(stringField(fields, 2));
+            rule.setRule_name(stringField(fields, 3));
+            rule.setRule_desc(stringField(fields, 4));
+            rule.setRule_type(stringField(fields, 5));
+            rule.setRule_url(stringField(fields, 6));
+            rule.setCreate_dt(dateField(fields, 7));
+            rule.setRuleCondCfgs(listField(fields, 8));
+            return rule;
+        }
+    };
+
+    public final static BinaryTypeSchema<RuleCondCfg> RULE_COND_CFG = new BinaryTypeSchema<RuleCondCfg>(TYPE_RULE_COND_CFG, RuleCondCfg.class) {
+        @Override
+        public Object[] toFields(RuleCondCfg ruleCondCfg) {
+            return new Object[]{
+                    ruleCondCfg.getRule_id(),
+                    ruleCondCfg.getRule_node(),
+                    ruleCondCfg.getData_from_flag(),
+                    ruleCondCfg.getDb_sql(),
+                    ruleCondCfg.getDefault_value(),
+                    ruleCondCfg.getNode_existed(),
+                    ruleCondCfg.getProc_param_flag(),
+                    ruleCondCfg.getIs_reverse(),
+                    ruleCondCfg.getIs_log(),
+                    ruleCondCfg.getError_code(),
+                    ruleCondCfg.getError_msg(),
+                    ruleCondCfg.getRemark(),
+                    ruleCondCfg.getSeq(),
+                    ruleCondCfg.getData_stack_flag_prefix(),
+                    ruleCondCfg.getJpath(),
+                    ruleCondCfg.getStatus_cd(),
+                    ruleCondCfg.getCreate_dt()
+            };
+        }
+
+        @Override
+        public RuleCondCfg fromFields(Object[] fields) {
+            RuleCondCfg ruleCondCfg = new RuleCondCfg();
+            ruleCondCfg.setRule_id(stringField(fields, 0));
+            ruleCondCfg.setRule_node(stringField(fields, 1));
+            ruleCondCfg.setData_from_flag(stringField(fields, 2));
+            ruleCondCfg.setDb_sql(stringField(fields, 3));
+            ruleCondCfg.setDefault_value(stringField(fields, 4));
+            ruleCondCfg.setNode_existed(stringField(fields, 5));
+            ruleCondCfg.setProc_param_flag(stringField(fields, 6));
+            ruleCondCfg.setIs_reverse(stringField(fields, 7));
+            ruleCondCfg.setIs_log(stringField(fields, 8));
+            ruleCondCfg.setError_code(stringField(fields, 9));
+            ruleCondCfg.setError_msg(stringField(fields, 10));
+            ruleCondCfg.setRemark(stringField(fields, 11));
+            ruleCondCfg.setSeq(stringField(fields, 12));
+            ruleCondCfg.setData_stack_flag_prefix(stringField(fields, 13));
+            ruleCondCfg.setJpath(stringField(fields, 14));
+            ruleCondCfg.setStatus_cd(stringField(fields, 15));
+            ruleCondCfg.setCreate_dt(dateField(fields, 16));
+            return ruleCondCfg;
+        }
+    };
+
+    public final static BinaryTypeSchema<RuleEntrance> RULE_ENTRANCE = new BinaryTypeSchema<RuleEntrance>(TYPE_RULE_ENTRANCE, RuleEntrance.class) {
+        @Override
+        public Object[] toFields(RuleEntrance ruleEntrance) {
+            return new Object[]{
+                    ruleEntrance.getRule_id(),
+                    ruleEntrance.getRule_condition(),
+                    ruleEntrance.getStatus_cd(),
+                    ruleEntrance.getCreate_dt()
+            };
+        }
+
+        @Override
+        public RuleEntrance fromFields(Object[] fields) {
+            RuleEntrance ruleEntrance = new RuleEntrance();
+            ruleEntrance.setRule_id(stringField(fields, 0));
+            ruleEntrance.setRule_condition(stringField(fields, 1));
+            ruleEntrance.setStatus_cd(stringField(fields, 2));
+            ruleEntrance.setCreate_dt(dateField(fields, 3));
+            return ruleEntrance;
+        }
+    };
+}
@@ -0,0 +1,46 @@
+package com.java110.common.cache.codec;
+
+import com.java110.common.util.SerializeUtil;
+
+import java.util.List;
+
+/**
+ * java 原生序列化编解码器，即原来 SerializeUtil 的格式
+ *
+ * 默认使用该格式写缓存，-Djava110.cache.codec=binary 时改用二进制格式
+ * Created by wuxw on 2018/5/20.
+ */
+public class JavaCacheCodec implements CacheCodec {
+
+    public final static String NAME = "java";
+
+    /**
+     * 判断是否为 ObjectOutputStream 写出的数据(以 0xACED 开头)
+     * @param bytes
+     * @return
+     */
+    public static boolean isJavaSerialized(byte[] bytes) {
+        return bytes != null && bytes.length >= 2
+                && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+
+    @Override
+    public byte[] encode(Object object) {
+        return SerializeUtil.serialize(object);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return SerializeUtil.unserialize(bytes);
+    }
+
+    @Override
+    public byte[] encodeList(List<?> list) {
+        return SerializeUtil.serializeList(list);
+    }
+
+    @Override
+    public <T> List<T> decodeList(byte[] bytes, Class<T> clazz) {
+        return SerializeUtil.unserializeList(bytes, clazz);
+    }
+}
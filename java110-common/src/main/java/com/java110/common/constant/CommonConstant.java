@@ -102,6 +102,27 @@ public class CommonConstant {
      */
     public final static String TEMPLATE_OPER_DEL = "del";
 
+    /**
+     * 模板数据 keyset 分页，上一页返回的游标，查第一页时为空
+     */
+    public final static String TEMPLATE_PAGE_CURSOR = "cursor";
+
+    /**
+     * 模板数据 keyset 分页，下一页的游标，没有下一页时为空
+     */
+    public final static String TEMPLATE_PAGE_NEXT_CURSOR = "nextCursor";
+
+    /**
+     * 模板数据 keyset 分页的主键列，为模板 colModel 中 key 为 true 的列，没有时按 page 偏移分页
+     */
+    public final static String TEMPLATE_PAGE_KEY_COL = "keyCol";
+
+    /**
+     * 模板数据 排序列 和 排序方式(asc desc)
+     */
+    public final static String TEMPLATE_PAGE_SIDX = "sidx";
+    public final static String TEMPLATE_PAGE_SORD = "sord";
+
 
     public final static String CACHE_PARAM_NAME = "cacheName";
 
@@ -15,6 +15,11 @@ public class KafkaConstant {
      */
     public final static String TOPIC_COST_TIME_LOG_NAME = "COST_TIME_LOG";
 
+    /**
+     * 数据流日志topic 名称，一次请求的交互日志和耗时合并成一条消息
+     */
+    public final static String TOPIC_DATA_FLOW_LOG_NAME = "DATA_FLOW_LOG";
+
     /**
      * 通知 中心服务
      */
@@ -11,6 +11,8 @@ public class MappingConstant {
 
     public  final static String KEY_LOG_ON_OFF = "LOG_ON_OFF";
     public  final static String KEY_COST_TIME_ON_OFF = "COST_TIME_ON_OFF";
+    //数据流日志开关，打开后一次请求的日志和耗时合并发送到 DATA_FLOW_LOG，所有日志服务都侦听 DATA_FLOW_LOG 后再打开
+    public  final static String KEY_DATA_FLOW_LOG_ON_OFF = "DATA_FLOW_LOG_ON_OFF";
 
     //私钥
     public final static String KEY_PRIVATE_STRING = "PRIVATE_STRING";
@@ -42,6 +44,9 @@ public class MappingConstant {
     // 不用调用 作废下游系统的配置(一般不存在这种情况，这里主要是在没有下游系统的情况下测试中心服务用)
     public  final static String KEY_NO_INVALID_BUSINESS_SYSTEM = "NO_INVALID_BUSINESS_SYSTEM";//
 
+    // 同步调用下游系统时，seq 相同的业务并行调用(ON 开启)
+    public  final static String KEY_SYNCHRONOUS_BUSINESS_PARALLEL_ON_OFF = "SYNCHRONOUS_BUSINESS_PARALLEL_ON_OFF";
+
     //需要调用服务生成各个ID
     public final static String KEY_NEED_INVOKE_GENERATE_ID = "NEED_INVOKE_SERVICE_GENERATE_ID";
 
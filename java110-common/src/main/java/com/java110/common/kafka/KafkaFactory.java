@@ -2,6 +2,7 @@ package com.java110.common.kafka;
 
 import com.java110.common.factory.ApplicationContextFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.util.concurrent.ListenableFutureCallback;
 
 /**
  * kafka 工厂类
@@ -9,12 +10,23 @@ import org.springframework.kafka.core.KafkaTemplate;
  */
 public class KafkaFactory {
 
+    /**
+     * kafkaTemplate 是单例bean，第一次使用时从spring 容器中获取后缓存，之后发送消息不再查找bean
+     */
+    private static volatile KafkaTemplate kafkaTemplate;
+
     /**
      * 获取kafka template
      * @return
      */
     private static KafkaTemplate getKafkaTemplate(){
-        return (KafkaTemplate) ApplicationContextFactory.getBean("kafkaTemplate");
+        KafkaTemplate template = kafkaTemplate;
+        if(template == null){
+            //并发时可能重复获取，拿到的是同一个bean，不需要加锁
+            template = (KafkaTemplate) ApplicationContextFactory.getBean("kafkaTemplate");
+            kafkaTemplate = template;
+        }
+        return template;
     }
 
     /**
@@ -27,4 +39,17 @@ public class KafkaFactory {
     public static void sendKafkaMessage(String topic,String key,Object message) throws Exception{
         getKafkaTemplate().send(topic,key,message);
     }
+
+    /**
+     * 发送kafka消息，kafka 异步返回结果时回调
+     * 回调在 kafka 生产者的发送线程中执行，不能有耗时操作
+     * @param topic
+     * @param key
+     * @param message
+     * @param callback 发送结果回调
+     * @throws Exception
+     */
+    public static void sendKafkaMessage(String topic,String key,Object message,ListenableFutureCallback callback) throws Exception{
+        getKafkaTemplate().send(topic,key,message).addCallback(callback);
+    }
 }
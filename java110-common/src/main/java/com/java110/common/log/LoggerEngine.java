@@ -1,5 +1,6 @@
 package com.java110.common.log;
 
+import com.alibaba.fastjson.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +28,28 @@ public class LoggerEngine {
         }
     }
 
+    /**
+     * debug 模式引擎，参数化日志，loggerMsg 中的 {} 依次替换为参数，日志级别未打开时不会拼接字符串
+     * @param loggerMsg
+     * @param loggerInfo1
+     * @param loggerInfo2
+     */
+    public static void debug(String loggerMsg,Object loggerInfo1,Object loggerInfo2){
+        if(logger.isDebugEnabled()){
+            logger.debug(loggerMsg,loggerInfo1,loggerInfo2);
+        }
+    }
+
+    public static void debug(String loggerMsg,Object... loggerInfos){
+        if(logger.isDebugEnabled()){
+            logger.debug(loggerMsg,loggerInfos);
+        }
+    }
+
+    public static boolean isDebugEnabled(){
+        return logger.isDebugEnabled();
+    }
+
     /**
      * info 模式引擎
      * @param loggerMsg
@@ -37,6 +60,23 @@ public class LoggerEngine {
         }
     }
 
+    /**
+     * info 模式引擎，参数化日志
+     * @param loggerMsg
+     * @param loggerInfo
+     */
+    public static void info(String loggerMsg,Object loggerInfo){
+        if(logger.isInfoEnabled()){
+            logger.info(loggerMsg,loggerInfo);
+        }
+    }
+
+    public static void info(String loggerMsg,Object... loggerInfos){
+        if(logger.isInfoEnabled()){
+            logger.info(loggerMsg,loggerInfos);
+        }
+    }
+
 
     /**
      * error 模式引擎
@@ -57,4 +97,28 @@ public class LoggerEngine {
             logger.error(loggerMsg,e);
         }
     }
+
+    /**
+     * 延迟转 json 的日志参数，只有真正输出日志时(toString)才序列化，
+     * 用法 LoggerEngine.debug("保存数据入参 : {}", LoggerEngine.toJson(order));
+     * @param loggerInfo
+     * @return
+     */
+    public static Object toJson(Object loggerInfo){
+        return new JsonLoggerInfo(loggerInfo);
+    }
+
+    private static class JsonLoggerInfo {
+
+        private final Object loggerInfo;
+
+        JsonLoggerInfo(Object loggerInfo) {
+            this.loggerInfo = loggerInfo;
+        }
+
+        @Override
+        public String toString() {
+            return JSONObject.toJSONString(loggerInfo);
+        }
+    }
 }
@@ -1,22 +1,54 @@
 package com.java110.common.util;
 
 import java.sql.Timestamp;
-import java.text.DateFormat;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * 日期工具类
+ *
+ * 格式化和解析基于不可变的 DateTimeFormatter，多线程共享无需加锁；
+ * DateTimeFormatter 不支持或者语义和 SimpleDateFormat 不一致的格式(如 E、z、MMM)，每次调用新建 SimpleDateFormat 处理。
+ * 解析时 DateTimeFormatter 失败的，再用 SimpleDateFormat(宽松模式)解析一次，保证和原来的解析结果一致
  * Created by wuxw on 2017/7/24.
  */
 public class DateUtil {
 
-    private static DateFormat dateFormat = new SimpleDateFormat("yyyyMMddhhmmss");
+    private static final String DATE_FORMATE_STRING_YYYYMMDDHHMMSS_12 = "yyyyMMddhhmmss";
 
-    private static Map<String, SimpleDateFormat> formats = new HashMap();
+    /**
+     * DateTimeFormatter 可以直接处理的格式字母
+     */
+    private static final String SUPPORT_PATTERN_LETTERS = "yMdHhmsSaZ";
+
+    private static final LocalDate EPOCH_DATE = LocalDate.of(1970, 1, 1);
+
+    private static final ChronoField[] DATE_FIELDS = {ChronoField.YEAR_OF_ERA, ChronoField.MONTH_OF_YEAR,
+            ChronoField.DAY_OF_MONTH};
+
+    private static final ChronoField[] TIME_FIELDS = {ChronoField.AMPM_OF_DAY, ChronoField.HOUR_OF_AMPM,
+            ChronoField.CLOCK_HOUR_OF_AMPM, ChronoField.HOUR_OF_DAY, ChronoField.MINUTE_OF_HOUR,
+            ChronoField.SECOND_OF_MINUTE, ChronoField.MILLI_OF_SECOND};
+
+    private static final Map<String, DateFormatHolder> formats = new ConcurrentHashMap<String, DateFormatHolder>();
     public static final String DATE_FORMATE_STRING_DEFAULT = "yyyyMMddHHmmss";
     public static final String DATE_FORMATE_STRING_A = "yyyy-MM-dd HH:mm:ss";
     public static final String DATE_FORMATE_STRING_B = "yyyy-MM-dd";
@@ -32,18 +64,19 @@ public class DateUtil {
 
     static
     {
-        formats.put("yyyyMMddHHmmss", new SimpleDateFormat("yyyyMMddHHmmss"));
-        formats.put("yyyy-MM-dd HH:mm:ss", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
-        formats.put("yyyy-MM-dd", new SimpleDateFormat("yyyy-MM-dd"));
-        formats.put("MM/dd/yyyy HH:mm:ss a", new SimpleDateFormat("MM/dd/yyyy HH:mm:ss a"));
-        formats.put("yyyy-MM-dd HH:mm:ss a", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss a"));
-        formats.put("yyyy-MM-dd'T'HH:mm:ss'Z'", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'"));
-        formats.put("yyyy-MM-dd'T'HH:mm:ssZ", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ"));
-        formats.put("yyyy-MM-dd'T'HH:mm:ssz", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssz"));
-        formats.put("yyyyMMdd", new SimpleDateFormat("yyyyMMdd"));
-        formats.put("yyyy-MM-dd HH:mm:ss.SSS", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS"));
-        formats.put("yyyyMMddHHmmss.SSS", new SimpleDateFormat("yyyyMMddHHmmss.SSS"));
-        formats.put("yyyyMMddHHmmssSSS", new SimpleDateFormat("yyyyMMddHHmmssSSS"));
+        getDateFormatHolder(DATE_FORMATE_STRING_DEFAULT);
+        getDateFormatHolder(DATE_FORMATE_STRING_A);
+        getDateFormatHolder(DATE_FORMATE_STRING_B);
+        getDateFormatHolder(DATE_FORMATE_STRING_C);
+        getDateFormatHolder(DATE_FORMATE_STRING_D);
+        getDateFormatHolder(DATE_FORMATE_STRING_E);
+        getDateFormatHolder(DATE_FORMATE_STRING_F);
+        getDateFormatHolder(DATE_FORMATE_STRING_G);
+        getDateFormatHolder(DATE_FORMATE_STRING_H);
+        getDateFormatHolder(DATE_FORMATE_STRING_I);
+        getDateFormatHolder(DATE_FORMATE_STRING_J);
+        getDateFormatHolder(DATE_FORMATE_STRING_K);
+        getDateFormatHolder(DATE_FORMATE_STRING_YYYYMMDDHHMMSS_12);
     }
 
 
@@ -52,7 +85,7 @@ public class DateUtil {
      * @return
      */
     public static String getyyyyMMddhhmmssDateString(){
-        return dateFormat.format(new Date());
+        return getNow(DATE_FORMATE_STRING_YYYYMMDDHHMMSS_12);
     }
 
 
@@ -100,11 +133,7 @@ public class DateUtil {
 
     public static String getFormatTimeString(Date date, String pattern)
     {
-        SimpleDateFormat sDateFormat = getDateFormat(pattern);
-
-        synchronized (sDateFormat) {
-            return sDateFormat.format(date);
-        }
+        return getDateFormatHolder(pattern).format(date);
     }
 
     public static String getDefaultFormateTimeString(Date date)
@@ -112,24 +141,20 @@ public class DateUtil {
         return getFormatTimeString(date, "yyyyMMddHHmmss");
     }
 
+    /**
+     * 返回新的 SimpleDateFormat 实例，SimpleDateFormat 不是线程安全的，不再共享，由调用方自己持有
+     * @param pattern
+     * @return
+     */
     public static SimpleDateFormat getDateFormat(String pattern)
     {
-        SimpleDateFormat sDateFormat = (SimpleDateFormat)formats.get(pattern);
-        if (sDateFormat == null) {
-            sDateFormat = new SimpleDateFormat(pattern);
-            formats.put(pattern, sDateFormat);
-        }
-        return sDateFormat;
+        return new SimpleDateFormat(pattern);
     }
 
     public static Date getDateFromString(String date, String pattern)
             throws ParseException
     {
-        SimpleDateFormat sDateFormat = getDateFormat(pattern);
-
-        synchronized (sDateFormat) {
-            return sDateFormat.parse(date);
-        }
+        return getDateFormatHolder(pattern).parse(date);
     }
 
     public static Date getDefaultDateFromString(String date)
@@ -145,12 +170,12 @@ public class DateUtil {
 
     public static String getNow(String pattern)
     {
-        return getFormatTimeString(new Date(), pattern);
+        return getFormatTimeString(System.currentTimeMillis(), pattern);
     }
 
     public static String getNowII()
     {
-        return getFormatTimeString(new Date(), "yyyyMMdd");
+        return getFormatTimeString(System.currentTimeMillis(), "yyyyMMdd");
     }
 
     public static long dateString2Long(String str, String pattern)
@@ -176,12 +201,12 @@ public class DateUtil {
 
     public static String longToDateStringDefault(long time)
     {
-        return getFormatTimeString(new Date(time), "yyyyMMddHHmmss");
+        return getFormatTimeString(time, "yyyyMMddHHmmss");
     }
 
     public static String longToDateString(long time, String pattern)
     {
-        return getFormatTimeString(new Date(time), pattern);
+        return getFormatTimeString(time, pattern);
     }
 
     public static long date2Long(Date date)
@@ -401,4 +426,212 @@ public class DateUtil {
         }
         return true;
     }
+
+    private static String getFormatTimeString(long time, String pattern)
+    {
+        return getDateFormatHolder(pattern).format(time);
+    }
+
+    private static DateFormatHolder getDateFormatHolder(String pattern)
+    {
+        DateFormatHolder holder = formats.get(pattern);
+        if (holder == null) {
+            holder = new DateFormatHolder(pattern);
+            DateFormatHolder old = formats.putIfAbsent(pattern, holder);
+            if (old != null) {
+                holder = old;
+            }
+        }
+        return holder;
+    }
+
+    /**
+     * 将 SimpleDateFormat 格式转换为 DateTimeFormatter，不支持的格式返回 null
+     *
+     * S 按毫秒数值处理(和 SimpleDateFormat 一致)，同时避免 jdk8 下 yyyyMMddHHmmssSSS 这种紧邻格式无法解析的问题
+     * yy 不支持，DateTimeFormatter 两位年份固定从 2000 开始，SimpleDateFormat 按当前时间前80年后20年解析，且四位年份按原值解析
+     * @param pattern
+     * @return
+     */
+    private static DateTimeFormatter toDateTimeFormatter(String pattern)
+    {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+        StringBuilder segment = new StringBuilder();
+        boolean inQuote = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+                segment.append(c);
+                i++;
+                continue;
+            }
+            if (inQuote) {
+                segment.append(c);
+                i++;
+                continue;
+            }
+            if ("[]{}#".indexOf(c) >= 0) {
+                return null;
+            }
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                segment.append(c);
+                i++;
+                continue;
+            }
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (SUPPORT_PATTERN_LETTERS.indexOf(c) < 0
+                    || (c == 'M' && count > 2)
+                    || (c == 'y' && count == 2)
+                    || (c == 'a' && count > 1)
+                    || (c == 'Z' && count > 3)) {
+                return null;
+            }
+            if (c == 'S') {
+                if (segment.length() > 0) {
+                    builder.appendPattern(segment.toString());
+                    segment.setLength(0);
+                }
+                if (count >= 3) {
+                    builder.appendValue(ChronoField.MILLI_OF_SECOND, count);
+                } else {
+                    builder.appendValue(ChronoField.MILLI_OF_SECOND, count, 3, SignStyle.NOT_NEGATIVE);
+                }
+            } else {
+                segment.append(pattern, i, i + count);
+            }
+            i += count;
+        }
+        if (inQuote) {
+            return null;
+        }
+        if (segment.length() > 0) {
+            builder.appendPattern(segment.toString());
+        }
+        return builder.toFormatter().withResolverStyle(ResolverStyle.LENIENT);
+    }
+
+    /**
+     * 单个格式的格式化器，同时缓存最近一秒的格式化结果(格式不含毫秒时)
+     */
+    private static class DateFormatHolder {
+
+        private final String pattern;
+
+        private final DateTimeFormatter formatter;
+
+        private final DateTimeFormatter zonedFormatter;
+
+        private final ZoneId zone;
+
+        private final boolean secondPrecision;
+
+        private volatile FormattedSecond lastSecond;
+
+        DateFormatHolder(String pattern) {
+            DateTimeFormatter dateTimeFormatter;
+            try {
+                dateTimeFormatter = toDateTimeFormatter(pattern);
+            } catch (IllegalArgumentException e) {
+                dateTimeFormatter = null;
+            }
+            this.pattern = pattern;
+            this.zone = ZoneId.systemDefault();
+            this.formatter = dateTimeFormatter;
+            this.zonedFormatter = dateTimeFormatter == null ? null : dateTimeFormatter.withZone(zone);
+            this.secondPrecision = !pattern.replaceAll("'[^']*'", "").contains("S");
+            //格式不合法时和原来一样，在这里抛出 IllegalArgumentException
+            new SimpleDateFormat(pattern);
+        }
+
+        String format(Date date) {
+            return format(date.getTime());
+        }
+
+        String format(long time) {
+            if (!secondPrecision) {
+                return doFormat(time);
+            }
+            long second = Math.floorDiv(time, 1000L);
+            FormattedSecond cached = lastSecond;
+            if (cached != null && cached.second == second) {
+                return cached.text;
+            }
+            String text = doFormat(time);
+            lastSecond = new FormattedSecond(second, text);
+            return text;
+        }
+
+        private String doFormat(long time) {
+            if (formatter == null) {
+                return new SimpleDateFormat(pattern).format(new Date(time));
+            }
+            return zonedFormatter.format(Instant.ofEpochMilli(time));
+        }
+
+        Date parse(String date) throws ParseException {
+            if (formatter != null && date != null) {
+                try {
+                    TemporalAccessor parsed = formatter.parse(date, new ParsePosition(0));
+                    Date result = toDate(parsed);
+                    if (result != null) {
+                        return result;
+                    }
+                } catch (DateTimeException e) {
+                    //交给 SimpleDateFormat 处理
+                }
+            }
+            return new SimpleDateFormat(pattern).parse(date);
+        }
+
+        private Date toDate(TemporalAccessor parsed) {
+            LocalDate localDate = parsed.query(TemporalQueries.localDate());
+            LocalTime localTime = parsed.query(TemporalQueries.localTime());
+            //只解析出部分日期或时间字段(如 yyyyMM、不带 a 的 hh)，交给 SimpleDateFormat 补齐
+            if ((localDate == null && isAnySupported(parsed, DATE_FIELDS))
+                    || (localTime == null && isAnySupported(parsed, TIME_FIELDS))) {
+                return null;
+            }
+            if (localDate == null) {
+                localDate = EPOCH_DATE;
+            }
+            if (localTime == null) {
+                localTime = LocalTime.MIDNIGHT;
+            }
+            if (parsed.isSupported(ChronoField.OFFSET_SECONDS)) {
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds(parsed.get(ChronoField.OFFSET_SECONDS));
+                return Date.from(localDate.atTime(localTime).toInstant(offset));
+            }
+            //夏令时重叠的时间和 SimpleDateFormat 一样取标准时间(较晚的偏移)
+            return Date.from(localDate.atTime(localTime).atZone(zone).withLaterOffsetAtOverlap().toInstant());
+        }
+
+        private boolean isAnySupported(TemporalAccessor parsed, ChronoField[] fields) {
+            for (ChronoField field : fields) {
+                if (parsed.isSupported(field)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 某一秒的格式化结果
+     */
+    private static class FormattedSecond {
+
+        private final long second;
+
+        private final String text;
+
+        FormattedSecond(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package com.java110.common.util;
+
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * IP 名单匹配
+ *
+ * 名单中的每一项可以是单个IP 或 CIDR 网段(如 192.168.1.0/24、2001:db8::/32)，IPv4 和 IPv6 都支持，
+ * 编译成二进制前缀树后匹配时最多走 32(IPv4) 或 128(IPv6) 步，与名单长度无关，
+ * 无法解析成IP的项按原来的方式做字符串精确匹配
+ * Created by wuxw on 2018/5/23.
+ */
+public final class IpMatcher {
+
+    private final static IpMatcher EMPTY = new IpMatcher(new Node(), new Node(), Collections.<String>emptySet(), true);
+
+    private final Node ipv4Root;
+
+    private final Node ipv6Root;
+
+    //无法解析为IP 的名单项
+    private final Set<String> literals;
+
+    private final boolean empty;
+
+    private IpMatcher(Node ipv4Root, Node ipv6Root, Set<String> literals, boolean empty) {
+        this.ipv4Root = ipv4Root;
+        this.ipv6Root = ipv6Root;
+        this.literals = literals;
+        this.empty = empty;
+    }
+
+    /**
+     * 编译名单
+     * @param ips 名单，可以为 null
+     * @return
+     */
+    public static IpMatcher compile(List<String> ips) {
+        if (ips == null || ips.isEmpty()) {
+            return EMPTY;
+        }
+        Node ipv4Root = new Node();
+        Node ipv6Root = new Node();
+        Set<String> literals = new HashSet<String>();
+        boolean empty = true;
+        for (String ip : ips) {
+            if (ip == null || ip.trim().length() == 0) {
+                continue;
+            }
+            empty = false;
+            String entry = ip.trim();
+            int prefixLength = -1;
+            String address = entry;
+            int slash = entry.indexOf('/');
+            if (slash > 0) {
+                address = entry.substring(0, slash);
+                prefixLength = parsePrefixLength(entry.substring(slash + 1));
+            }
+            byte[] bytes = parseAddress(address);
+            if (bytes == null || prefixLength > bytes.length * 8 || (slash > 0 && prefixLength < 0)) {
+                literals.add(entry);
+                continue;
+            }
+            insert(bytes.length == 4 ? ipv4Root : ipv6Root, bytes, prefixLength < 0 ? bytes.length * 8 : prefixLength);
+        }
+        return empty ? EMPTY : new IpMatcher(ipv4Root, ipv6Root, literals, false);
+    }
+
+    /**
+     * 名单是否为空
+     * @return
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * 判断IP 是否在名单中
+     * @param ip
+     * @return
+     */
+    public boolean matches(String ip) {
+        if (empty || ip == null) {
+            return false;
+        }
+        if (!literals.isEmpty() && literals.contains(ip)) {
+            return true;
+        }
+        byte[] bytes = parseAddress(ip.trim());
+        if (bytes == null) {
+            return false;
+        }
+        Node node = bytes.length == 4 ? ipv4Root : ipv6Root;
+        int bits = bytes.length * 8;
+        for (int bit = 0; bit < bits; bit++) {
+            if (node.terminal) {
+                return true;
+            }
+            node = node.children[bitAt(bytes, bit)];
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    private static void insert(Node root, byte[] bytes, int prefixLength) {
+        Node node = root;
+        for (int bit = 0; bit < prefixLength; bit++) {
+            if (node.terminal) {
+                //已经有更短的网段覆盖
+                return;
+            }
+            int index = bitAt(bytes, bit);
+            if (node.children[index] == null) {
+                node.children[index] = new Node();
+            }
+            node = node.children[index];
+        }
+        node.terminal = true;
+        //被当前网段覆盖的子节点不再需要
+        node.children[0] = null;
+        node.children[1] = null;
+    }
+
+    private static int bitAt(byte[] bytes, int bit) {
+        return (bytes[bit >> 3] >> (7 - (bit & 7))) & 1;
+    }
+
+    private static int parsePrefixLength(String prefix) {
+        if (prefix.length() == 0 || prefix.length() > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int index = 0; index < prefix.length(); index++) {
+            char c = prefix.charAt(index);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 解析IP 字面量，只处理数字形式，不做域名解析
+     * @param address
+     * @return IPv4 返回4字节，IPv6 返回16字节(::ffff:a.b.c.d 映射地址按IPv4 返回4字节)，无法解析返回 null
+     */
+    private static byte[] parseAddress(String address) {
+        if (address.indexOf(':') < 0) {
+            return parseIpv4(address);
+        }
+        //去掉 [] 和 %网卡
+        String literal = address;
+        if (literal.startsWith("[") && literal.endsWith("]")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        int zone = literal.indexOf('%');
+        if (zone > 0) {
+            literal = literal.substring(0, zone);
+        }
+        for (int index = 0; index < literal.length(); index++) {
+            char c = literal.charAt(index);
+            boolean valid = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == ':' || c == '.';
+            if (!valid) {
+                return null;
+            }
+        }
+        try {
+            //只包含IPv6 字面量字符，InetAddress 不会查询DNS
+            return InetAddress.getByName(literal).getAddress();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseIpv4(String address) {
+        byte[] bytes = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int index = 0; index <= address.length(); index++) {
+            char c = index == address.length() ? '.' : address.charAt(index);
+            if (c == '.') {
+                if (value < 0 || part > 3) {
+                    return null;
+                }
+                bytes[part++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return part == 4 ? bytes : null;
+    }
+
+    private final static class Node {
+
+        private final Node[] children = new Node[2];
+
+        //从根到当前节点的前缀是一个名单项
+        private boolean terminal;
+    }
+}
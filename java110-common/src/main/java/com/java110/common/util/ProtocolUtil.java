@@ -7,10 +7,7 @@ import com.java110.entity.protocol.SvcCont;
 import  com.java110.entity.protocol.TcpCont;
 import org.springframework.util.StringUtils;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -64,8 +61,6 @@ public class ProtocolUtil {
 
     private static JSONObject requestJson = null;
 
-    private static DateFormat dateFormat = new SimpleDateFormat("yyyyMMddhhmmss");
-
     public static final String RETURN_MSG_ERROR = "1999";//通用错误
 
     public static final String RETURN_MSG_REMOTE_TIMEOUT = "1998";// 调用远程服务超时，失败
@@ -88,7 +83,7 @@ public class ProtocolUtil {
         tcpContJson = new JSONObject();
         tcpContJson.put("transactionId", transactionId);
         tcpContJson.put("serviceCode", serviceCode);
-        tcpContJson.put("reqTime", dateFormat.format(new Date()));
+        tcpContJson.put("reqTime", DateUtil.getyyyyMMddhhmmssDateString());
         return tcpContJson;
     }
 
@@ -154,7 +149,7 @@ public class ProtocolUtil {
         tcpContJson = new JSONObject();
         tcpContJson.put("transactionId", transactionId);
         tcpContJson.put("serviceCode", serviceCode);
-        tcpContJson.put("resTime", dateFormat.format(new Date()));
+        tcpContJson.put("resTime", DateUtil.getyyyyMMddhhmmssDateString());
         tcpContJson.put("resultCode", resultCode);
         tcpContJson.put("resultMsg", resultMsg);
         return tcpContJson;
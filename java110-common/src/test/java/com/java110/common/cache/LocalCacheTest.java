@@ -0,0 +1,132 @@
+package com.java110.common.cache;
+
+import com.java110.common.factory.ApplicationContextFactory;
+import junit.framework.TestCase;
+import org.springframework.context.support.StaticApplicationContext;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地缓存 版本号失效、代数、容量淘汰 测试，redis 用内存桩代替
+ * Created by wuxw on 2018/4/14.
+ */
+public class LocalCacheTest extends TestCase {
+
+    private final static String VERSION_KEY = "_VERSION_TEST";
+
+    private final Map<String, String> redisData = new ConcurrentHashMap<String, String>();
+
+    private boolean redisDown;
+
+    @Override
+    protected void setUp() throws Exception {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("jedisPool", new JedisPool() {
+            @Override
+            public Jedis getResource() {
+                if (redisDown) {
+                    throw new IllegalStateException("redis down");
+                }
+                return new Jedis() {
+                    @Override
+                    public String get(String key) {
+                        return redisData.get(key);
+                    }
+
+                    @Override
+                    public Long incr(String key) {
+                        String value = redisData.get(key);
+                        long version = (value == null ? 0L : Long.parseLong(value)) + 1;
+                        redisData.put(key, String.valueOf(version));
+                        return version;
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        });
+        context.refresh();
+        ApplicationContextFactory.setApplicationContext(context);
+    }
+
+    public void testDefaultVersion() {
+        LocalCache<String> localCache = new LocalCache<String>("测试", VERSION_KEY, 10, false);
+        assertEquals(LocalCache.DEFAULT_VERSION, localCache.getVersion());
+    }
+
+    /**
+     * 其他服务刷新版本号后，下次检查时清空本地缓存
+     */
+    public void testRemoteVersionChangeClears() throws Exception {
+        LocalCache<String> localCache = new LocalCache<String>("测试", VERSION_KEY, 10, false);
+        localCache.put("A", "1", localCache.getGeneration());
+        assertEquals("1", localCache.get("A"));
+
+        redisData.put(VERSION_KEY, "5");
+        Thread.sleep(1100L);
+        assertNull(localCache.get("A"));
+        assertEquals("5", localCache.getVersion());
+    }
+
+    public void testFlushVersion() {
+        LocalCache<String> localCache = new LocalCache<String>("测试", VERSION_KEY, 10, false);
+        localCache.put("A", "1", localCache.getGeneration());
+        localCache.flushVersion();
+
+        assertEquals("1", redisData.get(VERSION_KEY));
+        assertEquals("1", localCache.getVersion());
+        assertNull(localCache.get("A"));
+    }
+
+    /**
+     * 查询期间缓存被清空过，查询到的旧数据不写入
+     */
+    public void testStaleGenerationDropped() {
+        LocalCache<String> localCache = new LocalCache<String>("测试", VERSION_KEY, 10, false);
+        long generation = localCache.getGeneration();
+        localCache.clear();
+        localCache.put("A", "1", generation);
+        assertNull(localCache.get("A"));
+    }
+
+    /**
+     * 容量满时只淘汰部分条目，刚查询到的值仍然写入
+     */
+    public void testEvictKeepsNewEntry() {
+        LocalCache<String> localCache = new LocalCache<String>("测试", VERSION_KEY, 10, false);
+        for (int i = 0; i < 30; i++) {
+            localCache.put("K" + i, "V" + i, localCache.getGeneration());
+            assertEquals("V" + i, localCache.get("K" + i));
+            assertTrue(localCache.size() <= 10);
+        }
+    }
+
+    public void testExpire() throws Exception {
+        LocalCache<String> localCache = new LocalCache<String>("测试", VERSION_KEY, 10, false, 50L);
+        localCache.put("A", "1", localCache.getGeneration());
+        assertEquals("1", localCache.get("A"));
+
+        Thread.sleep(100L);
+        assertNull(localCache.get("A"));
+        assertEquals(0, localCache.size());
+    }
+
+    public void testClearOnError() throws Exception {
+        LocalCache<String> clearCache = new LocalCache<String>("测试", VERSION_KEY, 10, true);
+        LocalCache<String> keepCache = new LocalCache<String>("测试", VERSION_KEY, 10, false);
+        clearCache.getVersion();
+        keepCache.getVersion();
+        clearCache.put("A", "1", clearCache.getGeneration());
+        keepCache.put("A", "1", keepCache.getGeneration());
+
+        redisDown = true;
+        Thread.sleep(1100L);
+        assertNull(clearCache.get("A"));
+        assertEquals("1", keepCache.get("A"));
+    }
+}
@@ -0,0 +1,194 @@
+package com.java110.common.cache.codec;
+
+import com.java110.common.util.SerializeUtil;
+import com.java110.entity.center.AppRoute;
+import com.java110.entity.center.AppService;
+import com.java110.entity.mapping.Mapping;
+import com.java110.entity.rule.Rule;
+import com.java110.entity.rule.RuleCondCfg;
+import com.java110.entity.service.ServiceSql;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 二进制缓存编解码测试
+ */
+public class BinaryCacheCodecTest extends TestCase {
+
+    private final BinaryCacheCodec codec = new BinaryCacheCodec();
+
+    public void testAppRouteRoundTrip() {
+        AppService appService = AppService.newInstance();
+        appService.setServiceId(12);
+        appService.setServiceCode("member.service.add");
+        appService.setSeq(1);
+        appService.setTimeOut(60);
+        appService.setUrl("http://user-service/userApi/service");
+        AppRoute appRoute = AppRoute.newInstance();
+        appRoute.setAppId("8000418001");
+        appRoute.setName("测试应用");
+        appRoute.setLimitTimes(-1);
+        appRoute.addWhileListIp("192.168.0.1");
+        appRoute.setAppService(appService);
+        List<AppRoute> appRoutes = new ArrayList<AppRoute>();
+        appRoutes.add(appRoute);
+
+        byte[] bytes = codec.encodeList(appRoutes);
+        assertTrue(BinaryCacheCodec.isBinary(bytes));
+        List<AppRoute> decoded = CacheCodecFactory.decodeList(bytes, AppRoute.class);
+        assertEquals(1, decoded.size());
+        assertEquals("8000418001", decoded.get(0).getAppId());
+        assertEquals("测试应用", decoded.get(0).getName());
+        assertEquals(-1, decoded.get(0).getLimitTimes());
+        assertEquals("192.168.0.1", decoded.get(0).getWhileListIp().get(0));
+        assertEquals(0, decoded.get(0).getBackListIp().size());
+        assertEquals(12, decoded.get(0).getAppService().getServiceId());
+        assertEquals("member.service.add", decoded.get(0).getAppService().getServiceCode());
+        assertNull(decoded.get(0).getAppService().getMethod());
+    }
+
+    public void testRuleRoundTrip() {
+        RuleCondCfg ruleCondCfg = new RuleCondCfg();
+        ruleCondCfg.setRule_id("R001");
+        ruleCondCfg.setJpath("$.orders.orderTypeCd");
+        Rule rule = new Rule();
+        rule.setRule_id("R001");
+        rule.setCreate_dt(new Date(1526745600000L));
+        List<RuleCondCfg> ruleCondCfgs = new ArrayList<RuleCondCfg>();
+        ruleCondCfgs.add(ruleCondCfg);
+        rule.setRuleCondCfgs(ruleCondCfgs);
+
+        Rule decoded = (Rule) codec.decode(codec.encode(rule));
+        assertEquals("R001", decoded.getRule_id());
+        assertEquals(1526745600000L, decoded.getCreate_dt().getTime());
+        assertEquals("$.orders.orderTypeCd", decoded.getRuleCondCfgs().get(0).getJpath());
+    }
+
+    /**
+     * 旧版本 java 序列化写入的数据仍然可以读取
+     */
+    public void testDualReadJavaSerialized() {
+        Mapping mapping = new Mapping();
+        mapping.setDomain("DOMAIN.COMMON");
+        mapping.setKey("KEY");
+        mapping.setValue("VALUE");
+        List<Mapping> mappings = new ArrayList<Mapping>();
+        mappings.add(mapping);
+
+        List<Mapping> decoded = CacheCodecFactory.decodeList(SerializeUtil.serializeList(mappings), Mapping.class);
+        assertEquals("VALUE", decoded.get(0).getValue());
+
+        ServiceSql serviceSql = new ServiceSql();
+        serviceSql.setServiceCode("query.user.info");
+        Object obj = CacheCodecFactory.decode(SerializeUtil.serialize(serviceSql));
+        assertEquals("query.user.info", ((ServiceSql) obj).getServiceCode());
+    }
+
+    /**
+     * 没有配置 java110.cache.codec 时仍写 java 序列化格式，二进制格式需要显式开启
+     */
+    public void testDefaultCodecIsJava() {
+        Mapping mapping = new Mapping();
+        mapping.setDomain("DOMAIN.COMMON");
+        mapping.setKey("KEY");
+        mapping.setValue("VALUE");
+        List<Mapping> mappings = new ArrayList<Mapping>();
+        mappings.add(mapping);
+
+        byte[] bytes = CacheCodecFactory.encodeList(mappings);
+        assertTrue(JavaCacheCodec.isJavaSerialized(bytes));
+        assertEquals("VALUE", CacheCodecFactory.decodeList(bytes, Mapping.class).get(0).getValue());
+    }
+
+    /**
+     * 新增字段后旧数据缺少的字段取默认值，多出的字段忽略
+     */
+    public void testSchemaEvolution() {
+        BinaryCacheCodec.register(new BinaryTypeSchema<Mapping>(CacheTypeSchemas.TYPE_MAPPING, Mapping.class) {
+            @Override
+            public Object[] toFields(Mapping mapping) {
+                return new Object[]{mapping.getId(), mapping.getDomain(), mapping.getName(), mapping.getKey(),
+                        mapping.getValue(), mapping.getRemark(), mapping.getCreateTime(), "新增字段"};
+            }
+
+            @Override
+            public Mapping fromFields(Object[] fields) {
+                return CacheTypeSchemas.MAPPING.fromFields(fields);
+            }
+        });
+        try {
+            Mapping mapping = new Mapping();
+            mapping.setKey("KEY");
+            Mapping decoded = (Mapping) codec.decode(codec.encode(mapping));
+            assertEquals("KEY", decoded.getKey());
+        } finally {
+            BinaryCacheCodec.register(CacheTypeSchemas.MAPPING);
+        }
+
+        Mapping decoded = CacheTypeSchemas.MAPPING.fromFields(new Object[]{1, "DOMAIN.COMMON"});
+        assertEquals(1, decoded.getId());
+        assertNull(decoded.getValue());
+    }
+
+    /**
+     * 二进制编码后的数据比 java 序列化(SerializeUtil) 小，数据大小的对比见 CacheCodecBenchmark 的 encodedBytes
+     */
+    public void testSmallerThanJavaSerialization() {
+        List<AppRoute> appRoutes = new ArrayList<AppRoute>();
+        List<Mapping> mappings = new ArrayList<Mapping>();
+        List<Rule> rules = new ArrayList<Rule>();
+        for (int index = 0; index < 20; index++) {
+            AppService appService = AppService.newInstance();
+            appService.setServiceId(index);
+            appService.setServiceCode("query.service." + index);
+            appService.setSeq(1);
+            appService.setTimeOut(60);
+            appService.setUrl("http://user-service/userApi/service");
+            AppRoute appRoute = AppRoute.newInstance();
+            appRoute.setAppId("8000418001");
+            appRoute.setName("测试应用");
+            appRoute.setAppService(appService);
+            appRoutes.add(appRoute);
+
+            Mapping mapping = new Mapping();
+            mapping.setId(index);
+            mapping.setDomain("DOMAIN.COMMON");
+            mapping.setName("映射" + index);
+            mapping.setKey("KEY_" + index);
+            mapping.setValue("VALUE_" + index);
+            mapping.setCreateTime(new Date(1526745600000L));
+            mappings.add(mapping);
+
+            RuleCondCfg ruleCondCfg = new RuleCondCfg();
+            ruleCondCfg.setRule_id("R" + index);
+            ruleCondCfg.setJpath("$.orders.orderTypeCd");
+            ruleCondCfg.setCreate_dt(new Date(1526745600000L));
+            Rule rule = new Rule();
+            rule.setRule_id("R" + index);
+            rule.setRule_name("规则" + index);
+            rule.setCreate_dt(new Date(1526745600000L));
+            List<RuleCondCfg> ruleCondCfgs = new ArrayList<RuleCondCfg>();
+            ruleCondCfgs.add(ruleCondCfg);
+            rule.setRuleCondCfgs(ruleCondCfgs);
+            rules.add(rule);
+        }
+        ServiceSql serviceSql = new ServiceSql();
+        serviceSql.setServiceCode("query.user.userInfo");
+        serviceSql.setParams("userId");
+        serviceSql.setQueryModel("1");
+        serviceSql.setSql("{\"param1\":\"SELECT u.user_id userId,u.name FROM u_user u WHERE u.user_id = #userId#\"}");
+        serviceSql.setTemplate("{\"PARAM\":{\"param1\":\"$.#user#Object\"},\"TEMPLATE\":{\"user\":{}}}");
+
+        assertSmaller("AppRoute", SerializeUtil.serializeList(appRoutes), codec.encodeList(appRoutes));
+        assertSmaller("Mapping", SerializeUtil.serializeList(mappings), codec.encodeList(mappings));
+        assertSmaller("ServiceSql", SerializeUtil.serialize(serviceSql), codec.encode(serviceSql));
+        assertSmaller("Rule", SerializeUtil.serializeList(rules), codec.encodeList(rules));
+    }
+
+    private static void assertSmaller(String type, byte[] javaBytes, byte[] binaryBytes) {
+        assertTrue(type + " java=" + javaBytes.length + " binary=" + binaryBytes.length, binaryBytes.length < javaBytes.length);
+    }
+}
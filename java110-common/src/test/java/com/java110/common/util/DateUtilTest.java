@@ -0,0 +1,152 @@
+package com.java110.common.util;
+
+import junit.framework.TestCase;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 日期工具类测试，结果以 SimpleDateFormat(每次新建)为准
+ */
+public class DateUtilTest extends TestCase {
+
+    private static final String[] PATTERNS = {
+            DateUtil.DATE_FORMATE_STRING_DEFAULT, DateUtil.DATE_FORMATE_STRING_A, DateUtil.DATE_FORMATE_STRING_B,
+            DateUtil.DATE_FORMATE_STRING_C, DateUtil.DATE_FORMATE_STRING_D, DateUtil.DATE_FORMATE_STRING_E,
+            DateUtil.DATE_FORMATE_STRING_F, DateUtil.DATE_FORMATE_STRING_G, DateUtil.DATE_FORMATE_STRING_H,
+            DateUtil.DATE_FORMATE_STRING_I, DateUtil.DATE_FORMATE_STRING_J, DateUtil.DATE_FORMATE_STRING_K,
+            "yyyyMMddhhmmss", "yyyyMMddHHmmSSS", "yyyy年MM月dd日 E", "yyyyMM", "yyMMdd"
+    };
+
+    private static final long START = 946656000000L;
+
+    private static final long RANGE = 4102416000000L - START;
+
+    public void testFormatSameAsSimpleDateFormat() {
+        Random random = new Random(17);
+        for (int i = 0; i < 2000; i++) {
+            Date date = new Date(START + (long) (random.nextDouble() * RANGE));
+            for (String pattern : PATTERNS) {
+                assertEquals(pattern, new SimpleDateFormat(pattern).format(date), DateUtil.getFormatTimeString(date, pattern));
+            }
+        }
+    }
+
+    public void testParseSameAsSimpleDateFormat() throws Exception {
+        Random random = new Random(23);
+        for (int i = 0; i < 2000; i++) {
+            Date date = new Date(START + (long) (random.nextDouble() * RANGE));
+            for (String pattern : PATTERNS) {
+                String text = new SimpleDateFormat(pattern).format(date);
+                assertEquals(pattern + " " + text, new SimpleDateFormat(pattern).parse(text), DateUtil.getDateFromString(text, pattern));
+            }
+        }
+    }
+
+    public void testLenientParse() throws Exception {
+        String[][] cases = {
+                {"20180230120000", DateUtil.DATE_FORMATE_STRING_DEFAULT},
+                {"20181301256161", DateUtil.DATE_FORMATE_STRING_DEFAULT},
+                {"2018-05-01 12:00:00.0", DateUtil.DATE_FORMATE_STRING_A},
+                {"2018-5-1", DateUtil.DATE_FORMATE_STRING_B},
+                {"2018-05-01 12:30:00", DateUtil.DATE_FORMATE_STRING_B},
+                {"2018-05-01T12:00:00+0000", DateUtil.DATE_FORMATE_STRING_F},
+                {"2018-05-01T12:00:00Z", DateUtil.DATE_FORMATE_STRING_E},
+                {"201805011230", DateUtil.DATE_FORMATE_STRING_DEFAULT},
+                {"2018050112300", "yyyyMMddhhmmss"},
+                {"201805", "yyyyMM"},
+                //两位年份按当前时间前80年后20年，四位年份按原值
+                {"991018", "yyMMdd"},
+                {"180501", "yyMMdd"},
+                {"19991018", "yyMMdd"}
+        };
+        for (String[] item : cases) {
+            Date expected;
+            try {
+                expected = new SimpleDateFormat(item[1]).parse(item[0]);
+            } catch (Exception e) {
+                expected = null;
+            }
+            Date actual;
+            try {
+                actual = DateUtil.getDateFromString(item[0], item[1]);
+            } catch (Exception e) {
+                actual = null;
+            }
+            assertEquals(item[0] + " " + item[1], expected, actual);
+        }
+        assertFalse(DateUtil.judgeDate("abc", DateUtil.DATE_FORMATE_STRING_DEFAULT));
+        assertTrue(DateUtil.judgeDate("20180501123000", DateUtil.DATE_FORMATE_STRING_DEFAULT));
+    }
+
+    public void testSameSecondCache() {
+        long second = 1525149000000L;
+        assertEquals(new SimpleDateFormat(DateUtil.DATE_FORMATE_STRING_DEFAULT).format(new Date(second + 999)),
+                DateUtil.longToDateString(second + 999, DateUtil.DATE_FORMATE_STRING_DEFAULT));
+        assertEquals(new SimpleDateFormat(DateUtil.DATE_FORMATE_STRING_DEFAULT).format(new Date(second + 1000)),
+                DateUtil.longToDateString(second + 1000, DateUtil.DATE_FORMATE_STRING_DEFAULT));
+        assertEquals(new SimpleDateFormat(DateUtil.DATE_FORMATE_STRING_I).format(new Date(second + 1)),
+                DateUtil.longToDateString(second + 1, DateUtil.DATE_FORMATE_STRING_I));
+        assertEquals(new SimpleDateFormat(DateUtil.DATE_FORMATE_STRING_I).format(new Date(second + 2)),
+                DateUtil.longToDateString(second + 2, DateUtil.DATE_FORMATE_STRING_I));
+        assertEquals(DateUtil.DATE_FORMATE_STRING_DEFAULT.length(), DateUtil.getNowDefault().length());
+    }
+
+    /**
+     * 多线程同时格式化、解析不同时间，原来共享 SimpleDateFormat 时会出现错乱的结果
+     */
+    public void testConcurrentFormatAndParse() throws Exception {
+        final int threads = 16;
+        final int loops = 5000;
+        final String[] patterns = {DateUtil.DATE_FORMATE_STRING_DEFAULT, DateUtil.DATE_FORMATE_STRING_A,
+                DateUtil.DATE_FORMATE_STRING_I, DateUtil.DATE_FORMATE_STRING_K, DateUtil.DATE_FORMATE_STRING_C};
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicReference<String> firstError = new AtomicReference<String>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        start.await();
+                        for (int i = 0; i < loops; i++) {
+                            //同一秒内的不同毫秒和跨秒的时间交替出现，覆盖秒级缓存
+                            long time = (i % 2 == 0) ? System.currentTimeMillis() : START + (long) (random.nextDouble() * RANGE);
+                            String pattern = patterns[i % patterns.length];
+                            SimpleDateFormat expected = new SimpleDateFormat(pattern);
+                            String text = DateUtil.longToDateString(time, pattern);
+                            if (!expected.format(new Date(time)).equals(text)
+                                    || !expected.parse(text).equals(DateUtil.getDateFromString(text, pattern))) {
+                                errors.incrementAndGet();
+                                firstError.compareAndSet(null, pattern + " " + time + " " + text);
+                            }
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        firstError.compareAndSet(null, e.toString());
+                    }
+                }
+            });
+        }
+        for (Runnable task : tasks) {
+            executor.execute(task);
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        assertEquals(firstError.get(), 0, errors.get());
+    }
+}
@@ -0,0 +1,51 @@
+package com.java110.common.util;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * IP 名单匹配测试
+ */
+public class IpMatcherTest extends TestCase {
+
+    public void testExactAndCidrIpv4() {
+        IpMatcher matcher = IpMatcher.compile(Arrays.asList("10.0.0.1", "192.168.1.0/24", "172.16.0.0/12"));
+        assertTrue(matcher.matches("10.0.0.1"));
+        assertFalse(matcher.matches("10.0.0.2"));
+        assertTrue(matcher.matches("192.168.1.255"));
+        assertFalse(matcher.matches("192.168.2.1"));
+        assertTrue(matcher.matches("172.31.255.255"));
+        assertFalse(matcher.matches("172.32.0.1"));
+        assertTrue(matcher.matches("::ffff:192.168.1.8"));
+        assertFalse(matcher.matches("not-an-ip"));
+        assertFalse(matcher.matches(null));
+    }
+
+    public void testIpv6() {
+        IpMatcher matcher = IpMatcher.compile(Arrays.asList("2001:db8::/32", "0:0:0:0:0:0:0:1"));
+        assertTrue(matcher.matches("2001:db8:1::5"));
+        assertFalse(matcher.matches("2001:db9::1"));
+        assertTrue(matcher.matches("::1"));
+        assertFalse(matcher.matches("127.0.0.1"));
+    }
+
+    public void testOverlappingAndAllRange() {
+        IpMatcher matcher = IpMatcher.compile(Arrays.asList("10.1.2.3", "10.0.0.0/8"));
+        assertTrue(matcher.matches("10.200.0.1"));
+        matcher = IpMatcher.compile(Arrays.asList("0.0.0.0/0"));
+        assertTrue(matcher.matches("8.8.8.8"));
+        assertFalse(matcher.matches("::1"));
+    }
+
+    public void testEmptyAndLiteral() {
+        assertTrue(IpMatcher.compile(null).isEmpty());
+        assertTrue(IpMatcher.compile(Collections.<String>emptyList()).isEmpty());
+        assertTrue(IpMatcher.compile(Arrays.asList("", " ")).isEmpty());
+        IpMatcher matcher = IpMatcher.compile(Arrays.asList("localhost", "10.0.0.0/33"));
+        assertFalse(matcher.isEmpty());
+        assertTrue(matcher.matches("localhost"));
+        assertFalse(matcher.matches("10.0.0.1"));
+    }
+}
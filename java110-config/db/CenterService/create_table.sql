@@ -12,7 +12,8 @@ CREATE TABLE c_orders(
     order_type_cd VARCHAR(4) NOT NULL COMMENT '订单类型，参考c_order_type表',
     finish_time DATE COMMENT '订单完成时间',
     remark VARCHAR(200) COMMENT '备注',
-    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表'
+    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表',
+    business_remain INT COMMENT '未完成business过程的业务项数，-1表示已发起Instance'
 );
 
 -- c_orders_attrs
@@ -35,7 +36,8 @@ CREATE TABLE c_business(
     business_type_cd VARCHAR(4) NOT NULL COMMENT '业务项类型，参考c_business_type表',
     finish_time DATE COMMENT '完成时间',
     remark VARCHAR(200) COMMENT '备注',
-    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表'
+    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表',
+    KEY idx_c_business_o_id (o_id)
 );
 
 --c_orders_attrs
@@ -160,6 +162,7 @@ CREATE TABLE c_mapping(
 
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','日志开关','LOG_ON_OFF','ON','日志开关');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','耗时开关','COST_TIME_ON_OFF','ON','耗时开关');
+INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','数据流日志开关','DATA_FLOW_LOG_ON_OFF','OFF','日志和耗时合并发送到 DATA_FLOW_LOG，日志服务都升级后打开');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','规则开关','RULE_ON_OFF','OFF','规则开关');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','不调规则服务的订单类型','NO_NEED_RULE_VALDATE_ORDER','Q','不调规则服务的订单类型');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','不保存订单信息','NO_SAVE_ORDER','Q,T','不保存订单信息');
@@ -0,0 +1,6 @@
+-- 已有库升级：订单增加未完成business过程的业务项数，业务项按 o_id 查询增加索引
+-- 升级前创建的订单 business_remain 为空，完成判断时退化为按 c_business 统计，不需要回填
+
+ALTER TABLE c_orders ADD business_remain INT COMMENT '未完成business过程的业务项数，-1表示已发起Instance';
+
+ALTER TABLE c_business ADD KEY idx_c_business_o_id (o_id);
@@ -19,7 +19,8 @@ CREATE TABLE c_orders(
     order_type_cd VARCHAR(4) NOT NULL COMMENT '订单类型，参考c_order_type表',
     finish_time DATE COMMENT '订单完成时间',
     remark VARCHAR(200) COMMENT '备注',
-    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表'
+    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表',
+    business_remain INT COMMENT '未完成business过程的业务项数，-1表示已发起Instance'
 );
 
 -- c_orders_attrs
@@ -42,7 +43,8 @@ CREATE TABLE c_business(
     business_type_cd VARCHAR(4) NOT NULL COMMENT '业务项类型，参考c_business_type表',
     finish_time DATE COMMENT '完成时间',
     remark VARCHAR(200) COMMENT '备注',
-    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表'
+    status_cd VARCHAR(2) NOT NULL COMMENT '数据状态，详细参考c_status表',
+    KEY idx_c_business_o_id (o_id)
 );
 
 -- business_attrs
@@ -166,6 +168,7 @@ CREATE TABLE c_mapping(
 
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','日志开关','LOG_ON_OFF','ON','日志开关');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','耗时开关','COST_TIME_ON_OFF','ON','耗时开关');
+INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','数据流日志开关','DATA_FLOW_LOG_ON_OFF','OFF','日志和耗时合并发送到 DATA_FLOW_LOG，日志服务都升级后打开');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','规则开关','RULE_ON_OFF','OFF','规则开关');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','不调规则服务的订单类型','NO_NEED_RULE_VALDATE_ORDER','Q','不调规则服务的订单类型');
 INSERT c_mapping(domain,`name`,`key`,`value`,remark) VALUES('DOMAIN.COMMON','不保存订单信息','NO_SAVE_ORDER','Q,T','不保存订单信息');
@@ -866,7 +869,7 @@ create table c_template_col(
 
 insert into c_template(template_code,name,html_name,url) values('mapping','映射管理','list_template','LIST->query.center.mapping;QUERY->mapping_query_url;INSERT->save.center.mapping;UPDATE->update.center.mapping;DELETE->delete.center.mapping');
 
-insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('mapping','列ID','id','{ "name": "id","index": "id","width": "90",
+insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('mapping','列ID','id','{ "name": "id","key": true,"index": "id","width": "90",
                                                                                                              "editable": true,
                                                                                                              "sorttype": "int" }',1);
 insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('mapping','域','domain','{ "name": "domain","index": "domain","width": "90",
@@ -897,7 +900,7 @@ INSERT INTO c_template_col(template_code,col_name,col_code,col_model,seq) VALUES
 
 insert into c_template(template_code,name,html_name,url) values('app','外部应用','list_template','LIST->query.center.apps;QUERY->query.center.app');
 
-insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('app','列ID','id','{ "name": "id","index": "id","width": "20",
+insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('app','列ID','id','{ "name": "id","key": true,"index": "id","width": "20",
                                                                                                              "editable": true,
                                                                                                              "sorttype": "int" }',1);
 insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('app','AppId','domain','{ "name": "appId","index": "appId","width": "40",
@@ -968,7 +971,7 @@ INSERT INTO c_template_col(template_code,col_name,col_code,col_model,seq) VALUES
 
 insert into c_template(template_code,name,html_name,url) values('route','路由管理','list_template','LIST->query.center.routes;QUERY->query.center.route');
 
-insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('route','路由ID','id','{ "name": "id","index": "id","width": "10",
+insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('route','路由ID','id','{ "name": "id","key": true,"index": "id","width": "10",
                                                                                                              "editable": true,
                                                                                                              "sorttype": "int" }',1);
 insert into c_template_col(template_code,col_name,col_code,col_model,seq) values('route','AppId','appId','{ "name": "appId","index": "appId","width": "30",
@@ -0,0 +1,37 @@
+package com.java110.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 中心服务 并行调用下游系统线程池 配置
+ * Created by wuxw on 2018/4/13.
+ */
+@ConfigurationProperties(prefix = "java110.center",locations="classpath:config/center.properties")
+public class CenterProperties {
+
+    /**
+     * 并行调用下游系统 线程数
+     */
+    private int invokeThreadNum = 50;
+
+    /**
+     * 并行调用下游系统 队列长度，队列满时由调用线程自己处理
+     */
+    private int invokeQueueCapacity = 500;
+
+    public int getInvokeThreadNum() {
+        return invokeThreadNum;
+    }
+
+    public void setInvokeThreadNum(int invokeThreadNum) {
+        this.invokeThreadNum = invokeThreadNum;
+    }
+
+    public int getInvokeQueueCapacity() {
+        return invokeQueueCapacity;
+    }
+
+    public void setInvokeQueueCapacity(int invokeQueueCapacity) {
+        this.invokeQueueCapacity = invokeQueueCapacity;
+    }
+}
@@ -0,0 +1,171 @@
+package com.java110.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 事件异步发布线程池 配置
+ *
+ * 所有线程池公用 java110.event.executor.* ，
+ * 单个线程池可以在 pools 下按名称覆盖，如 java110.event.executor.pools.dataFlow.queueCapacity=5000
+ * Created by wuxw on 2018/5/25.
+ */
+@ConfigurationProperties(prefix = "java110.event.executor",locations="classpath:config/event_executor.properties")
+public class EventExecutorProperties {
+
+    public final static String REJECT_POLICY_CALLER_RUNS = "CALLER_RUNS";
+
+    public final static String REJECT_POLICY_ABORT = "ABORT";
+
+    /**
+     * 核心线程数
+     */
+    private int corePoolSize = 10;
+
+    /**
+     * 最大线程数
+     */
+    private int maxPoolSize = 100;
+
+    /**
+     * 队列长度
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 空闲线程存活时间(秒)
+     */
+    private int keepAliveSeconds = 60;
+
+    /**
+     * 队列满时的拒绝策略 CALLER_RUNS 或 ABORT
+     */
+    private String rejectPolicy = REJECT_POLICY_CALLER_RUNS;
+
+    /**
+     * 线程池名称 对应的配置，没有配置的参数取上面的公用配置
+     */
+    private Map<String, Pool> pools = new HashMap<String, Pool>();
+
+    /**
+     * 获取线程池的配置，单个线程池没有配置的参数取公用配置
+     * @param name 线程池名称
+     * @return
+     */
+    public Pool getPool(String name) {
+        Pool pool = pools.get(name);
+        Pool resolved = new Pool();
+        resolved.setCorePoolSize(pool == null || pool.getCorePoolSize() == null ? corePoolSize : pool.getCorePoolSize());
+        resolved.setMaxPoolSize(pool == null || pool.getMaxPoolSize() == null ? maxPoolSize : pool.getMaxPoolSize());
+        resolved.setQueueCapacity(pool == null || pool.getQueueCapacity() == null ? queueCapacity : pool.getQueueCapacity());
+        resolved.setKeepAliveSeconds(pool == null || pool.getKeepAliveSeconds() == null ? keepAliveSeconds : pool.getKeepAliveSeconds());
+        resolved.setRejectPolicy(pool == null || pool.getRejectPolicy() == null ? rejectPolicy : pool.getRejectPolicy());
+        return resolved;
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public void setCorePoolSize(int corePoolSize) {
+        this.corePoolSize = corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+
+    public void setKeepAliveSeconds(int keepAliveSeconds) {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+
+    public String getRejectPolicy() {
+        return rejectPolicy;
+    }
+
+    public void setRejectPolicy(String rejectPolicy) {
+        this.rejectPolicy = rejectPolicy;
+    }
+
+    public Map<String, Pool> getPools() {
+        return pools;
+    }
+
+    public void setPools(Map<String, Pool> pools) {
+        this.pools = pools;
+    }
+
+    /**
+     * 单个线程池的配置，为空时取公用配置
+     */
+    public static class Pool {
+
+        private Integer corePoolSize;
+
+        private Integer maxPoolSize;
+
+        private Integer queueCapacity;
+
+        private Integer keepAliveSeconds;
+
+        private String rejectPolicy;
+
+        public Integer getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        public void setCorePoolSize(Integer corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        public Integer getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(Integer maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Integer getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        public void setKeepAliveSeconds(Integer keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+
+        public String getRejectPolicy() {
+            return rejectPolicy;
+        }
+
+        public void setRejectPolicy(String rejectPolicy) {
+            this.rejectPolicy = rejectPolicy;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.java110.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 规则校验线程池 配置
+ * Created by wuxw on 2017/7/23.
+ */
+@ConfigurationProperties(prefix = "java110.rule",locations="classpath:config/rule.properties")
+public class RuleProperties {
+
+    /**
+     * 核心线程数
+     */
+    private int corePoolSize = 20;
+
+    /**
+     * 最大线程数
+     */
+    private int maxPoolSize = 100;
+
+    /**
+     * 等待队列长度
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 队列满时的拒绝策略 CALLER_RUNS 由请求线程执行 ABORT 直接拒绝
+     */
+    private String rejectPolicy = "CALLER_RUNS";
+
+    /**
+     * 一次规则校验的超时时间(毫秒)
+     */
+    private long timeout = 5000;
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public void setCorePoolSize(int corePoolSize) {
+        this.corePoolSize = corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getRejectPolicy() {
+        return rejectPolicy;
+    }
+
+    public void setRejectPolicy(String rejectPolicy) {
+        this.rejectPolicy = rejectPolicy;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+}
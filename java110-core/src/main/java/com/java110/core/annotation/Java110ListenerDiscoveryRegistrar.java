@@ -5,6 +5,7 @@ import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
@@ -109,6 +110,14 @@ public class Java110ListenerDiscoveryRegistrar implements ImportBeanDefinitionRe
                 }
             }
         }
+
+        //侦听 bean 此时还没有创建，注册初始化 bean，在所有单例创建完成后建好侦听对应关系
+        String initializerBeanName = listenerPublishClass.getName() + "#" + Java110ListenerInitializer.class.getSimpleName();
+        if(!registry.containsBeanDefinition(initializerBeanName)) {
+            BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(Java110ListenerInitializer.class);
+            builder.addPropertyValue("listenerPublishClass", listenerPublishClass);
+            registry.registerBeanDefinition(initializerBeanName, builder.getBeanDefinition());
+        }
     }
 
     protected ClassPathScanningCandidateComponentProvider getScanner() {
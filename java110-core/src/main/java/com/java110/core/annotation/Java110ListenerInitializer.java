@@ -0,0 +1,54 @@
+package com.java110.core.annotation;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 侦听初始化
+ *
+ * 由 Java110ListenerDiscoveryRegistrar 注册，所有单例 bean 创建完成后调用 listenerPublishClass 的 initListeners(ApplicationContext)，
+ * 启动时一次性建好 事件/服务 到侦听的对应关系，请求处理时不再反射查找
+ * Created by wuxw on 2018/7/2.
+ */
+public class Java110ListenerInitializer implements ApplicationContextAware, SmartInitializingSingleton {
+
+    private Class<?> listenerPublishClass;
+
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Method method;
+        try {
+            method = listenerPublishClass.getMethod("initListeners", ApplicationContext.class);
+        } catch (NoSuchMethodException e) {
+            //发布类不支持预先初始化，请求时再查找侦听
+            return;
+        }
+        try {
+            method.invoke(null, applicationContext);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("初始化侦听失败，listenerPublishClass = " + listenerPublishClass.getName(), e.getTargetException());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("初始化侦听失败，listenerPublishClass = " + listenerPublishClass.getName(), e);
+        }
+    }
+
+    public Class<?> getListenerPublishClass() {
+        return listenerPublishClass;
+    }
+
+    public void setListenerPublishClass(Class<?> listenerPublishClass) {
+        this.listenerPublishClass = listenerPublishClass;
+    }
+}
@@ -45,7 +45,7 @@ public class BaseServiceDao extends AppBase {
      * @return
      */
     public JSONObject simpleValidateJSON(String jsonParam) {
-        LoggerEngine.debug("报文简单校验simpleValidateJSON开始，入参为：" + jsonParam);
+        LoggerEngine.debug("报文简单校验simpleValidateJSON开始，入参为：{}", jsonParam);
 
         JSONObject reqJson = null;
         try {
@@ -54,7 +54,7 @@ public class BaseServiceDao extends AppBase {
             //抛出转json异常
             throw new RuntimeException(SERVICE_CASE_JSON_EXCEPTION+"请求报文格式错误String无法转换为JSONObjcet对象：", e);
         } finally {
-            LoggerEngine.debug("报文简单校验simpleValidateJSON结束，出参为：" + reqJson);
+            LoggerEngine.debug("报文简单校验simpleValidateJSON结束，出参为：{}", reqJson);
         }
 
         return reqJson;
@@ -57,6 +57,9 @@ public abstract class AbstractDataFlowContext extends AbstractTransactionLog imp
 
     private List<DataFlowLog> logDatas = new ArrayList<DataFlowLog>();
 
+    //待发送的交互日志，请求结束时由 LogAgent 合并成一条消息发送
+    private List<JSONObject> transactionLogs = new ArrayList<JSONObject>();
+
     protected Map<String,String> requestHeaders = new HashMap<String,String>();
     protected Map<String,String> requestCurrentHeaders = new HashMap<String,String>();
     protected Map<String,String> responseHeaders = new HashMap<String,String>();
@@ -258,6 +261,18 @@ public abstract class AbstractDataFlowContext extends AbstractTransactionLog imp
         this.logDatas.add(dataFlowLog);
     }
 
+    public List<JSONObject> getTransactionLogs() {
+        return transactionLogs;
+    }
+
+    /**
+     * 添加待发送的交互日志
+     * @param transactionLog
+     */
+    public void addTransactionLog(JSONObject transactionLog){
+        this.transactionLogs.add(transactionLog);
+    }
+
     /**
      * 添加各个环节的耗时
      * @param dataFlowLinksCost
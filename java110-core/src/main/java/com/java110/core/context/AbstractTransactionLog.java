@@ -120,23 +120,33 @@ public abstract class AbstractTransactionLog  implements TransactionLog {
     }
 
 
+    /**
+     * 本次交互的日志信息，不包含 transactionId dataFlowId ip port
+     * 这几项在同一个数据流中不变，合并发送时只写一次
+     * @return
+     */
+    public JSONObject toLogData(){
+        JSONObject logData = new JSONObject();
+        logData.put("appId",getAppId());
+        logData.put("userId",getUserId());
+        logData.put("serviceCode",getServiceCode());
+        logData.put("serviceName",getServiceName());
+        logData.put("timestamp",getTimestamp());
+        logData.put("logStatus",getLogStatus());
+        logData.put("costTime",costTime);
+        logData.put("requestMessage",getRequestMessage());
+        logData.put("responseMessage",getResponseMessage());
+        return logData;
+    }
+
     @Override
     public String toString() {
         //return JSONObject.toJSONString(this);
-        JSONObject logMessage = JSONObject.parseObject("{}");
+        JSONObject logMessage = toLogData();
         logMessage.put("transactionId",getTransactionId());
         logMessage.put("dataFlowId",getDataFlowId());
         logMessage.put("ip",getHostIp());
         logMessage.put("port", getPort());
-        logMessage.put("appId",getAppId());
-        logMessage.put("userId",getUserId());
-        logMessage.put("serviceCode",getServiceCode());
-        logMessage.put("serviceName",getServiceName());
-        logMessage.put("timestamp",getTimestamp());
-        logMessage.put("logStatus",getLogStatus());
-        logMessage.put("costTime",costTime);
-        logMessage.put("requestMessage",getRequestMessage());
-        logMessage.put("responseMessage",getResponseMessage());
         return logMessage.toJSONString(logMessage,SerializerFeature.WriteNullStringAsEmpty);
     }
 }
@@ -6,6 +6,7 @@ import com.java110.common.constant.CommonConstant;
 import com.java110.common.util.DateUtil;
 import com.java110.core.factory.GenerateCodeFactory;
 import com.java110.common.util.StringUtil;
+import com.java110.common.cache.AppRouteIndex;
 import com.java110.entity.center.AppRoute;
 import com.java110.entity.center.Business;
 
@@ -45,6 +46,9 @@ public class DataFlow extends AbstractDataFlowContext {
     /*private AppRoute appRoute;*/
 
     private List<AppRoute> appRoutes = new ArrayList<AppRoute>();
+
+    //按 serviceCode 建好索引的路由，由 setAppRouteIndex 设置，多个请求共用
+    private AppRouteIndex appRouteIndex;
     //请求业务系统报文
     private JSONObject requestBusinessJson;
 
@@ -152,9 +156,23 @@ public class DataFlow extends AbstractDataFlowContext {
     }
 
     public void addAppRoutes(AppRoute appRoute) {
+        if(this.appRouteIndex != null){
+            //共用的路由列表只读，单独添加路由时复制一份，路由查找退回顺序查找
+            this.appRoutes = new ArrayList<AppRoute>(this.appRoutes);
+            this.appRouteIndex = null;
+        }
         this.appRoutes.add(appRoute);
     }
 
+    public AppRouteIndex getAppRouteIndex() {
+        return appRouteIndex;
+    }
+
+    public void setAppRouteIndex(AppRouteIndex appRouteIndex) {
+        this.appRouteIndex = appRouteIndex;
+        this.appRoutes = appRouteIndex.getAppRoutes();
+    }
+
     public String getIp() {
         return ip;
     }
@@ -3,6 +3,7 @@ package com.java110.core.factory;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.java110.common.cache.AppRouteCache;
+import com.java110.common.cache.AppRouteIndex;
 import com.java110.common.cache.MappingCache;
 import com.java110.common.constant.CommonConstant;
 import com.java110.common.constant.MappingConstant;
@@ -10,6 +11,7 @@ import com.java110.common.constant.ResponseConstant;
 import com.java110.common.constant.StatusConstant;
 import com.java110.common.util.Assert;
 import com.java110.common.util.DateUtil;
+import com.java110.common.util.IpMatcher;
 import com.java110.core.context.AbstractDataFlowContext;
 import com.java110.core.context.ApiDataFlow;
 import com.java110.core.context.DataFlow;
@@ -94,14 +96,10 @@ public class DataFlowFactory {
             throw new RuntimeException("当前没有获取到AppId对应的信息");
         }
 
-        List<AppRoute> appRoutes = dataFlow.getAppRoutes();
-        for(AppRoute appRoute : appRoutes) {
-            if (StatusConstant.STATUS_CD_VALID.equals(appRoute.getStatusCd())
-                    &&appRoute.getAppService().getServiceCode().equals(serviceCode)){
-                return appRoute;
-            }
+        if (dataFlow.getAppRouteIndex() != null){
+            return dataFlow.getAppRouteIndex().getRoute(serviceCode);
         }
-        return null;
+        return findRoute(dataFlow.getAppRoutes(), serviceCode);
     }
 
     /**
@@ -115,14 +113,10 @@ public class DataFlowFactory {
             throw new RuntimeException("当前没有获取到AppId对应的信息");
         }
 
-        List<AppRoute> appRoutes = dataFlow.getAppRoutes();
-        for(AppRoute appRoute : appRoutes) {
-            if (StatusConstant.STATUS_CD_VALID.equals(appRoute.getStatusCd())
-                    &&appRoute.getAppService().getServiceCode().equals(serviceCode)){
-                return appRoute;
-            }
+        if (dataFlow.getAppRouteIndex() != null){
+            return dataFlow.getAppRouteIndex().getRoute(serviceCode);
         }
-        return null;
+        return findRoute(dataFlow.getAppRoutes(), serviceCode);
     }
 
     /**
@@ -132,7 +126,61 @@ public class DataFlowFactory {
      * @return
      */
     public static AppRoute getRoute(String appId,String serviceCode){
-        List<AppRoute> appRoutes = AppRouteCache.getAppRoute(appId);
+        AppRouteIndex appRouteIndex = AppRouteCache.getAppRouteIndex(appId);
+        if(appRouteIndex == null){
+            return null;
+        }
+        return appRouteIndex.getRoute(serviceCode);
+    }
+
+    /**
+     * 校验调用方IP 是否允许访问(白名单 黑名单)
+     * @param dataFlow
+     * @return
+     */
+    public static boolean isIpAllowed(DataFlow dataFlow){
+        return isIpAllowed(dataFlow.getAppRouteIndex(), dataFlow.getAppRoutes(), dataFlow.getIp());
+    }
+
+    /**
+     * 校验调用方IP 是否允许访问(白名单 黑名单)
+     * @param dataFlow
+     * @return
+     */
+    public static boolean isIpAllowed(ApiDataFlow dataFlow){
+        return isIpAllowed(dataFlow.getAppRouteIndex(), dataFlow.getAppRoutes(), dataFlow.getIp());
+    }
+
+    /**
+     * 有路由索引时直接使用编译好的名单，否则根据第一个路由的配置临时编译
+     * @param appRouteIndex
+     * @param appRoutes
+     * @param ip
+     * @return
+     */
+    private static boolean isIpAllowed(AppRouteIndex appRouteIndex, List<AppRoute> appRoutes, String ip){
+        IpMatcher whileListMatcher;
+        IpMatcher backListMatcher;
+        if(appRouteIndex != null){
+            whileListMatcher = appRouteIndex.getWhileListMatcher();
+            backListMatcher = appRouteIndex.getBackListMatcher();
+        }else{
+            whileListMatcher = IpMatcher.compile(appRoutes.get(0).getWhileListIp());
+            backListMatcher = IpMatcher.compile(appRoutes.get(0).getBackListIp());
+        }
+        if(!whileListMatcher.isEmpty() && !whileListMatcher.matches(ip)){
+            return false;
+        }
+        return backListMatcher.isEmpty() || !backListMatcher.matches(ip);
+    }
+
+    /**
+     * 顺序查找在用的路由，没有建索引(通过 addAppRoutes 添加路由)时使用
+     * @param appRoutes
+     * @param serviceCode
+     * @return
+     */
+    private static AppRoute findRoute(List<AppRoute> appRoutes, String serviceCode){
         for(AppRoute appRoute : appRoutes) {
             if (StatusConstant.STATUS_CD_VALID.equals(appRoute.getStatusCd())
                     &&appRoute.getAppService().getServiceCode().equals(serviceCode)){
@@ -199,9 +247,28 @@ public class DataFlowFactory {
         order.put("orderTypeCd",dataFlow.getOrderTypeCd());
         order.put("remark",dataFlow.getRemark());
         order.put("statusCd",StatusConstant.STATUS_CD_SAVE);
+        order.put("businessCount",getBusinessCount(dataFlow));
         return order ;
     }
 
+    /**
+     * 订单中的业务项数，保存订单时作为未完成的业务项数
+     * @param dataFlow
+     * @return
+     */
+    private static int getBusinessCount(DataFlow dataFlow){
+        int businessCount = 0;
+        if(dataFlow.getBusinesses() == null){
+            return businessCount;
+        }
+        for(Business business : dataFlow.getBusinesses()){
+            if(business != null){
+                businessCount++;
+            }
+        }
+        return businessCount;
+    }
+
 
     /**
      * 获取订单属性
@@ -15,12 +15,14 @@ import org.springframework.web.client.RestTemplate;
 import java.rmi.NoSuchObjectException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 生成序列工具类
@@ -29,9 +31,37 @@ import java.util.concurrent.locks.ReentrantLock;
 public class GenerateCodeFactory {
 
     private static final long ONE_STEP = 1000000;
-    private static final Lock LOCK = new ReentrantLock();
-    private static short lastCount = 1;
-    private static int count = 0;
+
+    /**
+     * 每个线程一次从全局序列中领取的号段大小
+     */
+    private static final int BLOCK_SIZE = 100;
+
+    /**
+     * 全局序列，线程通过一次 getAndAdd 领取 [start,start+BLOCK_SIZE) 号段
+     */
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    /**
+     * 当前线程持有的号段 [0]下一个序列 [1]号段结束（不含）
+     */
+    private static final ThreadLocal<long[]> LOCAL_BLOCK = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[]{0, 0};
+        }
+    };
+
+    /**
+     * 格式化序列用的字符缓冲，避免每次调用 String.format
+     */
+    private static final ThreadLocal<char[]> LOCAL_BUFFER = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[20];
+        }
+    };
+
     private static final String first = "10";
 
     /**
@@ -86,18 +116,75 @@ public class GenerateCodeFactory {
 
     private static String PLATFORM_CODE = "0001";
 
-    @SuppressWarnings("finally")
+    /**
+     * 编码服务一次最多生成的编码个数，和 CodeService 中 CodeApi 的限制一致
+     */
+    public final static int MAX_GENERATE_CODE_COUNT = 1000;
+
+    /**
+     * 生成序列，序列在 1 到 ONE_STEP-1 之间循环
+     *
+     * 每个线程从全局序列中领取一个号段，号段内的序列在本线程内分配，不需要加锁
+     * @param idLength 格式 如 %06d %08d
+     * @return
+     */
     public static String nextId(String idLength) {
-        LOCK.lock();
-        try {
-            if (lastCount == ONE_STEP) {
-                lastCount = 1;
-            }
-            count = lastCount++;
-        } finally {
-            LOCK.unlock();
+        long[] block = LOCAL_BLOCK.get();
+        if (block[0] >= block[1]) {
+            long start = SEQUENCE.getAndAdd(BLOCK_SIZE);
+            block[0] = start;
+            block[1] = start + BLOCK_SIZE;
+        }
+        long count = block[0]++ % (ONE_STEP - 1) + 1;
+        return formatId(idLength, count);
+    }
+
+    /**
+     * 按 %0Nd 格式左补零，其他格式交给 String.format 处理
+     * @param idLength 格式
+     * @param count 序列
+     * @return
+     */
+    private static String formatId(String idLength, long count) {
+        int width = parseWidth(idLength);
+        if (width < 0) {
             return String.format(idLength, count);
         }
+        char[] buf = LOCAL_BUFFER.get();
+        if (buf.length < width) {
+            buf = new char[width];
+            LOCAL_BUFFER.set(buf);
+        }
+        int pos = buf.length;
+        do {
+            buf[--pos] = (char) ('0' + count % 10);
+            count /= 10;
+        } while (count > 0);
+        while (buf.length - pos < width) {
+            buf[--pos] = '0';
+        }
+        return new String(buf, pos, buf.length - pos);
+    }
+
+    /**
+     * 解析 %0Nd 中的 N，不是该格式时返回 -1
+     * @param idLength 格式
+     * @return
+     */
+    private static int parseWidth(String idLength) {
+        int length = idLength.length();
+        if (length < 4 || idLength.charAt(0) != '%' || idLength.charAt(1) != '0' || idLength.charAt(length - 1) != 'd') {
+            return -1;
+        }
+        int width = 0;
+        for (int i = 2; i < length - 1; i++) {
+            char c = idLength.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            width = width * 10 + (c - '0');
+        }
+        return width;
     }
 
     public static String nextId(){
@@ -125,6 +212,30 @@ public class GenerateCodeFactory {
         return codeApi().generateCode(prefixMap.get("transactionId"));
     }
 
+    /**
+     * 批量获取内部平台 交易流水，共生成 count 个
+     * 编码服务一次最多生成 MAX_GENERATE_CODE_COUNT 个，超过时分多次调用
+     * @param count 个数
+     * @return
+     * @throws Exception
+     */
+    public static List<String> getInnerTransactionIds(int count) throws Exception{
+        List<String> transactionIds = new ArrayList<String>(count);
+        for(int generatedCount = 0; generatedCount < count; generatedCount += MAX_GENERATE_CODE_COUNT){
+            int onceCount = Math.min(MAX_GENERATE_CODE_COUNT, count - generatedCount);
+            String codes = codeApi().generateCodes(prefixMap.get("transactionId"),onceCount);
+            if(codes == null || ResponseConstant.RESULT_CODE_ERROR.equals(codes)){
+                throw new GenerateCodeException(ResponseConstant.RESULT_CODE_ERROR,"批量生成交易流水失败");
+            }
+            String[] onceIds = codes.split(",");
+            if(onceIds.length != onceCount){
+                throw new GenerateCodeException(ResponseConstant.RESULT_CODE_ERROR,"批量生成交易流水个数不正确 "+codes);
+            }
+            transactionIds.addAll(Arrays.asList(onceIds));
+        }
+        return transactionIds;
+    }
+
     /**
      * 获取交易流水ID
      *
@@ -0,0 +1,106 @@
+package com.java110.core.factory;
+
+import com.java110.common.log.LoggerEngine;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * http 连接池工厂
+ *
+ * 所有 RestTemplate 共用一个带连接池的 HttpClient，复用长连接，避免每次调用都建立 TCP 连接
+ * 参数可通过启动参数调整，如 -Djava110.http.maxPerRoute=200
+ * Created by wuxw on 2018/4/14.
+ */
+public class HttpClientFactory extends LoggerEngine {
+
+    //连接池最大连接数
+    private static final int MAX_TOTAL = Integer.getInteger("java110.http.maxTotal", 500);
+
+    //每个路由(host:port)最大连接数
+    private static final int MAX_PER_ROUTE = Integer.getInteger("java110.http.maxPerRoute", 100);
+
+    //建立连接超时(毫秒)
+    private static final int CONNECT_TIMEOUT = Integer.getInteger("java110.http.connectTimeout", 5000);
+
+    //读取超时(毫秒)
+    private static final int READ_TIMEOUT = Integer.getInteger("java110.http.readTimeout", 60000);
+
+    //从连接池获取连接超时(毫秒)
+    private static final int CONNECTION_REQUEST_TIMEOUT = Integer.getInteger("java110.http.connectionRequestTimeout", 2000);
+
+    //服务端没有返回 Keep-Alive 时 连接保持时间(毫秒)
+    private static final long KEEP_ALIVE_TIME = Long.getLong("java110.http.keepAliveTime", 30000L);
+
+    //空闲多久的连接被清理(毫秒)
+    private static final long MAX_IDLE_TIME = Long.getLong("java110.http.maxIdleTime", 60000L);
+
+    //连接空闲超过该时间 再次使用前先校验(毫秒)
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+
+    private static volatile CloseableHttpClient httpClient;
+
+    /**
+     * 获取共用的 HttpClient
+     * @return
+     */
+    public static CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            synchronized (HttpClientFactory.class) {
+                if (httpClient == null) {
+                    httpClient = createHttpClient();
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    /**
+     * 创建 RestTemplate 使用的 ClientHttpRequestFactory，底层共用同一个连接池
+     * @return
+     */
+    public static ClientHttpRequestFactory getRequestFactory() {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(getHttpClient());
+        requestFactory.setConnectTimeout(CONNECT_TIMEOUT);
+        requestFactory.setReadTimeout(READ_TIMEOUT);
+        requestFactory.setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT);
+        return requestFactory;
+    }
+
+    private static CloseableHttpClient createHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setSocketTimeout(READ_TIMEOUT)
+                .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT)
+                .build();
+
+        logger.info("初始化http连接池 maxTotal = " + MAX_TOTAL + " maxPerRoute = " + MAX_PER_ROUTE);
+
+        return HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+                    @Override
+                    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                        long keepAlive = super.getKeepAliveDuration(response, context);
+                        return keepAlive > 0 ? keepAlive : KEEP_ALIVE_TIME;
+                    }
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
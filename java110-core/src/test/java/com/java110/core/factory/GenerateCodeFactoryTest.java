@@ -0,0 +1,57 @@
+package com.java110.core.factory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列生成测试
+ */
+public class GenerateCodeFactoryTest {
+
+    @Test
+    public void testNextIdFormat() throws Exception {
+        String id = GenerateCodeFactory.nextId("%08d");
+        Assert.assertEquals(8, id.length());
+        Assert.assertTrue(id.matches("\\d{8}"));
+
+        id = GenerateCodeFactory.nextId();
+        Assert.assertEquals(6, id.length());
+        Assert.assertTrue(id.matches("\\d{6}"));
+    }
+
+    @Test
+    public void testNextIdUnique() throws Exception {
+        final int threads = 16;
+        final int perThread = 20000;
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < perThread; j++) {
+                        ids.add(GenerateCodeFactory.nextId("%08d"));
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        Assert.assertEquals(threads * perThread, ids.size());
+    }
+}
@@ -0,0 +1,58 @@
+package com.java110.core.factory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 连接池测试，多次请求本地桩服务，服务端看到的客户端地址应该只有一个
+ */
+public class HttpClientFactoryTest {
+
+    private HttpServer server;
+
+    private final Set<String> clientAddresses = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/stub", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientAddresses.add(exchange.getRemoteAddress().toString());
+                byte[] body = "{\"code\":\"0000\"}".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        RestTemplate restTemplate = new RestTemplate(HttpClientFactory.getRequestFactory());
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/stub";
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals("{\"code\":\"0000\"}", restTemplate.getForObject(url, String.class));
+        }
+        Assert.assertEquals(1, clientAddresses.size());
+    }
+}
@@ -7,13 +7,13 @@ import com.java110.common.log.LoggerEngine;
 import com.java110.common.util.Assert;
 import com.java110.core.context.AppContext;
 import com.java110.entity.order.BusiOrder;
+import com.java110.event.executor.EventExecutorFactory;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * 事件发布侦听
@@ -23,10 +23,8 @@ import java.util.concurrent.Executors;
 public class AppEventPublishing extends LoggerEngine{
 
 
-    private static Executor taskExecutor;
-
-    //默认 线程数 100
-    private final static int DEFAULT_THREAD_NUM = 100;
+    //异步发布使用的线程池名称，见 EventExecutorFactory
+    private final static String EXECUTOR_NAME = "app";
 
     /**
      * 保存侦听实例信息，一般启动时加载
@@ -209,11 +207,8 @@ public class AppEventPublishing extends LoggerEngine{
     /**
      * Return the current task executor for this multicaster.
      */
-    protected static synchronized Executor getTaskExecutor() {
-        if(taskExecutor == null) {
-            taskExecutor = Executors.newFixedThreadPool(DEFAULT_THREAD_NUM);
-        }
-        return taskExecutor;
+    protected static Executor getTaskExecutor() {
+        return EventExecutorFactory.getExecutor(EXECUTOR_NAME);
     }
 
     /**
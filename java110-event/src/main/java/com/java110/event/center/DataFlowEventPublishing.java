@@ -8,15 +8,17 @@ import com.java110.common.util.Assert;
 import com.java110.core.context.DataFlow;
 import com.java110.event.center.event.*;
 import com.java110.event.center.listener.DataFlowListener;
+import com.java110.event.executor.EventExecutorFactory;
+import org.springframework.context.ApplicationContext;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * 数据流 事件发布
@@ -24,10 +26,8 @@ import java.util.concurrent.Executors;
  */
 public class DataFlowEventPublishing extends LoggerEngine {
 
-    private static Executor taskExecutor;
-
-    //默认 线程数 100
-    private final static int DEFAULT_THREAD_NUM = 100;
+    //异步发布使用的线程池名称，见 EventExecutorFactory
+    private final static String EXECUTOR_NAME = "dataFlow";
 
     /**
      * 保存侦听实例信息，一般启动时加载
@@ -40,9 +40,9 @@ public class DataFlowEventPublishing extends LoggerEngine {
    /* private final static Map<String,Class<DataFlowEvent>> events = new HashMap<String,Class<DataFlowEvent>>();*/
 
     /**
-     * 根据 事件类型查询侦听
+     * 根据 事件类型查询侦听，启动时 initListeners 一次性建好，建好后只读
      */
-    private final static Map<String,List<DataFlowListener<?>>> cacheListenersMap = new HashMap<String, List<DataFlowListener<?>>>();
+    private static volatile Map<String,List<DataFlowListener<?>>> cacheListenersMap;
 
 
 
@@ -60,10 +60,12 @@ public class DataFlowEventPublishing extends LoggerEngine {
      * 注解注册侦听
      * @param listenerBeanName
      */
-    public static void addListener(String listenerBeanName){
+    public static synchronized void addListener(String listenerBeanName){
         //将 listener 放入 AppEventPublishing 中方便后期操作
         //注册侦听
         listeners.add(listenerBeanName);
+        //侦听有变化，重新建立对应关系
+        cacheListenersMap = null;
     }
 
     /**
@@ -84,34 +86,55 @@ public class DataFlowEventPublishing extends LoggerEngine {
 
         Assert.hasLength(interfaceClassName,"获取需要发布的事件处理侦听时，传递事件为空，请检查");
 
-        //先从缓存中获取，为了提升效率
-        if(cacheListenersMap.containsKey(interfaceClassName)){
-            return cacheListenersMap.get(interfaceClassName);
+        Map<String,List<DataFlowListener<?>>> listenersMap = cacheListenersMap;
+        if(listenersMap == null){
+            listenersMap = initListeners(null);
         }
+        List<DataFlowListener<?>> dataFlowListeners = listenersMap.get(interfaceClassName);
+        return dataFlowListeners == null ? Collections.<DataFlowListener<?>>emptyList() : dataFlowListeners;
+    }
 
-        List<DataFlowListener<?>> dataFlowListeners = new ArrayList<DataFlowListener<?>>();
+    /**
+     * 建立 事件类型 和 侦听 的对应关系，由 Java110ListenerInitializer 在启动时调用，
+     * 没有调用时第一次发布事件时调用
+     * @param context spring 上下文，为空时从 ApplicationContextFactory 获取侦听
+     * @return
+     */
+    public static synchronized Map<String,List<DataFlowListener<?>>> initListeners(ApplicationContext context){
+        if(context == null && cacheListenersMap != null){
+            //其他线程已经建好
+            return cacheListenersMap;
+        }
+        Map<String,List<DataFlowListener<?>>> listenersMap = new HashMap<String, List<DataFlowListener<?>>>();
 
         for(String listenerBeanName : getListeners()){
-            DataFlowListener<?> listener = ApplicationContextFactory.getBean(listenerBeanName,DataFlowListener.class);
+            DataFlowListener<?> listener = context == null
+                    ? ApplicationContextFactory.getBean(listenerBeanName,DataFlowListener.class)
+                    : context.getBean(listenerBeanName,DataFlowListener.class);
             Type[] types =  listener.getClass().getGenericInterfaces();
             for (Type type : types) {
                 if (type instanceof ParameterizedType) {
                     Type[] typeInterfaces = ((ParameterizedType) type).getActualTypeArguments();
                     for (Type typeInterface : typeInterfaces){
-                        if(interfaceClassName.equals(typeInterface.getTypeName())){
-                            dataFlowListeners.add(listener);
+                        List<DataFlowListener<?>> dataFlowListeners = listenersMap.get(typeInterface.getTypeName());
+                        if(dataFlowListeners == null){
+                            dataFlowListeners = new ArrayList<DataFlowListener<?>>();
+                            listenersMap.put(typeInterface.getTypeName(),dataFlowListeners);
                         }
+                        dataFlowListeners.add(listener);
                     }
                 }
             }
         }
 
         //这里排序
-        DataFlowListenerOrderComparator.sort(dataFlowListeners);
+        for(Map.Entry<String,List<DataFlowListener<?>>> entry : listenersMap.entrySet()){
+            DataFlowListenerOrderComparator.sort(entry.getValue());
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
 
-        //将数据放入缓存中
-        cacheListenersMap.put(interfaceClassName,dataFlowListeners);
-        return dataFlowListeners;
+        cacheListenersMap = Collections.unmodifiableMap(listenersMap);
+        return cacheListenersMap;
     }
 
     /**
@@ -175,11 +198,8 @@ public class DataFlowEventPublishing extends LoggerEngine {
     /**
      * Return the current task executor for this multicaster.
      */
-    protected static synchronized Executor getTaskExecutor() {
-        if(taskExecutor == null) {
-            taskExecutor = Executors.newFixedThreadPool(DEFAULT_THREAD_NUM);
-        }
-        return taskExecutor;
+    protected static Executor getTaskExecutor() {
+        return EventExecutorFactory.getExecutor(EXECUTOR_NAME);
     }
 
     /**
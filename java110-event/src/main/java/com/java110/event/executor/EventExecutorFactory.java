@@ -0,0 +1,170 @@
+package com.java110.event.executor;
+
+import com.java110.common.factory.ApplicationContextFactory;
+import com.java110.common.log.LoggerEngine;
+import com.java110.config.properties.EventExecutorProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事件异步发布线程池
+ *
+ * 每个事件发布类一个有界线程池，线程名为 event-{name}-N，队列满时按拒绝策略处理：
+ * CALLER_RUNS(默认) 由发布事件的线程直接执行侦听，ABORT 抛出 RejectedExecutionException
+ *
+ * 参数见 EventExecutorProperties(java110.event.executor.*)，由启动类 @EnableConfigurationProperties 开启，
+ * 也可以只调整某个线程池，如 java110.event.executor.pools.dataFlow.queueCapacity=5000，
+ * 容器中没有该配置时使用默认值
+ *
+ * 线程池运行情况(活动线程数、队列长度、完成数、拒绝数、失败数) 通过 getExecutorStats 查询
+ * Created by wuxw on 2018/5/25.
+ */
+public class EventExecutorFactory extends LoggerEngine {
+
+    public final static String REJECT_POLICY_CALLER_RUNS = EventExecutorProperties.REJECT_POLICY_CALLER_RUNS;
+
+    public final static String REJECT_POLICY_ABORT = EventExecutorProperties.REJECT_POLICY_ABORT;
+
+    private final static ConcurrentMap<String, EventExecutor> executors = new ConcurrentHashMap<String, EventExecutor>();
+
+    private EventExecutorFactory() {
+    }
+
+    /**
+     * 获取线程池，第一次获取时创建
+     * @param name 线程池名称，一般为事件发布类的简称
+     * @return
+     */
+    public static ThreadPoolExecutor getExecutor(String name) {
+        EventExecutor executor = executors.get(name);
+        if (executor != null) {
+            return executor;
+        }
+        executor = newExecutor(name);
+        EventExecutor oldExecutor = executors.putIfAbsent(name, executor);
+        if (oldExecutor != null) {
+            executor.shutdown();
+            return oldExecutor;
+        }
+        return executor;
+    }
+
+    /**
+     * 所有线程池的运行情况
+     * @return 线程池名称 对应 运行指标
+     */
+    public static Map<String, Map<String, Object>> getExecutorStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<String, Map<String, Object>>();
+        for (Map.Entry<String, EventExecutor> entry : executors.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return stats;
+    }
+
+    private static EventExecutor newExecutor(String name) {
+        EventExecutorProperties.Pool pool = getProperties().getPool(name);
+        int corePoolSize = pool.getCorePoolSize();
+        int maxPoolSize = Math.max(corePoolSize, pool.getMaxPoolSize());
+        String rejectPolicy = pool.getRejectPolicy().trim();
+
+        EventExecutor executor = new EventExecutor(name, corePoolSize, maxPoolSize, pool.getKeepAliveSeconds(),
+                pool.getQueueCapacity(), REJECT_POLICY_ABORT.equalsIgnoreCase(rejectPolicy));
+        logger.info("创建事件发布线程池 name = {} corePoolSize = {} maxPoolSize = {} queueCapacity = {} rejectPolicy = {}",
+                name, corePoolSize, maxPoolSize, pool.getQueueCapacity(), rejectPolicy);
+        return executor;
+    }
+
+    /**
+     * 容器中的线程池配置，没有时使用默认配置
+     * @return
+     */
+    private static EventExecutorProperties getProperties() {
+        try {
+            return (EventExecutorProperties) ApplicationContextFactory.getBean(EventExecutorProperties.class);
+        } catch (Exception e) {
+            logger.warn("没有找到事件发布线程池配置 EventExecutorProperties，使用默认配置");
+            return new EventExecutorProperties();
+        }
+    }
+
+    /**
+     * 带统计的线程池
+     */
+    private static class EventExecutor extends ThreadPoolExecutor {
+
+        private final AtomicLong rejectedCount = new AtomicLong();
+
+        private final AtomicLong failedCount = new AtomicLong();
+
+        EventExecutor(final String name, int corePoolSize, int maxPoolSize, int keepAliveSeconds,
+                      int queueCapacity, final boolean abort) {
+            super(corePoolSize, maxPoolSize, keepAliveSeconds, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(Math.max(1, queueCapacity)), new EventThreadFactory(name));
+            allowCoreThreadTimeOut(true);
+            setRejectedExecutionHandler(new RejectedExecutionHandler() {
+                @Override
+                public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                    rejectedCount.incrementAndGet();
+                    if (abort || executor.isShutdown()) {
+                        throw new RejectedExecutionException("事件发布线程池 " + name + " 已满，activeCount = "
+                                + executor.getActiveCount() + " queueSize = " + executor.getQueue().size());
+                    }
+                    //由发布事件的线程执行，发布速度降下来，不会无限堆积
+                    runnable.run();
+                }
+            });
+        }
+
+        @Override
+        protected void afterExecute(Runnable runnable, Throwable throwable) {
+            super.afterExecute(runnable, throwable);
+            if (throwable != null) {
+                failedCount.incrementAndGet();
+            }
+        }
+
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new LinkedHashMap<String, Object>();
+            stats.put("corePoolSize", getCorePoolSize());
+            stats.put("maxPoolSize", getMaximumPoolSize());
+            stats.put("poolSize", getPoolSize());
+            stats.put("largestPoolSize", getLargestPoolSize());
+            stats.put("activeCount", getActiveCount());
+            stats.put("queueSize", getQueue().size());
+            stats.put("queueRemainingCapacity", getQueue().remainingCapacity());
+            stats.put("completedTaskCount", getCompletedTaskCount());
+            stats.put("rejectedCount", rejectedCount.get());
+            stats.put("failedCount", failedCount.get());
+            return stats;
+        }
+    }
+
+    private static class EventThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadIndex = new AtomicInteger();
+
+        private final String name;
+
+        EventThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "event-" + name + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        }
+    }
+}
@@ -8,13 +8,15 @@ import com.java110.common.log.LoggerEngine;
 import com.java110.common.util.Assert;
 import com.java110.core.context.DataFlowContext;
 import com.java110.event.center.DataFlowListenerOrderComparator;
+import com.java110.event.executor.EventExecutorFactory;
+import org.springframework.context.ApplicationContext;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * 数据流 事件发布
@@ -22,10 +24,8 @@ import java.util.concurrent.Executors;
  */
 public class BusinessServiceDataFlowEventPublishing extends LoggerEngine {
 
-    private static Executor taskExecutor;
-
-    //默认 线程数 100
-    private final static int DEFAULT_THREAD_NUM = 100;
+    //异步发布使用的线程池名称，见 EventExecutorFactory
+    private final static String EXECUTOR_NAME = "businessService";
 
     /**
      * 保存侦听实例信息，一般启动时加载
@@ -33,16 +33,18 @@ public class BusinessServiceDataFlowEventPublishing extends LoggerEngine {
     private final static List<String> listeners = new ArrayList<String>();
 
     /**
-     * 根据 事件类型查询侦听
+     * 根据 服务编码查询侦听，启动时 initListeners 一次性建好，建好后只读
      */
-    private final static Map<String,List<BusinessServiceDataFlowListener>> cacheListenersMap = new HashMap<String, List<BusinessServiceDataFlowListener>>();
+    private static volatile Map<String,List<BusinessServiceDataFlowListener>> cacheListenersMap;
 
     /**
      * 添加 侦听，这个只有启动时，单线程 处理，所以是线程安全的
      * @param listener
      */
-    public static void addListener(String listener){
+    public static synchronized void addListener(String listener){
         listeners.add(listener);
+        //侦听有变化，重新建立对应关系
+        cacheListenersMap = null;
     }
 
     /**
@@ -54,7 +56,7 @@ public class BusinessServiceDataFlowEventPublishing extends LoggerEngine {
     }
 
     /**
-     * 根据是否实现了某个接口，返回侦听
+     * 根据服务编码，返回侦听
      * @param serviceCode
      * @since 1.8
      * @return
@@ -63,25 +65,46 @@ public class BusinessServiceDataFlowEventPublishing extends LoggerEngine {
 
         Assert.hasLength(serviceCode,"获取需要发布的事件处理侦听时，传递事件为空，请检查");
 
-        //先从缓存中获取，为了提升效率
-        if(cacheListenersMap.containsKey(serviceCode)){
-            return cacheListenersMap.get(serviceCode);
+        Map<String,List<BusinessServiceDataFlowListener>> listenersMap = cacheListenersMap;
+        if(listenersMap == null){
+            listenersMap = initListeners(null);
         }
+        List<BusinessServiceDataFlowListener> dataFlowListeners = listenersMap.get(serviceCode);
+        return dataFlowListeners == null ? Collections.<BusinessServiceDataFlowListener>emptyList() : dataFlowListeners;
+    }
 
-        List<BusinessServiceDataFlowListener> dataFlowListeners = new ArrayList<BusinessServiceDataFlowListener>();
+    /**
+     * 建立 服务编码 和 侦听 的对应关系，由 Java110ListenerInitializer 在启动时调用，
+     * 没有调用时第一次发布事件时调用
+     * @param context spring 上下文，为空时从 ApplicationContextFactory 获取侦听
+     * @return
+     */
+    public static synchronized Map<String,List<BusinessServiceDataFlowListener>> initListeners(ApplicationContext context){
+        if(context == null && cacheListenersMap != null){
+            //其他线程已经建好
+            return cacheListenersMap;
+        }
+        Map<String,List<BusinessServiceDataFlowListener>> listenersMap = new HashMap<String, List<BusinessServiceDataFlowListener>>();
         for(String listenerBeanName : getListeners()){
-            BusinessServiceDataFlowListener listener = ApplicationContextFactory.getBean(listenerBeanName,BusinessServiceDataFlowListener.class);
-            if(serviceCode.equals(listener.getServiceCode())){
-                dataFlowListeners.add(listener);
+            BusinessServiceDataFlowListener listener = context == null
+                    ? ApplicationContextFactory.getBean(listenerBeanName,BusinessServiceDataFlowListener.class)
+                    : context.getBean(listenerBeanName,BusinessServiceDataFlowListener.class);
+            List<BusinessServiceDataFlowListener> dataFlowListeners = listenersMap.get(listener.getServiceCode());
+            if(dataFlowListeners == null){
+                dataFlowListeners = new ArrayList<BusinessServiceDataFlowListener>();
+                listenersMap.put(listener.getServiceCode(),dataFlowListeners);
             }
+            dataFlowListeners.add(listener);
         }
 
         //这里排序
-        DataFlowListenerOrderComparator.sort(dataFlowListeners);
+        for(Map.Entry<String,List<BusinessServiceDataFlowListener>> entry : listenersMap.entrySet()){
+            DataFlowListenerOrderComparator.sort(entry.getValue());
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
 
-        //将数据放入缓存中
-        cacheListenersMap.put(serviceCode,dataFlowListeners);
-        return dataFlowListeners;
+        cacheListenersMap = Collections.unmodifiableMap(listenersMap);
+        return cacheListenersMap;
     }
 
 
@@ -149,11 +172,8 @@ public class BusinessServiceDataFlowEventPublishing extends LoggerEngine {
     /**
      * Return the current task executor for this multicaster.
      */
-    protected static synchronized Executor getTaskExecutor() {
-        if(taskExecutor == null) {
-            taskExecutor = Executors.newFixedThreadPool(DEFAULT_THREAD_NUM);
-        }
-        return taskExecutor;
+    protected static Executor getTaskExecutor() {
+        return EventExecutorFactory.getExecutor(EXECUTOR_NAME);
     }
 
     /**
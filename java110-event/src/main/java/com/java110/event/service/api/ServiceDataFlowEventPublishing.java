@@ -13,14 +13,18 @@ import com.java110.entity.center.AppService;
 import com.java110.event.center.DataFlowListenerOrderComparator;
 import com.java110.event.service.BusinessServiceDataFlowEvent;
 import com.java110.event.service.BusinessServiceDataFlowListener;
+import com.java110.event.executor.EventExecutorFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpMethod;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * 数据流 事件发布
@@ -28,10 +32,8 @@ import java.util.concurrent.Executors;
  */
 public class ServiceDataFlowEventPublishing extends LoggerEngine {
 
-    private static Executor taskExecutor;
-
-    //默认 线程数 100
-    private final static int DEFAULT_THREAD_NUM = 100;
+    //异步发布使用的线程池名称，见 EventExecutorFactory
+    private final static String EXECUTOR_NAME = "service";
 
     /**
      * 保存侦听实例信息，一般启动时加载
@@ -39,16 +41,18 @@ public class ServiceDataFlowEventPublishing extends LoggerEngine {
     private final static List<String> listeners = new ArrayList<String>();
 
     /**
-     * 根据 事件类型查询侦听
+     * 根据 服务编码+请求方式 查询侦听，启动时 initListeners 一次性建好，建好后只读
      */
-    private final static Map<String,List<ServiceDataFlowListener>> cacheListenersMap = new HashMap<String, List<ServiceDataFlowListener>>();
+    private static volatile Map<String,List<ServiceDataFlowListener>> cacheListenersMap;
 
     /**
      * 添加 侦听，这个只有启动时，单线程 处理，所以是线程安全的
      * @param listener
      */
-    public static void addListener(String listener){
+    public static synchronized void addListener(String listener){
         listeners.add(listener);
+        //侦听有变化，重新建立对应关系
+        cacheListenersMap = null;
     }
 
     /**
@@ -60,7 +64,7 @@ public class ServiceDataFlowEventPublishing extends LoggerEngine {
     }
 
     /**
-     * 根据是否实现了某个接口，返回侦听
+     * 根据服务编码和请求方式，返回侦听
      * @param serviceCode
      * @since 1.8
      * @return
@@ -69,32 +73,65 @@ public class ServiceDataFlowEventPublishing extends LoggerEngine {
 
         Assert.hasLength(serviceCode,"获取需要发布的事件处理侦听时，传递事件为空，请检查");
 
-        String needCachedServiceCode = serviceCode+httpMethod;
-        //先从缓存中获取，为了提升效率
-        if(cacheListenersMap.containsKey(needCachedServiceCode)){
-            return cacheListenersMap.get(needCachedServiceCode);
+        Map<String,List<ServiceDataFlowListener>> listenersMap = cacheListenersMap;
+        if(listenersMap == null){
+            listenersMap = initListeners(null);
+        }
+        List<ServiceDataFlowListener> dataFlowListeners = listenersMap.get(serviceCode+httpMethod);
+        if(dataFlowListeners == null){
+            //请求方式不正确时 与原来一样抛出异常
+            HttpMethod.valueOf(httpMethod);
+            return Collections.emptyList();
         }
+        return dataFlowListeners;
+    }
 
-        List<ServiceDataFlowListener> dataFlowListeners = new ArrayList<ServiceDataFlowListener>();
+    /**
+     * 建立 服务编码+请求方式 和 侦听 的对应关系，由 Java110ListenerInitializer 在启动时调用，
+     * 没有调用时第一次发布事件时调用
+     * @param context spring 上下文，为空时从 ApplicationContextFactory 获取侦听
+     * @return
+     */
+    public static synchronized Map<String,List<ServiceDataFlowListener>> initListeners(ApplicationContext context){
+        if(context == null && cacheListenersMap != null){
+            //其他线程已经建好
+            return cacheListenersMap;
+        }
+        List<ServiceDataFlowListener> allListeners = new ArrayList<ServiceDataFlowListener>();
+        Set<String> serviceCodes = new LinkedHashSet<String>();
         for(String listenerBeanName : getListeners()){
-            ServiceDataFlowListener listener = ApplicationContextFactory.getBean(listenerBeanName,ServiceDataFlowListener.class);
-            if(serviceCode.equals(listener.getServiceCode())
-                    && listener.getHttpMethod() == HttpMethod.valueOf(httpMethod)){
-                dataFlowListeners.add(listener);
-            }
-            //特殊处理 透传类接口
-            if(ServiceCodeConstant.SERVICE_CODE_DO_SERVICE_TRANSFER.equals(listener.getServiceCode())
-                    && ServiceCodeConstant.SERVICE_CODE_DO_SERVICE_TRANSFER.equals(serviceCode)){
-                dataFlowListeners.add(listener);
+            ServiceDataFlowListener listener = context == null
+                    ? ApplicationContextFactory.getBean(listenerBeanName,ServiceDataFlowListener.class)
+                    : context.getBean(listenerBeanName,ServiceDataFlowListener.class);
+            allListeners.add(listener);
+            if(listener.getServiceCode() != null) {
+                serviceCodes.add(listener.getServiceCode());
             }
         }
 
-        //这里排序
-        DataFlowListenerOrderComparator.sort(dataFlowListeners);
+        Map<String,List<ServiceDataFlowListener>> listenersMap = new HashMap<String, List<ServiceDataFlowListener>>();
+        for(String serviceCode : serviceCodes){
+            for(HttpMethod httpMethod : HttpMethod.values()) {
+                List<ServiceDataFlowListener> dataFlowListeners = new ArrayList<ServiceDataFlowListener>();
+                for (ServiceDataFlowListener listener : allListeners) {
+                    if (serviceCode.equals(listener.getServiceCode())
+                            && listener.getHttpMethod() == httpMethod) {
+                        dataFlowListeners.add(listener);
+                    }
+                    //特殊处理 透传类接口
+                    if (ServiceCodeConstant.SERVICE_CODE_DO_SERVICE_TRANSFER.equals(listener.getServiceCode())
+                            && ServiceCodeConstant.SERVICE_CODE_DO_SERVICE_TRANSFER.equals(serviceCode)) {
+                        dataFlowListeners.add(listener);
+                    }
+                }
+                //这里排序
+                DataFlowListenerOrderComparator.sort(dataFlowListeners);
+                listenersMap.put(serviceCode + httpMethod.name(), Collections.unmodifiableList(dataFlowListeners));
+            }
+        }
 
-        //将数据放入缓存中
-        cacheListenersMap.put(needCachedServiceCode,dataFlowListeners);
-        return dataFlowListeners;
+        cacheListenersMap = Collections.unmodifiableMap(listenersMap);
+        return cacheListenersMap;
     }
 
 
@@ -173,11 +210,8 @@ public class ServiceDataFlowEventPublishing extends LoggerEngine {
     /**
      * Return the current task executor for this multicaster.
      */
-    protected static synchronized Executor getTaskExecutor() {
-        if(taskExecutor == null) {
-            taskExecutor = Executors.newFixedThreadPool(DEFAULT_THREAD_NUM);
-        }
-        return taskExecutor;
+    protected static Executor getTaskExecutor() {
+        return EventExecutorFactory.getExecutor(EXECUTOR_NAME);
     }
 
     /**
@@ -24,4 +24,16 @@ public class CodeApiFallback implements ICodeApi{
     public String generateCode(@RequestParam("prefix") String prefix) {
         return ResponseConstant.RESULT_CODE_ERROR;
     }
+
+    /**
+     * 批量生成编码
+     * @param prefix 前缀
+     * @param count 生成个数
+     * @return
+     */
+    @Override
+    @RequestMapping("/codeApi/generateCodes")
+    public String generateCodes(@RequestParam("prefix") String prefix,@RequestParam("count") int count) {
+        return ResponseConstant.RESULT_CODE_ERROR;
+    }
 }
@@ -18,4 +18,13 @@ public interface ICodeApi {
      */
     @RequestMapping(value = "/codeApi/generateCode",method = RequestMethod.POST)
     public String generateCode(@RequestParam("prefix") String prefix);
+
+    /**
+     * 批量生成 编码
+     * @param prefix 前缀
+     * @param count 生成个数
+     * @return 逗号分隔的编码，失败返回 -1
+     */
+    @RequestMapping(value = "/codeApi/generateCodes",method = RequestMethod.POST)
+    public String generateCodes(@RequestParam("prefix") String prefix,@RequestParam("count") int count);
 }
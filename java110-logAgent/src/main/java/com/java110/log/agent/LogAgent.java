@@ -3,6 +3,7 @@ package com.java110.log.agent;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.JSONPath;
+import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.java110.common.cache.MappingCache;
 import com.java110.common.constant.KafkaConstant;
 import com.java110.common.constant.MappingConstant;
@@ -13,7 +14,13 @@ import com.java110.common.log.LoggerEngine;
 import com.java110.common.util.Assert;
 import com.java110.core.context.DataFlow;
 import com.java110.core.context.TransactionLog;
+import com.java110.entity.center.DataFlowLinksCost;
 
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,6 +33,11 @@ public class LogAgent extends LoggerEngine{
     public static final String LOG_STATUS_S = "S";
     public static final String LOG_STATUS_F = "F";
 
+    /**
+     * 一条数据流日志的最大字节数，小于 kafka 生产者 max.request.size(默认 1M)
+     */
+    public static final int DATA_FLOW_LOG_MAX_BYTES = 512 * 1024;
+
 
     /**
      * 发送日志
@@ -46,19 +58,220 @@ public class LogAgent extends LoggerEngine{
 
 
     /**
-     * 发送交互日志
+     * 收集交互日志
+     * 数据流日志开关(DATA_FLOW_LOG_ON_OFF) 打开时日志先收集到数据流中，请求结束时调用 sendDataFlowLog 和耗时一起发送，
+     * 没有打开时和原来一样每条日志直接发送到 LOG，所有日志服务都侦听 DATA_FLOW_LOG 后再打开
      * @param dataFlow 数据流对象
      * @param requestMessage 请求数据
      * @param responseMessage 返回数据
      * @param logStatus 日志状态
      * @return
      */
-    public static boolean sendLog(DataFlow dataFlow,String requestMessage,String responseMessage,String logStatus,long costTime){
-        return sendLog(dataFlow.reBuilder(requestMessage,responseMessage,logStatus,costTime));
+    public static boolean collectLog(DataFlow dataFlow,String requestMessage,String responseMessage,String logStatus,long costTime){
+        if(!MappingConstant.VALUE_ON.equals(MappingCache.getValue(MappingConstant.KEY_LOG_ON_OFF))) {
+            return true;
+        }
+        TransactionLog transactionLog = dataFlow.reBuilder(requestMessage, responseMessage, logStatus, costTime);
+        if(!isDataFlowLogOn()){
+            return sendLog(transactionLog);
+        }
+        dataFlow.addTransactionLog(dataFlow.toLogData());
+        return true;
+    }
+
+    /**
+     * 发送数据流日志，一次请求收集的交互日志和各环节耗时合并发送
+     * 报文格式为：
+     * {
+     *     "transactionId":"交易流水号",
+     *     "dataFlowId":"上下文对象",
+     *     "ip":"ip",
+     *     "port":"端口",
+     *     "costDates":[{"linksCode":"","linksName":"","startDate":"","endDate":""}],
+     *     "logs":[{"appId":"","userId":"","serviceCode":"","serviceName":"","timestamp":"","logStatus":"","costTime":"","requestMessage":"","responseMessage":""}]
+     * }
+     * 超过 DATA_FLOW_LOG_MAX_BYTES 时按日志拆成多条消息，耗时只在第一条中，单条日志超过时单独发送
+     * 在请求结束时调用一次，发送后清空已收集的交互日志，
+     * 数据流日志开关没有打开时交互日志已经直接发送，这里只把耗时发送到 COST_TIME_LOG
+     * @param dataFlow 数据流对象
+     * @return 发送失败时返回false，失败的日志逐条发送到 LOG
+     */
+    public static boolean sendDataFlowLog(DataFlow dataFlow){
+        if(dataFlow == null){
+            return true;
+        }
+        List<DataFlowLinksCost> linksCostDates = MappingConstant.VALUE_ON.equals(MappingCache.getValue(MappingConstant.KEY_COST_TIME_ON_OFF))
+                ? dataFlow.getLinksCostDates() : new ArrayList<DataFlowLinksCost>();
+        if(!isDataFlowLogOn()){
+            return sendCostTimeLog(dataFlow, linksCostDates);
+        }
+        List<JSONObject> transactionLogs = dataFlow.getTransactionLogs();
+        if(transactionLogs.isEmpty() && linksCostDates.isEmpty()){
+            return true;
+        }
+        List<JSONObject> logs = new ArrayList<JSONObject>(transactionLogs);
+        transactionLogs.clear();
+        JSONArray costDates = getCostDates(linksCostDates);
+        //每条消息的公共部分，logs 最后拼接，日志只序列化一次
+        String prefix = getDataFlowLogPrefix(dataFlow, costDates);
+        List<String> logMessages = new ArrayList<String>(logs.size());
+        boolean success = true;
+        int chunkStart = 0;
+        int chunkBytes = utf8Length(prefix) + 2;
+        for(int logIndex = 0; logIndex < logs.size(); logIndex++){
+            String logMessage = JSONObject.toJSONString(logs.get(logIndex), SerializerFeature.WriteNullStringAsEmpty);
+            int logBytes = utf8Length(logMessage) + 1;
+            if(logIndex > chunkStart && chunkBytes + logBytes > DATA_FLOW_LOG_MAX_BYTES){
+                success = sendDataFlowLogChunk(dataFlow, prefix, logs, logMessages, chunkStart, logIndex) && success;
+                prefix = getDataFlowLogPrefix(dataFlow, new JSONArray());
+                chunkStart = logIndex;
+                chunkBytes = utf8Length(prefix) + 2;
+            }
+            logMessages.add(logMessage);
+            chunkBytes += logBytes;
+        }
+        return sendDataFlowLogChunk(dataFlow, prefix, logs, logMessages, chunkStart, logs.size()) && success;
+    }
+
+    /**
+     * 数据流日志开关是否打开
+     * @return
+     */
+    private static boolean isDataFlowLogOn(){
+        return MappingConstant.VALUE_ON.equals(MappingCache.getValue(MappingConstant.KEY_DATA_FLOW_LOG_ON_OFF));
+    }
+
+    /**
+     * 数据流日志 logs 之前的部分，如 {"transactionId":"","dataFlowId":"","ip":"","port":"","costDates":[],"logs":[
+     * @param dataFlow 数据流对象
+     * @param costDates 耗时
+     * @return
+     */
+    private static String getDataFlowLogPrefix(DataFlow dataFlow, JSONArray costDates){
+        JSONObject dataFlowLog = new JSONObject();
+        dataFlowLog.put("transactionId",dataFlow.getTransactionId());
+        dataFlowLog.put("dataFlowId",dataFlow.getDataFlowId());
+        dataFlowLog.put("ip",dataFlow.getHostIp());
+        dataFlowLog.put("port",dataFlow.getPort());
+        dataFlowLog.put("costDates",costDates);
+        String message = JSONObject.toJSONString(dataFlowLog, SerializerFeature.WriteNullStringAsEmpty);
+        return message.substring(0, message.length() - 1) + ",\"logs\":[";
+    }
+
+    /**
+     * 发送一条数据流日志，包含 logs 中 [fromIndex, toIndex) 的日志
+     * 发送失败时逐条发送到 LOG，kafka 异步返回失败时逐条记录到错误日志中
+     * @param dataFlow 数据流对象
+     * @param prefix logs 之前的部分
+     * @param logs 交互日志
+     * @param logMessages 序列化后的交互日志
+     * @param fromIndex
+     * @param toIndex
+     * @return
+     */
+    private static boolean sendDataFlowLogChunk(final DataFlow dataFlow, String prefix, List<JSONObject> logs,
+                                                List<String> logMessages, int fromIndex, int toIndex){
+        StringBuilder message = new StringBuilder(prefix);
+        for(int logIndex = fromIndex; logIndex < toIndex; logIndex++){
+            message.append(logIndex == fromIndex ? "" : ",").append(logMessages.get(logIndex));
+        }
+        message.append("]}");
+        final List<String> chunkLogMessages = logMessages.subList(fromIndex, toIndex);
+        try {
+            KafkaFactory.sendKafkaMessage(KafkaConstant.TOPIC_DATA_FLOW_LOG_NAME, "", message.toString(), new ListenableFutureCallback<Object>() {
+                @Override
+                public void onSuccess(Object result) {
+                }
+
+                @Override
+                public void onFailure(Throwable ex) {
+                    logger.error("保存数据流日志失败 dataFlowId = {}", dataFlow.getDataFlowId(), ex);
+                    for(String logMessage : chunkLogMessages){
+                        logger.error("未保存的交互日志 dataFlowId = {} ：{}", dataFlow.getDataFlowId(), logMessage);
+                    }
+                }
+            });
+        }catch (Exception e){
+            logger.error("保存数据流日志失败，逐条发送 dataFlowId = {}", dataFlow.getDataFlowId(), e);
+            for(int logIndex = fromIndex; logIndex < toIndex; logIndex++){
+                JSONObject logMessage = logs.get(logIndex);
+                logMessage.put("transactionId",dataFlow.getTransactionId());
+                logMessage.put("dataFlowId",dataFlow.getDataFlowId());
+                logMessage.put("ip",dataFlow.getHostIp());
+                logMessage.put("port",dataFlow.getPort());
+                sendLogMessage(JSONObject.toJSONString(logMessage, SerializerFeature.WriteNullStringAsEmpty));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 发送耗时到 COST_TIME_LOG，数据流日志开关没有打开时使用
+     * @param dataFlow 数据流对象
+     * @param linksCostDates 耗时
+     * @return
+     */
+    private static boolean sendCostTimeLog(DataFlow dataFlow, List<DataFlowLinksCost> linksCostDates){
+        if(linksCostDates.isEmpty()){
+            return true;
+        }
+        JSONArray costDates = getCostDates(linksCostDates);
+        for(int costIndex = 0; costIndex < costDates.size(); costIndex++){
+            costDates.getJSONObject(costIndex).put("dataFlowId",dataFlow.getDataFlowId());
+            costDates.getJSONObject(costIndex).put("transactionId",dataFlow.getTransactionId());
+        }
+        JSONObject costTimeLog = new JSONObject();
+        costTimeLog.put("costDates",costDates);
+        try {
+            KafkaFactory.sendKafkaMessage(KafkaConstant.TOPIC_COST_TIME_LOG_NAME, "", costTimeLog.toJSONString());
+        }catch (Exception e){
+            logger.error("保存耗时日志失败："+costTimeLog.toJSONString(),e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 各环节耗时
+     * @param linksCostDates
+     * @return
+     */
+    private static JSONArray getCostDates(List<DataFlowLinksCost> linksCostDates){
+        JSONArray costDates = new JSONArray(linksCostDates.size());
+        JSONObject costDate = null;
+        for(DataFlowLinksCost dataFlowLinksCost : linksCostDates){
+            costDate = new JSONObject();
+            costDate.put("linksCode",dataFlowLinksCost.getLinksCode());
+            costDate.put("linksName",dataFlowLinksCost.getLinksName());
+            costDate.put("startDate",dataFlowLinksCost.getStartDate());
+            costDate.put("endDate",dataFlowLinksCost.getEndDate());
+            costDates.add(costDate);
+        }
+        return costDates;
+    }
+
+    /**
+     * 发送一条日志到 LOG
+     * @param logMessage 日志
+     * @return
+     */
+    private static boolean sendLogMessage(String logMessage){
+        try {
+            KafkaFactory.sendKafkaMessage(KafkaConstant.TOPIC_LOG_NAME, "", logMessage);
+        }catch (Exception e){
+            logger.error("保存日志失败："+logMessage,e);
+            return false;
+        }
+        return true;
+    }
+
+    private static int utf8Length(String message){
+        return message.getBytes(StandardCharsets.UTF_8).length;
     }
 
     /**
-     * 发送交互日志
+     * 收集交互日志，见 collectLog(DataFlow,String,String,String,long)
      * 请求报文和返回报文必须组装成
      * {"headers":"",
      * "body":""
@@ -68,7 +281,7 @@ public class LogAgent extends LoggerEngine{
      * @param responseMessage 返回数据
      * @return
      */
-    public static boolean sendLog(DataFlow dataFlow, JSONObject requestMessage, JSONObject responseMessage,long costTime){
+    public static boolean collectLog(DataFlow dataFlow, JSONObject requestMessage, JSONObject responseMessage,long costTime){
         Assert.hasKey(responseMessage,"body","返回报文不满足 日志协议要求"+responseMessage.toJSONString());
 
         String body = responseMessage.getString("body");
@@ -82,21 +295,21 @@ public class LogAgent extends LoggerEngine{
             if(codeNode != null && ResponseConstant.RESULT_CODE_SUCCESS.equals(codeNode.toString())){
                 //判断业务是否受理成功个，如果有一个业务受理失败，则认为失败
                 if(!bodyObj.containsKey("business")){
-                    return sendLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),LOG_STATUS_S,costTime);
+                    return collectLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),LOG_STATUS_S,costTime);
                 }
 
                 if(bodyObj.get("business") instanceof JSONObject){
                     JSONObject businessObj = bodyObj.getJSONObject("business");
                     if(businessObj.containsKey("response")&&
                             ResponseConstant.RESULT_CODE_SUCCESS.equals(businessObj.getJSONObject("response").getString("code"))){
-                        return sendLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),LOG_STATUS_S,costTime);
+                        return collectLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),LOG_STATUS_S,costTime);
                     }
                 }
 
                 if(bodyObj.get("business") instanceof JSONArray){
                     JSONArray businessArrays = bodyObj.getJSONArray("business");
                     if(businessArrays == null || businessArrays.size() == 0){
-                        return sendLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),LOG_STATUS_S,costTime);
+                        return collectLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),LOG_STATUS_S,costTime);
                     }
 
                     logStatus = LOG_STATUS_S;
@@ -116,7 +329,7 @@ public class LogAgent extends LoggerEngine{
         if(ResponseConstant.RESULT_CODE_SUCCESS.equals(body)){
             logStatus = LOG_STATUS_S;
         }
-        return sendLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),logStatus,costTime);
+        return collectLog(dataFlow,requestMessage.toJSONString(),responseMessage.toJSONString(),logStatus,costTime);
     }
 
 
@@ -0,0 +1,229 @@
+package com.java110.log.agent;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.java110.common.cache.MappingCache;
+import com.java110.common.constant.DomainContant;
+import com.java110.common.constant.KafkaConstant;
+import com.java110.common.constant.MappingConstant;
+import com.java110.common.factory.ApplicationContextFactory;
+import com.java110.core.context.DataFlow;
+import com.java110.entity.mapping.Mapping;
+import junit.framework.TestCase;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据流日志 拆分、发送失败逐条处理、数据流日志开关 测试，redis 和 kafka 用内存桩代替
+ * Created by wuxw on 2018/6/9.
+ */
+public class LogAgentTest extends TestCase {
+
+    //KafkaFactory 缓存第一次获取的 kafkaTemplate，所有测试用同一个桩
+    private final static KafkaTemplateStub KAFKA_TEMPLATE = new KafkaTemplateStub();
+
+    private final Map<String, byte[]> redisData = new ConcurrentHashMap<String, byte[]>();
+
+    @Override
+    protected void setUp() throws Exception {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("jedisPool", new JedisPool() {
+            @Override
+            public Jedis getResource() {
+                return new Jedis() {
+                    @Override
+                    public byte[] get(byte[] key) {
+                        return redisData.get(new String(key));
+                    }
+
+                    @Override
+                    public String get(String key) {
+                        return null;
+                    }
+
+                    @Override
+                    public String set(byte[] key, byte[] value) {
+                        redisData.put(new String(key), value);
+                        return "OK";
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        });
+        context.getBeanFactory().registerSingleton("kafkaTemplate", KAFKA_TEMPLATE);
+        context.refresh();
+        ApplicationContextFactory.setApplicationContext(context);
+        KAFKA_TEMPLATE.reset();
+
+        setMapping(MappingConstant.KEY_LOG_ON_OFF, MappingConstant.VALUE_ON);
+        setMapping(MappingConstant.KEY_COST_TIME_ON_OFF, MappingConstant.VALUE_ON);
+        setMapping(MappingConstant.KEY_DATA_FLOW_LOG_ON_OFF, MappingConstant.VALUE_ON);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        MappingCache.clearLocalCache();
+    }
+
+    /**
+     * 数据流日志开关没有打开时，每条日志直接发送到 LOG
+     */
+    public void testDataFlowLogOff() {
+        setMapping(MappingConstant.KEY_DATA_FLOW_LOG_ON_OFF, MappingConstant.VALUE_OFF);
+        DataFlow dataFlow = newDataFlow();
+        LogAgent.collectLog(dataFlow, "req", "res", LogAgent.LOG_STATUS_S, 10L);
+        LogAgent.collectLog(dataFlow, "req", "res", LogAgent.LOG_STATUS_S, 10L);
+        assertEquals(2, KAFKA_TEMPLATE.count(KafkaConstant.TOPIC_LOG_NAME));
+        assertTrue(dataFlow.getTransactionLogs().isEmpty());
+
+        assertTrue(LogAgent.sendDataFlowLog(dataFlow));
+        assertEquals(0, KAFKA_TEMPLATE.count(KafkaConstant.TOPIC_DATA_FLOW_LOG_NAME));
+    }
+
+    public void testOneMessage() {
+        DataFlow dataFlow = newDataFlow();
+        for (int logIndex = 0; logIndex < 3; logIndex++) {
+            LogAgent.collectLog(dataFlow, "req" + logIndex, "res", LogAgent.LOG_STATUS_S, 10L);
+        }
+        assertEquals(0, KAFKA_TEMPLATE.count(KafkaConstant.TOPIC_LOG_NAME));
+
+        assertTrue(LogAgent.sendDataFlowLog(dataFlow));
+        List<JSONObject> messages = KAFKA_TEMPLATE.messages(KafkaConstant.TOPIC_DATA_FLOW_LOG_NAME);
+        assertEquals(1, messages.size());
+        assertEquals("D1", messages.get(0).getString("dataFlowId"));
+        assertEquals(3, messages.get(0).getJSONArray("logs").size());
+        assertEquals("req2", messages.get(0).getJSONArray("logs").getJSONObject(2).getString("requestMessage"));
+        assertTrue(dataFlow.getTransactionLogs().isEmpty());
+    }
+
+    /**
+     * 超过 DATA_FLOW_LOG_MAX_BYTES 时拆成多条消息，每条都不超过上限
+     */
+    public void testSplitLargeDataFlow() {
+        DataFlow dataFlow = newDataFlow();
+        StringBuilder body = new StringBuilder();
+        for (int charIndex = 0; charIndex < 100 * 1024; charIndex++) {
+            body.append(charIndex % 2 == 0 ? 'a' : '中');
+        }
+        int logCount = 12;
+        for (int logIndex = 0; logIndex < logCount; logIndex++) {
+            LogAgent.collectLog(dataFlow, body.toString(), "res" + logIndex, LogAgent.LOG_STATUS_S, 10L);
+        }
+
+        assertTrue(LogAgent.sendDataFlowLog(dataFlow));
+        List<String> rawMessages = KAFKA_TEMPLATE.rawMessages(KafkaConstant.TOPIC_DATA_FLOW_LOG_NAME);
+        assertTrue(rawMessages.size() > 1);
+        int received = 0;
+        for (int messageIndex = 0; messageIndex < rawMessages.size(); messageIndex++) {
+            String rawMessage = rawMessages.get(messageIndex);
+            assertTrue(rawMessage.getBytes(java.nio.charset.StandardCharsets.UTF_8).length <= LogAgent.DATA_FLOW_LOG_MAX_BYTES);
+            JSONObject message = JSONObject.parseObject(rawMessage);
+            assertEquals("T1", message.getString("transactionId"));
+            JSONArray logs = message.getJSONArray("logs");
+            for (int logIndex = 0; logIndex < logs.size(); logIndex++) {
+                assertEquals("res" + received++, logs.getJSONObject(logIndex).getString("responseMessage"));
+            }
+        }
+        assertEquals(logCount, received);
+    }
+
+    /**
+     * 发送数据流日志抛异常时，逐条发送到 LOG
+     */
+    public void testSendFailFallbackToLog() {
+        DataFlow dataFlow = newDataFlow();
+        LogAgent.collectLog(dataFlow, "req0", "res", LogAgent.LOG_STATUS_S, 10L);
+        LogAgent.collectLog(dataFlow, "req1", "res", LogAgent.LOG_STATUS_S, 10L);
+        KAFKA_TEMPLATE.failTopic = KafkaConstant.TOPIC_DATA_FLOW_LOG_NAME;
+
+        assertFalse(LogAgent.sendDataFlowLog(dataFlow));
+        List<JSONObject> messages = KAFKA_TEMPLATE.messages(KafkaConstant.TOPIC_LOG_NAME);
+        assertEquals(2, messages.size());
+        assertEquals("req1", messages.get(1).getString("requestMessage"));
+        assertEquals("D1", messages.get(1).getString("dataFlowId"));
+        assertEquals("T1", messages.get(1).getString("transactionId"));
+    }
+
+    private void setMapping(String key, String value) {
+        Mapping mapping = new Mapping();
+        mapping.setDomain(DomainContant.COMMON_DOMAIN);
+        mapping.setKey(key);
+        mapping.setValue(value);
+        MappingCache.setVaule(mapping);
+        MappingCache.clearLocalCache();
+    }
+
+    private static DataFlow newDataFlow() {
+        DataFlow dataFlow = new DataFlow(new Date(), "0000");
+        dataFlow.setTransactionId("T1");
+        dataFlow.setDataFlowId("D1");
+        return dataFlow;
+    }
+
+    /**
+     * kafkaTemplate 桩，记录发送的消息，failTopic 的消息发送时抛异常
+     */
+    private static class KafkaTemplateStub extends KafkaTemplate<String, String> {
+
+        private final List<String[]> sent = new ArrayList<String[]>();
+
+        private String failTopic;
+
+        KafkaTemplateStub() {
+            super((ProducerFactory<String, String>) null);
+        }
+
+        void reset() {
+            sent.clear();
+            failTopic = null;
+        }
+
+        @Override
+        public ListenableFuture<SendResult<String, String>> send(String topic, String key, String data) {
+            if (topic.equals(failTopic)) {
+                throw new IllegalStateException("kafka down");
+            }
+            sent.add(new String[]{topic, data});
+            SettableListenableFuture<SendResult<String, String>> future = new SettableListenableFuture<SendResult<String, String>>();
+            future.set(null);
+            return future;
+        }
+
+        int count(String topic) {
+            return rawMessages(topic).size();
+        }
+
+        List<String> rawMessages(String topic) {
+            List<String> messages = new ArrayList<String>();
+            for (String[] message : sent) {
+                if (message[0].equals(topic)) {
+                    messages.add(message[1]);
+                }
+            }
+            return messages;
+        }
+
+        List<JSONObject> messages(String topic) {
+            List<JSONObject> messages = new ArrayList<JSONObject>();
+            for (String message : rawMessages(topic)) {
+                messages.add(JSONObject.parseObject(message));
+            }
+            return messages;
+        }
+    }
+}
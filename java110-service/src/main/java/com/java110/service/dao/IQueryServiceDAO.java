@@ -1,5 +1,6 @@
 package com.java110.service.dao;
 
+import com.alibaba.fastjson.JSONArray;
 import com.java110.entity.service.ServiceSql;
 
 import java.util.List;
@@ -14,9 +15,18 @@ public interface IQueryServiceDAO {
     /**
      * 执行sql
      * @param sql
-     * @return
+     * @return 每行一个 JSONObject，列值为null 时为空字符串，执行失败返回null
+     */
+    public JSONArray executeSql(String sql,Object []params);
+
+    /**
+     * 执行sql，同时返回列的类型，时间列转为毫秒数后可以按列类型还原
+     * @param sql
+     * @param params
+     * @param columnTypes 放入 列名 和 列类型(java.sql.Types)，列名重复时取第一列，为null 时不返回
+     * @return 每行一个 JSONObject，列值为null 时为空字符串，执行失败返回null
      */
-    public List<Map<String,Object>> executeSql(String sql,Object []params);
+    public JSONArray executeSql(String sql,Object []params,Map<String,Integer> columnTypes);
 
     public int updateSql(String sql,Object[] params);
 
@@ -1,5 +1,7 @@
 package com.java110.service.dao.impl;
 
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
 import com.java110.common.util.StringUtil;
 import com.java110.core.base.dao.BaseServiceDao;
 import com.java110.entity.service.ServiceSql;
@@ -19,17 +21,31 @@ public class QueryServiceDAOImpl extends BaseServiceDao implements IQueryService
 
     /**
      *  防止sql注入 改造成直接用prepareStatement 预处理sql
+     *  每行直接封装成 JSONObject，列名每次查询只取一次，
+     *  列名重复时取第一列，时间类型(Timestamp Date Time) 转为毫秒数(Long)
      * @param sql
      * @param params
      * @return
      */
     @Override
-    public List<Map<String,Object>> executeSql(String sql,Object[] params) {
-        logger.debug("----【queryServiceDAOImpl.executeSql】入参 : "+sql+" params= "+params);
+    public JSONArray executeSql(String sql,Object[] params) {
+        return executeSql(sql, params, null);
+    }
+
+    /**
+     * 执行sql，columnTypes 不为null 时放入列名和列类型(java.sql.Types)
+     * @param sql
+     * @param params
+     * @param columnTypes
+     * @return
+     */
+    @Override
+    public JSONArray executeSql(String sql,Object[] params,Map<String,Integer> columnTypes) {
+        logger.debug("----【queryServiceDAOImpl.executeSql】入参 : {} params= {}", sql, params);
         Connection conn = null;
         ResultSet rs = null;
         PreparedStatement ps = null;
-        List<Map<String,Object>> mapList = new ArrayList<Map<String,Object>>();
+        JSONArray rows = new JSONArray();
         try {
             conn = sqlSessionTemplate.getConnection();
             ps = conn.prepareStatement(sql);
@@ -39,21 +55,34 @@ public class QueryServiceDAOImpl extends BaseServiceDao implements IQueryService
                 }
             }
             rs = ps.executeQuery();
-            //精髓的地方就在这里，类ResultSet有getMetaData()会返回数据的列和对应的值的信息，然后我们将列名和对应的值作为map的键值存入map对象之中...
             ResultSetMetaData rsmd = rs.getMetaData();
+            int columnCount = rsmd.getColumnCount();
+            String[] columnLabels = new String[columnCount];
+            for(int i = 0 ; i < columnCount ; i++){
+                columnLabels[i] = rsmd.getColumnLabel(i+1);
+                if(columnTypes != null && !columnTypes.containsKey(columnLabels[i])){
+                    columnTypes.put(columnLabels[i], rsmd.getColumnType(i+1));
+                }
+            }
             while(rs.next()){
-                Map<String,Object> map = new HashMap<String,Object>();
-                for(int i = 0 ; i < rsmd.getColumnCount() ; i++){
-                    String col_name = rsmd.getColumnLabel(i+1);
-                    Object col_value = rs.getObject(col_name);
+                JSONObject row = new JSONObject(columnCount);
+                for(int i = 0 ; i < columnCount ; i++){
+                    //列名重复时取第一列，和按列名 rs.getObject(label) 取值一致
+                    if(row.containsKey(columnLabels[i])){
+                        continue;
+                    }
+                    Object col_value = rs.getObject(i+1);
                     if(col_value == null){
                         col_value = "";
+                    }else if(col_value instanceof java.util.Date){
+                        //时间转为毫秒数，和原来 Map 转 JSON 字符串再解析的结果一致
+                        col_value = ((java.util.Date) col_value).getTime();
                     }
-                    map.put(col_name, col_value);
+                    row.put(columnLabels[i], col_value);
                 }
-                mapList.add(map);
+                rows.add(row);
             }
-            return mapList;
+            return rows;
         } catch (SQLException e) {
             logger.error("执行sql异常：" + sql +params,e);
             return null;
@@ -80,7 +109,7 @@ public class QueryServiceDAOImpl extends BaseServiceDao implements IQueryService
      * @return
      */
     public int updateSql(String sql,Object[] params){
-        logger.debug("----【queryServiceDAOImpl.updateSql】入参 : "+sql+" params= "+params);
+        logger.debug("----【queryServiceDAOImpl.updateSql】入参 : {} params= {}", sql, params);
         Connection conn = null;
         PreparedStatement ps = null;
         try {
@@ -0,0 +1,117 @@
+package com.java110.service.plan;
+
+import bsh.EvalError;
+import bsh.Interpreter;
+import bsh.NameSpace;
+import bsh.Primitive;
+import com.alibaba.fastjson.JSONObject;
+import com.java110.common.constant.ResponseConstant;
+import com.java110.common.exception.BusinessException;
+import com.java110.entity.service.ServiceSql;
+
+import java.util.regex.Pattern;
+
+/**
+ * java 脚本执行计划，由 ServiceSql 的 javaScript 编译而来，编译后不可修改
+ *
+ * 脚本只在编译时解析一次，脚本中声明的方法保存在 NameSpace 中，
+ * 每次执行时直接调用 execute 方法，参数按调用绑定，不再重新解析脚本，
+ * 方法的局部变量每次调用都是新的，多线程可以同时执行同一个计划
+ *
+ * 注意：脚本顶层的语句只在编译时执行一次，顶层变量在所有调用之间共享，脚本中只应声明方法
+ * Created by wuxw on 2018/4/23.
+ */
+public class JavaScriptPlan {
+
+    public final static String EXECUTE_METHOD = "execute";
+
+    private final static Pattern INT_PATTERN = Pattern.compile("-?\\d+");
+
+    private final static Pattern DOUBLE_PATTERN = Pattern.compile("-?(\\d+\\.\\d*|\\.\\d+|\\d+)([eE][+-]?\\d+)?[dD]?");
+
+    private final String serviceCode;
+
+    private final String version;
+
+    private final Interpreter interpreter;
+
+    private final NameSpace nameSpace;
+
+    private JavaScriptPlan(String serviceCode, String version, Interpreter interpreter) {
+        this.serviceCode = serviceCode;
+        this.version = version;
+        this.interpreter = interpreter;
+        this.nameSpace = interpreter.getNameSpace();
+    }
+
+    /**
+     * 编译 ServiceSql 中的 java 脚本
+     * @param serviceSql 服务sql
+     * @param version ServiceSqlCache 版本号
+     * @return
+     * @throws BusinessException
+     */
+    public static JavaScriptPlan compile(ServiceSql serviceSql, String version) throws BusinessException {
+        Interpreter interpreter = new Interpreter();
+        try {
+            interpreter.eval(serviceSql.getJavaScript());
+        } catch (EvalError e) {
+            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR, "配置服务 serviceCode = "
+                    + serviceSql.getServiceCode() + " java脚本错误，" + e.getMessage());
+        }
+        return new JavaScriptPlan(serviceSql.getServiceCode(), version, interpreter);
+    }
+
+    /**
+     * 执行脚本中的 execute 方法，请求参数按顺序作为方法参数
+     * @param params 请求参数
+     * @return execute 方法返回值
+     * @throws EvalError
+     */
+    public Object execute(JSONObject params) throws EvalError {
+        Object[] args = new Object[params.size()];
+        int argIndex = 0;
+        for (String key : params.keySet()) {
+            args[argIndex++] = toArgument(params.getString(key));
+        }
+        return nameSpace.invokeMethod(EXECUTE_METHOD, args, interpreter);
+    }
+
+    /**
+     * 参数转换，和原来拼接成 execute(a,b) 再解析的结果保持一致，
+     * 数字、true、false、null 和双引号括起来的字符串按字面量处理，其他的按字符串传入
+     * @param value 参数值
+     * @return
+     */
+    static Object toArgument(String value) {
+        if (value == null || "null".equals(value)) {
+            return Primitive.NULL;
+        }
+        if ("true".equals(value) || "false".equals(value)) {
+            return new Primitive(Boolean.parseBoolean(value));
+        }
+        if (INT_PATTERN.matcher(value).matches()) {
+            try {
+                long longValue = Long.parseLong(value);
+                return longValue == (int) longValue ? new Primitive((int) longValue) : new Primitive(longValue);
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        if (DOUBLE_PATTERN.matcher(value).matches()) {
+            return new Primitive(Double.parseDouble(value));
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    public String getServiceCode() {
+        return serviceCode;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
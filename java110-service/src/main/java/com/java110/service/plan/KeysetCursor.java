@@ -0,0 +1,115 @@
+package com.java110.service.plan;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.java110.common.constant.ResponseConstant;
+import com.java110.common.exception.BusinessException;
+import com.java110.common.util.StringUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * keyset 分页游标，记录排序 和 上一页最后一行 每个排序列的值(最后一列为主键)，
+ * 对调用方不透明，原样传回即可，排序列或排序方式变了以后游标不再使用，从第一页开始查询
+ *
+ * 时间按 yyyy-MM-dd HH:mm:ss.SSS 保存，和 mysql 中的时间比较，
+ * 查询结果中时间已经转为毫秒数，生成游标前用 toCursorValue 按列类型还原
+ * Created by wuxw on 2018/4/24.
+ */
+public class KeysetCursor {
+
+    private final static String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    private final String order;
+
+    private final List<Object> values;
+
+    private KeysetCursor(String order, List<Object> values) {
+        this.order = order;
+        this.values = values;
+    }
+
+    /**
+     * 生成游标
+     * @param order 排序
+     * @param values 最后一行 每个排序列的值，和 order 中的列一一对应
+     * @return
+     */
+    public static String encode(QueryPlan.KeysetOrder order, List<Object> values) {
+        JSONArray cursor = new JSONArray(values.size() + 1);
+        cursor.add(order.toString());
+        cursor.addAll(values);
+        byte[] cursorBytes = JSON.toJSONStringWithDateFormat(cursor, DATE_FORMAT).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursorBytes);
+    }
+
+    /**
+     * 查询结果中的列值转为游标中的值，时间列的毫秒数还原成时间，
+     * 直接用毫秒数时 mysql 会把 datetime 列按 yyyyMMddHHmmss 数字和毫秒数比较
+     * @param value 查询结果中的列值
+     * @param columnType 列类型(java.sql.Types)
+     * @return
+     */
+    public static Object toCursorValue(Object value, Integer columnType) {
+        if (!(value instanceof Long) || columnType == null) {
+            return value;
+        }
+        switch (columnType) {
+            case Types.DATE:
+            case Types.TIMESTAMP:
+                return new Timestamp((Long) value);
+            case Types.TIME:
+                return new Time((Long) value).toString();
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * 解析游标
+     * @param cursor 游标
+     * @return 游标为空时返回null
+     * @throws BusinessException 游标不正确
+     */
+    public static KeysetCursor decode(String cursor) throws BusinessException {
+        if (StringUtil.isNullOrNone(cursor)) {
+            return null;
+        }
+        try {
+            JSONArray values = JSON.parseArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (values.size() < 2 || !(values.get(0) instanceof String)) {
+                throw new IllegalArgumentException("cursor 格式错误");
+            }
+            return new KeysetCursor(values.getString(0), Collections.unmodifiableList(values.subList(1, values.size())));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResponseConstant.RESULT_PARAM_ERROR, "分页游标 cursor 不正确，" + e.getMessage());
+        }
+    }
+
+    /**
+     * 游标是否是按 order 排序生成的
+     * @param order 排序
+     * @return
+     */
+    public boolean isSameOrder(QueryPlan.KeysetOrder order) {
+        return this.order.equals(order.toString()) && values.size() == order.size();
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    /**
+     * 最后一行 每个排序列的值
+     * @return
+     */
+    public List<Object> getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,747 @@
+package com.java110.service.plan;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONPath;
+import com.java110.common.constant.ResponseConstant;
+import com.java110.common.exception.BusinessException;
+import com.java110.common.util.StringUtil;
+import com.java110.entity.service.ServiceSql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 查询计划，由 ServiceSql 编译而来，编译后不可修改
+ *
+ * 包含 返回模板、模板中每个节点的 JSONPath 和 预先按#号拆分好的sql
+ * {"PARAM:"{
+ "param1": "$.a.#A#Object",
+ "param2": "$.a.b.A#B#Array",
+ "param3": "$.a.b.c.A.B#C#Array"
+ },"TEMPLATE":"{}"
+ }
+ * Created by wuxw on 2018/4/19.
+ */
+public class QueryPlan {
+
+    public final static String PARENT_PREFIX = "PARENT_";
+
+    //批量查询时 select 中加上的上级参数列的别名，用来把结果分回每个上级节点
+    public final static String BATCH_KEY = "java110_parent_key";
+
+    //批量查询时 in 中最多的参数个数，超过后分多次查询
+    public final static int BATCH_MAX_SIZE = 500;
+
+    private final String serviceCode;
+
+    private final String version;
+
+    //返回模板 每次执行时复制一份
+    private final JSONObject template;
+
+    private final List<TemplateStep> steps;
+
+    private QueryPlan(String serviceCode, String version, JSONObject template, List<TemplateStep> steps) {
+        this.serviceCode = serviceCode;
+        this.version = version;
+        this.template = template;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * 编译 ServiceSql
+     * @param serviceSql 服务sql
+     * @param version ServiceSqlCache 版本号
+     * @return
+     * @throws BusinessException
+     */
+    public static QueryPlan compile(ServiceSql serviceSql, String version) throws BusinessException {
+        JSONObject templateObj = JSONObject.parseObject(serviceSql.getTemplate());
+        JSONObject templateParams = templateObj.getJSONObject("PARAM");
+        JSONObject template = JSONObject.parseObject(templateObj.getString("TEMPLATE"));
+        JSONObject sqlObj = JSONObject.parseObject(serviceSql.getSql());
+
+        List<TemplateStep> steps = new ArrayList<TemplateStep>();
+        for (String key : templateParams.keySet()) {
+            String[] values = judgeResponseTemplate(templateParams.getString(key));
+            String sql = sqlObj == null ? null : sqlObj.getString(key);
+            steps.add(new TemplateStep(key, JSONPath.compile(values[0]), values[1], values[2],
+                    sql == null ? null : SqlPlan.compile(sql)));
+        }
+        return new QueryPlan(serviceSql.getServiceCode(), version, template, steps);
+    }
+
+    /**
+     * 校验 返回模板
+     * @param template
+     * @return
+     * @throws BusinessException
+     */
+    private static String[] judgeResponseTemplate(String template) throws BusinessException{
+
+
+        if(!template.startsWith("$.")){
+            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，value 必须以$.开头");
+        }
+
+        String[] values = template.split("#");
+
+        if(values == null || values.length != 3){
+            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，value 必须有两个#号");
+        }
+
+        if(StringUtil.isNullOrNone(values[1]) && !"$.##Object".equals(template) && !"$.##Array".equals(template)){
+            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，目前只支持 $.##Object 和 $.##Array ");
+        }
+
+        return values;
+    }
+
+    /**
+     * 复制一份返回模板，模板在执行过程中会被修改
+     * @return
+     */
+    public JSONObject newTemplate() {
+        return (JSONObject) copy(template);
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject source = (JSONObject) value;
+            JSONObject target = new JSONObject(source.size());
+            for (Map.Entry<String, Object> entry : source.entrySet()) {
+                target.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return target;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray source = (JSONArray) value;
+            JSONArray target = new JSONArray(source.size());
+            for (Object item : source) {
+                target.add(copy(item));
+            }
+            return target;
+        }
+        return value;
+    }
+
+    public String getServiceCode() {
+        return serviceCode;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public List<TemplateStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * 模板中的一个节点 如 "param1": "$.a.#A#Object"
+     */
+    public static class TemplateStep {
+
+        private final String key;
+
+        //节点路径 如 $.a.
+        private final JSONPath path;
+
+        //结果放入的key 如 A，为空时直接合并到节点
+        private final String valueKey;
+
+        //Object 或 Array
+        private final String valueType;
+
+        //key 对应的sql，没有配置时为null
+        private final SqlPlan sqlPlan;
+
+        TemplateStep(String key, JSONPath path, String valueKey, String valueType, SqlPlan sqlPlan) {
+            this.key = key;
+            this.path = path;
+            this.valueKey = valueKey;
+            this.valueType = valueType;
+            this.sqlPlan = sqlPlan;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public JSONPath getPath() {
+            return path;
+        }
+
+        public String getValueKey() {
+            return valueKey;
+        }
+
+        public String getValueType() {
+            return valueType;
+        }
+
+        public SqlPlan getSqlPlan() {
+            return sqlPlan;
+        }
+    }
+
+    /**
+     * 按#号拆分好的sql，如 select * from a where b = #b# and c = #PARENT_c#
+     *
+     * 上级节点是数组时，每个节点都要查询一次，满足以下条件的sql 编译时生成批量查询的sql，所有节点只查询一次：
+     * 只有一个 PARENT_ 参数，且在最外层 where 中以 列 = #PARENT_c# 的方式出现，where 中没有 or，
+     * 没有分页参数，没有 limit group by having union distinct 和 count sum max min avg group_concat，
+     * 如 select * from a where b = #b# and c = #PARENT_c# 批量查询时为
+     * select * , c as java110_parent_key from a where b = ? and c in (?,?,?)
+     *
+     * 满足以下条件的分页sql 编译时生成 keyset 分页的sql，按上一页最后一行的排序列和主键往后查，不再 limit 偏移：
+     * 以 limit #page#,#rows# 结尾，没有 PARENT_ 参数，没有 union group by having distinct，
+     * 可以排序的列为 select 中有别名或者直接是列名的列，order by 中的列也必须是可以排序的列，
+     * 主键由调用方指定(模板 colModel 中 key 为 true 的列)，排序依次为 sidx、sql 中的 order by、主键，排序列和主键的值不能为空，如
+     * select a.id id,a.name name from a where a.b = #b# limit #page#,#rows# 主键为 id 按 name 升序查下一页时为
+     * select a.id id,a.name name from a where ( a.b = ?) and (a.name > ? or (a.name = ? and a.id > ?)) order by a.name asc, a.id asc limit ?
+     */
+    public static class SqlPlan {
+
+        //参数位置标记，只在编译时使用
+        private final static char PARAM_MARK = '\u0000';
+
+        private final static Pattern BATCH_COLUMN = Pattern.compile("([A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?)\\s*=\\s*$");
+
+        private final static Pattern NO_BATCH = Pattern.compile(
+                "\\b(limit|group\\s+by|having|union|distinct|count|sum|max|min|avg|group_concat)\\b", Pattern.CASE_INSENSITIVE);
+
+        private final static Pattern NO_KEYSET = Pattern.compile(
+                "\\b(group\\s+by|having|union|distinct)\\b", Pattern.CASE_INSENSITIVE);
+
+        private final static Pattern KEYSET_LIMIT = Pattern.compile(
+                "limit\\s*" + PARAM_MARK + "\\s*,\\s*" + PARAM_MARK + "\\s*");
+
+        private final static Pattern KEYSET_ORDER = Pattern.compile("order\\s+by\\s+(.*)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+        //order by 中 表达式 [asc|desc]
+        private final static Pattern KEYSET_ORDER_ITEM = Pattern.compile(
+                "(.+?)(\\s+(asc|desc))?", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+        //select 中 表达式 [as] 别名
+        private final static Pattern SELECT_ALIAS = Pattern.compile(
+                "(.+?)(\\s+as)?\\s+`?([A-Za-z_][A-Za-z0-9_]*)`?", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+        //select 中 直接是列名
+        private final static Pattern SELECT_COLUMN = Pattern.compile(
+                "([A-Za-z_][A-Za-z0-9_]*\\.)?`?([A-Za-z_][A-Za-z0-9_]*)`?");
+
+        private final static Pattern NOT_ALIAS = Pattern.compile("end|and|or|not|null|asc|desc", Pattern.CASE_INSENSITIVE);
+
+        //参数之间的sql 片段，比参数多一个
+        private final String[] fragments;
+
+        //参数名称，PARENT_ 开头的参数已经去掉前缀
+        private final String[] paramNames;
+
+        //参数是否取自上级节点
+        private final boolean[] parentParams;
+
+        //参数是否是分页参数 page rows
+        private final boolean[] pageParams;
+
+        //所有参数替换为?后的sql
+        private final String sql;
+
+        //批量查询的上级参数下标，不能批量查询时为 -1
+        private final int batchParamIndex;
+
+        //批量查询的sql 片段，不能批量查询时为null
+        private final String[] batchFragments;
+
+        //keyset 分页sql 中 order by 和 limit 之前的部分，where 条件已经用括号括起来，不能 keyset 分页时为null
+        private String keysetBody;
+
+        //keyset 分页sql 中是否有 where
+        private boolean keysetWhere;
+
+        //keyset 分页可以排序的列 别名 和 表达式
+        private Map<String, String> keysetColumns;
+
+        //sql 中 order by 的列(别名) 和 是否降序，没有 order by 时为空
+        private List<String> keysetOrderColumns;
+
+        private List<Boolean> keysetOrderDescs;
+
+        private SqlPlan(String[] fragments, String[] paramNames, boolean[] parentParams, boolean[] pageParams) {
+            this.fragments = fragments;
+            this.paramNames = paramNames;
+            this.parentParams = parentParams;
+            this.pageParams = pageParams;
+            StringBuilder sqlBuilder = new StringBuilder(fragments[0]);
+            for (int paramIndex = 0; paramIndex < paramNames.length; paramIndex++) {
+                sqlBuilder.append("?").append(fragments[paramIndex + 1]);
+            }
+            this.sql = sqlBuilder.toString();
+            int parentParamIndex = -1;
+            for (int paramIndex = 0; paramIndex < paramNames.length; paramIndex++) {
+                if (parentParams[paramIndex]) {
+                    parentParamIndex = parentParamIndex == -1 ? paramIndex : -2;
+                }
+            }
+            this.batchFragments = parentParamIndex < 0 ? null : compileBatch(parentParamIndex);
+            this.batchParamIndex = batchFragments == null ? -1 : parentParamIndex;
+            if (parentParamIndex == -1) {
+                compileKeyset();
+            }
+        }
+
+        /**
+         * 生成 keyset 分页的sql 片段，不满足 keyset 分页条件时 keysetBody 为null
+         */
+        private void compileKeyset() {
+            int paramCount = paramNames.length;
+            if (paramCount < 2 || !"page".equals(paramNames[paramCount - 2]) || !pageParams[paramCount - 2]
+                    || !"rows".equals(paramNames[paramCount - 1]) || !pageParams[paramCount - 1]) {
+                return;
+            }
+            for (int paramIndex = 0; paramIndex < paramCount - 2; paramIndex++) {
+                if (pageParams[paramIndex]) {
+                    return;
+                }
+            }
+            StringBuilder markedSql = new StringBuilder(fragments[0]);
+            for (int paramIndex = 0; paramIndex < paramCount; paramIndex++) {
+                markedSql.append(PARAM_MARK).append(fragments[paramIndex + 1]);
+            }
+            //不能用 trim，会去掉末尾的参数标记
+            String currentSql = markedSql.toString().replaceAll("^\\s+|\\s+$", "");
+            String lowerSql = currentSql.toLowerCase(Locale.ROOT);
+            if (!lowerSql.startsWith("select") || NO_KEYSET.matcher(currentSql).find()) {
+                return;
+            }
+            //只看最外层(不在括号和引号中)的 from where order limit 和 select 中的逗号
+            int fromIndex = -1;
+            int whereIndex = -1;
+            int orderIndex = -1;
+            int limitIndex = -1;
+            List<Integer> commaIndexes = new ArrayList<Integer>();
+            List<Integer> orderCommaIndexes = new ArrayList<Integer>();
+            int depth = 0;
+            char quote = 0;
+            for (int charIndex = 0; charIndex < currentSql.length(); charIndex++) {
+                char c = currentSql.charAt(charIndex);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0) {
+                    if (c == ',' && fromIndex == -1) {
+                        commaIndexes.add(charIndex);
+                    } else if (c == ',' && orderIndex != -1 && limitIndex == -1) {
+                        orderCommaIndexes.add(charIndex);
+                    } else if (fromIndex == -1 && isWordAt(lowerSql, charIndex, "from")) {
+                        fromIndex = charIndex;
+                    } else if (fromIndex != -1 && whereIndex == -1 && isWordAt(lowerSql, charIndex, "where")) {
+                        whereIndex = charIndex;
+                    } else if (isWordAt(lowerSql, charIndex, "order")) {
+                        orderIndex = charIndex;
+                    } else if (isWordAt(lowerSql, charIndex, "limit")) {
+                        limitIndex = charIndex;
+                    }
+                }
+            }
+            if (fromIndex == -1 || limitIndex < fromIndex || !KEYSET_LIMIT.matcher(lowerSql.substring(limitIndex)).matches()) {
+                return;
+            }
+            int bodyEnd = limitIndex;
+            //order by 后第一列的位置，没有 order by 时为 -1
+            int orderStart = -1;
+            if (orderIndex > fromIndex && orderIndex < limitIndex) {
+                Matcher orderMatcher = KEYSET_ORDER.matcher(currentSql.substring(orderIndex, limitIndex));
+                if (!orderMatcher.matches() || orderMatcher.group(1).indexOf(PARAM_MARK) != -1) {
+                    return;
+                }
+                orderStart = orderIndex + orderMatcher.start(1);
+                bodyEnd = orderIndex;
+            }
+            if (whereIndex > bodyEnd) {
+                return;
+            }
+            Map<String, String> columns = new LinkedHashMap<String, String>();
+            commaIndexes.add(fromIndex);
+            int itemStart = "select".length();
+            for (int commaIndex : commaIndexes) {
+                String item = currentSql.substring(itemStart, commaIndex).trim();
+                itemStart = commaIndex + 1;
+                String alias = null;
+                Matcher columnMatcher = SELECT_COLUMN.matcher(item);
+                Matcher aliasMatcher = SELECT_ALIAS.matcher(item);
+                if (columnMatcher.matches()) {
+                    alias = columnMatcher.group(2);
+                } else if (aliasMatcher.matches() && !NOT_ALIAS.matcher(aliasMatcher.group(3)).matches()) {
+                    alias = aliasMatcher.group(3);
+                    item = aliasMatcher.group(1).trim();
+                }
+                if (alias != null && item.indexOf(PARAM_MARK) == -1 && !columns.containsKey(alias)) {
+                    columns.put(alias, item);
+                }
+            }
+            if (columns.isEmpty()) {
+                return;
+            }
+            //order by 中的每一列都要能取到最后一行的值，否则不能 keyset 分页
+            List<String> orderColumns = new ArrayList<String>();
+            List<Boolean> orderDescs = new ArrayList<Boolean>();
+            if (orderStart != -1) {
+                orderCommaIndexes.add(limitIndex);
+                for (int commaIndex : orderCommaIndexes) {
+                    Matcher itemMatcher = KEYSET_ORDER_ITEM.matcher(currentSql.substring(orderStart, commaIndex).trim());
+                    orderStart = commaIndex + 1;
+                    String alias = itemMatcher.matches() ? findKeysetColumn(columns, itemMatcher.group(1)) : null;
+                    if (alias == null) {
+                        return;
+                    }
+                    if (!orderColumns.contains(alias)) {
+                        orderColumns.add(alias);
+                        orderDescs.add("desc".equalsIgnoreCase(itemMatcher.group(3)));
+                    }
+                }
+            }
+            String body = whereIndex == -1 ? currentSql.substring(0, bodyEnd).trim()
+                    : currentSql.substring(0, whereIndex + "where".length()) + " ("
+                    + currentSql.substring(whereIndex + "where".length(), bodyEnd).replaceAll("\\s+$", "") + ")";
+            this.keysetBody = body.replace(PARAM_MARK, '?');
+            this.keysetWhere = whereIndex != -1;
+            this.keysetColumns = Collections.unmodifiableMap(columns);
+            this.keysetOrderColumns = Collections.unmodifiableList(orderColumns);
+            this.keysetOrderDescs = Collections.unmodifiableList(orderDescs);
+        }
+
+        /**
+         * order by 中的表达式 对应的可以排序的列，按别名或者 select 中的表达式匹配
+         * @param columns 可以排序的列
+         * @param expression order by 中的表达式
+         * @return 没有对应的列时返回null
+         */
+        private static String findKeysetColumn(Map<String, String> columns, String expression) {
+            String normalized = normalizeExpression(expression);
+            for (Map.Entry<String, String> column : columns.entrySet()) {
+                if (normalized.equals(normalizeExpression(column.getKey()))) {
+                    return column.getKey();
+                }
+            }
+            for (Map.Entry<String, String> column : columns.entrySet()) {
+                if (normalized.equals(normalizeExpression(column.getValue()))) {
+                    return column.getKey();
+                }
+            }
+            return null;
+        }
+
+        private static String normalizeExpression(String expression) {
+            return expression.replaceAll("[`\\s]", "").toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * 生成批量查询的sql 片段，不满足批量查询条件时返回null
+         * @param parentParamIndex 上级参数下标
+         * @return
+         */
+        private String[] compileBatch(int parentParamIndex) {
+            for (boolean pageParam : pageParams) {
+                if (pageParam) {
+                    return null;
+                }
+            }
+            StringBuilder markedSql = new StringBuilder(fragments[0]);
+            for (int paramIndex = 0; paramIndex < paramNames.length; paramIndex++) {
+                markedSql.append(PARAM_MARK).append(fragments[paramIndex + 1]);
+            }
+            String currentSql = markedSql.toString();
+            String lowerSql = currentSql.toLowerCase(Locale.ROOT);
+            if (!lowerSql.trim().startsWith("select") || NO_BATCH.matcher(currentSql).find()) {
+                return null;
+            }
+            //只看最外层(不在括号和引号中)的 from where or 和上级参数位置
+            int fromIndex = -1;
+            int whereIndex = -1;
+            int parentParamPos = -1;
+            int paramIndex = 0;
+            int depth = 0;
+            char quote = 0;
+            for (int charIndex = 0; charIndex < currentSql.length(); charIndex++) {
+                char c = currentSql.charAt(charIndex);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == PARAM_MARK) {
+                    if (paramIndex++ == parentParamIndex) {
+                        if (depth != 0) {
+                            return null;
+                        }
+                        parentParamPos = charIndex;
+                    }
+                } else if (depth == 0) {
+                    if (fromIndex == -1 && isWordAt(lowerSql, charIndex, "from")) {
+                        fromIndex = charIndex;
+                    } else if (whereIndex == -1 && isWordAt(lowerSql, charIndex, "where")) {
+                        whereIndex = charIndex;
+                    } else if (whereIndex != -1 && isWordAt(lowerSql, charIndex, "or")) {
+                        return null;
+                    }
+                }
+            }
+            if (fromIndex == -1 || whereIndex < fromIndex || parentParamPos < whereIndex) {
+                return null;
+            }
+            Matcher columnMatcher = BATCH_COLUMN.matcher(currentSql.substring(0, parentParamPos));
+            if (!columnMatcher.find() || columnMatcher.start() < whereIndex) {
+                return null;
+            }
+            String column = columnMatcher.group(1);
+            String batchSql = currentSql.substring(0, fromIndex) + ", " + column + " as " + BATCH_KEY + " "
+                    + currentSql.substring(fromIndex, columnMatcher.start()) + column + " in "
+                    + currentSql.substring(parentParamPos);
+            return batchSql.split(String.valueOf(PARAM_MARK), -1);
+        }
+
+        private static boolean isWordAt(String sql, int index, String word) {
+            if (!sql.startsWith(word, index)) {
+                return false;
+            }
+            int end = index + word.length();
+            return (index == 0 || !isWordChar(sql.charAt(index - 1)))
+                    && (end == sql.length() || !isWordChar(sql.charAt(end)));
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '`';
+        }
+
+        public static SqlPlan compile(String currentSql) {
+            String[] sqls = currentSql.split("#");
+            int paramCount = sqls.length / 2;
+            String[] fragments = new String[paramCount + 1];
+            String[] paramNames = new String[paramCount];
+            boolean[] parentParams = new boolean[paramCount];
+            boolean[] pageParams = new boolean[paramCount];
+            for (int sqlIndex = 0; sqlIndex < sqls.length; sqlIndex++) {
+                if (sqlIndex % 2 == 0) {
+                    fragments[sqlIndex / 2] = sqls[sqlIndex];
+                    continue;
+                }
+                int paramIndex = sqlIndex / 2;
+                String paramName = sqls[sqlIndex];
+                if (paramName.startsWith(PARENT_PREFIX)) {
+                    parentParams[paramIndex] = true;
+                    paramName = paramName.substring(PARENT_PREFIX.length());
+                }
+                paramNames[paramIndex] = paramName;
+                //这里对 page 和 rows 特殊处理 ，目前没有想到其他的办法
+                pageParams[paramIndex] = !parentParams[paramIndex] && "page,rows".contains(paramName);
+            }
+            //split 会去掉末尾的空串
+            if (fragments[paramCount] == null) {
+                fragments[paramCount] = "";
+            }
+            return new SqlPlan(fragments, paramNames, parentParams, pageParams);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public String getFragment(int index) {
+            return fragments[index];
+        }
+
+        public int getParamCount() {
+            return paramNames.length;
+        }
+
+        public String getParamName(int paramIndex) {
+            return paramNames[paramIndex];
+        }
+
+        public boolean isParentParam(int paramIndex) {
+            return parentParams[paramIndex];
+        }
+
+        public boolean isPageParam(int paramIndex) {
+            return pageParams[paramIndex];
+        }
+
+        /**
+         * 是否可以批量查询
+         * @return
+         */
+        public boolean isBatch() {
+            return batchParamIndex != -1;
+        }
+
+        /**
+         * 批量查询的上级参数下标
+         * @return
+         */
+        public int getBatchParamIndex() {
+            return batchParamIndex;
+        }
+
+        /**
+         * 批量查询的sql，上级参数替换为 in (?,?...)
+         * @param batchSize 上级参数个数
+         * @return
+         */
+        public String getBatchSql(int batchSize) {
+            StringBuilder batchSql = new StringBuilder(batchFragments[0]);
+            for (int paramIndex = 0; paramIndex < paramNames.length; paramIndex++) {
+                if (paramIndex == batchParamIndex) {
+                    batchSql.append("(");
+                    for (int batchIndex = 0; batchIndex < batchSize; batchIndex++) {
+                        batchSql.append(batchIndex == 0 ? "?" : ",?");
+                    }
+                    batchSql.append(")");
+                } else {
+                    batchSql.append("?");
+                }
+                batchSql.append(batchFragments[paramIndex + 1]);
+            }
+            return batchSql.toString();
+        }
+
+        /**
+         * 是否可以 keyset 分页
+         * @return
+         */
+        public boolean isKeyset() {
+            return keysetBody != null;
+        }
+
+        /**
+         * 是否是 keyset 分页可以排序的列
+         * @param column 列(别名)
+         * @return
+         */
+        public boolean isKeysetColumn(String column) {
+            return column != null && keysetColumns.containsKey(column);
+        }
+
+        /**
+         * keyset 分页的排序，依次为 sidx、sql 中的 order by、主键，主键之后的列不再排序
+         * @param keyColumn 主键列(别名)，必须是可以排序的列，见 isKeysetColumn
+         * @param sidx 排序列(别名)，不是可以排序的列时忽略
+         * @param desc sidx 和 主键 是否降序，sql 中 order by 的列按原来的排序方式
+         * @return
+         */
+        public KeysetOrder getKeysetOrder(String keyColumn, String sidx, boolean desc) {
+            List<String> columns = new ArrayList<String>();
+            List<Boolean> descs = new ArrayList<Boolean>();
+            if (isKeysetColumn(sidx)) {
+                columns.add(sidx);
+                descs.add(desc);
+            }
+            for (int orderIndex = 0; orderIndex < keysetOrderColumns.size() && !columns.contains(keyColumn); orderIndex++) {
+                if (!columns.contains(keysetOrderColumns.get(orderIndex))) {
+                    columns.add(keysetOrderColumns.get(orderIndex));
+                    descs.add(keysetOrderDescs.get(orderIndex));
+                }
+            }
+            if (!columns.contains(keyColumn)) {
+                columns.add(keyColumn);
+                descs.add(desc);
+            }
+            return new KeysetOrder(columns, descs);
+        }
+
+        /**
+         * keyset 分页的sql，参数依次为 除 page rows 外的参数、上一页最后一行的值、rows，
+         * 上一页最后一行的值 依次为 第一列，第一列、第二列，第一列、第二列、第三列 ...
+         * @param order 排序，见 getKeysetOrder
+         * @param hasCursor 是否有上一页，没有时查第一页
+         * @return
+         */
+        public String getKeysetSql(KeysetOrder order, boolean hasCursor) {
+            StringBuilder keysetSql = new StringBuilder(keysetBody);
+            if (hasCursor) {
+                keysetSql.append(keysetWhere ? " and (" : " where (");
+                for (int columnIndex = 0; columnIndex < order.size(); columnIndex++) {
+                    if (columnIndex > 0) {
+                        keysetSql.append(" or (");
+                        for (int equalIndex = 0; equalIndex < columnIndex; equalIndex++) {
+                            keysetSql.append(keysetColumns.get(order.getColumn(equalIndex))).append(" = ? and ");
+                        }
+                    }
+                    keysetSql.append(keysetColumns.get(order.getColumn(columnIndex)))
+                            .append(order.isDesc(columnIndex) ? " < ?" : " > ?");
+                    if (columnIndex > 0) {
+                        keysetSql.append(")");
+                    }
+                }
+                keysetSql.append(")");
+            }
+            keysetSql.append(" order by ");
+            for (int columnIndex = 0; columnIndex < order.size(); columnIndex++) {
+                keysetSql.append(columnIndex == 0 ? "" : ", ").append(keysetColumns.get(order.getColumn(columnIndex)))
+                        .append(order.isDesc(columnIndex) ? " desc" : " asc");
+            }
+            return keysetSql.append(" limit ?").toString();
+        }
+    }
+
+    /**
+     * keyset 分页的排序列(别名) 和 是否降序，最后一列为主键
+     */
+    public static class KeysetOrder {
+
+        private final List<String> columns;
+
+        private final List<Boolean> descs;
+
+        KeysetOrder(List<String> columns, List<Boolean> descs) {
+            this.columns = Collections.unmodifiableList(columns);
+            this.descs = Collections.unmodifiableList(descs);
+        }
+
+        public int size() {
+            return columns.size();
+        }
+
+        public String getColumn(int columnIndex) {
+            return columns.get(columnIndex);
+        }
+
+        public boolean isDesc(int columnIndex) {
+            return descs.get(columnIndex);
+        }
+
+        /**
+         * 排序描述 如 name desc,id desc，用来判断游标是否是按当前排序生成的
+         * @return
+         */
+        @Override
+        public String toString() {
+            StringBuilder order = new StringBuilder();
+            for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+                order.append(columnIndex == 0 ? "" : ",").append(columns.get(columnIndex))
+                        .append(descs.get(columnIndex) ? " desc" : " asc");
+            }
+            return order.toString();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.java110.service.plan;
+
+import com.java110.common.exception.BusinessException;
+import com.java110.common.log.LoggerEngine;
+import com.java110.entity.service.ServiceSql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查询计划本地缓存
+ *
+ * 按 serviceCode 缓存编译好的查询计划和java 脚本执行计划，ServiceSqlCache 版本号变化后重新编译
+ * Created by wuxw on 2018/4/19.
+ */
+public class QueryPlanCache extends LoggerEngine {
+
+    private final static Map<String, QueryPlan> queryPlans = new ConcurrentHashMap<String, QueryPlan>();
+
+    private final static Map<String, JavaScriptPlan> javaScriptPlans = new ConcurrentHashMap<String, JavaScriptPlan>();
+
+    /**
+     * 获取查询计划，本地没有或者版本号不一致时重新编译
+     * @param serviceSql 服务sql
+     * @param version 查询 serviceSql 之前获取的 ServiceSqlCache 版本号
+     * @return
+     * @throws BusinessException
+     */
+    public static QueryPlan getQueryPlan(ServiceSql serviceSql, String version) throws BusinessException {
+        QueryPlan queryPlan = queryPlans.get(serviceSql.getServiceCode());
+        if (queryPlan != null && queryPlan.getVersion().equals(version)) {
+            return queryPlan;
+        }
+        queryPlan = QueryPlan.compile(serviceSql, version);
+        queryPlans.put(serviceSql.getServiceCode(), queryPlan);
+        logger.debug("编译查询计划 serviceCode = " + serviceSql.getServiceCode() + " version = " + version);
+        return queryPlan;
+    }
+
+    /**
+     * 获取java 脚本执行计划，本地没有或者版本号不一致时重新编译
+     * @param serviceSql 服务sql
+     * @param version 查询 serviceSql 之前获取的 ServiceSqlCache 版本号
+     * @return
+     * @throws BusinessException
+     */
+    public static JavaScriptPlan getJavaScriptPlan(ServiceSql serviceSql, String version) throws BusinessException {
+        JavaScriptPlan javaScriptPlan = javaScriptPlans.get(serviceSql.getServiceCode());
+        if (javaScriptPlan != null && javaScriptPlan.getVersion().equals(version)) {
+            return javaScriptPlan;
+        }
+        javaScriptPlan = JavaScriptPlan.compile(serviceSql, version);
+        javaScriptPlans.put(serviceSql.getServiceCode(), javaScriptPlan);
+        logger.debug("编译java脚本 serviceCode = {} version = {}", serviceSql.getServiceCode(), version);
+        return javaScriptPlan;
+    }
+
+    /**
+     * 清空本地查询计划
+     */
+    public static void clear() {
+        queryPlans.clear();
+        javaScriptPlans.clear();
+    }
+}
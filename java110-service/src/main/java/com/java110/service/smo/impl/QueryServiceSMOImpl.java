@@ -1,9 +1,7 @@
 package com.java110.service.smo.impl;
 
-import bsh.Interpreter;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
-import com.alibaba.fastjson.JSONPath;
 import com.java110.common.cache.ServiceSqlCache;
 import com.java110.common.constant.CommonConstant;
 import com.java110.common.constant.ResponseConstant;
@@ -15,6 +13,10 @@ import com.java110.common.util.StringUtil;
 import com.java110.entity.service.DataQuery;
 import com.java110.entity.service.ServiceSql;
 import com.java110.service.dao.IQueryServiceDAO;
+import com.java110.service.plan.JavaScriptPlan;
+import com.java110.service.plan.KeysetCursor;
+import com.java110.service.plan.QueryPlan;
+import com.java110.service.plan.QueryPlanCache;
 import com.java110.service.smo.IQueryServiceSMO;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,10 +25,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 /**
  * Created by wuxw on 2018/4/19.
@@ -35,6 +41,9 @@ import java.util.TreeMap;
 @Transactional
 public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSMO {
 
+    //数字形式的字符串，批量查询时和数字列按数值匹配
+    private final static Pattern NUMBER_PATTERN = Pattern.compile("-?\\d+(\\.\\d+)?");
+
     @Autowired
     private IQueryServiceDAO queryServiceDAOImpl;
 
@@ -43,6 +52,8 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
         //查询缓存查询 对应处理的ServiceSql
         ResponseEntity<String> responseEntity = null;
         try {
+            //先取版本号再查询ServiceSql，保证编译出的查询计划不会比版本号旧
+            String serviceSqlVersion = ServiceSqlCache.getVersion();
             ServiceSql currentServiceSql = ServiceSqlCache.getServiceSql(dataQuery.getServiceCode());
             if (currentServiceSql == null) {
                 throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"未提供该服务 serviceCode = " + dataQuery.getServiceCode());
@@ -59,9 +70,9 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
             }
             dataQuery.setServiceSql(currentServiceSql);
             if (CommonConstant.QUERY_MODEL_SQL.equals(currentServiceSql.getQueryModel())) {
-                doExecuteSql(dataQuery);
+                doExecuteSql(dataQuery, serviceSqlVersion);
             }else if(CommonConstant.QUERY_MODE_JAVA.equals(currentServiceSql.getQueryModel())){
-                doExecuteJava(dataQuery);
+                doExecuteJava(dataQuery, serviceSqlVersion);
             }else {
                 doExecuteProc(dataQuery);
             }
@@ -81,6 +92,7 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
     public void commonDoService(DataQuery dataQuery) throws BusinessException {
         //查询缓存查询 对应处理的ServiceSql
         try {
+            String serviceSqlVersion = ServiceSqlCache.getVersion();
             ServiceSql currentServiceSql = ServiceSqlCache.getServiceSql(dataQuery.getServiceCode());
             if (currentServiceSql == null) {
                 throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"未提供该服务 serviceCode = " + dataQuery.getServiceCode());
@@ -93,7 +105,7 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
                 doExecuteUpdateSql(dataQuery);
                 return;
             }else if(CommonConstant.QUERY_MODE_JAVA.equals(currentServiceSql.getQueryModel())){
-                doExecuteJava(dataQuery);
+                doExecuteJava(dataQuery, serviceSqlVersion);
                 return ;
             }
             doExecuteUpdateProc(dataQuery);
@@ -155,28 +167,17 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
     }
 
     /**
-     * 执行java脚本
+     * 执行java脚本，脚本编译后缓存在本地，见 QueryPlanCache
      * @param dataQuery
+     * @param serviceSqlVersion ServiceSqlCache 版本号
      * @throws BusinessException
      */
-    private void doExecuteJava(DataQuery dataQuery) throws BusinessException{
+    private void doExecuteJava(DataQuery dataQuery, String serviceSqlVersion) throws BusinessException{
         try {
-            JSONObject params = dataQuery.getRequestParams();
-            String javaCode = dataQuery.getServiceSql().getJavaScript();
-
-            Interpreter interpreter = new Interpreter();
-            interpreter.eval(javaCode);
-            String param = "";
-            for(String key : params.keySet()){
-                param += (params.getString(key) + ",");
-            }
-
-            if(param.endsWith(",")){
-                param = param.substring(0,param.length()-1);
-            }
+            JavaScriptPlan javaScriptPlan = QueryPlanCache.getJavaScriptPlan(dataQuery.getServiceSql(), serviceSqlVersion);
 
             dataQuery.setResponseInfo(DataTransactionFactory.createBusinessResponseJson(ResponseConstant.RESULT_CODE_SUCCESS,
-                    "成功",JSONObject.parseObject(interpreter.eval("execute("+param+")").toString())));
+                    "成功",JSONObject.parseObject(javaScriptPlan.execute(dataQuery.getRequestParams()).toString())));
         }catch (Exception e){
             logger.error("数据交互异常：",e);
             throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"数据交互异常。。。");
@@ -189,32 +190,27 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
      "param3": "$.a.b.c.A.B#C#Array"
      },"TEMPLATE":"{}"
      }
-     * 执行sql
+     * 执行sql，模板和sql 编译成查询计划后缓存在本地，见 QueryPlanCache
      * @param dataQuery
+     * @param serviceSqlVersion ServiceSqlCache 版本号
      */
-    private void doExecuteSql(DataQuery dataQuery) throws BusinessException{
+    private void doExecuteSql(DataQuery dataQuery, String serviceSqlVersion) throws BusinessException{
 
-        JSONObject templateObj = JSONObject.parseObject(dataQuery.getServiceSql().getTemplate());
-        JSONObject templateParams = templateObj.getJSONObject("PARAM");
-        JSONObject business = JSONObject.parseObject(templateObj.getString("TEMPLATE"));
-        String template = "";
-        String[] values = null;
+        QueryPlan queryPlan = QueryPlanCache.getQueryPlan(dataQuery.getServiceSql(), serviceSqlVersion);
+        JSONObject business = queryPlan.newTemplate();
         JSONObject currentJsonObj = null;
         JSONArray currentJsonArr = null;
-        for(String key:templateParams.keySet()){
-            template = templateParams.getString(key);
-
-            values = judgeResponseTemplate(template);
+        for(QueryPlan.TemplateStep step : queryPlan.getSteps()){
 
-            Object o = JSONPath.eval(business, values[0]);
+            Object o = step.getPath().eval(business);
 
-            dataQuery.setTemplateKey(key);
+            dataQuery.setTemplateKey(step.getKey());
             if(o instanceof JSONObject){
                 currentJsonObj = (JSONObject)o;
-                doJsonObject(currentJsonObj,dataQuery,values);
+                doJsonObject(currentJsonObj,dataQuery,step);
             }else if(o instanceof JSONArray){
                 currentJsonArr = (JSONArray) o;
-                doJsonArray(currentJsonArr,dataQuery,values);
+                doJsonArray(currentJsonArr,dataQuery,step);
             }else{
                 throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，value 值 和 TEMPLATE 配置不一致");
             }
@@ -228,78 +224,103 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
      * 处理 jsonObject
      * @param obj
      * @param dataQuery
-     * @param values
+     * @param step
      */
-    private void doJsonObject(JSONObject obj,DataQuery dataQuery,String[] values){
+    private void doJsonObject(JSONObject obj,DataQuery dataQuery,QueryPlan.TemplateStep step){
+        if (step.getSqlPlan() != null && step.getSqlPlan().isKeyset()
+                && dataQuery.getRequestParams().containsKey(CommonConstant.TEMPLATE_PAGE_CURSOR)
+                && step.getSqlPlan().isKeysetColumn(dataQuery.getRequestParams().getString(CommonConstant.TEMPLATE_PAGE_KEY_COL))) {
+            doKeysetJsonObject(obj, dataQuery, step);
+            return ;
+        }
         try {
             JSONObject params = dataQuery.getRequestParams();
-            JSONObject sqlObj = JSONObject.parseObject(dataQuery.getServiceSql().getSql());
-            List<Object> currentParams = new ArrayList<Object>();
-
-            String currentSql = sqlObj.getString(dataQuery.getTemplateKey());
-            String[] sqls = currentSql.split("#");
-            String currentSqlNew = "";
-            for (int sqlIndex = 0; sqlIndex < sqls.length; sqlIndex++) {
-                if (sqlIndex % 2 == 0) {
-                    currentSqlNew += sqls[sqlIndex];
-                    continue;
-                }
-                if (sqls[sqlIndex].startsWith("PARENT_")) {
+            QueryPlan.SqlPlan sqlPlan = step.getSqlPlan();
+            if (sqlPlan == null) {
+                throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"未配置 " + dataQuery.getTemplateKey() + " 对应的sql");
+            }
+            List<Object> currentParams = new ArrayList<Object>(sqlPlan.getParamCount());
+            //上级节点中没有对应参数时，该参数不拼接?，需要重新拼接sql
+            StringBuilder currentSqlNew = null;
+            for (int paramIndex = 0; paramIndex < sqlPlan.getParamCount(); paramIndex++) {
+                String paramName = sqlPlan.getParamName(paramIndex);
+                if (sqlPlan.isParentParam(paramIndex)) {
                     if(obj.isEmpty()){
-                        currentSqlNew += "?";
                         currentParams.add("''");
-                        continue;
-                    }
-                    for (String key : obj.keySet()) {
-                        if (sqls[sqlIndex].substring("PARENT_".length()).equals(key)) {
-                            /*currentSqlNew += obj.get(key) instanceof Integer
-                                    ? obj.getInteger(key) : "'" + obj.getString(key) + "'";*/
-                            currentSqlNew += "?";
-                            currentParams.add(obj.get(key) instanceof Integer
-                                    ? obj.getInteger(key) : "" + obj.getString(key) + "");
-                            continue;
+                    }else if(obj.containsKey(paramName)){
+                        currentParams.add(getParentParam(obj, paramName));
+                    }else{
+                        if(currentSqlNew == null){
+                            currentSqlNew = rebuildSql(sqlPlan, paramIndex);
                         }
+                        currentSqlNew.append(sqlPlan.getFragment(paramIndex + 1));
+                        continue;
                     }
                 } else {
-                    currentSqlNew += "?";
-                    Object param =  params.getString(sqls[sqlIndex]);
-                    if(params.get(sqls[sqlIndex]) instanceof Integer){
-                        param = params.getInteger(sqls[sqlIndex]);
-                    }
-                   //这里对 page 和 rows 特殊处理 ，目前没有想到其他的办法
-                    if(StringUtils.isNumeric(param.toString()) && "page,rows".contains(sqls[sqlIndex])){
-                        param = Integer.parseInt(param.toString());
-                    }
-                    currentParams.add(param);
-                    //currentSqlNew += params.get(sqls[sqlIndex]) instanceof Integer ? params.getInteger(sqls[sqlIndex]) : "'" + params.getString(sqls[sqlIndex]) + "'";
+                    currentParams.add(getRequestParam(params, sqlPlan, paramIndex));
+                }
+                if(currentSqlNew != null){
+                    currentSqlNew.append("?").append(sqlPlan.getFragment(paramIndex + 1));
                 }
             }
 
-            List<Map<String,Object>> results = queryServiceDAOImpl.executeSql(currentSqlNew, currentParams.toArray());
+            JSONArray results = queryServiceDAOImpl.executeSql(
+                    currentSqlNew == null ? sqlPlan.getSql() : currentSqlNew.toString(), currentParams.toArray());
 
-            if (results == null || results.size() == 0) {
-                if(StringUtil.isNullOrNone(values[1])){
-                    return ;
-                }
-                obj.put(values[1], values[2].equals("Object")?new JSONObject():new JSONArray());
-                return;
+            putResults(obj, step, results);
+        }catch (Exception e){
+            logger.error("数据交互异常：",e);
+            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"数据交互异常。。。");
+        }
+    }
+
+    /**
+     * keyset 分页查询，请求中有 cursor 和 keyCol(主键列) 时按上一页最后一行往后查，不再 limit 偏移，
+     * 查询结果满一页时在节点中返回下一页的游标 nextCursor，否则 nextCursor 为空
+     * @param obj
+     * @param dataQuery
+     * @param step
+     */
+    private void doKeysetJsonObject(JSONObject obj,DataQuery dataQuery,QueryPlan.TemplateStep step){
+        JSONObject params = dataQuery.getRequestParams();
+        QueryPlan.SqlPlan sqlPlan = step.getSqlPlan();
+        QueryPlan.KeysetOrder order = sqlPlan.getKeysetOrder(params.getString(CommonConstant.TEMPLATE_PAGE_KEY_COL),
+                params.getString(CommonConstant.TEMPLATE_PAGE_SIDX),
+                "desc".equalsIgnoreCase(params.getString(CommonConstant.TEMPLATE_PAGE_SORD)));
+        KeysetCursor cursor = KeysetCursor.decode(params.getString(CommonConstant.TEMPLATE_PAGE_CURSOR));
+        //排序变了 从第一页开始
+        if(cursor != null && !cursor.isSameOrder(order)){
+            cursor = null;
+        }
+        //最后两个参数是 page rows
+        int rowsIndex = sqlPlan.getParamCount() - 1;
+        List<Object> currentParams = new ArrayList<Object>(sqlPlan.getParamCount() + order.size() * (order.size() + 1) / 2);
+        for (int paramIndex = 0; paramIndex < rowsIndex - 1; paramIndex++) {
+            currentParams.add(getRequestParam(params, sqlPlan, paramIndex));
+        }
+        if(cursor != null){
+            for (int columnIndex = 0; columnIndex < order.size(); columnIndex++) {
+                currentParams.addAll(cursor.getValues().subList(0, columnIndex + 1));
             }
-            if (values[2].equals("Object")) {
-                if(StringUtil.isNullOrNone(values[1])){
-                    obj.putAll(JSONObject.parseObject(JSONObject.toJSONString(results.get(0))));
-                    return ;
-                }
-                obj.put(values[1], JSONObject.parseObject(JSONObject.toJSONString(results.get(0))));
-            } else if (values[2].equals("Array")) {
-                if(StringUtil.isNullOrNone(values[1])){
-                    JSONArray datas = JSONArray.parseArray(JSONArray.toJSONString(results));
-                    for(int dataIndex = 0;dataIndex < datas.size();dataIndex ++){
-                        obj.putAll(datas.getJSONObject(dataIndex));
-                    }
-                    return ;
+        }
+        Object rows = getRequestParam(params, sqlPlan, rowsIndex);
+        currentParams.add(rows);
+        try {
+            Map<String,Integer> columnTypes = new HashMap<String,Integer>();
+            JSONArray results = queryServiceDAOImpl.executeSql(
+                    sqlPlan.getKeysetSql(order, cursor != null), currentParams.toArray(), columnTypes);
+            String nextCursor = "";
+            if(results != null && results.size() > 0 && String.valueOf(results.size()).equals(rows.toString())){
+                JSONObject lastResult = results.getJSONObject(results.size() - 1);
+                List<Object> lastValues = new ArrayList<Object>(order.size());
+                for (int columnIndex = 0; columnIndex < order.size(); columnIndex++) {
+                    String column = order.getColumn(columnIndex);
+                    lastValues.add(KeysetCursor.toCursorValue(lastResult.get(column), columnTypes.get(column)));
                 }
-                obj.put(values[1], JSONArray.parseArray(JSONArray.toJSONString(results)));
+                nextCursor = KeysetCursor.encode(order, lastValues);
             }
+            putResults(obj, step, results);
+            obj.put(CommonConstant.TEMPLATE_PAGE_NEXT_CURSOR, nextCursor);
         }catch (Exception e){
             logger.error("数据交互异常：",e);
             throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"数据交互异常。。。");
@@ -307,64 +328,303 @@ public class QueryServiceSMOImpl extends LoggerEngine implements IQueryServiceSM
     }
 
     /**
-     * 处理JSONArray
+     * 上级节点中的参数
+     * @param obj 上级节点
+     * @param paramName 参数名称
+     * @return
+     */
+    private Object getParentParam(JSONObject obj, String paramName){
+        Object value = obj.get(paramName);
+        return value instanceof Integer || value instanceof Long
+                ? value : "" + obj.getString(paramName) + "";
+    }
+
+    /**
+     * 请求报文中的参数
+     * @param params 请求参数
+     * @param sqlPlan
+     * @param paramIndex
+     * @return
+     */
+    private Object getRequestParam(JSONObject params, QueryPlan.SqlPlan sqlPlan, int paramIndex){
+        String paramName = sqlPlan.getParamName(paramIndex);
+        Object param =  params.getString(paramName);
+        if(params.get(paramName) instanceof Integer){
+            param = params.getInteger(paramName);
+        }
+        //这里对 page 和 rows 特殊处理 ，目前没有想到其他的办法
+        if(StringUtils.isNumeric(param.toString()) && sqlPlan.isPageParam(paramIndex)){
+            param = Integer.parseInt(param.toString());
+        }
+        return param;
+    }
+
+    /**
+     * 查询结果放入节点，查询结果的行直接放入，不再复制
+     * @param obj 节点
+     * @param step
+     * @param results 查询结果
+     */
+    private void putResults(JSONObject obj, QueryPlan.TemplateStep step, JSONArray results){
+        String valueKey = step.getValueKey();
+        String valueType = step.getValueType();
+        if (results == null || results.size() == 0) {
+            if(StringUtil.isNullOrNone(valueKey)){
+                return ;
+            }
+            obj.put(valueKey, valueType.equals("Object")?new JSONObject():new JSONArray());
+            return;
+        }
+        if (valueType.equals("Object")) {
+            if(StringUtil.isNullOrNone(valueKey)){
+                obj.putAll(results.getJSONObject(0));
+                return ;
+            }
+            obj.put(valueKey, results.getJSONObject(0));
+        } else if (valueType.equals("Array")) {
+            if(StringUtil.isNullOrNone(valueKey)){
+                for(int dataIndex = 0;dataIndex < results.size();dataIndex ++){
+                    obj.putAll(results.getJSONObject(dataIndex));
+                }
+                return ;
+            }
+            obj.put(valueKey, results);
+        }
+    }
+
+    /**
+     * 拼接 paramIndex 之前的sql，paramIndex 对应的参数不拼接
+     * @param sqlPlan
+     * @param paramIndex
+     * @return
+     */
+    private StringBuilder rebuildSql(QueryPlan.SqlPlan sqlPlan, int paramIndex){
+        StringBuilder sql = new StringBuilder(sqlPlan.getFragment(0));
+        for (int index = 0; index < paramIndex; index++) {
+            sql.append("?").append(sqlPlan.getFragment(index + 1));
+        }
+        return sql;
+    }
+
+    /**
+     * 处理JSONArray，sql 可以批量查询时(见 QueryPlan.SqlPlan)所有节点一起查询
      * @param objs
      * @param dataQuery
-     * @param values
+     * @param step
      */
-    private void doJsonArray(JSONArray objs,DataQuery dataQuery,String[] values){
+    private void doJsonArray(JSONArray objs,DataQuery dataQuery,QueryPlan.TemplateStep step){
 
+        QueryPlan.SqlPlan sqlPlan = step.getSqlPlan();
+        if(sqlPlan != null && sqlPlan.isBatch() && objs.size() > 1){
+            doBatchJsonArray(objs,dataQuery,step);
+            return ;
+        }
         for (int objIndex = 0 ; objIndex < objs.size();objIndex ++){
-            doJsonObject(objs.getJSONObject(objIndex),dataQuery,values);
+            doJsonObject(objs.getJSONObject(objIndex),dataQuery,step);
         }
 
     }
 
     /**
-     * 执行存储
+     * 批量处理JSONArray，上级参数用 in 一次查询(超过 QueryPlan.BATCH_MAX_SIZE 个时分多次)，查询结果按上级参数分回每个节点
+     * 节点为空或者没有上级参数时和原来一样单独查询，批量查询失败时逐个节点查询
+     * @param objs
      * @param dataQuery
+     * @param step
      */
-    private void doExecuteUpdateProc(DataQuery dataQuery){
-        Map info = new TreeMap();
-        info.put("procName",dataQuery.getServiceSql().getProc());
-        JSONObject params = dataQuery.getRequestParams();
-        info.putAll(params);
+    private void doBatchJsonArray(JSONArray objs,DataQuery dataQuery,QueryPlan.TemplateStep step){
+        QueryPlan.SqlPlan sqlPlan = step.getSqlPlan();
+        String paramName = sqlPlan.getParamName(sqlPlan.getBatchParamIndex());
+        //上级参数 和 参数相同的节点
+        Map<Object,List<JSONObject>> parentObjs = new LinkedHashMap<Object,List<JSONObject>>();
+        for (int objIndex = 0 ; objIndex < objs.size();objIndex ++){
+            JSONObject obj = objs.getJSONObject(objIndex);
+            if(obj.isEmpty() || !obj.containsKey(paramName)){
+                doJsonObject(obj,dataQuery,step);
+                continue;
+            }
+            Object parentParam = getParentParam(obj, paramName);
+            List<JSONObject> sameParamObjs = parentObjs.get(parentParam);
+            if(sameParamObjs == null){
+                sameParamObjs = new ArrayList<JSONObject>();
+                parentObjs.put(parentParam, sameParamObjs);
+            }
+            sameParamObjs.add(obj);
+        }
 
-        String jsonStr = queryServiceDAOImpl.updateProc(info);
+        List<Object> parentParams = new ArrayList<Object>(parentObjs.keySet());
+        for(int fromIndex = 0; fromIndex < parentParams.size(); fromIndex += QueryPlan.BATCH_MAX_SIZE){
+            List<Object> currentParentParams = parentParams.subList(fromIndex, Math.min(parentParams.size(), fromIndex + QueryPlan.BATCH_MAX_SIZE));
+            try {
+                Map<Object,JSONArray> batchResults = doBatchQuery(dataQuery, sqlPlan, currentParentParams);
+                if(batchResults != null) {
+                    for (Object parentParam : currentParentParams) {
+                        List<JSONObject> sameParamObjs = parentObjs.get(parentParam);
+                        for (int objIndex = 0; objIndex < sameParamObjs.size(); objIndex++) {
+                            //同一行不能放入多个节点，否则输出时会被序列化成 $ref
+                            JSONArray results = batchResults.get(parentParam);
+                            putResults(sameParamObjs.get(objIndex), step, objIndex == 0 ? results : copyRows(results));
+                        }
+                    }
+                    continue;
+                }
+            }catch (Exception e){
+                logger.error("数据交互异常：",e);
+                throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"数据交互异常。。。");
+            }
+            for (Object parentParam : currentParentParams) {
+                for (JSONObject obj : parentObjs.get(parentParam)) {
+                    doJsonObject(obj,dataQuery,step);
+                }
+            }
+        }
+    }
 
-        if(!Assert.isJsonObject(jsonStr)){
-            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"存储过程 procName = " + dataQuery.getServiceSql().getProc() + " 返回结果不是Json格式");
+    /**
+     * 批量查询，查询结果按上级参数分组
+     * 上级参数列的值和上级参数精确匹配：数字按数值相等，字符串完全相等，
+     * 数字和数字形式的字符串之间按数值相等(如 varchar 上级参数 "123" 和 bigint 列的 123，和数据库类型转换后比较一致)，
+     * 有一行匹配不到上级参数(数据库按排序规则或类型转换匹配，如忽略大小写)时不使用批量结果，逐个节点查询
+     * @param dataQuery
+     * @param sqlPlan
+     * @param parentParams 上级参数
+     * @return 上级参数 和 对应的查询结果，批量查询失败、上级参数列不是数字或字符串、或者有行匹配不到上级参数时返回null
+     */
+    private Map<Object,JSONArray> doBatchQuery(DataQuery dataQuery, QueryPlan.SqlPlan sqlPlan, List<Object> parentParams){
+        List<Object> currentParams = new ArrayList<Object>(sqlPlan.getParamCount() + parentParams.size());
+        for (int paramIndex = 0; paramIndex < sqlPlan.getParamCount(); paramIndex++) {
+            if(paramIndex == sqlPlan.getBatchParamIndex()){
+                currentParams.addAll(parentParams);
+            }else{
+                currentParams.add(getRequestParam(dataQuery.getRequestParams(), sqlPlan, paramIndex));
+            }
+        }
+        JSONArray results = queryServiceDAOImpl.executeSql(
+                sqlPlan.getBatchSql(parentParams.size()), currentParams.toArray());
+        if(results == null){
+            logger.error("批量查询失败，逐个节点查询 templateKey = {}", dataQuery.getTemplateKey());
+            return null;
         }
 
-        dataQuery.setResponseInfo(DataTransactionFactory.createBusinessResponseJson(ResponseConstant.RESULT_CODE_SUCCESS,
-                "成功",JSONObject.parseObject(jsonStr)));
+        //列值是数字时匹配的上级参数：数字 和 数字形式的字符串
+        Map<String,List<Object>> numberParams = new HashMap<String,List<Object>>();
+        //列值是字符串时匹配的上级参数：完全相等的字符串，列值是数字形式时还有数值相等的数字
+        Map<String,List<Object>> stringParams = new HashMap<String,List<Object>>();
+        Map<String,List<Object>> numberOnlyParams = new HashMap<String,List<Object>>();
+        Map<Object,JSONArray> batchResults = new HashMap<Object,JSONArray>();
+        for(Object parentParam : parentParams){
+            if(parentParam instanceof Number){
+                String numberKey = getNumberBatchKey((Number) parentParam);
+                addBatchParam(numberParams, numberKey, parentParam);
+                addBatchParam(numberOnlyParams, numberKey, parentParam);
+            }else{
+                String numberKey = getNumberBatchKey(parentParam.toString());
+                if(numberKey != null){
+                    addBatchParam(numberParams, numberKey, parentParam);
+                }
+                addBatchParam(stringParams, parentParam.toString(), parentParam);
+            }
+            batchResults.put(parentParam, new JSONArray());
+        }
+        for(int resultIndex = 0; resultIndex < results.size(); resultIndex++){
+            JSONObject result = results.getJSONObject(resultIndex);
+            Object batchValue = result.remove(QueryPlan.BATCH_KEY);
+            List<Object> matchParams = null;
+            if(batchValue instanceof Number){
+                matchParams = numberParams.get(getNumberBatchKey((Number) batchValue));
+            }else if(batchValue instanceof String){
+                matchParams = stringParams.get(batchValue);
+                String numberKey = getNumberBatchKey((String) batchValue);
+                List<Object> numberMatchParams = numberKey == null ? null : numberOnlyParams.get(numberKey);
+                if(numberMatchParams != null){
+                    if(matchParams == null){
+                        matchParams = numberMatchParams;
+                    }else{
+                        matchParams = new ArrayList<Object>(matchParams);
+                        matchParams.addAll(numberMatchParams);
+                    }
+                }
+            }else{
+                logger.debug("上级参数列类型不支持批量查询，逐个节点查询 templateKey = {}", dataQuery.getTemplateKey());
+                return null;
+            }
+            if(matchParams == null){
+                logger.debug("上级参数列的值 {} 和上级参数不完全相等，逐个节点查询 templateKey = {}", batchValue, dataQuery.getTemplateKey());
+                return null;
+            }
+            for(int matchIndex = 0; matchIndex < matchParams.size(); matchIndex++){
+                batchResults.get(matchParams.get(matchIndex)).add(matchIndex == 0 ? result : result.clone());
+            }
+        }
+        return batchResults;
     }
 
-
     /**
-     * 校验 返回模板
-     * @param template
+     * 复制查询结果，列值不可变，每行浅复制即可
+     * @param rows 查询结果
      * @return
-     * @throws BusinessException
      */
-    private String[] judgeResponseTemplate(String template) throws BusinessException{
-
+    private JSONArray copyRows(JSONArray rows){
+        JSONArray copyRows = new JSONArray(rows.size());
+        for(int rowIndex = 0; rowIndex < rows.size(); rowIndex++){
+            copyRows.add(rows.getJSONObject(rowIndex).clone());
+        }
+        return copyRows;
+    }
 
-        if(!template.startsWith("$.")){
-            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，value 必须以$.开头");
+    private void addBatchParam(Map<String,List<Object>> batchParams, String batchKey, Object parentParam){
+        List<Object> sameKeyParams = batchParams.get(batchKey);
+        if(sameKeyParams == null){
+            sameKeyParams = new ArrayList<Object>();
+            batchParams.put(batchKey, sameKeyParams);
         }
+        sameKeyParams.add(parentParam);
+    }
 
-        String[] values = template.split("#");
+    /**
+     * 数字比较时的key，数值相等的数字 key 相同，如 Integer 1 和 Long 1
+     * @param value
+     * @return
+     */
+    private String getNumberBatchKey(Number value){
+        try {
+            return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+        }catch (NumberFormatException e){
+            //NaN Infinity
+            return value.toString();
+        }
+    }
 
-        if(values == null || values.length != 3){
-            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，value 必须有两个#号");
+    /**
+     * 数字形式的字符串 按数值比较时的key，如 "0123" 和 123 key 相同
+     * @param value
+     * @return 不是数字形式时返回null
+     */
+    private String getNumberBatchKey(String value){
+        if(!NUMBER_PATTERN.matcher(value).matches()){
+            return null;
         }
+        return new BigDecimal(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 执行存储
+     * @param dataQuery
+     */
+    private void doExecuteUpdateProc(DataQuery dataQuery){
+        Map info = new TreeMap();
+        info.put("procName",dataQuery.getServiceSql().getProc());
+        JSONObject params = dataQuery.getRequestParams();
+        info.putAll(params);
+
+        String jsonStr = queryServiceDAOImpl.updateProc(info);
 
-        if(StringUtil.isNullOrNone(values[1]) && !"$.##Object".equals(template) && !"$.##Array".equals(template)){
-            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"template 配置 不正确，目前只支持 $.##Object 和 $.##Array ");
+        if(!Assert.isJsonObject(jsonStr)){
+            throw new BusinessException(ResponseConstant.RESULT_CODE_INNER_ERROR,"存储过程 procName = " + dataQuery.getServiceSql().getProc() + " 返回结果不是Json格式");
         }
 
-        return values;
+        dataQuery.setResponseInfo(DataTransactionFactory.createBusinessResponseJson(ResponseConstant.RESULT_CODE_SUCCESS,
+                "成功",JSONObject.parseObject(jsonStr)));
     }
 
 
@@ -0,0 +1,116 @@
+package com.java110.service.dao.impl;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import junit.framework.TestCase;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * executeSql 结果封装测试，使用 H2 内存库(MySQL 模式)，
+ * 和原来 Map 转 JSON 字符串再解析的结果保持一致
+ * Created by wuxw on 2018/4/20.
+ */
+public class QueryServiceDAOImplTest extends TestCase {
+
+    private final static long CREATE_TIME = Timestamp.valueOf("2018-04-20 12:30:45.123").getTime();
+
+    private QueryServiceDAOImpl queryServiceDAOImpl;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    protected void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + getName() + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=FALSE");
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            statement.execute("create table u_user(user_id varchar(30) not null, name varchar(50), age int,"
+                    + " create_time timestamp, birthday date)");
+            statement.execute("create table u_user_attr(user_id varchar(30) not null, name varchar(50))");
+            statement.execute("insert into u_user values('U1','张三',18,'2018-04-20 12:30:45.123','2000-01-02')");
+            statement.execute("insert into u_user values('U2',null,null,null,null)");
+            statement.execute("insert into u_user_attr values('U1','属性')");
+            statement.close();
+        } finally {
+            conn.close();
+        }
+
+        Configuration configuration = new Configuration(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        queryServiceDAOImpl = new QueryServiceDAOImpl();
+        queryServiceDAOImpl.setSessionTemplate(new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * 列名重复时取第一列
+     */
+    public void testDuplicateLabelFirstWins() {
+        JSONArray rows = executeSql("select u.user_id,u.name,a.name from u_user u,u_user_attr a where u.user_id = a.user_id", null);
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.getJSONObject(0).size());
+        assertEquals("张三", rows.getJSONObject(0).getString("name"));
+    }
+
+    /**
+     * 时间转为毫秒数，空值转为空字符串
+     */
+    public void testTemporalAndNullValues() {
+        JSONArray rows = executeSql("select user_id,name,age,create_time,birthday from u_user where user_id = ?", new Object[]{"U1"});
+        JSONObject row = rows.getJSONObject(0);
+        assertEquals(Long.valueOf(CREATE_TIME), row.get("create_time"));
+        assertEquals(Long.valueOf(java.sql.Date.valueOf("2000-01-02").getTime()), row.get("birthday"));
+        assertEquals("" + CREATE_TIME, row.getString("create_time"));
+        assertEquals(18, row.get("age"));
+
+        row = executeSql("select user_id,name,age,create_time,birthday from u_user where user_id = ?", new Object[]{"U2"}).getJSONObject(0);
+        assertEquals("", row.get("name"));
+        assertEquals("", row.get("age"));
+        assertEquals("", row.get("create_time"));
+    }
+
+    /**
+     * 和原来 Map 转 JSON 字符串再解析后的值一致，作为下一条sql 的参数时不变
+     */
+    public void testSameAsJsonRoundTrip() {
+        JSONObject row = executeSql("select user_id,name,age,create_time from u_user where user_id = ?", new Object[]{"U1"}).getJSONObject(0);
+        //原来每行是 rs.getObject 取到的原始值
+        Map<String, Object> rawRow = new HashMap<String, Object>();
+        rawRow.put("user_id", "U1");
+        rawRow.put("name", "张三");
+        rawRow.put("age", 18);
+        rawRow.put("create_time", new Timestamp(CREATE_TIME));
+        JSONObject roundTrip = JSONObject.parseObject(JSONObject.toJSONString(rawRow));
+        assertEquals(roundTrip.getLongValue("create_time"), row.getLongValue("create_time"));
+        assertEquals(roundTrip.getString("create_time"), row.getString("create_time"));
+        assertEquals(roundTrip.getString("name"), row.getString("name"));
+        assertEquals(roundTrip.get("age"), row.get("age"));
+
+        JSONArray byTime = executeSql("select user_id from u_user where create_time = ?", new Object[]{new Timestamp(row.getLongValue("create_time"))});
+        assertEquals("U1", byTime.getJSONObject(0).getString("user_id"));
+    }
+
+    private JSONArray executeSql(final String sql, final Object[] params) {
+        return transactionTemplate.execute(new TransactionCallback<JSONArray>() {
+            @Override
+            public JSONArray doInTransaction(TransactionStatus status) {
+                return queryServiceDAOImpl.executeSql(sql, params);
+            }
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.java110.service.plan;
+
+import bsh.Interpreter;
+import com.alibaba.fastjson.JSONObject;
+import com.java110.entity.service.ServiceSql;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * java 脚本执行计划测试，结果以原来每次新建 Interpreter 拼接 execute(a,b) 的方式为准
+ * Created by wuxw on 2018/4/23.
+ */
+public class JavaScriptPlanTest extends TestCase {
+
+    private static final String JAVA_CODE = "public int add(int a, int b){" +
+            "int sum = a;" +
+            "for(int i = 0; i < b; i++){ sum++; }" +
+            "return sum;" +
+            "}" +
+            "public String execute(int a,int b){" +
+            "return \"{\\\"sum\\\":\" + add(a,b) + \"}\";" +
+            "}" +
+            "public String execute(String name,double rate,boolean flag){" +
+            "return \"{\\\"name\\\":\\\"\" + name + \"\\\",\\\"rate\\\":\" + rate + \",\\\"flag\\\":\" + flag + \"}\";" +
+            "}";
+
+    private JavaScriptPlan compile(String javaCode) {
+        ServiceSql serviceSql = new ServiceSql();
+        serviceSql.setServiceCode("query.test.javaScript");
+        serviceSql.setJavaScript(javaCode);
+        return JavaScriptPlan.compile(serviceSql, "1");
+    }
+
+    /**
+     * 请求参数，按放入的顺序作为 execute 的参数
+     */
+    private JSONObject params(Object... keyValues) {
+        JSONObject params = new JSONObject(true);
+        for (int index = 0; index < keyValues.length; index += 2) {
+            params.put((String) keyValues[index], keyValues[index + 1]);
+        }
+        return params;
+    }
+
+    private Object oldExecute(String javaCode, JSONObject params) throws Exception {
+        Interpreter interpreter = new Interpreter();
+        interpreter.eval(javaCode);
+        String param = "";
+        for (String key : params.keySet()) {
+            param += (params.getString(key) + ",");
+        }
+        if (param.endsWith(",")) {
+            param = param.substring(0, param.length() - 1);
+        }
+        return interpreter.eval("execute(" + param + ")");
+    }
+
+    public void testSameAsInterpreter() throws Exception {
+        JavaScriptPlan javaScriptPlan = compile(JAVA_CODE);
+        JSONObject[] paramsList = {
+                params("a", "9", "b", "4"),
+                params("a", 9, "b", -4),
+                params("name", "\"wuxw\"", "rate", "1.5", "flag", "true"),
+                params("name", "null", "rate", 2, "flag", false)
+        };
+        for (JSONObject params : paramsList) {
+            assertEquals(params.toJSONString(), oldExecute(JAVA_CODE, params).toString(),
+                    javaScriptPlan.execute(params).toString());
+        }
+    }
+
+    public void testArgument() {
+        assertEquals("abc", JavaScriptPlan.toArgument("abc"));
+        assertEquals("12345678901234567890", JavaScriptPlan.toArgument("12345678901234567890"));
+        assertEquals(Long.class, ((bsh.Primitive) JavaScriptPlan.toArgument("12345678901")).getValue().getClass());
+        assertEquals(Integer.class, ((bsh.Primitive) JavaScriptPlan.toArgument("-12")).getValue().getClass());
+        assertEquals(Double.class, ((bsh.Primitive) JavaScriptPlan.toArgument(".5")).getValue().getClass());
+    }
+
+    /**
+     * 多线程同时执行同一个计划，方法的局部变量互不影响
+     */
+    public void testConcurrentExecute() throws Exception {
+        final JavaScriptPlan javaScriptPlan = compile(JAVA_CODE);
+        final int threads = 16;
+        final int loops = 2000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger errors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < loops; i++) {
+                            JSONObject params = params("a", String.valueOf(seed * loops + i), "b", String.valueOf(i % 50));
+                            JSONObject result = JSONObject.parseObject(javaScriptPlan.execute(params).toString());
+                            if (result.getIntValue("sum") != seed * loops + i + i % 50) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        assertEquals(0, errors.get());
+    }
+}
@@ -0,0 +1,165 @@
+package com.java110.service.plan;
+
+import junit.framework.TestCase;
+
+/**
+ * 查询计划测试，主要是批量查询sql 的生成
+ * Created by wuxw on 2018/4/23.
+ */
+public class QueryPlanTest extends TestCase {
+
+    public void testBatchSql() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "select t.* from s_room t where t.community_id = #communityId# and t.floor_id = #PARENT_floorId# order by t.room_num");
+        assertTrue(sqlPlan.isBatch());
+        assertEquals(1, sqlPlan.getBatchParamIndex());
+        assertEquals("floorId", sqlPlan.getParamName(1));
+        assertEquals("select t.* , t.floor_id as " + QueryPlan.BATCH_KEY
+                        + " from s_room t where t.community_id = ? and t.floor_id in (?,?,?) order by t.room_num",
+                sqlPlan.getBatchSql(3));
+        assertEquals("select t.* from s_room t where t.community_id = ? and t.floor_id = ? order by t.room_num", sqlPlan.getSql());
+    }
+
+    public void testBatchSqlFirstParam() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "select a.name,(select count(1) from b where b.a_id = a.id) from a where a.p_id=#PARENT_pId#");
+        //子查询中有 count 不批量
+        assertFalse(sqlPlan.isBatch());
+
+        sqlPlan = QueryPlan.SqlPlan.compile("select a.name from a where a.p_id=#PARENT_pId# and a.status_cd = '0'");
+        assertTrue(sqlPlan.isBatch());
+        assertEquals("select a.name , a.p_id as " + QueryPlan.BATCH_KEY + " from a where a.p_id in (?) and a.status_cd = '0'",
+                sqlPlan.getBatchSql(1));
+    }
+
+    public void testNoBatch() {
+        String[] sqls = {
+                //没有上级参数
+                "select * from a where a.id = #id#",
+                //两个上级参数
+                "select * from a where a.id = #PARENT_id# and a.b = #PARENT_b#",
+                //分页
+                "select * from a where a.id = #PARENT_id# limit #page#,#rows#",
+                "select * from a where a.id = #PARENT_id# limit 1",
+                //or
+                "select * from a where a.b = 1 or a.id = #PARENT_id#",
+                //子查询中
+                "select * from a where a.id in (select b.a_id from b where b.c = #PARENT_c#)",
+                //不是 =
+                "select * from a where a.id >= #PARENT_id#",
+                "select * from a where a.id like #PARENT_id#",
+                //join 的 on 中
+                "select * from a left join b on a.id = b.a_id and b.c = #PARENT_c# where a.d = 1",
+                "select distinct a.id from a where a.id = #PARENT_id#",
+                "select a.b, sum(a.c) from a where a.id = #PARENT_id# group by a.b",
+                "select * from a where a.id = '#PARENT_id#'"
+        };
+        for (String sql : sqls) {
+            assertFalse(sql, QueryPlan.SqlPlan.compile(sql).isBatch());
+        }
+    }
+
+    public void testQuoted() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "select * from a where a.name = 'a or (b' and a.id = #PARENT_id#");
+        assertTrue(sqlPlan.isBatch());
+        assertEquals("select * , a.id as " + QueryPlan.BATCH_KEY + " from a where a.name = 'a or (b' and a.id in (?,?)",
+                sqlPlan.getBatchSql(2));
+    }
+
+    public void testKeysetSql() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "SELECT m.`id` id,m.`domain` domain,m.name name,m.`key` `key` FROM c_mapping m WHERE m.`status_cd` = #statusCd# or m.b = 1 LIMIT #page#, #rows#");
+        assertTrue(sqlPlan.isKeyset());
+        assertTrue(sqlPlan.isKeysetColumn("id"));
+        assertFalse(sqlPlan.isKeysetColumn("m.name"));
+        assertFalse(sqlPlan.isKeysetColumn(null));
+        assertEquals("id asc", sqlPlan.getKeysetOrder("id", null, false).toString());
+        assertEquals("id desc", sqlPlan.getKeysetOrder("id", "m.name", true).toString());
+        assertEquals("SELECT m.`id` id,m.`domain` domain,m.name name,m.`key` `key` FROM c_mapping m WHERE ( m.`status_cd` = ? or m.b = 1)"
+                        + " order by m.`id` asc limit ?",
+                sqlPlan.getKeysetSql(sqlPlan.getKeysetOrder("id", null, false), false));
+        assertEquals("SELECT m.`id` id,m.`domain` domain,m.name name,m.`key` `key` FROM c_mapping m WHERE ( m.`status_cd` = ? or m.b = 1)"
+                        + " and (m.`id` < ?) order by m.`id` desc limit ?",
+                sqlPlan.getKeysetSql(sqlPlan.getKeysetOrder("id", "id", true), true));
+        assertEquals("SELECT m.`id` id,m.`domain` domain,m.name name,m.`key` `key` FROM c_mapping m WHERE ( m.`status_cd` = ? or m.b = 1)"
+                        + " and (m.`key` > ? or (m.`key` = ? and m.`id` > ?)) order by m.`key` asc, m.`id` asc limit ?",
+                sqlPlan.getKeysetSql(sqlPlan.getKeysetOrder("id", "key", false), true));
+    }
+
+    /**
+     * 主键不是第一列时按指定的主键
+     */
+    public void testKeysetKeyColumn() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "select t.name as userName, t.user_id userId from u_user t where t.status_cd = '0' limit #page#,#rows#");
+        assertTrue(sqlPlan.isKeyset());
+        assertEquals("select t.name as userName, t.user_id userId from u_user t where ( t.status_cd = '0')"
+                        + " and (t.name > ? or (t.name = ? and t.user_id > ?)) order by t.name asc, t.user_id asc limit ?",
+                sqlPlan.getKeysetSql(sqlPlan.getKeysetOrder("userId", "userName", false), true));
+    }
+
+    /**
+     * sql 中的 order by 保留，排在 sidx 之后、主键之前
+     */
+    public void testKeysetKeepOrderBy() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "select t.user_id userId, (select count(1) from b where b.u = t.user_id) cnt, t.name as userName, t.create_time createTime, t.*"
+                        + " from u_user t order by t.create_time desc, userName limit #page#,#rows#");
+        assertTrue(sqlPlan.isKeyset());
+        QueryPlan.KeysetOrder order = sqlPlan.getKeysetOrder("userId", null, false);
+        assertEquals("createTime desc,userName asc,userId asc", order.toString());
+        assertEquals("select t.user_id userId, (select count(1) from b where b.u = t.user_id) cnt, t.name as userName, t.create_time createTime, t.*"
+                        + " from u_user t where (t.create_time < ? or (t.create_time = ? and t.name > ?)"
+                        + " or (t.create_time = ? and t.name = ? and t.user_id > ?))"
+                        + " order by t.create_time desc, t.name asc, t.user_id asc limit ?",
+                sqlPlan.getKeysetSql(order, true));
+        assertEquals("select t.user_id userId, (select count(1) from b where b.u = t.user_id) cnt, t.name as userName, t.create_time createTime, t.*"
+                        + " from u_user t order by (select count(1) from b where b.u = t.user_id) desc, t.create_time desc, t.name asc, t.user_id desc limit ?",
+                sqlPlan.getKeysetSql(sqlPlan.getKeysetOrder("userId", "cnt", true), false));
+        //sidx 和 order by 中的列重复时按 sidx 的排序方式
+        assertEquals("userName desc,createTime desc,userId desc", sqlPlan.getKeysetOrder("userId", "userName", true).toString());
+        //order by 中有主键时，主键之后的列不再排序
+        assertEquals("createTime desc,userName asc", sqlPlan.getKeysetOrder("userName", null, false).toString());
+    }
+
+    public void testNoKeyset() {
+        String[] sqls = {
+                "select count(1) records,ceil(#page#/#rows#)+1 page from c_mapping m where m.status_cd = '0'",
+                "select * from a where a.id = #id# limit #page#,#rows#",
+                "select a.id id from a where a.id = #PARENT_id# limit #page#,#rows#",
+                "select a.id id from a limit #rows#",
+                "select a.id id from a limit #page#,#rows# for update",
+                "select a.b b, count(1) c from a group by a.b limit #page#,#rows#",
+                "select a.id id from a union select b.id id from b limit #page#,#rows#",
+                "select a.id id from a order by #sord# limit #page#,#rows#",
+                //order by 的列不在 select 中，取不到最后一行的值
+                "select t.user_id, t.* from u_user t order by t.create_time desc limit #page#,#rows#"
+        };
+        for (String sql : sqls) {
+            assertFalse(sql, QueryPlan.SqlPlan.compile(sql).isKeyset());
+        }
+    }
+
+    public void testKeysetCursor() {
+        QueryPlan.SqlPlan sqlPlan = QueryPlan.SqlPlan.compile(
+                "select t.id id, t.create_time createTime from u_user t limit #page#,#rows#");
+        QueryPlan.KeysetOrder order = sqlPlan.getKeysetOrder("id", "createTime", true);
+        String cursor = KeysetCursor.encode(order, java.util.Arrays.<Object>asList(new java.sql.Timestamp(0), 10086L));
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        assertTrue(keysetCursor.isSameOrder(order));
+        assertFalse(keysetCursor.isSameOrder(sqlPlan.getKeysetOrder("id", "createTime", false)));
+        assertFalse(keysetCursor.isSameOrder(sqlPlan.getKeysetOrder("id", null, true)));
+        assertEquals(new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new java.util.Date(0)),
+                keysetCursor.getValues().get(0));
+        assertEquals(10086, keysetCursor.getValues().get(1));
+        assertNull(KeysetCursor.decode(""));
+        try {
+            KeysetCursor.decode("abc");
+            fail();
+        } catch (com.java110.common.exception.BusinessException e) {
+            //游标不正确
+        }
+    }
+}
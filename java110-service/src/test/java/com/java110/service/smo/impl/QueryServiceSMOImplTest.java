@@ -0,0 +1,212 @@
+package com.java110.service.smo.impl;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.java110.common.cache.ServiceSqlCache;
+import com.java110.common.constant.CommonConstant;
+import com.java110.common.factory.ApplicationContextFactory;
+import com.java110.entity.service.DataQuery;
+import com.java110.entity.service.ServiceSql;
+import com.java110.service.dao.impl.QueryServiceDAOImpl;
+import com.java110.service.plan.KeysetCursor;
+import com.java110.service.plan.QueryPlanCache;
+import junit.framework.TestCase;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 公用查询测试，使用 H2 内存库(MySQL 模式)，redis 用内存桩代替
+ * Created by wuxw on 2018/4/24.
+ */
+public class QueryServiceSMOImplTest extends TestCase {
+
+    private final Map<String, byte[]> redisData = new ConcurrentHashMap<String, byte[]>();
+
+    private QueryServiceSMOImpl queryServiceSMOImpl;
+
+    private TransactionTemplate transactionTemplate;
+
+    //执行sql 的次数
+    private int executeCount;
+
+    @Override
+    protected void setUp() throws Exception {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("jedisPool", new JedisPool() {
+            @Override
+            public Jedis getResource() {
+                return new Jedis() {
+                    @Override
+                    public byte[] get(byte[] key) {
+                        return redisData.get(new String(key));
+                    }
+
+                    @Override
+                    public String get(String key) {
+                        return null;
+                    }
+
+                    @Override
+                    public String set(byte[] key, byte[] value) {
+                        redisData.put(new String(key), value);
+                        return "OK";
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        });
+        context.refresh();
+        ApplicationContextFactory.setApplicationContext(context);
+        QueryPlanCache.clear();
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + getName() + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=FALSE");
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            statement.execute("create table c_log(log_id int not null, create_time timestamp, msg varchar(50))");
+            //同一时间有多条日志，翻页时需要按 log_id 区分
+            String[] createTimes = {"2018-10-18 10:00:00.000", "2018-10-18 10:00:00.000", "2018-10-18 10:00:00.500",
+                    "2018-10-18 10:00:00.500", "2018-10-18 10:00:00.500", "2018-10-19 08:30:00.000", "2018-10-20 00:00:00.000"};
+            for (int logIndex = 0; logIndex < createTimes.length; logIndex++) {
+                statement.execute("insert into c_log values(" + (7 - logIndex) + ",'" + createTimes[logIndex] + "','日志" + logIndex + "')");
+            }
+            statement.execute("create table f_floor(floor_id varchar(30) not null, floor_num varchar(30))");
+            statement.execute("create table f_room(room_id int not null, floor_id bigint not null, room_num varchar(30))");
+            for (int floorIndex = 1; floorIndex <= 3; floorIndex++) {
+                statement.execute("insert into f_floor values('" + floorIndex + "','" + floorIndex + "号楼')");
+                statement.execute("insert into f_room values(" + floorIndex + "1," + floorIndex + ",'" + floorIndex + "01')");
+                statement.execute("insert into f_room values(" + floorIndex + "2," + floorIndex + ",'" + floorIndex + "02')");
+            }
+            statement.close();
+        } finally {
+            conn.close();
+        }
+
+        Configuration configuration = new Configuration(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        QueryServiceDAOImpl queryServiceDAOImpl = new QueryServiceDAOImpl() {
+            @Override
+            public JSONArray executeSql(String sql, Object[] params, Map<String, Integer> columnTypes) {
+                executeCount++;
+                return super.executeSql(sql, params, columnTypes);
+            }
+        };
+        queryServiceDAOImpl.setSessionTemplate(new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)));
+        queryServiceSMOImpl = new QueryServiceSMOImpl();
+        queryServiceSMOImpl.setQueryServiceDAOImpl(queryServiceDAOImpl);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        QueryPlanCache.clear();
+    }
+
+    /**
+     * 按时间列 keyset 分页，时间相同的行按主键区分，每页之间不重复不遗漏，游标中的时间不是毫秒数
+     */
+    public void testKeysetPageByTimestamp() {
+        addServiceSql("query.log.page", "page,rows",
+                "{\"param1\":\"select l.log_id logId,l.create_time createTime,l.msg msg from c_log l order by l.create_time limit #page#,#rows#\"}",
+                "{\"PARAM\":{\"param1\":\"$.#logs#Array\"},\"TEMPLATE\":{\"logs\":[]}}");
+
+        Set<Integer> logIds = new HashSet<Integer>();
+        long lastCreateTime = 0;
+        String cursor = "";
+        int pageCount = 0;
+        do {
+            JSONObject requestParams = new JSONObject();
+            requestParams.put("page", 1);
+            requestParams.put("rows", 2);
+            requestParams.put(CommonConstant.TEMPLATE_PAGE_CURSOR, cursor);
+            requestParams.put(CommonConstant.TEMPLATE_PAGE_KEY_COL, "logId");
+            JSONObject business = query("query.log.page", requestParams);
+            JSONArray logs = business.getJSONArray("logs");
+            for (int logIndex = 0; logIndex < logs.size(); logIndex++) {
+                JSONObject log = logs.getJSONObject(logIndex);
+                assertTrue("重复的日志 " + log, logIds.add(log.getInteger("logId")));
+                assertTrue(log.getLongValue("createTime") >= lastCreateTime);
+                lastCreateTime = log.getLongValue("createTime");
+            }
+            cursor = business.getString(CommonConstant.TEMPLATE_PAGE_NEXT_CURSOR);
+            if (!"".equals(cursor)) {
+                Object cursorTime = KeysetCursor.decode(cursor).getValues().get(0);
+                assertEquals(java.sql.Timestamp.valueOf(cursorTime.toString()).getTime(), lastCreateTime);
+            }
+            pageCount++;
+        } while (!"".equals(cursor) && pageCount < 10);
+
+        assertEquals(4, pageCount);
+        assertEquals(7, logIds.size());
+    }
+
+    /**
+     * 上级参数是字符串，下级参数列是数字时仍然批量查询，结果按数值分回每个节点
+     */
+    public void testBatchStringParentNumberColumn() {
+        addServiceSql("query.floor.rooms", "floorNum",
+                "{\"param1\":\"select f.floor_id floorId,f.floor_num floorNum from f_floor f where f.floor_num like #floorNum# order by f.floor_id\","
+                        + "\"param2\":\"select r.room_id roomId,r.room_num roomNum from f_room r where r.floor_id = #PARENT_floorId# order by r.room_id\"}",
+                "{\"PARAM\":{\"param1\":\"$.#floors#Array\",\"param2\":\"$.floors#rooms#Array\"},\"TEMPLATE\":{\"floors\":[]}}");
+
+        JSONObject requestParams = new JSONObject();
+        requestParams.put("floorNum", "%号楼");
+        executeCount = 0;
+        JSONArray floors = query("query.floor.rooms", requestParams).getJSONArray("floors");
+
+        assertEquals(2, executeCount);
+        assertEquals(3, floors.size());
+        for (int floorIndex = 0; floorIndex < floors.size(); floorIndex++) {
+            JSONObject floor = floors.getJSONObject(floorIndex);
+            JSONArray rooms = floor.getJSONArray("rooms");
+            assertEquals(2, rooms.size());
+            assertEquals(floor.getString("floorId") + "01", rooms.getJSONObject(0).getString("roomNum"));
+            assertEquals(floor.getString("floorId") + "02", rooms.getJSONObject(1).getString("roomNum"));
+        }
+    }
+
+    private void addServiceSql(String serviceCode, String params, String sql, String template) {
+        ServiceSql serviceSql = new ServiceSql();
+        serviceSql.setServiceCode(serviceCode);
+        serviceSql.setQueryModel(CommonConstant.QUERY_MODEL_SQL);
+        serviceSql.setParams(params);
+        serviceSql.setSql(sql);
+        serviceSql.setTemplate(template);
+        ServiceSqlCache.setServiceSql(serviceSql);
+    }
+
+    private JSONObject query(String serviceCode, JSONObject requestParams) {
+        final DataQuery dataQuery = new DataQuery();
+        dataQuery.setServiceCode(serviceCode);
+        dataQuery.setRequestParams(requestParams);
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                queryServiceSMOImpl.commonQueryService(dataQuery);
+            }
+        });
+        assertEquals(String.valueOf(dataQuery.getResponseEntity().getBody()), 200, dataQuery.getResponseEntity().getStatusCode().value());
+        return dataQuery.getResponseInfo();
+    }
+}